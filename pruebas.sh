@@ -0,0 +1,41 @@
+# Compila cada programa de pruebas/ con -O0, -O1 y -O2, con y sin -retardo, lo ejecuta en
+# SimuladorMips y compara la salida con pruebas/<nombre>.esperado. Usa las clases de bin/
+# (correr build.sh antes). Con -v muestra además instrucciones y ciclos de cada corrida.
+detalle=0
+[ "$1" == "-v" ] && detalle=1
+raiz=$(cd "$(dirname "$0")" && pwd)
+trabajo=$(mktemp -d)
+trap 'rm -rf "$trabajo"' EXIT
+cp "$raiz"/pruebas/*.c "$trabajo"
+cd "$trabajo"
+
+clases="$raiz/bin:$raiz/lib/*"
+fallas=0
+corridas=0
+for programa in "$raiz"/pruebas/*.c; do
+    nombre=$(basename "$programa" .c)
+    for opciones in "-O0" "-O1" "-O2" "-O0 -retardo" "-O1 -retardo" "-O2 -retardo"; do
+        corridas=$((corridas + 1))
+        rm -f "$nombre.c.asm"
+        java -Dfile.encoding=UTF-8 -cp "$clases" Main $opciones "$nombre.c" > compilacion.txt 2>&1
+        if [ ! -f "$nombre.c.asm" ]; then
+            echo "FALLA $nombre $opciones: no compiló"
+            fallas=$((fallas + 1))
+            continue
+        fi
+        java -Dfile.encoding=UTF-8 -cp "$clases" SimuladorMips -entrada /dev/null "$nombre.c.asm" > salida.txt 2> reporte.txt
+        if ! cmp -s salida.txt "$raiz/pruebas/$nombre.esperado" || grep -q "Error de ejecución" reporte.txt; then
+            echo "FALLA $nombre $opciones"
+            grep "Error de ejecución" reporte.txt
+            diff salida.txt "$raiz/pruebas/$nombre.esperado" | head -5
+            fallas=$((fallas + 1))
+        elif [ $detalle -eq 1 ]; then
+            instrucciones=$(grep "Instrucciones ejecutadas" reporte.txt | awk '{print $NF}')
+            ciclos=$(grep "Ciclos estimados" reporte.txt | awk '{print $NF}')
+            printf "ok    %-14s %-12s %10s instrucciones %10s ciclos\n" "$nombre" "$opciones" "$instrucciones" "$ciclos"
+        fi
+    done
+done
+
+echo "$((corridas - fallas)) de $corridas corridas correctas"
+[ $fallas -eq 0 ]
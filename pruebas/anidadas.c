@@ -0,0 +1,22 @@
+world int gg endl
+
+gift int _f_ ¿ int _a_, int _b_ ? ¡
+	return _a_ * 10 + _b_ endl
+!
+
+gift int _g_ ¿ int _x_ ? ¡
+	return _x_ + 4 endl
+!
+
+gift int _h_ ¿ int _a_, int _b_, int _c_ ? ¡
+	return _a_ * 100 + _b_ * 10 + _c_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _r_ = 0 endl
+	show ¿ _f_ ¿ 1 , _g_ ¿ 2 ? ? ? endl
+	_r_ = _h_ ¿ _g_ ¿ 1 ? , 2 , _f_ ¿ 0 , _g_ ¿ 3 ? ? ? endl
+	show ¿ _r_ ? endl
+	show ¿ _f_ ¿ _g_ ¿ _g_ ¿ 0 ? ? , _f_ ¿ 0 , 1 ? ? ? endl
+	return endl
+!
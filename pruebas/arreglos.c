@@ -0,0 +1,21 @@
+ world int gg endl
+
+gift int _id_ ¿ int _v_ ? ¡
+	return _v_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _m_[3][4] endl
+	for ¿ local int _i_ = 0 endl _i_ < 3 endl ++_i_ ? ¡
+		for ¿ local int _j_ = 0 endl _j_ < 4 endl ++_j_ ? ¡
+			_m_[_i_][_j_] = _i_ * 10 + _j_ endl
+		!
+	!
+	local int _s_ = 0 endl
+	for ¿ local int _k_ = 0 endl _k_ < 3 endl ++_k_ ? ¡
+		_s_ = _s_ + _m_[_k_][3] + _m_[_k_][0] endl
+	!
+	show ¿ _s_ ? endl
+	show ¿ _m_[2][1] ? endl
+	return endl
+!
@@ -0,0 +1,38 @@
+ world int gg endl
+
+gift int _suma_ ¿ int _a_, int _b_ ? ¡
+	local int _r_ = _a_ + _b_ endl
+	return _r_ endl
+!
+
+gift int _fact_ ¿ int _n_ ? ¡
+	local int _acc_ = 1 endl
+	for ¿ local int _i_ = 1 endl _i_ <= _n_ endl ++_i_ ? ¡
+		_acc_ = _acc_ * _i_ endl
+	!
+	return _acc_ endl
+!
+
+gift int _nunca_ ¿ ? ¡
+	return 7 endl
+!
+
+coal navidad ¿ ? ¡
+	local int _x_ = 3 + 4 * 2 endl
+	local int _y_ = _suma_ ¿ _x_, 5 ? endl
+	show ¿ _y_ ? endl
+	local int _k_ = 0 endl
+	loop
+		_k_ = _k_ + 1 endl
+	exit when ¿ _k_ >= 10 ? endl
+	end loop endl
+	show ¿ _k_ ? endl
+	decide of
+		_k_ == 1 -> ¡ show ¿ "uno" ? endl !
+		_k_ == 10 -> ¡ show ¿ "diez" ? endl !
+	end decide endl
+	show ¿ _fact_ ¿ 5 ? ? endl
+	show ¿ 17 % 5 ? endl
+	show ¿ 2 ^ 10 ? endl
+	return endl
+!
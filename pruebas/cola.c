@@ -0,0 +1,41 @@
+world int gg endl
+
+gift int _suma_ ¿ int _n_, int _acc_ ? ¡
+	local int _c_ endl
+	_c_ = _c_ + 1 endl
+	gg = gg + _c_ endl
+	decide of
+		_n_ == 0 -> ¡ return _acc_ endl !
+	end decide endl
+	return _suma_ ¿ _n_ - 1, _acc_ + _n_ ? endl
+!
+
+gift float _fl_ ¿ float _x_, int _k_ ? ¡
+	decide of
+		_k_ == 0 -> ¡ return _x_ endl !
+	end decide endl
+	return _gl_ ¿ _x_ * 2.0, _k_ - 1 ? endl
+!
+
+gift float _gl_ ¿ float _x_, int _k_ ? ¡
+	decide of
+		_k_ == 0 -> ¡ return _x_ endl !
+	end decide endl
+	return _fl_ ¿ _x_ + 1.0, _k_ - 1 ? endl
+!
+
+gift int _cinco_ ¿ int _a_, int _b_, int _c_, int _d_, int _e_ ? ¡
+	decide of
+		_a_ == 0 -> ¡ return _b_ + _c_ + _d_ + _e_ endl !
+	end decide endl
+	return _cinco_ ¿ _a_ - 1, _c_, _b_, _e_, _d_ + 1 ? endl
+!
+
+coal navidad ¿ ? ¡
+	gg = 0 endl
+	show ¿ _suma_ ¿ 1000, 0 ? ? endl
+	show ¿ gg ? endl
+	show ¿ _fl_ ¿ 1.0, 5 ? ? endl
+	show ¿ _cinco_ ¿ 7, 1, 2, 3, 4 ? ? endl
+	return endl
+!
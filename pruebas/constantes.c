@@ -0,0 +1,43 @@
+ world int gc endl
+
+gift int _doble_ ¿ int _v_ ? ¡
+	local int _k_ = 2 * 3 - 4 endl
+	return _v_ * _k_ endl
+!
+
+coal navidad ¿ ? ¡
+	local char _ch_ = 'x' endl
+	local bool _b_ = true endl
+	local bool _nb_ = Σ _b_ endl
+	local int _p_ = 2 ^ 10 endl
+	local int _d_ = -17 // 5 endl
+	local int _m_ = -17 % 5 endl
+	local float _f_ = 1.5 * 4.0 - 0.25 endl
+	local float _g_ = _f_ / 2 endl
+	local int _c_ = 3 < 4 endl
+	local bool _y_ = 3 < 4 @ 5 > 6 endl
+	local bool _o_ = 3 < 4 ~ 5 > 6 endl
+	local int _s_ = 1 + 2 + 3 + 4 endl
+	show ¿ _ch_ ? endl
+	show ¿ _b_ ? endl
+	show ¿ _nb_ ? endl
+	show ¿ _p_ ? endl
+	show ¿ _d_ ? endl
+	show ¿ _m_ ? endl
+	show ¿ _f_ ? endl
+	show ¿ _g_ ? endl
+	show ¿ _c_ ? endl
+	show ¿ _y_ ? endl
+	show ¿ _o_ ? endl
+	show ¿ _s_ ? endl
+	show ¿ _doble_ ¿ _s_ ? ? endl
+	show ¿ _f_ > 5.0 ? endl
+	show ¿ true ? endl
+	gc = _p_ + 1 endl
+	show ¿ gc ? endl
+	decide of
+		_s_ > 100 -> ¡ show ¿ "nunca" ? endl !
+		else -> ¡ show ¿ "siempre" ? endl !
+	end decide endl
+	return endl
+!
@@ -0,0 +1,25 @@
+world int gg endl
+
+gift bool _marca_ ¿ int _v_ ? ¡
+	gg = gg + _v_ endl
+	return true endl
+!
+
+coal navidad ¿ ? ¡
+	local int _a_ = 0 endl
+	local bool _b_ = false endl
+	gg = 0 endl
+	decide of
+		_a_ == 1 @ _marca_ ¿ 1 ? -> ¡ _a_ = 5 endl !
+	end decide endl
+	decide of
+		_a_ == 0 ~ _marca_ ¿ 10 ? -> ¡ _a_ = 7 endl !
+	end decide endl
+	_b_ = _a_ == 7 @ _marca_ ¿ 100 ? endl
+	decide of
+		Σ _b_ ~ _marca_ ¿ 1000 ? -> ¡ _a_ = _a_ + 1 endl !
+	end decide endl
+	show ¿ _a_ ? endl
+	show ¿ gg ? endl
+	return endl
+!
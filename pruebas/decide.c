@@ -0,0 +1,37 @@
+gift int _dia_ ¿ int _d_ ? ¡
+	local int _r_ = 0 endl
+	decide of
+		_d_ == 0 -> ¡ _r_ = 10 endl !
+		_d_ == 1 -> ¡ _r_ = 11 endl !
+		_d_ == 2 -> ¡ _r_ = 12 endl !
+		_d_ == 3 -> ¡ _r_ = 13 endl !
+		_d_ == 4 -> ¡ _r_ = 14 endl !
+		_d_ == 5 -> ¡ _r_ = 15 endl !
+		_d_ == 6 -> ¡ _r_ = 16 endl !
+		else -> ¡ _r_ = -1 endl !
+	end decide endl
+	return _r_ endl
+!
+
+gift int _raro_ ¿ int _d_ ? ¡
+	local int _r_ = 0 endl
+	decide of
+		_d_ == 3 -> ¡ _r_ = 1 endl !
+		_d_ == 100 -> ¡ _r_ = 2 endl !
+		_d_ == 5000 -> ¡ _r_ = 3 endl !
+		_d_ == -7 -> ¡ _r_ = 4 endl !
+		_d_ == 42 -> ¡ _r_ = 5 endl !
+	end decide endl
+	return _r_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _s_ = 0 endl
+	for ¿ local int _i_ = -2 endl _i_ < 10 endl ++_i_ ? ¡
+		_s_ = _s_ + _dia_ ¿ _i_ ? endl
+		show ¿ _dia_ ¿ _i_ ? ? endl
+	!
+	show ¿ _s_ ? endl
+	show ¿ _raro_ ¿ 5000 ? + _raro_ ¿ -7 ? * 10 + _raro_ ¿ 4 ? ? endl
+	return endl
+!
@@ -0,0 +1,21 @@
+ world int gg endl
+
+gift int _id_ ¿ int _v_ ? ¡
+	return _v_ endl
+!
+
+coal navidad ¿ ? ¡
+	gg = 2147483647 endl
+	local int _m_ = 2147483647 endl
+	show ¿ _m_ + 1 ? endl
+	show ¿ gg + 1 ? endl
+	local int _n_ = 0 - gg endl
+	show ¿ _n_ - 2 ? endl
+	show ¿ gg + gg ? endl
+	local int _s_ = 1 endl
+	for ¿ local int _i_ = 0 endl _i_ < 40 endl ++_i_ ? ¡
+		_s_ = _s_ + _s_ + _i_ endl
+	!
+	show ¿ _s_ ? endl
+	return endl
+!
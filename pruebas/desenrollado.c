@@ -0,0 +1,14 @@
+world int gg endl
+
+gift int _id_ ¿ int _v_ ? ¡
+	return _v_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _s_ = 0 endl
+	for ¿ local int _i_ = 20 endl _i_ >= 10 endl --_i_ ? ¡
+		_s_ = _s_ + _i_ endl
+	!
+	show ¿ _s_ ? endl
+	return endl
+!
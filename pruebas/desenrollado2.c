@@ -0,0 +1,26 @@
+world int gg endl
+
+gift int _id_ ¿ int _v_ ? ¡
+	return _v_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _s_ = 0 endl
+	local int _p_ = 0 endl
+	for ¿ local int _i_ = 0 endl _i_ < 40 endl ++_i_ ? ¡
+		decide of _i_ % 3 == 0 -> ¡ _s_ = _s_ + _i_ endl ! else -> ¡ _p_ = _p_ + 1 endl ! end decide endl
+	!
+	show ¿ _s_ ? endl
+	show ¿ _p_ ? endl
+	local int _k_ = 3 endl
+	loop
+		_s_ = _s_ * 2 endl
+		_k_ = _k_ - 1 endl
+		exit when ¿ _k_ == 0 ? endl
+	end loop endl
+	show ¿ _s_ ? endl
+	for ¿ local int _j_ = 5 endl _j_ < 3 endl ++_j_ ? ¡
+		show ¿ _j_ ? endl
+	!
+	return endl
+!
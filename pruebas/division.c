@@ -0,0 +1,25 @@
+gift int _prom_ ¿ int _a_, int _b_ ? ¡
+	return ¿ _a_ + _b_ ? / 2 endl
+!
+
+coal navidad ¿ ? ¡
+	local int _x_ = 100 endl
+	local int _y_ = -37 endl
+	show ¿ _x_ / 7 ? endl
+	show ¿ _x_ % 7 ? endl
+	show ¿ _y_ / 4 ? endl
+	show ¿ _y_ % 4 ? endl
+	show ¿ _y_ / 8 ? endl
+	show ¿ _x_ / _y_ ? endl
+	show ¿ _x_ % _y_ ? endl
+	show ¿ _prom_ ¿ 9, 4 ? ? endl
+	local int _s_ = 0 endl
+	for ¿ local int _i_ = 1 endl _i_ <= 50 endl ++_i_ ? ¡
+		_s_ = _s_ + _i_ / 3 + _i_ % 10 + _i_ * 8 endl
+	!
+	show ¿ _s_ ? endl
+	show ¿ 2 ^ 0 ? endl
+	show ¿ 3 ^ 5 ? endl
+	show ¿ _x_ ^ 2 ? endl
+	return endl
+!
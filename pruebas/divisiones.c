@@ -0,0 +1,132 @@
+world int gg endl
+
+gift int _id_ ¿ int _v_ ? ¡
+	return _v_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _a_[1][18] endl
+	_a_[0][0] = 0 endl
+	_a_[0][1] = 1 endl
+	_a_[0][2] = -1 endl
+	_a_[0][3] = 2 endl
+	_a_[0][4] = -2 endl
+	_a_[0][5] = 7 endl
+	_a_[0][6] = -7 endl
+	_a_[0][7] = 100 endl
+	_a_[0][8] = -100 endl
+	_a_[0][9] = 12345 endl
+	_a_[0][10] = -12345 endl
+	_a_[0][11] = 2147483647 endl
+	_a_[0][12] = -2147483647 endl
+	_a_[0][13] = 0 - 2147483647 - 1 endl
+	_a_[0][14] = 65535 endl
+	_a_[0][15] = -65536 endl
+	_a_[0][16] = 999999 endl
+	_a_[0][17] = -999999 endl
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 1 ? endl
+		show ¿ _a_[0][_i_] % 1 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / -1 ? endl
+		show ¿ _a_[0][_i_] % -1 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 2 ? endl
+		show ¿ _a_[0][_i_] % 2 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / -2 ? endl
+		show ¿ _a_[0][_i_] % -2 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 3 ? endl
+		show ¿ _a_[0][_i_] % 3 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / -3 ? endl
+		show ¿ _a_[0][_i_] % -3 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 5 ? endl
+		show ¿ _a_[0][_i_] % 5 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 7 ? endl
+		show ¿ _a_[0][_i_] % 7 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / -7 ? endl
+		show ¿ _a_[0][_i_] % -7 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 8 ? endl
+		show ¿ _a_[0][_i_] % 8 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 10 ? endl
+		show ¿ _a_[0][_i_] % 10 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 16 ? endl
+		show ¿ _a_[0][_i_] % 16 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / -16 ? endl
+		show ¿ _a_[0][_i_] % -16 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 100 ? endl
+		show ¿ _a_[0][_i_] % 100 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 641 ? endl
+		show ¿ _a_[0][_i_] % 641 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 1000 ? endl
+		show ¿ _a_[0][_i_] % 1000 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 1000003 ? endl
+		show ¿ _a_[0][_i_] % 1000003 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 65536 ? endl
+		show ¿ _a_[0][_i_] % 65536 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 131072 ? endl
+		show ¿ _a_[0][_i_] % 131072 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / -131072 ? endl
+		show ¿ _a_[0][_i_] % -131072 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 2147483647 ? endl
+		show ¿ _a_[0][_i_] % 2147483647 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / -2147483647 ? endl
+		show ¿ _a_[0][_i_] % -2147483647 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 6 ? endl
+		show ¿ _a_[0][_i_] % 6 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 12 ? endl
+		show ¿ _a_[0][_i_] % 12 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 25 ? endl
+		show ¿ _a_[0][_i_] % 25 ? endl
+	!
+	for ¿ local int _i_ = 0 endl _i_ < 18 endl ++_i_ ? ¡
+		show ¿ _a_[0][_i_] / 125 ? endl
+		show ¿ _a_[0][_i_] % 125 ? endl
+	!
+	return endl
+!
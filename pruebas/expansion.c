@@ -0,0 +1,36 @@
+world int gg endl
+
+gift int _doble_ ¿ int _x_ ? ¡
+	return _x_ * 2 endl
+!
+
+gift int _cuad_ ¿ int _x_ ? ¡
+	return _doble_ ¿ _x_ ? * _x_ endl
+!
+
+gift int _absol_ ¿ int _x_ ? ¡
+	decide of
+		_x_ < 0 -> ¡ return 0 - _x_ endl !
+	end decide endl
+	gg = gg + 1 endl
+	return _x_ endl
+!
+
+gift float _mitad_ ¿ float _y_ ? ¡
+	return _y_ / 2.0 endl
+!
+
+coal navidad ¿ ? ¡
+	local int _s_ = 0 endl
+	local int _k_ = 0 endl
+	gg = 0 endl
+	loop
+		_s_ = _s_ + _cuad_ ¿ _k_ ? + _absol_ ¿ _k_ - 3 ? endl
+		_k_ = _k_ + 1 endl
+		exit when ¿ _k_ > 5 ? endl
+	end loop endl
+	show ¿ _s_ ? endl
+	show ¿ gg ? endl
+	show ¿ _mitad_ ¿ 5.0 ? ? endl
+	return endl
+!
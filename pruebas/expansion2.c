@@ -0,0 +1,19 @@
+world int gg endl
+
+gift int _cuenta_ ¿ int _x_ ? ¡
+	local int _c_ endl
+	_c_ = _c_ + _x_ endl
+	return _c_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _s_ = 0 endl
+	local int _k_ = 0 endl
+	loop
+		_s_ = _s_ + _cuenta_ ¿ _k_ ? endl
+		_k_ = _k_ + 1 endl
+		exit when ¿ _k_ > 4 ? endl
+	end loop endl
+	show ¿ _s_ ? endl
+	return endl
+!
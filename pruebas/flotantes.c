@@ -0,0 +1,26 @@
+ world float gf endl
+
+gift float _area_ ¿ float _r_ ? ¡
+	return 3.5 * _r_ * _r_ endl
+!
+
+coal navidad ¿ ? ¡
+	local float _x_ = 1.5 endl
+	local float _y_ = 2.25 endl
+	local int _n_ = 4 endl
+	local float _z_ = _x_ * _y_ + _n_ endl
+	show ¿ _z_ ? endl
+	show ¿ _x_ < _y_ ? endl
+	show ¿ _area_ ¿ 2.0 ? ? endl
+	gf = _z_ - _x_ endl
+	show ¿ gf ? endl
+	local int _k_ = 0 endl
+	loop
+		_x_ = _x_ * 2.0 endl
+		_k_ = _k_ + 1 endl
+	exit when ¿ _x_ > 100.0 ? endl
+	end loop endl
+	show ¿ _k_ ? endl
+	show ¿ _x_ ? endl
+	return endl
+!
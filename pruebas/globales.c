@@ -0,0 +1,24 @@
+ world int gi = 5 endl
+ world float gz = 2.5 endl
+ world int gc endl
+
+gift int _incr_ ¿ int _d_ ? ¡
+	gc = gc + _d_ endl
+	gi = gi * 2 endl
+	return gc endl
+!
+
+gift float _mix_ ¿ float _a_, int _b_, float _c_, int _d_, float _e_, int _f_ ? ¡
+	return _a_ + _b_ + _c_ * _d_ + _e_ - _f_ + gz endl
+!
+
+coal navidad ¿ ? ¡
+	show ¿ gi ? endl
+	show ¿ gz ? endl
+	for ¿ local int _i_ = 1 endl _i_ <= 4 endl ++_i_ ? ¡
+		show ¿ _incr_ ¿ _i_ ? ? endl
+	!
+	show ¿ gi ? endl
+	show ¿ _mix_ ¿ 1.5, 2, 0.5, 4, 0.25, 3 ? ? endl
+	return endl
+!
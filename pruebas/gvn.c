@@ -0,0 +1,19 @@
+ world int gg endl
+
+gift int _f_ ¿ int _a_, int _b_ ? ¡
+	local int _x_ = _a_ * _b_ + 7 endl
+	local int _y_ = 0 endl
+	decide of _x_ > 10 -> ¡
+		_y_ = _a_ * _b_ + 7 endl
+	! else -> ¡
+		_y_ = _b_ * _a_ endl
+	! end decide endl
+	local int _z_ = _a_ * _b_ endl
+	return _x_ + _y_ + _z_ endl
+!
+
+coal navidad ¿ ? ¡
+	show ¿ _f_ ¿ 3, 4 ? ? endl
+	show ¿ _f_ ¿ 1, 2 ? ? endl
+	return endl
+!
@@ -0,0 +1,33 @@
+world int gg endl
+
+gift int _id_ ¿ int _v_ ? ¡
+	return _v_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _v_[4][6] endl
+	local int _n_ = 5 endl
+	local int _i_ = 0 endl
+	for ¿ local int _f_ = 0 endl _f_ < 4 endl ++_f_ ? ¡
+		for ¿ local int _c_ = 0 endl _c_ < 6 endl ++_c_ ? ¡
+			_v_[_f_][_c_] = _f_ * _n_ + _c_ * 3 endl
+		!
+	!
+	local int _s_ = 0 endl
+	loop
+		_s_ = _s_ + _v_[_i_][1] + _i_ * 7 endl
+		_i_ = _i_ + 2 endl
+		exit when ¿ _i_ >= 4 ? endl
+	end loop endl
+	show ¿ _s_ ? endl
+	show ¿ _i_ ? endl
+	local int _d_ = 10 endl
+	local int _t_ = 0 endl
+	loop
+		_t_ = _t_ - _d_ * 6 endl
+		_d_ = _d_ - 1 endl
+		exit when ¿ _d_ == 0 ? endl
+	end loop endl
+	show ¿ _t_ ? endl
+	return endl
+!
@@ -0,0 +1,52 @@
+world int gg endl
+
+gift int _cuenta_ ¿ int _x_ ? ¡
+	local int _r_ = 0 endl
+	local bool _b_ = false endl
+	decide of
+		_x_ <= 32767 -> ¡ _r_ = _r_ + 1 endl !
+	end decide endl
+	decide of
+		_x_ > 32767 -> ¡ _r_ = _r_ + 10 endl !
+	end decide endl
+	decide of
+		0 - 32768 < _x_ -> ¡ _r_ = _r_ + 100 endl !
+	end decide endl
+	decide of
+		_x_ >= 100000 -> ¡ _r_ = _r_ + 1000 endl !
+	end decide endl
+	_b_ = 5 >= _x_ endl
+	decide of
+		_b_ -> ¡ _r_ = _r_ + 10000 endl !
+	end decide endl
+	_b_ = _x_ != 0 endl
+	decide of
+		_b_ -> ¡ _r_ = _r_ + 100000 endl !
+	end decide endl
+	_b_ = _x_ > 0 - 2 endl
+	decide of
+		_b_ -> ¡ _r_ = _r_ + 1000000 endl !
+	end decide endl
+	return _r_ endl
+!
+
+gift int _mezcla_ ¿ int _x_ ? ¡
+	local int _r_ = 0 endl
+	_r_ = _x_ + 100000 endl
+	_r_ = _r_ - 32768 endl
+	_r_ = _r_ + 0 - 40000 endl
+	_r_ = _r_ + 65536 endl
+	return _r_ endl
+!
+
+coal navidad ¿ ? ¡
+	show ¿ _cuenta_ ¿ 0 ? ? endl
+	show ¿ _cuenta_ ¿ 32767 ? ? endl
+	show ¿ _cuenta_ ¿ 32768 ? ? endl
+	show ¿ _cuenta_ ¿ 0 - 32768 ? ? endl
+	show ¿ _cuenta_ ¿ 100000 ? ? endl
+	show ¿ _cuenta_ ¿ 5 ? ? endl
+	show ¿ _cuenta_ ¿ 0 - 2 ? ? endl
+	show ¿ _mezcla_ ¿ 7 ? ? endl
+	return endl
+!
@@ -0,0 +1,24 @@
+ world int gg endl
+
+gift int _f_ ¿ int _a_, int _b_ ? ¡
+	local int _s_ = 0 endl
+	local int _m_[4][5] endl
+	for ¿ local int _i_ = 0 endl _i_ < 4 endl ++_i_ ? ¡
+		for ¿ local int _j_ = 0 endl _j_ < 5 endl ++_j_ ? ¡
+			_m_[_i_][_j_] = _a_ * _b_ + _i_ * 7 + _j_ endl
+		!
+	!
+	local int _k_ = 0 endl
+	loop
+		_s_ = _s_ + _m_[_k_][_a_ - 1] + _a_ % 3 endl
+		_k_ = _k_ + 1 endl
+	exit when ¿ _k_ >= 4 ? endl
+	end loop endl
+	return _s_ endl
+!
+
+coal navidad ¿ ? ¡
+	show ¿ _f_ ¿ 3, 4 ? ? endl
+	show ¿ _f_ ¿ 2, 2 ? ? endl
+	return endl
+!
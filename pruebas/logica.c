@@ -0,0 +1,27 @@
+gift bool _positivo_ ¿ int _v_ ? ¡
+	return _v_ > 0 endl
+!
+
+coal navidad ¿ ? ¡
+	local int _a_ = 5 endl
+	local int _b_ = -3 endl
+	local bool _c1_ = _a_ > 0 @ _b_ > 0 endl
+	local bool _c2_ = _a_ > 0 ~ _b_ > 0 endl
+	local bool _c3_ = Σ _c1_ endl
+	show ¿ _c1_ ? endl
+	show ¿ _c2_ ? endl
+	show ¿ _c3_ ? endl
+	decide of
+		_positivo_ ¿ _a_ ? @ _positivo_ ¿ _b_ ? -> ¡ show ¿ "ambos" ? endl !
+		_positivo_ ¿ _a_ ? ~ _positivo_ ¿ _b_ ? -> ¡ show ¿ "alguno" ? endl !
+	end decide endl
+	local int _cnt_ = 0 endl
+	for ¿ local int _i_ = 0 endl _i_ < 30 endl ++_i_ ? ¡
+		decide of
+			_i_ % 3 == 0 @ _i_ % 5 == 0 -> ¡ _cnt_ = _cnt_ + 100 endl !
+			_i_ % 3 == 0 ~ _i_ % 5 == 0 -> ¡ _cnt_ = _cnt_ + 1 endl !
+		end decide endl
+	!
+	show ¿ _cnt_ ? endl
+	return endl
+!
@@ -0,0 +1,34 @@
+world int gg endl
+
+gift int _pot_ ¿ int _b_, int _e_ ? ¡
+	return _b_ ^ _e_ endl
+!
+
+gift float _potf_ ¿ float _b_, int _e_ ? ¡
+	return _b_ ^ _e_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _x_ = 3 endl
+	local float _y_ = 1.5 endl
+	local int _k_ = 0 endl
+	local int _s_ = 0 endl
+	show ¿ _x_ ^ 2 ? endl
+	show ¿ _x_ ^ 5 ? endl
+	show ¿ _x_ ^ 0 ? endl
+	show ¿ _x_ ^ 13 ? endl
+	show ¿ _y_ ^ 3 ? endl
+	show ¿ _y_ ^ 4 ? endl
+	show ¿ 2 ^ 10 ? endl
+	show ¿ 1.5 ^ 3 ? endl
+	loop
+		_s_ = _s_ + _pot_ ¿ 2, _k_ ? endl
+		_k_ = _k_ + 1 endl
+		exit when ¿ _k_ > 10 ? endl
+	end loop endl
+	show ¿ _s_ ? endl
+	show ¿ _pot_ ¿ 7, 0 - 1 ? ? endl
+	show ¿ _potf_ ¿ 1.1, 7 ? ? endl
+	show ¿ _x_ ^ 1000 ? endl
+	return endl
+!
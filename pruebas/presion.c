@@ -0,0 +1,46 @@
+ world int gg endl
+
+gift int _mezcla_ ¿ int _a_, int _b_, int _c_ ? ¡
+	local int _p_ = _a_ * 3 endl
+	local int _q_ = _b_ - 2 endl
+	local int _r_ = _c_ + _a_ endl
+	local int _s_ = _p_ + _q_ endl
+	local int _t_ = _q_ * _r_ endl
+	local int _u_ = _s_ - _t_ endl
+	local int _v_ = _p_ + _q_ + _r_ + _s_ + _t_ + _u_ endl
+	return _v_ + _a_ + _b_ + _c_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _total_ = 0 endl
+	local int _j_ = 0 endl
+	local int _m1_ = 1 endl
+	local int _m2_ = 2 endl
+	local int _m3_ = 3 endl
+	local int _m4_ = 4 endl
+	local int _m5_ = 5 endl
+	local int _m6_ = 6 endl
+	local int _m7_ = 7 endl
+	local int _m8_ = 8 endl
+	local int _m9_ = 9 endl
+	local int _m10_ = 10 endl
+	local int _m11_ = 11 endl
+	local int _m12_ = 12 endl
+	local int _m13_ = 13 endl
+	local int _m14_ = 14 endl
+	local int _m15_ = 15 endl
+	local int _m16_ = 16 endl
+	for ¿ local int _i_ = 0 endl _i_ < 20 endl ++_i_ ? ¡
+		_total_ = _total_ + _i_ * _m1_ + _m2_ - _m3_ + _m4_ endl
+		_m1_ = _m1_ + _m5_ - _m6_ + _m7_ - _m8_ + 1 endl
+		_j_ = _j_ + _m9_ + _m10_ - _m11_ - _m12_ + _m13_ + _m14_ - _m15_ - _m16_ endl
+	!
+	show ¿ _total_ ? endl
+	show ¿ _m1_ ? endl
+	show ¿ _j_ ? endl
+	show ¿ _mezcla_ ¿ 2, 5, 7 ? ? endl
+	show ¿ _m1_ + _m2_ + _m3_ + _m4_ + _m5_ + _m6_ + _m7_ + _m8_ + _m9_ + _m10_ + _m11_ + _m12_ + _m13_ + _m14_ + _m15_ + _m16_ ? endl
+	gg = _mezcla_ ¿ _m1_, _m2_, _m3_ ? endl
+	show ¿ gg ? endl
+	return endl
+!
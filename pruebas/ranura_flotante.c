@@ -0,0 +1,33 @@
+world int gg endl
+
+gift float _elige_ ¿ int _v_ ? ¡
+	gg = gg + _v_ * 2 endl
+	gg = gg + _v_ * 3 endl
+	gg = gg + _v_ * 4 endl
+	gg = gg + _v_ * 5 endl
+	gg = gg + _v_ * 6 endl
+	gg = gg + _v_ * 7 endl
+	gg = gg + _v_ * 8 endl
+	gg = gg + _v_ * 9 endl
+	gg = gg + _v_ * 10 endl
+	gg = gg + _v_ * 11 endl
+	gg = gg + _v_ * 12 endl
+	gg = gg + _v_ * 13 endl
+	decide of
+		_v_ > 3 -> ¡ return 2.5 endl !
+	end decide endl
+	return 1.5 endl
+!
+
+coal navidad ¿ ? ¡
+	local float _s_ = 0.0 endl
+	gg = 0 endl
+	for ¿ local int _i_ = 0 endl _i_ < 6 endl ++_i_ ? ¡
+		_s_ = _s_ + _elige_ ¿ _i_ ? endl
+	!
+	show ¿ _s_ ? endl
+	show ¿ _elige_ ¿ 1 ? ? endl
+	show ¿ _elige_ ¿ 9 ? ? endl
+	show ¿ gg ? endl
+	return endl
+!
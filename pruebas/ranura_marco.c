@@ -0,0 +1,16 @@
+world int gg endl
+
+gift int _llena_ ¿ int _n_ ? ¡
+	local int _m_[100][100] endl
+	decide of
+		_n_ <= 0 -> ¡ return 0 endl !
+	end decide endl
+	_m_[_n_][_n_] = _n_ * 3 endl
+	return _m_[_n_][_n_] + _llena_ ¿ _n_ - 1 ? endl
+!
+
+coal navidad ¿ ? ¡
+	show ¿ _llena_ ¿ 10 ? ? endl
+	show ¿ _llena_ ¿ 3 ? ? endl
+	return endl
+!
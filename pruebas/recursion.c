@@ -0,0 +1,47 @@
+gift int _fib_ ¿ int _n_ ? ¡
+	decide of
+		_n_ < 2 -> ¡ return _n_ endl !
+	end decide endl
+	return _fib_ ¿ _n_ - 1 ? + _fib_ ¿ _n_ - 2 ? endl
+!
+
+gift int _fact_ ¿ int _n_ ? ¡
+	decide of
+		_n_ <= 1 -> ¡ return 1 endl !
+	end decide endl
+	return _n_ * _fact_ ¿ _n_ - 1 ? endl
+!
+
+gift int _suma6_ ¿ int _a_, int _b_, int _c_, int _d_, int _e_, int _f_ ? ¡
+	return _a_ + _b_ * 2 + _c_ * 3 + _d_ * 4 + _e_ * 5 + _f_ * 6 endl
+!
+
+gift int _cuenta_ ¿ int _n_, int _acc_ ? ¡
+	decide of
+		_n_ == 0 -> ¡ return _acc_ endl !
+	end decide endl
+	return _cuenta_ ¿ _n_ - 1, _acc_ + _n_ ? endl
+!
+
+gift int _par_ ¿ int _n_ ? ¡
+	decide of
+		_n_ == 0 -> ¡ return 1 endl !
+	end decide endl
+	return _impar_ ¿ _n_ - 1 ? endl
+!
+
+gift int _impar_ ¿ int _n_ ? ¡
+	decide of
+		_n_ == 0 -> ¡ return 0 endl !
+	end decide endl
+	return _par_ ¿ _n_ - 1 ? endl
+!
+
+coal navidad ¿ ? ¡
+	show ¿ _fib_ ¿ 15 ? ? endl
+	show ¿ _fact_ ¿ 10 ? ? endl
+	show ¿ _suma6_ ¿ 1, 2, 3, 4, 5, 6 ? ? endl
+	show ¿ _cuenta_ ¿ 1000, 0 ? ? endl
+	show ¿ _par_ ¿ 37 ? ? endl
+	return endl
+!
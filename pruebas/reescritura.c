@@ -0,0 +1,23 @@
+ world int gg endl
+
+gift int _id_ ¿ int _v_ ? ¡
+	return _v_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _a_[2][5] endl
+	for ¿ local int _i_ = 0 endl _i_ < 5 endl ++_i_ ? ¡
+		_a_[1][_i_] = _i_ + 7 endl
+	!
+	local int _s_ = 0 endl
+	for ¿ local int _j_ = 0 endl _j_ < 5 endl ++_j_ ? ¡
+		local int _x_ = _a_[1][_j_] endl
+		_a_[1][_j_] = _x_ * _x_ endl
+		_s_ = _s_ + _a_[1][_j_] endl
+	!
+	show ¿ _s_ ? endl
+	local int _y_ = _a_[1][3] endl
+	_a_[1][3] = _y_ + 5 endl
+	show ¿ _y_ + _a_[1][3] ? endl
+	return endl
+!
@@ -0,0 +1,37 @@
+ world int gg endl
+
+gift int _f_ ¿ int _x_, int _y_ ? ¡
+	return _x_ * 3 - _y_ endl
+!
+
+coal navidad ¿ ? ¡
+	gg = 3 endl
+	local int _a_ = 2 endl
+	local int _d_ = 6 endl
+	local int _e_ = 4 endl
+	loop
+		for ¿ local int _i_ = 2 endl _i_ < 8 endl ++_i_ ? ¡
+			_e_ = _f_ ¿ _f_ ¿ _a_ , _a_ ? , -1 ? - _d_ endl
+		!
+	exit when ¿ _a_ > 0 ~ ¿ 19 > 4 ? ? endl
+	end loop endl
+	decide of
+		_e_ == gg -> ¡ _a_ = gg endl !
+		else -> ¡ _e_ = _e_ * 2 endl !
+	end decide endl
+	show ¿ _e_ ? endl
+	show ¿ _a_ ? endl
+	local int _u_ = 0 endl
+	local int _p_ = 0 endl
+	local int _q_ = 1 endl
+	loop
+		local int _r_ = _p_ + _q_ endl
+		_p_ = _q_ endl
+		_q_ = _r_ endl
+		_u_ = _u_ + 1 endl
+	exit when ¿ _q_ > 50 ? endl
+	end loop endl
+	show ¿ _u_ ? endl
+	show ¿ _p_ ? endl
+	return endl
+!
@@ -0,0 +1,31 @@
+world int gg endl
+
+gift int _val_ ¿ char _c_ ? ¡
+	local int _r_ = 0 endl
+	decide of
+		_c_ == 'a' -> ¡ _r_ = 1 endl !
+		_c_ == 'b' -> ¡ _r_ = 2 endl !
+		_c_ == 'd' -> ¡ _r_ = 4 endl !
+		_c_ == 'e' -> ¡ _r_ = 5 endl !
+		_c_ == 'b' -> ¡ _r_ = 99 endl !
+		else -> ¡ _r_ = 0 - 1 endl !
+	end decide endl
+	return _r_ endl
+!
+
+coal navidad ¿ ? ¡
+	local int _s_ = 0 endl
+	local int _k_ = 0 endl
+	loop
+		decide of
+			_k_ == 1 -> ¡ _s_ = _s_ + 10 endl !
+			_k_ == 2 -> ¡ _s_ = _s_ * 2 endl !
+			_k_ == 7 -> ¡ _s_ = _s_ - 3 endl !
+		end decide endl
+		_k_ = _k_ + 1 endl
+		exit when ¿ _k_ > 8 ? endl
+	end loop endl
+	show ¿ _s_ ? endl
+	show ¿ _val_ ¿ 'a' ? + _val_ ¿ 'b' ? + _val_ ¿ 'e' ? + _val_ ¿ 'c' ? ? endl
+	return endl
+!
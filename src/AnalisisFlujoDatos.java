@@ -0,0 +1,223 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+// Motor genérico de análisis de flujo de datos sobre los bloques de un GrafoFlujo,
+// con conjuntos de bits y transferencias de la forma out = gen ∪ (in - kill).
+// Cada análisis concreto indica su dirección, su confluencia (∪ para "en algún
+// camino", ∩ para "en todos") y el gen/kill de cada instrucción; el motor compone
+// los de cada bloque y resuelve con una lista de trabajo recorriendo los bloques en
+// postorden inverso (hacia adelante) o en postorden (hacia atrás).
+//
+// entrada(b) y salida(b) están siempre en el orden del programa: el valor antes de
+// la primera instrucción del bloque y después de la última, sea cual sea la dirección.
+public abstract class AnalisisFlujoDatos {
+    public enum Direccion { ADELANTE, ATRAS }
+    public enum Confluencia { UNION, INTERSECCION }
+
+    protected final GrafoFlujo grafo;
+    private final Direccion direccion;
+    private final Confluencia confluencia;
+    private int tamano;
+    private ConjuntoBits[] gen;
+    private ConjuntoBits[] kill;
+    private ConjuntoBits[] entrada;
+    private ConjuntoBits[] salida;
+    private int visitas = 0;
+
+    protected AnalisisFlujoDatos(GrafoFlujo grafo, Direccion direccion, Confluencia confluencia) {
+        this.grafo = grafo;
+        this.direccion = direccion;
+        this.confluencia = confluencia;
+    }
+
+    // gen y kill de la instrucción en la posición dada de la lista de la función;
+    // ambos conjuntos llegan vacíos
+    protected abstract void transferencia(int indice, ConjuntoBits gen, ConjuntoBits kill);
+
+    // Valor a la entrada de la función (adelante) o a la salida de los bloques finales (atrás)
+    protected ConjuntoBits frontera() {
+        return new ConjuntoBits(tamano);
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    // Bloques que el motor procesó hasta el punto fijo, contando las repeticiones
+    public int visitas() {
+        return visitas;
+    }
+
+    public ConjuntoBits entrada(BloqueBasico bloque) {
+        return entrada[bloque.indice];
+    }
+
+    public ConjuntoBits salida(BloqueBasico bloque) {
+        return salida[bloque.indice];
+    }
+
+    // Valor inmediatamente antes de la instrucción, en el orden del programa
+    public ConjuntoBits antesDe(int indice) {
+        BloqueBasico bloque = grafo.bloqueDeInstruccion(indice);
+        if (direccion == Direccion.ADELANTE) {
+            return recorrerHacia(bloque, indice);
+        }
+        return recorrerDesde(bloque, indice);
+    }
+
+    // Valor inmediatamente después de la instrucción, en el orden del programa
+    public ConjuntoBits despuesDe(int indice) {
+        BloqueBasico bloque = grafo.bloqueDeInstruccion(indice);
+        if (direccion == Direccion.ADELANTE) {
+            return recorrerHacia(bloque, indice + 1);
+        }
+        return recorrerDesde(bloque, indice + 1);
+    }
+
+    // Aplica las instrucciones del bloque desde su inicio hasta antes de "hasta"
+    private ConjuntoBits recorrerHacia(BloqueBasico bloque, int hasta) {
+        ConjuntoBits valor = new ConjuntoBits(entrada[bloque.indice]);
+        for (int i = bloque.inicio; i < hasta; i++) {
+            aplicar(i, valor);
+        }
+        return valor;
+    }
+
+    // Aplica hacia atrás las instrucciones del bloque desde su final hasta "desde"
+    private ConjuntoBits recorrerDesde(BloqueBasico bloque, int desde) {
+        ConjuntoBits valor = new ConjuntoBits(salida[bloque.indice]);
+        for (int i = bloque.fin - 1; i >= desde; i--) {
+            aplicar(i, valor);
+        }
+        return valor;
+    }
+
+    private void aplicar(int indice, ConjuntoBits valor) {
+        ConjuntoBits g = new ConjuntoBits(tamano);
+        ConjuntoBits k = new ConjuntoBits(tamano);
+        transferencia(indice, g, k);
+        valor.restar(k);
+        valor.unir(g);
+    }
+
+    // Las subclases lo llaman al final de su constructor, cuando ya numeraron su universo
+    protected final void resolver(int tamano) {
+        this.tamano = tamano;
+        List<BloqueBasico> bloques = grafo.bloques();
+        int n = bloques.size();
+        gen = new ConjuntoBits[n];
+        kill = new ConjuntoBits[n];
+        entrada = new ConjuntoBits[n];
+        salida = new ConjuntoBits[n];
+        for (BloqueBasico bloque : bloques) {
+            componerBloque(bloque);
+            ConjuntoBits inicial = confluencia == Confluencia.INTERSECCION ? ConjuntoBits.lleno(tamano)
+                                                                          : new ConjuntoBits(tamano);
+            entrada[bloque.indice] = inicial;
+            salida[bloque.indice] = new ConjuntoBits(inicial);
+        }
+
+        List<BloqueBasico> orden = ordenRecorrido();
+        Deque<BloqueBasico> pendientes = new ArrayDeque<>(orden);
+        boolean[] enCola = new boolean[n];
+        for (BloqueBasico bloque : orden) {
+            enCola[bloque.indice] = true;
+        }
+        boolean adelante = direccion == Direccion.ADELANTE;
+        while (!pendientes.isEmpty()) {
+            BloqueBasico bloque = pendientes.poll();
+            enCola[bloque.indice] = false;
+            visitas++;
+
+            List<BloqueBasico> vecinos = adelante ? bloque.predecesores : bloque.sucesores;
+            boolean esBorde = adelante ? bloque == grafo.entrada() || vecinos.isEmpty() : vecinos.isEmpty();
+            ConjuntoBits confluido = esBorde ? frontera() : null;
+            for (BloqueBasico vecino : vecinos) {
+                ConjuntoBits valor = adelante ? salida[vecino.indice] : entrada[vecino.indice];
+                if (confluido == null) {
+                    confluido = new ConjuntoBits(valor);
+                } else if (confluencia == Confluencia.UNION) {
+                    confluido.unir(valor);
+                } else {
+                    confluido.intersecar(valor);
+                }
+            }
+
+            ConjuntoBits resultado = new ConjuntoBits(confluido);
+            resultado.restar(kill[bloque.indice]);
+            resultado.unir(gen[bloque.indice]);
+            ConjuntoBits[] lado = adelante ? salida : entrada;
+            boolean cambio = !resultado.equals(lado[bloque.indice]);
+            if (adelante) {
+                entrada[bloque.indice] = confluido;
+                salida[bloque.indice] = resultado;
+            } else {
+                salida[bloque.indice] = confluido;
+                entrada[bloque.indice] = resultado;
+            }
+            if (cambio) {
+                for (BloqueBasico siguiente : adelante ? bloque.sucesores : bloque.predecesores) {
+                    if (!enCola[siguiente.indice]) {
+                        enCola[siguiente.indice] = true;
+                        pendientes.add(siguiente);
+                    }
+                }
+            }
+        }
+    }
+
+    // Compone las transferencias de las instrucciones del bloque en un solo gen/kill:
+    // aplicar (g, k) después de (G, K) da G' = g ∪ (G - k) y K' = K ∪ k
+    private void componerBloque(BloqueBasico bloque) {
+        ConjuntoBits g = new ConjuntoBits(tamano);
+        ConjuntoBits k = new ConjuntoBits(tamano);
+        boolean adelante = direccion == Direccion.ADELANTE;
+        for (int j = 0; j < bloque.fin - bloque.inicio; j++) {
+            int indice = adelante ? bloque.inicio + j : bloque.fin - 1 - j;
+            ConjuntoBits genInstruccion = new ConjuntoBits(tamano);
+            ConjuntoBits killInstruccion = new ConjuntoBits(tamano);
+            transferencia(indice, genInstruccion, killInstruccion);
+            g.restar(killInstruccion);
+            g.unir(genInstruccion);
+            k.unir(killInstruccion);
+        }
+        gen[bloque.indice] = g;
+        kill[bloque.indice] = k;
+    }
+
+    // Postorden inverso desde la entrada (o postorden, hacia atrás); los bloques
+    // inalcanzables van al final
+    private List<BloqueBasico> ordenRecorrido() {
+        List<BloqueBasico> bloques = grafo.bloques();
+        List<BloqueBasico> postorden = new ArrayList<>();
+        boolean[] visitado = new boolean[bloques.size()];
+        int[] siguiente = new int[bloques.size()];
+        Deque<BloqueBasico> pila = new ArrayDeque<>();
+        visitado[0] = true;
+        pila.push(grafo.entrada());
+        while (!pila.isEmpty()) {
+            BloqueBasico bloque = pila.peek();
+            if (siguiente[bloque.indice] < bloque.sucesores.size()) {
+                BloqueBasico sucesor = bloque.sucesores.get(siguiente[bloque.indice]++);
+                if (!visitado[sucesor.indice]) {
+                    visitado[sucesor.indice] = true;
+                    pila.push(sucesor);
+                }
+            } else {
+                postorden.add(pila.pop());
+            }
+        }
+        if (direccion == Direccion.ADELANTE) {
+            Collections.reverse(postorden);
+        }
+        for (BloqueBasico bloque : bloques) {
+            if (!visitado[bloque.indice]) {
+                postorden.add(bloque);
+            }
+        }
+        return postorden;
+    }
+}
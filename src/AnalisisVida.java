@@ -0,0 +1,72 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Variables vivas: análisis hacia atrás con unión. Un nombre está vivo en un punto
+// si algún camino desde ahí lo lee antes de redefinirlo.
+//
+// Los operandos de PARAM se cargan en los registros $a al emitir el CALL, así que
+// se consideran leídos tanto por el PARAM como por la llamada.
+public class AnalisisVida extends AnalisisFlujoDatos {
+    public final NumeracionNombres nombres;
+    private final int[][] usos;
+    private final int[][] definiciones;
+
+    public AnalisisVida(GrafoFlujo grafo, NumeracionNombres nombres) {
+        super(grafo, Direccion.ATRAS, Confluencia.UNION);
+        this.nombres = nombres;
+        List<Instruccion> instrucciones = grafo.funcion.instrucciones;
+        usos = new int[instrucciones.size()][];
+        definiciones = new int[instrucciones.size()][];
+
+        List<Integer> argumentos = new ArrayList<>();
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            List<Integer> usados = new ArrayList<>(3);
+            for (Operando uso : instruccion.usos()) {
+                if (uso.esNombre()) {
+                    usados.add(nombres.id(uso.nombre));
+                }
+            }
+            if (instruccion.op == Instruccion.Operacion.PARAM) {
+                argumentos.addAll(usados);
+            } else if (instruccion.op == Instruccion.Operacion.CALL) {
+                usados.addAll(argumentos);
+                argumentos.clear();
+            }
+            usos[i] = aArreglo(usados);
+
+            Operando definido = instruccion.definicion();
+            definiciones[i] = definido != null && definido.esNombre() ? new int[] { nombres.id(definido.nombre) }
+                                                                      : new int[0];
+        }
+        resolver(nombres.cantidad());
+    }
+
+    private static int[] aArreglo(List<Integer> lista) {
+        int[] arreglo = new int[lista.size()];
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = lista.get(i);
+        }
+        return arreglo;
+    }
+
+    // Ids de los nombres que lee la instrucción
+    public int[] usos(int indice) {
+        return usos[indice];
+    }
+
+    // Ids de los nombres que escribe la instrucción (cero o uno)
+    public int[] definiciones(int indice) {
+        return definiciones[indice];
+    }
+
+    @Override
+    protected void transferencia(int indice, ConjuntoBits gen, ConjuntoBits kill) {
+        for (int id : definiciones[indice]) {
+            kill.agregar(id);
+        }
+        for (int id : usos[indice]) {
+            gen.agregar(id);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+// Resultado de la asignación de registros de una función: qué nombres viven en
+// un registro durante toda la función. Los que no aparecen se quedan en su slot de pila.
+public class AsignacionRegistros {
+    // Registros de uso general libres para el asignador. $t0-$t2 y $t9 quedan
+    // como temporales del propio backend; $a0/$a1/$v0 los usan llamadas y syscalls.
+    public static final String[] TEMPORALES = { "$t3", "$t4", "$t5", "$t6", "$t7", "$t8" };
+    public static final String[] SALVADOS = { "$s0", "$s1", "$s2", "$s3", "$s4", "$s5", "$s6", "$s7" };
+
+    private final Map<String, String> registros = new HashMap<>();
+
+    public void asignar(String nombre, String registro) {
+        registros.put(nombre, registro);
+    }
+
+    public void liberar(String nombre) {
+        registros.remove(nombre);
+    }
+
+    public String registroDe(String nombre) {
+        return registros.get(nombre);
+    }
+
+    public boolean tieneRegistro(String nombre) {
+        return registros.containsKey(nombre);
+    }
+
+    public Set<String> nombres() {
+        return registros.keySet();
+    }
+
+    // Registros $s que la función usa y por lo tanto debe preservar para su llamador
+    public Set<String> salvadosUsados() {
+        Set<String> usados = new TreeSet<>();
+        for (String registro : registros.values()) {
+            if (registro.startsWith("$s")) {
+                usados.add(registro);
+            }
+        }
+        return usados;
+    }
+
+    public static boolean esSalvado(String registro) {
+        return registro.startsWith("$s");
+    }
+
+    // Nombres de la función que pueden vivir en un registro entero: se excluyen los
+    // floats, los arreglos, los nombres compartidos (globales) y los que se leen
+    // antes de definirse, que dependen del valor inicial de su slot de pila.
+    public static Set<String> candidatas(FuncionIntermedia funcion, VidaVariables vida, Set<String> noAsignables) {
+        Set<String> candidatas = new HashSet<>();
+        Set<String> excluidas = new HashSet<>(noAsignables);
+        for (Operando parametro : funcion.parametros) {
+            if (parametro.esFlotante()) {
+                excluidas.add(parametro.nombre);
+            } else {
+                candidatas.add(parametro.nombre);
+            }
+        }
+        for (Instruccion instruccion : funcion.instrucciones) {
+            if (instruccion.op == Instruccion.Operacion.ARRAY) {
+                excluidas.add(instruccion.destino.nombre);
+                continue;
+            }
+            if (instruccion.op == Instruccion.Operacion.ARREGLO_LEER ||
+                instruccion.op == Instruccion.Operacion.ARREGLO_ESCRIBIR) {
+                excluidas.add(instruccion.etiqueta);
+            }
+            if (instruccion.destino != null) {
+                clasificar(instruccion.destino, candidatas, excluidas);
+            }
+            for (Operando uso : instruccion.usos()) {
+                clasificar(uso, candidatas, excluidas);
+            }
+        }
+        for (String nombre : vida.vivasEntrada(0)) {
+            excluidas.add(nombre);
+        }
+        candidatas.removeAll(excluidas);
+        return candidatas;
+    }
+
+    private static void clasificar(Operando operando, Set<String> candidatas, Set<String> excluidas) {
+        if (!operando.esNombre()) {
+            return;
+        }
+        if (operando.esFlotante()) {
+            excluidas.add(operando.nombre);
+        } else {
+            candidatas.add(operando.nombre);
+        }
+    }
+}
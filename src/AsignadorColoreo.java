@@ -0,0 +1,274 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Asignador de registros por coloreo del grafo de interferencia (Chaitin/Briggs).
+// Antes de colorear fusiona las copias "x = y" cuyos extremos no interfieren si pasan
+// la prueba conservadora de Briggs, de modo que las cadenas que genera el código
+// intermedio (t1 = x + 1; x = t1; t2 = x) terminan en un solo registro. Los nodos que
+// no reciben color se derraman eligiendo el menor costo, donde cada uso y definición
+// pesa 10^profundidad del ciclo que lo contiene.
+public class AsignadorColoreo {
+    private final FuncionIntermedia funcion;
+    private final Set<String> noAsignables;
+
+    private final Map<String, Set<String>> adyacentes = new HashMap<>();
+    private final Map<String, List<String>> permitidos = new HashMap<>();
+    private final Map<String, Double> costos = new HashMap<>();
+    private final Map<String, String> alias = new HashMap<>();
+    private final List<String[]> copias = new ArrayList<>();
+
+    public AsignadorColoreo(FuncionIntermedia funcion, Set<String> noAsignables) {
+        this.funcion = funcion;
+        this.noAsignables = noAsignables;
+    }
+
+    public AsignacionRegistros asignar() {
+        VidaVariables vida = new VidaVariables(funcion);
+        Set<String> candidatas = AsignacionRegistros.candidatas(funcion, vida, noAsignables);
+        construirGrafo(vida, candidatas);
+        calcularCostos(vida);
+        fusionarCopias();
+        Map<String, String> colores = colorear(simplificar());
+
+        AsignacionRegistros asignacion = new AsignacionRegistros();
+        for (String nombre : candidatas) {
+            String color = colores.get(representante(nombre));
+            if (color != null) {
+                asignacion.asignar(nombre, color);
+            }
+        }
+        return asignacion;
+    }
+
+    private void construirGrafo(VidaVariables vida, Set<String> candidatas) {
+        for (String nombre : candidatas) {
+            adyacentes.put(nombre, new HashSet<>());
+            costos.put(nombre, 0.0);
+        }
+
+        Set<String> cruzanLlamada = new HashSet<>();
+        for (int posicion = 0; posicion < vida.posiciones(); posicion++) {
+            Instruccion instruccion = vida.instruccionEn(posicion);
+            Set<String> vivas = vida.vivasSalida(posicion);
+
+            // Una copia no hace interferir a su destino con la fuente: guardan el mismo valor
+            String fuenteCopia = null;
+            if (instruccion != null && instruccion.op == Instruccion.Operacion.COPIA && instruccion.a.esNombre()) {
+                fuenteCopia = instruccion.a.nombre;
+                String destino = instruccion.destino.nombre;
+                if (candidatas.contains(destino) && candidatas.contains(fuenteCopia)) {
+                    copias.add(new String[] { destino, fuenteCopia });
+                }
+            }
+
+            for (String definido : vida.definicionesEn(posicion)) {
+                if (!candidatas.contains(definido)) {
+                    continue;
+                }
+                for (String viva : vivas) {
+                    if (!viva.equals(definido) && !viva.equals(fuenteCopia)) {
+                        agregarArista(definido, viva);
+                    }
+                }
+                // Los parámetros se definen todos a la vez en la entrada
+                if (posicion == 0) {
+                    for (String otro : vida.definicionesEn(0)) {
+                        if (!otro.equals(definido)) {
+                            agregarArista(definido, otro);
+                        }
+                    }
+                }
+            }
+
+            if (instruccion != null && instruccion.op == Instruccion.Operacion.CALL) {
+                cruzanLlamada.addAll(vivas);
+            }
+        }
+
+        for (String nombre : candidatas) {
+            List<String> colores = new ArrayList<>();
+            if (!cruzanLlamada.contains(nombre)) {
+                colores.addAll(List.of(AsignacionRegistros.TEMPORALES));
+            }
+            colores.addAll(List.of(AsignacionRegistros.SALVADOS));
+            permitidos.put(nombre, colores);
+        }
+    }
+
+    private void agregarArista(String a, String b) {
+        Set<String> deA = adyacentes.get(a);
+        Set<String> deB = adyacentes.get(b);
+        if (deA != null && deB != null) {
+            deA.add(b);
+            deB.add(a);
+        }
+    }
+
+    private void calcularCostos(VidaVariables vida) {
+        int[] profundidad = profundidadCiclos();
+        for (int posicion = 1; posicion < vida.posiciones(); posicion++) {
+            double peso = Math.pow(10, profundidad[posicion - 1]);
+            for (String nombre : vida.usosEn(posicion)) {
+                costos.computeIfPresent(nombre, (n, costo) -> costo + peso);
+            }
+            for (String nombre : vida.definicionesEn(posicion)) {
+                costos.computeIfPresent(nombre, (n, costo) -> costo + peso);
+            }
+        }
+    }
+
+    // Profundidad de anidamiento de cada instrucción según los ciclos naturales del grafo de flujo
+    private int[] profundidadCiclos() {
+        GrafoFlujo grafo = new GrafoFlujo(funcion);
+        int[] profundidad = new int[funcion.instrucciones.size()];
+        for (BloqueBasico bloque : grafo.bloques()) {
+            int nivel = grafo.profundidadCiclo(bloque);
+            for (int i = bloque.inicio; i < bloque.fin; i++) {
+                profundidad[i] = nivel;
+            }
+        }
+        return profundidad;
+    }
+
+    private String representante(String nombre) {
+        String actual = nombre;
+        while (alias.containsKey(actual)) {
+            actual = alias.get(actual);
+        }
+        return actual;
+    }
+
+    private int grado(String nombre) {
+        return adyacentes.get(nombre).size();
+    }
+
+    // Fusión conservadora (Briggs): se fusionan los extremos de una copia si el nodo
+    // resultante tiene menos de K vecinos de grado significativo
+    private void fusionarCopias() {
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (String[] copia : copias) {
+                String a = representante(copia[0]);
+                String b = representante(copia[1]);
+                if (a.equals(b) || adyacentes.get(a).contains(b)) {
+                    continue;
+                }
+                List<String> colores = new ArrayList<>(permitidos.get(a));
+                colores.retainAll(permitidos.get(b));
+                if (colores.isEmpty()) {
+                    continue;
+                }
+
+                int k = colores.size();
+                Set<String> vecinos = new HashSet<>(adyacentes.get(a));
+                vecinos.addAll(adyacentes.get(b));
+                int significativos = 0;
+                for (String vecino : vecinos) {
+                    if (grado(vecino) >= permitidos.get(vecino).size()) {
+                        significativos++;
+                    }
+                }
+                if (significativos >= k) {
+                    continue;
+                }
+
+                // Fusionar b en a
+                alias.put(b, a);
+                for (String vecino : adyacentes.remove(b)) {
+                    adyacentes.get(vecino).remove(b);
+                    agregarArista(a, vecino);
+                }
+                permitidos.put(a, colores);
+                permitidos.remove(b);
+                costos.put(a, costos.get(a) + costos.remove(b));
+                cambio = true;
+            }
+        }
+    }
+
+    // Simplificación con derrame optimista: devuelve la pila de nodos a colorear
+    private Deque<String> simplificar() {
+        Deque<String> pila = new ArrayDeque<>();
+        Set<String> restantes = new LinkedHashSet<>(adyacentes.keySet());
+        Map<String, Integer> grados = new HashMap<>();
+        for (String nombre : restantes) {
+            grados.put(nombre, grado(nombre));
+        }
+
+        while (!restantes.isEmpty()) {
+            String elegido = null;
+            for (String nombre : restantes) {
+                if (grados.get(nombre) < permitidos.get(nombre).size()) {
+                    elegido = nombre;
+                    break;
+                }
+            }
+            if (elegido == null) {
+                // Candidato a derrame: menor costo por vecino
+                double mejor = Double.MAX_VALUE;
+                for (String nombre : restantes) {
+                    double relativo = costos.get(nombre) / Math.max(1, grados.get(nombre));
+                    if (relativo < mejor) {
+                        mejor = relativo;
+                        elegido = nombre;
+                    }
+                }
+            }
+            restantes.remove(elegido);
+            pila.push(elegido);
+            for (String vecino : adyacentes.get(elegido)) {
+                if (restantes.contains(vecino)) {
+                    grados.put(vecino, grados.get(vecino) - 1);
+                }
+            }
+        }
+        return pila;
+    }
+
+    private Map<String, String> colorear(Deque<String> pila) {
+        Map<String, String> colores = new HashMap<>();
+        while (!pila.isEmpty()) {
+            String nombre = pila.pop();
+            Set<String> ocupados = new HashSet<>();
+            for (String vecino : adyacentes.get(nombre)) {
+                String color = colores.get(vecino);
+                if (color != null) {
+                    ocupados.add(color);
+                }
+            }
+
+            // Preferir el color de algún extremo de copia ya coloreado
+            String elegido = null;
+            for (String[] copia : copias) {
+                String otro = null;
+                if (representante(copia[0]).equals(nombre)) otro = representante(copia[1]);
+                if (representante(copia[1]).equals(nombre)) otro = representante(copia[0]);
+                String color = otro == null ? null : colores.get(otro);
+                if (color != null && !ocupados.contains(color) && permitidos.get(nombre).contains(color)) {
+                    elegido = color;
+                    break;
+                }
+            }
+            if (elegido == null) {
+                for (String color : permitidos.get(nombre)) {
+                    if (!ocupados.contains(color)) {
+                        elegido = color;
+                        break;
+                    }
+                }
+            }
+            if (elegido != null) {
+                colores.put(nombre, elegido);
+            }
+        }
+        return colores;
+    }
+}
@@ -0,0 +1,140 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Asignador de registros por barrido lineal (Poletto y Sarkar) sobre los
+// intervalos de vida de una función. Los intervalos que cruzan una llamada solo
+// pueden ir a registros $s; cuando no queda registro libre se derrama el
+// intervalo que termina más tarde, que se queda en su slot de pila.
+public class AsignadorLineal {
+    private static class Intervalo {
+        final String nombre;
+        int inicio = Integer.MAX_VALUE;
+        int fin = -1;
+        boolean cruzaLlamada = false;
+        String registro;
+
+        Intervalo(String nombre) {
+            this.nombre = nombre;
+        }
+
+        void extender(int posicion) {
+            inicio = Math.min(inicio, posicion);
+            fin = Math.max(fin, posicion);
+        }
+    }
+
+    private final FuncionIntermedia funcion;
+    private final Set<String> noAsignables;
+
+    public AsignadorLineal(FuncionIntermedia funcion, Set<String> noAsignables) {
+        this.funcion = funcion;
+        this.noAsignables = noAsignables;
+    }
+
+    public AsignacionRegistros asignar() {
+        VidaVariables vida = new VidaVariables(funcion);
+        Set<String> candidatas = AsignacionRegistros.candidatas(funcion, vida, noAsignables);
+        List<Intervalo> intervalos = construirIntervalos(vida, candidatas);
+        intervalos.sort((x, y) -> x.inicio != y.inicio ? Integer.compare(x.inicio, y.inicio)
+                                                       : Integer.compare(x.fin, y.fin));
+
+        AsignacionRegistros asignacion = new AsignacionRegistros();
+        Deque<String> temporalesLibres = new ArrayDeque<>(List.of(AsignacionRegistros.TEMPORALES));
+        Deque<String> salvadosLibres = new ArrayDeque<>(List.of(AsignacionRegistros.SALVADOS));
+        List<Intervalo> activos = new ArrayList<>();
+
+        for (Intervalo actual : intervalos) {
+            // Liberar los registros de los intervalos que ya terminaron. Un intervalo que
+            // muere en la misma instrucción donde nace otro puede cederle su registro:
+            // cada instrucción lee sus operandos antes de escribir el resultado.
+            for (int i = activos.size() - 1; i >= 0; i--) {
+                Intervalo activo = activos.get(i);
+                if (activo.fin <= actual.inicio) {
+                    activos.remove(i);
+                    liberar(activo.registro, temporalesLibres, salvadosLibres);
+                }
+            }
+
+            String registro = null;
+            if (!actual.cruzaLlamada && !temporalesLibres.isEmpty()) {
+                registro = temporalesLibres.poll();
+            } else if (!salvadosLibres.isEmpty()) {
+                registro = salvadosLibres.poll();
+            }
+
+            if (registro == null) {
+                // Derramar el activo que termina más tarde, si su registro le sirve al actual
+                Intervalo victima = null;
+                for (Intervalo activo : activos) {
+                    boolean compatible = !actual.cruzaLlamada || AsignacionRegistros.esSalvado(activo.registro);
+                    if (compatible && (victima == null || activo.fin > victima.fin)) {
+                        victima = activo;
+                    }
+                }
+                if (victima == null || victima.fin <= actual.fin) {
+                    continue; // El actual se queda en memoria
+                }
+                registro = victima.registro;
+                victima.registro = null;
+                activos.remove(victima);
+                asignacion.liberar(victima.nombre);
+            }
+
+            actual.registro = registro;
+            activos.add(actual);
+            asignacion.asignar(actual.nombre, registro);
+        }
+        return asignacion;
+    }
+
+    private static void liberar(String registro, Deque<String> temporales, Deque<String> salvados) {
+        if (AsignacionRegistros.esSalvado(registro)) {
+            salvados.addFirst(registro);
+        } else {
+            temporales.addFirst(registro);
+        }
+    }
+
+    private List<Intervalo> construirIntervalos(VidaVariables vida, Set<String> candidatas) {
+        Map<String, Intervalo> porNombre = new HashMap<>();
+        for (String nombre : candidatas) {
+            porNombre.put(nombre, new Intervalo(nombre));
+        }
+        for (int posicion = 0; posicion < vida.posiciones(); posicion++) {
+            extender(porNombre, vida.usosEn(posicion), posicion);
+            extender(porNombre, vida.definicionesEn(posicion), posicion);
+            extender(porNombre, vida.vivasSalida(posicion), posicion);
+
+            Instruccion instruccion = vida.instruccionEn(posicion);
+            if (instruccion != null && instruccion.op == Instruccion.Operacion.CALL) {
+                for (String nombre : vida.vivasSalida(posicion)) {
+                    Intervalo intervalo = porNombre.get(nombre);
+                    if (intervalo != null) {
+                        intervalo.cruzaLlamada = true;
+                    }
+                }
+            }
+        }
+        List<Intervalo> intervalos = new ArrayList<>();
+        for (Intervalo intervalo : porNombre.values()) {
+            if (intervalo.fin >= 0) {
+                intervalos.add(intervalo);
+            }
+        }
+        return intervalos;
+    }
+
+    private static void extender(Map<String, Intervalo> porNombre, Set<String> nombres, int posicion) {
+        for (String nombre : nombres) {
+            Intervalo intervalo = porNombre.get(nombre);
+            if (intervalo != null) {
+                intervalo.extender(posicion);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+import java.util.ArrayList;
+import java.util.List;
+
+// Secuencia maximal de instrucciones que se ejecutan siempre de corrido: solo se
+// entra por la primera y solo se sale por la última.
+public class BloqueBasico {
+    public final int indice;          // Posición del bloque en GrafoFlujo.bloques()
+    public final int inicio;          // Primera instrucción en la lista de la función
+    public final int fin;             // Una más que la última instrucción
+    public final List<Instruccion> instrucciones;
+    public final List<BloqueBasico> sucesores = new ArrayList<>(2);
+    public final List<BloqueBasico> predecesores = new ArrayList<>(2);
+
+    public BloqueBasico(int indice, int inicio, int fin, List<Instruccion> instrucciones) {
+        this.indice = indice;
+        this.inicio = inicio;
+        this.fin = fin;
+        this.instrucciones = instrucciones;
+    }
+
+    // Etiqueta con la que empieza el bloque, o null si se llega a él solo por caída
+    public String etiqueta() {
+        if (!instrucciones.isEmpty() && instrucciones.get(0).op == Instruccion.Operacion.LABEL) {
+            return instrucciones.get(0).etiqueta;
+        }
+        return null;
+    }
+
+    public Instruccion ultima() {
+        return instrucciones.isEmpty() ? null : instrucciones.get(instrucciones.size() - 1);
+    }
+
+    @Override
+    public String toString() {
+        String etiqueta = etiqueta();
+        return "B" + indice + (etiqueta == null ? "" : " (" + etiqueta + ")");
+    }
+}
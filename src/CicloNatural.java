@@ -0,0 +1,115 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+// Ciclo natural de un grafo de flujo: una cabecera que domina a los bloques del
+// ciclo y una o más aristas de retroceso que vuelven a ella. Los loop y for que
+// arma el generador con etiquetas producen siempre ciclos de este tipo; los decide
+// solo ramifican y no forman ciclos. Los que comparten cabecera se consideran uno solo.
+public class CicloNatural {
+    public final BloqueBasico cabecera;
+    public final List<BloqueBasico> retrocesos = new ArrayList<>(); // Orígenes de las aristas de retroceso
+    public final TreeSet<Integer> bloques = new TreeSet<>();         // Índices de los bloques del ciclo
+    public CicloNatural padre;
+    public final List<CicloNatural> hijos = new ArrayList<>();
+    public int profundidad = 1;
+
+    private CicloNatural(BloqueBasico cabecera) {
+        this.cabecera = cabecera;
+        bloques.add(cabecera.indice);
+    }
+
+    public boolean contiene(BloqueBasico bloque) {
+        return bloques.contains(bloque.indice);
+    }
+
+    // Bloques de afuera del ciclo a los que se puede salir desde adentro
+    public List<BloqueBasico> salidas(GrafoFlujo grafo) {
+        List<BloqueBasico> salidas = new ArrayList<>();
+        for (int indice : bloques) {
+            for (BloqueBasico sucesor : grafo.bloques().get(indice).sucesores) {
+                if (!contiene(sucesor) && !salidas.contains(sucesor)) {
+                    salidas.add(sucesor);
+                }
+            }
+        }
+        return salidas;
+    }
+
+    // Preencabezado del ciclo: el único predecesor de la cabecera desde afuera, siempre
+    // que solo lleve a ella. null si el ciclo no tiene uno.
+    public BloqueBasico preencabezado(GrafoFlujo grafo) {
+        BloqueBasico unico = null;
+        for (BloqueBasico predecesor : cabecera.predecesores) {
+            if (contiene(predecesor) || !grafo.dominadores().alcanzable(predecesor)) {
+                continue;
+            }
+            if (unico != null) {
+                return null;
+            }
+            unico = predecesor;
+        }
+        return unico != null && unico.sucesores.size() == 1 ? unico : null;
+    }
+
+    // Ciclos naturales del grafo, ordenados de los externos a los internos
+    public static List<CicloNatural> detectar(GrafoFlujo grafo) {
+        Dominadores dominadores = grafo.dominadores();
+        Map<BloqueBasico, CicloNatural> porCabecera = new LinkedHashMap<>();
+        for (BloqueBasico bloque : grafo.bloques()) {
+            for (BloqueBasico sucesor : bloque.sucesores) {
+                if (dominadores.domina(sucesor, bloque)) {
+                    CicloNatural ciclo = porCabecera.computeIfAbsent(sucesor, CicloNatural::new);
+                    ciclo.retrocesos.add(bloque);
+                    ciclo.agregarCuerpo(bloque, dominadores);
+                }
+            }
+        }
+
+        // Anidamiento: el padre es el ciclo más chico que contiene a la cabecera
+        List<CicloNatural> ciclos = new ArrayList<>(porCabecera.values());
+        for (CicloNatural ciclo : ciclos) {
+            for (CicloNatural otro : ciclos) {
+                if (otro != ciclo && otro.contiene(ciclo.cabecera) && otro.bloques.size() > ciclo.bloques.size() &&
+                    (ciclo.padre == null || otro.bloques.size() < ciclo.padre.bloques.size())) {
+                    ciclo.padre = otro;
+                }
+            }
+        }
+        for (CicloNatural ciclo : ciclos) {
+            if (ciclo.padre != null) {
+                ciclo.padre.hijos.add(ciclo);
+            }
+            for (CicloNatural ancestro = ciclo.padre; ancestro != null; ancestro = ancestro.padre) {
+                ciclo.profundidad++;
+            }
+        }
+        ciclos.sort((x, y) -> Integer.compare(x.profundidad, y.profundidad));
+        return ciclos;
+    }
+
+    // Agrega los bloques desde los que se llega al origen de la arista de retroceso
+    // sin pasar por la cabecera
+    private void agregarCuerpo(BloqueBasico retroceso, Dominadores dominadores) {
+        Deque<BloqueBasico> pendientes = new ArrayDeque<>();
+        if (bloques.add(retroceso.indice)) {
+            pendientes.add(retroceso);
+        }
+        while (!pendientes.isEmpty()) {
+            for (BloqueBasico predecesor : pendientes.poll().predecesores) {
+                if (dominadores.alcanzable(predecesor) && bloques.add(predecesor.indice)) {
+                    pendientes.add(predecesor);
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Ciclo " + cabecera + " prof " + profundidad + " bloques " + bloques;
+    }
+}
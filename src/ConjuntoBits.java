@@ -0,0 +1,148 @@
+import java.util.Arrays;
+
+// Conjunto denso de enteros en [0, tamaño) guardado en un long[]: un bit por
+// elemento. Los análisis de flujo de datos numeran sus nombres o definiciones y
+// operan sobre estos conjuntos palabra por palabra.
+public class ConjuntoBits {
+    private final long[] palabras;
+    private final int tamano;
+
+    public ConjuntoBits(int tamano) {
+        this.tamano = tamano;
+        this.palabras = new long[(tamano + 63) >>> 6];
+    }
+
+    public ConjuntoBits(ConjuntoBits otro) {
+        this.tamano = otro.tamano;
+        this.palabras = otro.palabras.clone();
+    }
+
+    public static ConjuntoBits lleno(int tamano) {
+        ConjuntoBits conjunto = new ConjuntoBits(tamano);
+        conjunto.llenar();
+        return conjunto;
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public void agregar(int elemento) {
+        palabras[elemento >>> 6] |= 1L << elemento;
+    }
+
+    public void quitar(int elemento) {
+        palabras[elemento >>> 6] &= ~(1L << elemento);
+    }
+
+    public boolean contiene(int elemento) {
+        return (palabras[elemento >>> 6] & (1L << elemento)) != 0;
+    }
+
+    public void vaciar() {
+        Arrays.fill(palabras, 0);
+    }
+
+    public void llenar() {
+        Arrays.fill(palabras, -1L);
+        int sobrantes = tamano & 63;
+        if (sobrantes != 0) {
+            palabras[palabras.length - 1] = (1L << sobrantes) - 1;
+        }
+    }
+
+    public void copiarDe(ConjuntoBits otro) {
+        System.arraycopy(otro.palabras, 0, palabras, 0, palabras.length);
+    }
+
+    // this ∪= otro; devuelve true si el conjunto cambió
+    public boolean unir(ConjuntoBits otro) {
+        boolean cambio = false;
+        for (int i = 0; i < palabras.length; i++) {
+            long nueva = palabras[i] | otro.palabras[i];
+            if (nueva != palabras[i]) {
+                palabras[i] = nueva;
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+
+    // this ∩= otro; devuelve true si el conjunto cambió
+    public boolean intersecar(ConjuntoBits otro) {
+        boolean cambio = false;
+        for (int i = 0; i < palabras.length; i++) {
+            long nueva = palabras[i] & otro.palabras[i];
+            if (nueva != palabras[i]) {
+                palabras[i] = nueva;
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+
+    // this -= otro
+    public void restar(ConjuntoBits otro) {
+        for (int i = 0; i < palabras.length; i++) {
+            palabras[i] &= ~otro.palabras[i];
+        }
+    }
+
+    // Primer elemento >= desde, o -1 si no hay. Para recorrer:
+    // for (int e = c.siguiente(0); e >= 0; e = c.siguiente(e + 1))
+    public int siguiente(int desde) {
+        if (desde >= tamano) {
+            return -1;
+        }
+        int indice = desde >>> 6;
+        long palabra = palabras[indice] & (-1L << desde);
+        while (true) {
+            if (palabra != 0) {
+                return (indice << 6) + Long.numberOfTrailingZeros(palabra);
+            }
+            if (++indice == palabras.length) {
+                return -1;
+            }
+            palabra = palabras[indice];
+        }
+    }
+
+    public int cantidad() {
+        int total = 0;
+        for (long palabra : palabras) {
+            total += Long.bitCount(palabra);
+        }
+        return total;
+    }
+
+    public boolean estaVacio() {
+        for (long palabra : palabras) {
+            if (palabra != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) return true;
+        if (!(otro instanceof ConjuntoBits)) return false;
+        return Arrays.equals(palabras, ((ConjuntoBits) otro).palabras);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(palabras);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int e = siguiente(0); e >= 0; e = siguiente(e + 1)) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(e);
+        }
+        return sb.append("}").toString();
+    }
+}
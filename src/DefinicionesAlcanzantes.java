@@ -0,0 +1,92 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Definiciones alcanzantes: análisis hacia adelante con unión. Una definición de x
+// alcanza un punto si hay un camino desde ella hasta ahí que no redefine x. Cada
+// instrucción que escribe un nombre es una definición; los parámetros cuentan como
+// definiciones hechas en la entrada de la función.
+public class DefinicionesAlcanzantes extends AnalisisFlujoDatos {
+    public static final int ENTRADA = -1; // Posición de las definiciones de parámetros
+
+    private final List<Integer> posiciones = new ArrayList<>();   // Instrucción de cada definición
+    private final List<String> nombres = new ArrayList<>();       // Nombre que escribe cada definición
+    private final Map<String, ConjuntoBits> porNombre = new HashMap<>();
+    private final int[] definicionEn;                             // Definición de cada instrucción, o -1
+    private final List<Integer> parametros = new ArrayList<>();
+
+    public DefinicionesAlcanzantes(GrafoFlujo grafo) {
+        super(grafo, Direccion.ADELANTE, Confluencia.UNION);
+        List<Instruccion> instrucciones = grafo.funcion.instrucciones;
+        definicionEn = new int[instrucciones.size()];
+        for (Operando parametro : grafo.funcion.parametros) {
+            parametros.add(registrar(ENTRADA, parametro.nombre));
+        }
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Operando definido = instrucciones.get(i).definicion();
+            definicionEn[i] = definido != null && definido.esNombre() ? registrar(i, definido.nombre) : -1;
+        }
+
+        int total = posiciones.size();
+        for (int id = 0; id < total; id++) {
+            porNombre.computeIfAbsent(nombres.get(id), n -> new ConjuntoBits(total)).agregar(id);
+        }
+        resolver(total);
+    }
+
+    private int registrar(int posicion, String nombre) {
+        posiciones.add(posicion);
+        nombres.add(nombre);
+        return posiciones.size() - 1;
+    }
+
+    public int cantidad() {
+        return posiciones.size();
+    }
+
+    // Instrucción de la definición, o ENTRADA si es un parámetro
+    public int posicionDe(int definicion) {
+        return posiciones.get(definicion);
+    }
+
+    public String nombreDe(int definicion) {
+        return nombres.get(definicion);
+    }
+
+    // Definición que hace la instrucción, o -1 si no escribe ningún nombre
+    public int definicionDe(int indice) {
+        return definicionEn[indice];
+    }
+
+    // Todas las definiciones del nombre en la función
+    public ConjuntoBits definicionesDe(String nombre) {
+        ConjuntoBits conjunto = porNombre.get(nombre);
+        return conjunto != null ? conjunto : new ConjuntoBits(cantidad());
+    }
+
+    // Definiciones del nombre que alcanzan la instrucción (antes de ejecutarla)
+    public ConjuntoBits alcanzanA(int indice, String nombre) {
+        ConjuntoBits alcanzan = antesDe(indice);
+        alcanzan.intersecar(definicionesDe(nombre));
+        return alcanzan;
+    }
+
+    @Override
+    protected ConjuntoBits frontera() {
+        ConjuntoBits entrada = new ConjuntoBits(cantidad());
+        for (int id : parametros) {
+            entrada.agregar(id);
+        }
+        return entrada;
+    }
+
+    @Override
+    protected void transferencia(int indice, ConjuntoBits gen, ConjuntoBits kill) {
+        int definicion = definicionEn[indice];
+        if (definicion >= 0) {
+            kill.unir(porNombre.get(nombres.get(definicion)));
+            gen.agregar(definicion);
+        }
+    }
+}
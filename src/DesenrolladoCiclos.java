@@ -0,0 +1,359 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Desenrollado de ciclos con una cantidad de vueltas conocida al compilar, antes de
+// pasar a SSA.
+//
+// El ciclo tiene que ser el que arma el generador para un for o un loop: bloques
+// contiguos desde la cabecera hasta un único retroceso que termina en un IF a la
+// cabecera. Ese último bloque incrementa una variable local entera "i = i ± c" (la
+// única definición de i en el ciclo) y el IF compara el valor nuevo de i con una
+// constante; si i entra al ciclo con una constante, las vueltas se cuentan simulando
+// la comparación.
+//
+// Si el cuerpo repetido todas las vueltas entra en LIMITE_COMPLETO instrucciones, el
+// ciclo se reemplaza por las copias del cuerpo, sin comparación ni salto. Si no, el
+// cuerpo se repite un factor de veces que depende de su tamaño, con la comparación
+// solo al final, y las vueltas que sobran de dividir por el factor van en copias antes
+// de la cabecera. Las copias repiten también el incremento, así que no hace falta
+// cambiar ningún nombre: las pasadas en SSA pliegan después los valores de i. El
+// guardia de un for queda antes de todas las copias y sigue saltando al final.
+public class DesenrolladoCiclos {
+    private static final int LIMITE_COMPLETO = 64; // Instrucciones del ciclo desenrollado del todo
+    private static final int LIMITE_PARCIAL = 32;  // Instrucciones de las copias dentro del ciclo
+    private static final int[] FACTORES = {8, 4, 2};
+    private static final int MAXIMO_VUELTAS = 1 << 16;
+
+    private final Set<String> globales;
+    private int completos = 0;
+    private int parciales = 0;
+
+    // Variable de control del ciclo y comparación que decide si se vuelve a la cabecera
+    private static class Control {
+        String variable;
+        long paso;
+        Instruccion comparacion;
+        boolean variableIzquierda;
+        boolean siguePorFalso; // IF NOT: se vuelve a la cabecera si la comparación es falsa
+    }
+
+    public DesenrolladoCiclos(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    public int completos() {
+        return completos;
+    }
+
+    public int parciales() {
+        return parciales;
+    }
+
+    // Devuelve true si desenrolló algún ciclo. Los internos van primero, así que un
+    // ciclo externo puede desenrollarse con el interno ya reemplazado por sus copias.
+    public boolean optimizar(FuncionIntermedia funcion) {
+        List<String> cabeceras = new ArrayList<>();
+        List<CicloNatural> ciclos = new GrafoFlujo(funcion).ciclos();
+        for (int i = ciclos.size() - 1; i >= 0; i--) {
+            cabeceras.add(ciclos.get(i).cabecera.etiqueta());
+        }
+
+        boolean cambio = false;
+        for (String etiqueta : cabeceras) {
+            GrafoFlujo grafo = new GrafoFlujo(funcion);
+            for (CicloNatural ciclo : grafo.ciclos()) {
+                if (etiqueta != null && etiqueta.equals(ciclo.cabecera.etiqueta())) {
+                    cambio |= desenrollar(funcion, grafo, ciclo);
+                    break;
+                }
+            }
+        }
+        return cambio;
+    }
+
+    private boolean desenrollar(FuncionIntermedia funcion, GrafoFlujo grafo, CicloNatural ciclo) {
+        if (ciclo.retrocesos.size() != 1) {
+            return false;
+        }
+        BloqueBasico cabecera = ciclo.cabecera;
+        BloqueBasico retroceso = ciclo.retrocesos.get(0);
+        Instruccion salto = retroceso.ultima();
+        if (ciclo.bloques.first() != cabecera.indice || ciclo.bloques.last() != retroceso.indice ||
+            ciclo.bloques.size() != retroceso.indice - cabecera.indice + 1 || salto == null ||
+            salto.op != Instruccion.Operacion.IF && salto.op != Instruccion.Operacion.IF_NOT) {
+            return false;
+        }
+
+        Control control = analizarControl(retroceso, salto);
+        if (control == null || !definidaUnaVez(grafo, ciclo, control.variable)) {
+            return false;
+        }
+        Long inicio = valorInicial(grafo, ciclo, control.variable);
+        if (inicio == null) {
+            return false;
+        }
+        int vueltas = contarVueltas(control, inicio);
+        if (vueltas < 1) {
+            return false;
+        }
+
+        List<Instruccion> cuerpo = new ArrayList<>(funcion.instrucciones.subList(cabecera.inicio + 1,
+                                                                                 retroceso.fin - 1));
+        int tamano = 0;
+        for (Instruccion instruccion : cuerpo) {
+            if (!esDeclaracionOEtiqueta(instruccion)) {
+                tamano++;
+            }
+        }
+
+        List<Instruccion> antes = funcion.instrucciones.subList(0, cabecera.inicio);
+        List<Instruccion> despues = funcion.instrucciones.subList(retroceso.fin, funcion.instrucciones.size());
+        List<Instruccion> nuevas = new ArrayList<>(antes);
+        if ((long) vueltas * tamano <= LIMITE_COMPLETO) {
+            nuevas.add(funcion.instrucciones.get(cabecera.inicio));
+            nuevas.addAll(cuerpo);
+            for (int k = 1; k < vueltas; k++) {
+                nuevas.addAll(copiarCuerpo(funcion, cuerpo));
+            }
+            completos++;
+        } else {
+            int factor = 0;
+            for (int candidato : FACTORES) {
+                if (candidato <= vueltas && candidato * tamano <= LIMITE_PARCIAL) {
+                    factor = candidato;
+                    break;
+                }
+            }
+            if (factor == 0) {
+                return false;
+            }
+            // Las vueltas que sobran van antes de la cabecera; adentro quedan vueltas/factor
+            for (int k = 0; k < vueltas % factor; k++) {
+                nuevas.addAll(copiarCuerpo(funcion, cuerpo));
+            }
+            nuevas.add(funcion.instrucciones.get(cabecera.inicio));
+            nuevas.addAll(cuerpo);
+            for (int k = 1; k < factor; k++) {
+                nuevas.addAll(copiarCuerpo(funcion, cuerpo));
+            }
+            nuevas.add(salto);
+            parciales++;
+        }
+        nuevas.addAll(despues);
+        funcion.instrucciones = nuevas;
+        return true;
+    }
+
+    // Busca, desde el IF hacia atrás y a través de copias, la comparación de la variable
+    // de control con una constante, y el incremento de la variable antes de esa lectura
+    private Control analizarControl(BloqueBasico retroceso, Instruccion salto) {
+        List<Instruccion> instrucciones = retroceso.instrucciones;
+        int fin = instrucciones.size() - 1;
+        if (!salto.a.esNombre()) {
+            return null;
+        }
+        int indice = seguirCopias(instrucciones, salto.a.nombre, fin);
+        if (indice < 0 || !instrucciones.get(indice).op.esComparacion()) {
+            return null;
+        }
+        Instruccion comparacion = instrucciones.get(indice);
+        boolean variableIzquierda = comparacion.b.clase == Operando.Clase.ENTERO;
+        Operando leida = variableIzquierda ? comparacion.a : comparacion.b;
+        Operando limite = variableIzquierda ? comparacion.b : comparacion.a;
+        if (!leida.esNombre() || limite.clase != Operando.Clase.ENTERO) {
+            return null;
+        }
+
+        // La variable leída es la de control si su definición es el incremento
+        String nombre = leida.nombre;
+        int hasta = indice;
+        for (int pasos = 0; pasos <= fin; pasos++) {
+            int definicion = ultimaDefinicion(instrucciones, nombre, hasta);
+            if (definicion < 0) {
+                return null;
+            }
+            Long paso = pasoDeIncremento(instrucciones, nombre, definicion);
+            if (paso != null) {
+                if (globales.contains(nombre) || !leida.tipoDato.equals("int") || paso == 0) {
+                    return null;
+                }
+                Control control = new Control();
+                control.variable = nombre;
+                control.paso = paso;
+                control.comparacion = comparacion;
+                control.variableIzquierda = variableIzquierda;
+                control.siguePorFalso = salto.op == Instruccion.Operacion.IF_NOT;
+                return control;
+            }
+            Instruccion copia = instrucciones.get(definicion);
+            if (copia.op != Instruccion.Operacion.COPIA || !copia.a.esNombre()) {
+                return null;
+            }
+            nombre = copia.a.nombre;
+            hasta = definicion;
+        }
+        return null;
+    }
+
+    // Paso de "i = i ± c" o de "t = i ± c; i = t" definida en la posición dada; null si no
+    private static Long pasoDeIncremento(List<Instruccion> instrucciones, String variable, int definicion) {
+        Instruccion instruccion = instrucciones.get(definicion);
+        Long paso = pasoDe(instruccion, variable);
+        if (paso != null || instruccion.op != Instruccion.Operacion.COPIA || !instruccion.a.esNombre()) {
+            return paso;
+        }
+        int calculo = ultimaDefinicion(instrucciones, instruccion.a.nombre, definicion);
+        if (calculo < 0 || ultimaDefinicion(instrucciones, variable, definicion) > calculo) {
+            return null;
+        }
+        return pasoDe(instrucciones.get(calculo), variable);
+    }
+
+    private static Long pasoDe(Instruccion instruccion, String variable) {
+        boolean suma = instruccion.op == Instruccion.Operacion.SUMA;
+        if (!suma && instruccion.op != Instruccion.Operacion.RESTA) {
+            return null;
+        }
+        if (instruccion.a.nombre.equals(variable) && instruccion.a.esNombre() &&
+            instruccion.b.clase == Operando.Clase.ENTERO) {
+            return suma ? instruccion.b.valorEntero() : -instruccion.b.valorEntero();
+        }
+        if (suma && instruccion.b.nombre.equals(variable) && instruccion.b.esNombre() &&
+            instruccion.a.clase == Operando.Clase.ENTERO) {
+            return instruccion.a.valorEntero();
+        }
+        return null;
+    }
+
+    // Posición de la instrucción que define el valor que tiene el nombre al llegar a la
+    // posición dada, siguiendo las copias entre temporales; -1 si no está en el bloque
+    private static int seguirCopias(List<Instruccion> instrucciones, String nombre, int hasta) {
+        int indice = ultimaDefinicion(instrucciones, nombre, hasta);
+        for (int pasos = 0; indice >= 0 && pasos < hasta; pasos++) {
+            Instruccion instruccion = instrucciones.get(indice);
+            if (instruccion.op != Instruccion.Operacion.COPIA || !instruccion.a.esNombre() ||
+                instruccion.a.clase != Operando.Clase.TEMPORAL) {
+                return indice;
+            }
+            indice = ultimaDefinicion(instrucciones, instruccion.a.nombre, indice);
+        }
+        return indice;
+    }
+
+    private static int ultimaDefinicion(List<Instruccion> instrucciones, String nombre, int hasta) {
+        for (int i = hasta - 1; i >= 0; i--) {
+            Operando definido = instrucciones.get(i).definicion();
+            if (definido != null && definido.nombre.equals(nombre)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean definidaUnaVez(GrafoFlujo grafo, CicloNatural ciclo, String variable) {
+        int definiciones = 0;
+        for (int indice : ciclo.bloques) {
+            for (Instruccion instruccion : grafo.bloques().get(indice).instrucciones) {
+                Operando definido = instruccion.definicion();
+                if (definido != null && definido.nombre.equals(variable)) {
+                    definiciones++;
+                }
+            }
+        }
+        return definiciones == 1;
+    }
+
+    // Constante que tiene la variable al entrar al ciclo desde su único predecesor de
+    // afuera, si ese bloque se la asigna; null si no se conoce
+    private static Long valorInicial(GrafoFlujo grafo, CicloNatural ciclo, String variable) {
+        BloqueBasico entrada = null;
+        for (BloqueBasico predecesor : ciclo.cabecera.predecesores) {
+            if (ciclo.contiene(predecesor) || !grafo.dominadores().alcanzable(predecesor)) {
+                continue;
+            }
+            if (entrada != null) {
+                return null;
+            }
+            entrada = predecesor;
+        }
+        if (entrada == null) {
+            return null;
+        }
+        int definicion = ultimaDefinicion(entrada.instrucciones, variable, entrada.instrucciones.size());
+        if (definicion < 0) {
+            return null;
+        }
+        Instruccion instruccion = entrada.instrucciones.get(definicion);
+        if (instruccion.op != Instruccion.Operacion.COPIA || instruccion.a.clase != Operando.Clase.ENTERO) {
+            return null;
+        }
+        return instruccion.a.valorEntero();
+    }
+
+    // Veces que se ejecuta el cuerpo: la primera siempre (el guardia de un for ya decidió
+    // si se entra) y una más por cada valor nuevo de la variable que vuelve a la cabecera.
+    // -1 si son demasiadas o si el valor sale del rango de los enteros de 32 bits.
+    private static int contarVueltas(Control control, long inicio) {
+        long limite = control.variableIzquierda ? control.comparacion.b.valorEntero()
+                                                : control.comparacion.a.valorEntero();
+        long valor = inicio;
+        for (int vueltas = 1; vueltas <= MAXIMO_VUELTAS; vueltas++) {
+            valor += control.paso;
+            if (valor != (int) valor) {
+                return -1;
+            }
+            long izquierda = control.variableIzquierda ? valor : limite;
+            long derecha = control.variableIzquierda ? limite : valor;
+            if (comparar(control.comparacion.op, izquierda, derecha) == control.siguePorFalso) {
+                return vueltas;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean comparar(Instruccion.Operacion op, long a, long b) {
+        switch (op) {
+            case IGUAL: return a == b;
+            case DISTINTO: return a != b;
+            case MENOR: return a < b;
+            case MENOR_IGUAL: return a <= b;
+            case MAYOR: return a > b;
+            default: return a >= b;
+        }
+    }
+
+    // Copia del cuerpo con etiquetas propias. Las declaraciones quedan solo en el original.
+    private static List<Instruccion> copiarCuerpo(FuncionIntermedia funcion, List<Instruccion> cuerpo) {
+        Map<String, String> etiquetas = new HashMap<>();
+        for (Instruccion instruccion : cuerpo) {
+            if (instruccion.op == Instruccion.Operacion.LABEL) {
+                etiquetas.put(instruccion.etiqueta, funcion.nuevaEtiqueta("u"));
+            }
+        }
+        List<Instruccion> copia = new ArrayList<>();
+        for (Instruccion instruccion : cuerpo) {
+            if (instruccion.op == Instruccion.Operacion.LOCAL || instruccion.op == Instruccion.Operacion.ARRAY) {
+                continue;
+            }
+            Instruccion duplicada = instruccion.duplicar();
+            if (duplicada.op == Instruccion.Operacion.LABEL) {
+                duplicada.etiqueta = etiquetas.get(duplicada.etiqueta);
+            }
+            for (String destino : duplicada.destinos()) {
+                if (etiquetas.containsKey(destino)) {
+                    duplicada.redirigir(destino, etiquetas.get(destino));
+                }
+            }
+            copia.add(duplicada);
+        }
+        return copia;
+    }
+
+    private static boolean esDeclaracionOEtiqueta(Instruccion instruccion) {
+        return instruccion.op == Instruccion.Operacion.LABEL || instruccion.op == Instruccion.Operacion.LOCAL ||
+               instruccion.op == Instruccion.Operacion.ARRAY;
+    }
+}
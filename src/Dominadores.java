@@ -0,0 +1,213 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Árbol de dominadores de un grafo de flujo, calculado con el algoritmo de
+// Lengauer y Tarjan (versión con compresión de caminos). Un bloque d domina a b si
+// todo camino desde la entrada hasta b pasa por d. Los bloques inalcanzables desde
+// la entrada no tienen dominador inmediato ni aparecen en el árbol.
+public class Dominadores {
+    private final GrafoFlujo grafo;
+    private final int[] numero;       // Número de preorden en el DFS, -1 si es inalcanzable
+    private final int[] vertice;      // Bloque con cada número de preorden
+    private final int[] padre;
+    private final int[] semi;
+    private final int[] ancestro;
+    private final int[] mejor;
+    private final int[] inmediato;
+    private final List<List<BloqueBasico>> hijos = new ArrayList<>();
+    private List<List<BloqueBasico>> frontera;
+    private int alcanzables = 0;
+
+    public Dominadores(GrafoFlujo grafo) {
+        this.grafo = grafo;
+        int n = grafo.bloques().size();
+        numero = new int[n];
+        vertice = new int[n];
+        padre = new int[n];
+        semi = new int[n];
+        ancestro = new int[n];
+        mejor = new int[n];
+        inmediato = new int[n];
+        Arrays.fill(numero, -1);
+        Arrays.fill(padre, -1);
+        Arrays.fill(ancestro, -1);
+        Arrays.fill(inmediato, -1);
+        for (int i = 0; i < n; i++) {
+            hijos.add(new ArrayList<>());
+        }
+        recorrer();
+        calcular();
+        for (int v = 0; v < n; v++) {
+            if (inmediato[v] >= 0) {
+                hijos.get(inmediato[v]).add(grafo.bloques().get(v));
+            }
+        }
+    }
+
+    // DFS iterativo desde la entrada que numera los bloques en preorden
+    private void recorrer() {
+        int[] pila = new int[numero.length];
+        int[] siguiente = new int[numero.length];
+        int tope = 0;
+        numerar(0);
+        pila[tope++] = 0;
+        while (tope > 0) {
+            int v = pila[tope - 1];
+            List<BloqueBasico> sucesores = grafo.bloques().get(v).sucesores;
+            if (siguiente[v] == sucesores.size()) {
+                tope--;
+                continue;
+            }
+            int w = sucesores.get(siguiente[v]++).indice;
+            if (numero[w] < 0) {
+                padre[w] = v;
+                numerar(w);
+                pila[tope++] = w;
+            }
+        }
+    }
+
+    private void numerar(int v) {
+        numero[v] = alcanzables;
+        vertice[alcanzables] = v;
+        alcanzables++;
+    }
+
+    private void calcular() {
+        int[] mismoDominador = new int[numero.length];
+        Arrays.fill(mismoDominador, -1);
+        List<List<Integer>> cubetas = new ArrayList<>();
+        for (int i = 0; i < numero.length; i++) {
+            cubetas.add(new ArrayList<>());
+        }
+
+        for (int i = alcanzables - 1; i >= 1; i--) {
+            int w = vertice[i];
+            int p = padre[w];
+
+            // Semidominador: el de menor número entre los candidatos de cada predecesor
+            int s = p;
+            for (BloqueBasico predecesor : grafo.bloques().get(w).predecesores) {
+                int v = predecesor.indice;
+                if (numero[v] < 0) {
+                    continue;
+                }
+                int candidato = numero[v] <= numero[w] ? v : semi[ancestroConMenorSemi(v)];
+                if (numero[candidato] < numero[s]) {
+                    s = candidato;
+                }
+            }
+            semi[w] = s;
+            cubetas.get(s).add(w);
+            ancestro[w] = p;
+            mejor[w] = w;
+
+            for (int v : cubetas.get(p)) {
+                int y = ancestroConMenorSemi(v);
+                if (semi[y] == semi[v]) {
+                    inmediato[v] = p;
+                } else {
+                    mismoDominador[v] = y;
+                }
+            }
+            cubetas.get(p).clear();
+        }
+
+        for (int i = 1; i < alcanzables; i++) {
+            int w = vertice[i];
+            if (mismoDominador[w] >= 0) {
+                inmediato[w] = inmediato[mismoDominador[w]];
+            }
+        }
+    }
+
+    // Ancestro de v en el bosque enlazado cuyo semidominador tiene menor número,
+    // comprimiendo el camino recorrido
+    private int ancestroConMenorSemi(int v) {
+        int a = ancestro[v];
+        if (ancestro[a] >= 0) {
+            int b = ancestroConMenorSemi(a);
+            ancestro[v] = ancestro[a];
+            if (numero[semi[b]] < numero[semi[mejor[v]]]) {
+                mejor[v] = b;
+            }
+        }
+        return mejor[v];
+    }
+
+    // Dominador inmediato del bloque; null para la entrada y los bloques inalcanzables
+    public BloqueBasico inmediato(BloqueBasico bloque) {
+        int d = inmediato[bloque.indice];
+        return d < 0 ? null : grafo.bloques().get(d);
+    }
+
+    // Hijos del bloque en el árbol de dominadores
+    public List<BloqueBasico> hijos(BloqueBasico bloque) {
+        return hijos.get(bloque.indice);
+    }
+
+    public boolean alcanzable(BloqueBasico bloque) {
+        return numero[bloque.indice] >= 0;
+    }
+
+    // ¿a domina a b? Todo bloque alcanzable se domina a sí mismo
+    public boolean domina(BloqueBasico a, BloqueBasico b) {
+        if (!alcanzable(a) || !alcanzable(b)) {
+            return false;
+        }
+        int actual = b.indice;
+        while (actual >= 0) {
+            if (actual == a.indice) {
+                return true;
+            }
+            actual = inmediato[actual];
+        }
+        return false;
+    }
+
+    // Frontera de dominancia: bloques donde deja de dominar, es decir, los que tienen un
+    // predecesor dominado por el bloque sin estar ellos mismos estrictamente dominados.
+    // Se calcula subiendo desde cada predecesor de las juntas hasta el dominador inmediato
+    // (Cooper, Harvey y Kennedy).
+    public List<BloqueBasico> fronteraDominancia(BloqueBasico bloque) {
+        if (frontera == null) {
+            frontera = new ArrayList<>();
+            for (int i = 0; i < numero.length; i++) {
+                frontera.add(new ArrayList<>());
+            }
+            for (BloqueBasico junta : grafo.bloques()) {
+                if (junta.predecesores.size() < 2 || !alcanzable(junta)) {
+                    continue;
+                }
+                for (BloqueBasico predecesor : junta.predecesores) {
+                    int actual = alcanzable(predecesor) ? predecesor.indice : -1;
+                    while (actual >= 0 && actual != inmediato[junta.indice]) {
+                        List<BloqueBasico> deActual = frontera.get(actual);
+                        if (!deActual.contains(junta)) {
+                            deActual.add(junta);
+                        }
+                        actual = inmediato[actual];
+                    }
+                }
+            }
+        }
+        return frontera.get(bloque.indice);
+    }
+
+    // Bloques alcanzables en preorden del árbol de dominadores, empezando por la entrada
+    public List<BloqueBasico> preorden() {
+        List<BloqueBasico> orden = new ArrayList<>();
+        List<BloqueBasico> pila = new ArrayList<>();
+        pila.add(grafo.entrada());
+        while (!pila.isEmpty()) {
+            BloqueBasico bloque = pila.remove(pila.size() - 1);
+            orden.add(bloque);
+            List<BloqueBasico> descendientes = hijos(bloque);
+            for (int i = descendientes.size() - 1; i >= 0; i--) {
+                pila.add(descendientes.get(i));
+            }
+        }
+        return orden;
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Eliminación de código muerto. A nivel de programa se descartan las funciones que
+// no son alcanzables desde la principal en el grafo de llamadas. Dentro de cada
+// función se quitan las instrucciones a las que no llega ningún camino desde la
+// entrada (lo que queda tras un RETURN o un GOTO), los saltos a la instrucción
+// siguiente, las etiquetas sin referencias y las asignaciones cuyo resultado no
+// está vivo a la salida.
+public class EliminacionCodigoMuerto {
+    private final Set<String> globales;
+    private int funcionesEliminadas = 0;
+    private int inalcanzables = 0;
+    private int asignacionesMuertas = 0;
+
+    public EliminacionCodigoMuerto(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    public int funcionesEliminadas() {
+        return funcionesEliminadas;
+    }
+
+    public int inalcanzables() {
+        return inalcanzables;
+    }
+
+    public int asignacionesMuertas() {
+        return asignacionesMuertas;
+    }
+
+    // Deja en el programa solo las funciones que la principal puede llegar a llamar
+    public void quitarFuncionesInalcanzables(ProgramaIntermedio programa) {
+        FuncionIntermedia principal = programa.principal();
+        if (principal == null) {
+            return;
+        }
+        Set<String> alcanzables = new HashSet<>();
+        Deque<FuncionIntermedia> pendientes = new ArrayDeque<>();
+        alcanzables.add(principal.nombre);
+        pendientes.add(principal);
+        while (!pendientes.isEmpty()) {
+            FuncionIntermedia funcion = pendientes.poll();
+            for (Instruccion instruccion : funcion.instrucciones) {
+                if (instruccion.op != Instruccion.Operacion.CALL || !alcanzables.add(instruccion.etiqueta)) {
+                    continue;
+                }
+                FuncionIntermedia llamada = programa.buscarFuncion(instruccion.etiqueta);
+                if (llamada != null) {
+                    pendientes.add(llamada);
+                }
+            }
+        }
+        int antes = programa.funciones.size();
+        programa.funciones.removeIf(funcion -> !alcanzables.contains(funcion.nombre));
+        funcionesEliminadas += antes - programa.funciones.size();
+    }
+
+    // Devuelve true si cambió alguna instrucción
+    public boolean optimizar(FuncionIntermedia funcion) {
+        boolean cambio = false;
+        boolean otraVuelta = true;
+        while (otraVuelta) {
+            otraVuelta = quitarInalcanzables(funcion);
+            otraVuelta |= simplificarSaltos(funcion);
+            otraVuelta |= quitarAsignacionesMuertas(funcion);
+            cambio |= otraVuelta;
+        }
+        if (cambio) {
+            funcion.quitarDeclaracionesSinUso();
+        }
+        return cambio;
+    }
+
+    private boolean quitarInalcanzables(FuncionIntermedia funcion) {
+        VidaVariables vida = new VidaVariables(funcion);
+        boolean[] alcanzada = new boolean[vida.posiciones()];
+        Deque<Integer> pendientes = new ArrayDeque<>();
+        alcanzada[0] = true;
+        pendientes.add(0);
+        while (!pendientes.isEmpty()) {
+            for (int sucesor : vida.sucesoresDe(pendientes.poll())) {
+                if (sucesor < alcanzada.length && !alcanzada[sucesor]) {
+                    alcanzada[sucesor] = true;
+                    pendientes.add(sucesor);
+                }
+            }
+        }
+
+        // Las declaraciones se conservan: solo reservan espacio y no se ejecutan
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        int antes = instrucciones.size();
+        for (int i = instrucciones.size() - 1; i >= 0; i--) {
+            Instruccion.Operacion op = instrucciones.get(i).op;
+            if (!alcanzada[i + 1] && op != Instruccion.Operacion.LOCAL && op != Instruccion.Operacion.ARRAY) {
+                instrucciones.remove(i);
+            }
+        }
+        inalcanzables += antes - instrucciones.size();
+        return antes != instrucciones.size();
+    }
+
+    // Quita los saltos a la etiqueta que sigue inmediatamente y las etiquetas a las que
+    // no salta nadie. Un salto a un GOTO se redirige antes a su destino final, con lo que
+    // los bloques que solo saltaban quedan inalcanzables.
+    private boolean simplificarSaltos(FuncionIntermedia funcion) {
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        int antes = instrucciones.size();
+        boolean redirigido = redirigirSaltos(instrucciones);
+        for (int i = instrucciones.size() - 1; i >= 0; i--) {
+            Instruccion instruccion = instrucciones.get(i);
+            if (instruccion.esSalto() && instruccion.destinos().size() == 1 && saltaALaSiguiente(instrucciones, i)) {
+                instrucciones.remove(i);
+            }
+        }
+
+        Set<String> referidas = new HashSet<>();
+        for (Instruccion instruccion : instrucciones) {
+            referidas.addAll(instruccion.destinos());
+            if (instruccion.op == Instruccion.Operacion.PHI) {
+                referidas.addAll(instruccion.origenes);
+            }
+        }
+        instrucciones.removeIf(instruccion ->
+            instruccion.op == Instruccion.Operacion.LABEL && !referidas.contains(instruccion.etiqueta));
+        inalcanzables += antes - instrucciones.size();
+        return redirigido || antes != instrucciones.size();
+    }
+
+    private static boolean redirigirSaltos(List<Instruccion> instrucciones) {
+        Map<String, String> siguienteGoto = new HashMap<>(); // Etiqueta -> destino del GOTO que la sigue
+        for (int i = 0; i < instrucciones.size(); i++) {
+            if (instrucciones.get(i).op != Instruccion.Operacion.LABEL) {
+                continue;
+            }
+            int j = i + 1;
+            while (j < instrucciones.size() && instrucciones.get(j).op == Instruccion.Operacion.LABEL) {
+                j++;
+            }
+            if (j < instrucciones.size() && instrucciones.get(j).op == Instruccion.Operacion.GOTO) {
+                siguienteGoto.put(instrucciones.get(i).etiqueta, instrucciones.get(j).etiqueta);
+            }
+        }
+
+        boolean cambio = false;
+        for (Instruccion instruccion : instrucciones) {
+            for (String original : instruccion.destinos()) {
+                // El límite corta los ciclos de GOTO que solo saltan entre sí
+                String destino = original;
+                for (int pasos = 0; pasos < siguienteGoto.size() && siguienteGoto.containsKey(destino); pasos++) {
+                    destino = siguienteGoto.get(destino);
+                }
+                if (!destino.equals(original)) {
+                    instruccion.redirigir(original, destino);
+                    cambio = true;
+                }
+            }
+        }
+        return cambio;
+    }
+
+    private static boolean saltaALaSiguiente(List<Instruccion> instrucciones, int indice) {
+        String destino = instrucciones.get(indice).etiqueta;
+        for (int j = indice + 1; j < instrucciones.size(); j++) {
+            Instruccion siguiente = instrucciones.get(j);
+            if (siguiente.op != Instruccion.Operacion.LABEL) {
+                return false;
+            }
+            if (siguiente.etiqueta.equals(destino)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean quitarAsignacionesMuertas(FuncionIntermedia funcion) {
+        VidaVariables vida = new VidaVariables(funcion);
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        int antes = instrucciones.size();
+        for (int i = instrucciones.size() - 1; i >= 0; i--) {
+            Instruccion instruccion = instrucciones.get(i);
+            Operando definido = instruccion.definicion();
+            if (definido == null || !definido.esNombre() || !sinEfectos(instruccion) ||
+                globales.contains(definido.nombre)) {
+                continue;
+            }
+            if (!vida.vivaAlSalir(i + 1, definido.nombre)) {
+                instrucciones.remove(i);
+            }
+        }
+        asignacionesMuertas += antes - instrucciones.size();
+        return antes != instrucciones.size();
+    }
+
+    // Instrucciones cuyo único efecto es escribir su destino. Las lecturas consumen
+    // la entrada y no se pueden quitar aunque su resultado no se use.
+    private static boolean sinEfectos(Instruccion instruccion) {
+        switch (instruccion.op) {
+            case COPIA:
+            case NEGACION:
+            case NOT:
+            case ARREGLO_LEER:
+            case RET:
+                return true;
+            default:
+                return instruccion.op.esBinaria();
+        }
+    }
+}
@@ -1,1320 +1,1734 @@
 import java.io.*;
-import java.nio.file.*;
 import java.util.*;
 
 public class EscritorMips {
+    private static final int MAXIMO_MULTIPLICACIONES_POTENCIA = 8; // Cadena más larga que se expande en línea
+
     private PrintWriter out;
-    private String funcionActual = ""; 
-    private boolean llamadaNavidad = false;
-    private List<String> argumentosPendientes = new ArrayList<>();
-    private Map<String, Integer> stackOffsetMap = new HashMap<>(); // Mapa de variable -> offset en pila
-    private Map<String, Integer> labelPositions = new HashMap<>();
-    private Map<String, String> stringMap = new HashMap<>(); // Mapa de string -> label
+    private ProgramaIntermedio programa;
+    private String funcionActual = "";
+    private List<Operando> argumentosPendientes = new ArrayList<>();
+    private String ultimaLlamada = null;
+    private Map<String, Integer> stackOffsetMap = new HashMap<>(); // Mapa de variable -> offset en el marco ($sp)
+    private Map<String, Instruccion> arreglos = new HashMap<>();   // Mapa de arreglo -> declaración ARRAY
+    private Map<String, Integer> offsetSalvados = new LinkedHashMap<>(); // Registro $s -> offset donde se guarda
+    private Set<String> globales = new HashSet<>();                // Las globales viven en .data
     private Set<String> syscalls = new HashSet<>();
-    private boolean hasMainLabel = false;
-    private int stringCounter = 1;
     private int currentStackOffset = 0; // Para manejar offsets en la pila
-    private List<String> todasLasStrings = new ArrayList<>();
-    
-    public void procesar(String entrada, String salida) throws IOException {
-        List<String> lineas = Files.readAllLines(Paths.get(entrada));
-        out = new PrintWriter(new FileWriter(salida));
-        
-        detectarLabels(lineas);
-        
-        extraerStringsRobusto(lineas);
-        detectarSyscalls(lineas);
-        calcularVariablesEnPila(lineas);
-        
+    private int tamanoMarco = 0;        // Bytes del marco de la función en curso
+    private int offsetRa = -1;          // -1 si la función no hace jal y no necesita guardar $ra
+    private int totalMarcos = 0;
+    private int etiquetasInternas = 0;  // Para las etiquetas que genera el propio backend
+    private List<String> tablasSaltos = new ArrayList<>(); // Tablas de los SWITCH, van en .data al final
+    private final int nivelOptimizacion; // 0: todo en pila, 1: barrido lineal, 2: coloreo de grafos
+    private Map<String, AsignacionRegistros> asignaciones = new HashMap<>();
+    private AsignacionRegistros asignacion = new AsignacionRegistros(); // La de la función en curso
+    private final OptimizadorMirilla mirilla = new OptimizadorMirilla();
+    private final PlanificadorInstrucciones planificador = new PlanificadorInstrucciones();
+    private final boolean ranurasRetardo; // Semántica real de los saltos: .set noreorder y ranuras llenas
+    private final boolean estadisticas;   // Con -estadisticas: reglas de mirilla y planificación aplicadas
+
+    public EscritorMips() {
+        this(1);
+    }
+
+    public EscritorMips(int nivelOptimizacion) {
+        this(nivelOptimizacion, false);
+    }
+
+    public EscritorMips(int nivelOptimizacion, boolean ranurasRetardo) {
+        this(nivelOptimizacion, ranurasRetardo, false);
+    }
+
+    public EscritorMips(int nivelOptimizacion, boolean ranurasRetardo, boolean estadisticas) {
+        this.nivelOptimizacion = nivelOptimizacion;
+        this.ranurasRetardo = ranurasRetardo;
+        this.estadisticas = estadisticas;
+    }
+
+    public void procesar(ProgramaIntermedio programa, String salida) throws IOException {
+        this.programa = programa;
+        // Con ranuras de retardo el programa entero se arma en memoria: también los saltos
+        // de main y de las rutinas de apoyo necesitan la suya
+        PrintWriter archivo = new PrintWriter(new FileWriter(salida));
+        StringWriter texto = new StringWriter();
+        out = ranurasRetardo ? new PrintWriter(texto) : archivo;
+
+        globales = programa.nombresGlobales();
+        detectarSyscalls();
+        asignarRegistros();
+
         // Sección .data - solo strings
         out.println(".data");
         out.println("    nl: .asciiz \"\\n\"");
         out.println("    true_str: .asciiz \"true\"");
         out.println("    false_str: .asciiz \"false\"");
-        
-        // Declarar todas las strings encontradas
-        for (String str : todasLasStrings) {
-            String label = stringMap.get(str);
-            out.println("    " + label + ": .asciiz \"" + escapeString(str) + "\"");
-        }
-        
-        out.println("\n.text\nmain:");
-        
-        // Reservar espacio en la pila para todas las variables
-        // (incluyendo las declaradas con LOCAL)
-        if (currentStackOffset > 0) {
-            out.println("    addiu $sp, $sp, -" + currentStackOffset);
-            out.println("    move $fp, $sp");
-            
-            // Inicializar variables locales a 0 (opcional)
-            out.println("    # Inicializar espacio de variables locales");
-            out.println("    move $t0, $fp");
-            out.println("    li $t1, 0");
-            for (int i = 0; i < currentStackOffset / 4; i++) {
-                out.println("    sw $t1, " + (i * 4) + "($t0)");
-            }
+
+        // Declarar todas las strings del programa
+        for (Map.Entry<String, String> cadena : programa.cadenas.entrySet()) {
+            out.println("    " + cadena.getKey() + ": .asciiz \"" + escapeString(cadena.getValue()) + "\"");
         }
 
-        if (!hasMainLabel) {
-            out.println("\ninicio_codigo:");
+        // Variables globales, con su valor inicial si es constante
+        if (!programa.globales.isEmpty()) {
+            out.println("    .align 2");
         }
+        for (Instruccion global : programa.globales) {
+            out.println("    " + etiquetaGlobal(global.destino.nombre) + ": " + valorInicialGlobal(global));
+        }
+
+        out.println("\n.text");
+        if (ranurasRetardo) {
+            out.println(".set noreorder");
+        }
+        out.println("main:");
 
-        funcionActual = "";
-        
-        traducirCodigo(lineas);
-        
-        // Liberar pila y terminar
-        out.println("\n    # Liberar pila y terminar");
-        if (currentStackOffset > 0) {
-            out.println("    addiu $sp, $sp, " + currentStackOffset);
+        // Cada función reserva su propio marco; main solo llama a la principal
+        FuncionIntermedia principal = programa.principal();
+        if (principal != null) {
+            emitir("jal " + principal.nombre);
         }
-        out.println("    li $v0, 10");
-        out.println("    syscall");
-        
+        terminarPrograma();
+
+        for (FuncionIntermedia funcion : programa.funciones) {
+            traducirFuncion(funcion);
+        }
+
         generarSyscalls();
-        
-        out.close();
-    }
-    
-    private void calcularVariablesEnPila(List<String> lineas) {
-        currentStackOffset = 0;
-        
-        for (String linea : lineas) {
-            String l = linea.trim();
-            if (l.isEmpty() || l.endsWith(":")) continue;
-            
-            List<String> tokens = dividirLineaConStrings(l);
-            
-            // Buscar variables en la línea
-            for (String token : tokens) {
-                if (esVariable(token) && !stackOffsetMap.containsKey(token)) {
-                    // Asignar espacio en la pila para la variable
-                    stackOffsetMap.put(token, currentStackOffset);
-                    currentStackOffset += 4; // 4 bytes por variable (palabra)
-                }
+
+        if (!tablasSaltos.isEmpty()) {
+            out.println("\n.data\n    .align 2");
+            for (String tabla : tablasSaltos) {
+                out.println(tabla);
             }
         }
-        
-        System.out.println("Total espacio en pila reservado: " + currentStackOffset + " bytes");
-    }
-    
-    private boolean esVariable(String token) {
-        if (token == null || token.isEmpty()) return false;
-        
-        // No es un número
-        if (token.matches("-?\\d+")) return false;
-        
-        // No es una string literal
-        if (token.startsWith("\"") || token.startsWith("'")) return false;
-        
-        // No es una keyword
-        if (esKeyword(token)) return false;
-        
-        // No es una label
-        if (labelPositions.containsKey(token)) return false;
-        
-        // No es un operador
-        if (token.equals("=") || token.equals("+") || token.equals("-") || 
-            token.equals("*") || token.equals("/") || token.equals("%") ||
-            token.equals("<") || token.equals(">") || token.equals("<=") || 
-            token.equals(">=") || token.equals("==") || token.equals("!=")) {
-            return false;
+
+        if (ranurasRetardo) {
+            out.flush();
+            List<String> lineas = dividirLineas(texto.toString());
+            planificador.llenarRanuras(lineas);
+            for (String linea : lineas) {
+                archivo.println(linea);
+            }
         }
-        
-        // No es una instrucción especial
-        if (token.equals("PRINT") || token.equals("RETURN") || token.equals("IF") || 
-            token.equals("NOT") || token.equals("GOTO") || token.equals("CALL") ||
-            token.equals("PRINTFLOAT") || token.equals("PARAM")) {
-            return false;
+        archivo.close();
+        System.out.println("Total espacio en pila reservado: " + totalMarcos + " bytes");
+        if (estadisticas && nivelOptimizacion >= 1) {
+            System.out.println("Mirilla: " + mirilla.resumen());
+        }
+        if (estadisticas && (nivelOptimizacion >= 1 || ranurasRetardo)) {
+            System.out.println("Planificación: " + planificador.resumen());
         }
-        
-        // Es un identificador válido para variable
-        return token.matches("[a-zA-Z_][a-zA-Z0-9_]*");
     }
-    private void detectarLabels(List<String> lineas) {
-        for (String linea : lineas) {
-            String l = linea.trim();
-            if (l.isEmpty()) continue;
-            
-            // Buscar labels (terminan con :)
-            if (l.endsWith(":")) {
-                String label = l.replace(":", "").trim();
-                
-                if (!label.isEmpty()) {
-                    labelPositions.put(label, 0);
-                    
-                    if (label.equals("navidad")) {
-                        hasMainLabel = true;
-                    }
-                }
-            }
+
+    private String etiquetaGlobal(String nombre) {
+        return "glob_" + nombre;
+    }
+
+    private String valorInicialGlobal(Instruccion global) {
+        Operando valor = global.a;
+        boolean flotante = global.tipoDato.equals("float");
+        if (valor == null || !(valor.esConstante() || valor.clase == Operando.Clase.CADENA)) {
+            return flotante ? ".float 0.0" : ".word 0";
         }
+        if (flotante) {
+            return ".float " + valor.valorFlotante();
+        }
+        if (valor.clase == Operando.Clase.CADENA) {
+            return ".word " + valor.nombre;
+        }
+        return ".word " + valor.valorEntero();
     }
-    // Método principal para cargar registros (para uso en pila)
-    private void cargarRegistroPila(String registro, String valor) {
-        if (esNumero(valor)) {
-            // Si es un número, usar li
-            out.println("    li " + registro + ", " + valor);
-        } else if (esFloat(valor)) {
-            if (registro.startsWith("$f")) {
-                // Para registros de punto flotante ($f0-$f31)
-                out.println("    li.s " + registro + ", " + valor);
+
+    private void asignarRegistros() {
+        if (nivelOptimizacion < 1) {
+            return;
+        }
+
+        for (FuncionIntermedia funcion : programa.funciones) {
+            if (nivelOptimizacion >= 2) {
+                asignaciones.put(funcion.nombre, new AsignadorColoreo(funcion, globales).asignar());
             } else {
-                // Para registros enteros, convertir float a int
-                float floatValue = Float.parseFloat(valor);
-                int intValue = (int) floatValue;
-                out.println("    li " + registro + ", " + intValue);
+                asignaciones.put(funcion.nombre, new AsignadorLineal(funcion, globales).asignar());
+            }
+        }
+    }
+
+    private AsignacionRegistros asignacionDe(FuncionIntermedia funcion) {
+        AsignacionRegistros encontrada = asignaciones.get(funcion.nombre);
+        return encontrada != null ? encontrada : new AsignacionRegistros();
+    }
+
+    // Marco de una función, desde $sp hacia arriba:
+    //   [argumentos salientes 5..n] [variables y arreglos] [registros $s] [$ra]
+    // Los cuatro primeros argumentos viajan en $a0-$a3; los demás los deja el llamador
+    // en el fondo de su propio marco, justo encima del marco de la función llamada.
+    private void calcularMarco(FuncionIntermedia funcion) {
+        stackOffsetMap.clear();
+        arreglos.clear();
+        offsetSalvados.clear();
+
+        int argumentosSalientes = 0;
+        int pendientes = 0;
+        boolean haceLlamadas = false;
+        for (int i = 0; i < funcion.instrucciones.size(); i++) {
+            Instruccion instruccion = funcion.instrucciones.get(i);
+            switch (instruccion.op) {
+                case PARAM:
+                    pendientes++;
+                    break;
+                case CALL:
+                    argumentosSalientes = Math.max(argumentosSalientes, pendientes - 4);
+                    // Una llamada de cola sale por el llamador: no hace falta guardar $ra
+                    haceLlamadas |= !esLlamadaCola(funcion, funcion.instrucciones, i, pendientes);
+                    pendientes = 0;
+                    break;
+                case POTENCIA:
+                    haceLlamadas |= !potenciaEnLinea(instruccion);
+                    break;
+                default:
+                    break;
+            }
+        }
+        currentStackOffset = 4 * argumentosSalientes;
+
+        for (int i = 0; i < funcion.parametros.size() && i < 4; i++) {
+            Operando parametro = funcion.parametros.get(i);
+            if (!asignacion.tieneRegistro(parametro.nombre)) {
+                asignarEspacioPila(parametro.nombre);
             }
-        } else if (esStringLiteral(valor)) {
-            // Si es una string literal
-            String str = extraerStringDeLiteral(valor);
-            String label = obtenerLabelString(str);
-            out.println("    la " + registro + ", " + label);
-        } else if (esVariable(valor)) {
-            // Si es una variable en la pila
-            if (!stackOffsetMap.containsKey(valor)) {
-                // Variable nueva, asignar espacio en la pila
-                asignarEspacioPila(valor);
+        }
+        for (Instruccion instruccion : funcion.instrucciones) {
+            if (instruccion.op == Instruccion.Operacion.ARRAY) {
+                asignarEspacioArreglo(instruccion);
+                continue;
             }
-            int offset = stackOffsetMap.get(valor);
-            if (registro.startsWith("$f")) {
-                // Cargar float desde la pila a registro de punto flotante
-                out.println("    lwc1 " + registro + ", " + offset + "($fp)");
-            } else {
-                // Cargar entero desde la pila a registro entero
-                out.println("    lw " + registro + ", " + offset + "($fp)");
+            Operando definido = instruccion.definicion();
+            if (definido != null && definido.esNombre()) {
+                reservarSlot(funcion, definido.nombre);
             }
-        } else if (esLabel(valor)) {
-            // Si es una label (para saltos)
-            out.println("    la " + registro + ", " + valor);
-        } else if (valor.equals("true") || valor.equals("false")) {
-            // Manejar booleanos
-            if (valor.equals("true")) {
-                out.println("    li " + registro + ", 1");
-            } else {
-                out.println("    li " + registro + ", 0");
+            if (instruccion.op == Instruccion.Operacion.LOCAL) {
+                reservarSlot(funcion, instruccion.destino.nombre);
+            }
+            for (Operando uso : instruccion.usos()) {
+                if (uso.esNombre()) {
+                    reservarSlot(funcion, uso.nombre);
+                }
             }
-        } else {
-            // Valor no reconocido
-            out.println("    # Error: valor no reconocido '" + valor + "'");
         }
-    }
-    
 
-    private void extraerStringsRobusto(List<String> lineas) {
-        for (String linea : lineas) {
-            List<String> stringsEnLinea = extraerStringsDeLinea(linea);
-            for (String str : stringsEnLinea) {
-                if (!stringMap.containsKey(str)) {
-                    String label = "str_" + stringCounter;  // str_1, str_2, etc.
-                    stringMap.put(str, label);
-                    todasLasStrings.add(str);
-
-                    stringCounter++;
-                }
+        // navidad termina el programa con una syscall: no vuelve y no preserva nada
+        if (!funcion.principal) {
+            for (String registro : asignacion.salvadosUsados()) {
+                offsetSalvados.put(registro, currentStackOffset);
+                currentStackOffset += 4;
             }
         }
+        offsetRa = -1;
+        if (haceLlamadas && !funcion.principal) {
+            offsetRa = currentStackOffset;
+            currentStackOffset += 4;
+        }
+        tamanoMarco = (currentStackOffset + 7) & ~7; // $sp alineado a doble palabra
+        totalMarcos += tamanoMarco;
+
+        // Argumentos 5..n: ya están en el marco del llamador
+        for (int i = 4; i < funcion.parametros.size(); i++) {
+            stackOffsetMap.put(funcion.parametros.get(i).nombre, tamanoMarco + 4 * (i - 4));
+        }
+    }
+
+    private void reservarSlot(FuncionIntermedia funcion, String nombre) {
+        if (globales.contains(nombre) || asignacion.tieneRegistro(nombre) || esParametroEnPila(funcion, nombre)) {
+            return;
+        }
+        asignarEspacioPila(nombre);
     }
 
-    private boolean esNumero(String token) {
-        if (token == null || token.isEmpty()) return false;
-        
-        // Enteros positivos o negativos
-        if (token.matches("-?\\d+")) return true;
-        
-        // Números hexadecimales
-        if (token.matches("-?0[xX][0-9a-fA-F]+")) return true;
-        
-        // Números binarios
-        if (token.matches("-?0[bB][01]+")) return true;
-        
+    private boolean esParametroEnPila(FuncionIntermedia funcion, String nombre) {
+        for (int i = 4; i < funcion.parametros.size(); i++) {
+            if (funcion.parametros.get(i).nombre.equals(nombre)) {
+                return true;
+            }
+        }
         return false;
     }
-    private void cargarRegistro(String registro, String valor) {
-        if (valor == null || valor.isEmpty() || valor.equals("NAVIDAD")) {
+
+    private void asignarEspacioPila(String variable) {
+        if (!stackOffsetMap.containsKey(variable)) {
+            stackOffsetMap.put(variable, currentStackOffset);
+            currentStackOffset += 4; // 4 bytes por variable
+        }
+    }
+
+    private void asignarEspacioArreglo(Instruccion declaracion) {
+        String nombre = declaracion.destino.nombre;
+        if (arreglos.containsKey(nombre)) {
             return;
         }
-        
-        // Si es una variable no declarada, declararla automáticamente
-        if (esVariable(valor) && !stackOffsetMap.containsKey(valor)) {
-            asignarEspacioPila(valor);
-            out.println("    # Variable '" + valor + "' creada automáticamente");
-        }
-        
-        // Determinar si es float
-        boolean esFloatValor = valor.endsWith("_f") || esFloat(valor) || 
-                            (stackOffsetMap.containsKey(valor) && esVariableFloat(valor));
-        
-        // Para registros de float
-        if (registro.startsWith("$f")) {
-            if (esFloatValor) {
-                if (valor.endsWith("_f")) {
-                    String valorSinSufijo = valor.substring(0, valor.length() - 2);
-                    out.println("    li.s " + registro + ", " + valorSinSufijo);
-                } else if (esFloat(valor)) {
-                    out.println("    li.s " + registro + ", " + valor);
-                } else if (stackOffsetMap.containsKey(valor)) {
-                    int offset = stackOffsetMap.get(valor);
-                    out.println("    lwc1 " + registro + ", " + offset + "($fp)");
-                } else if (valor.equals("true")) {
-                    out.println("    li.s " + registro + ", 1.0");
-                } else if (valor.equals("false")) {
-                    out.println("    li.s " + registro + ", 0.0");
-                } else if (esNumero(valor)) {
-                    // Convertir entero a float
-                    out.println("    li $t0, " + valor);
-                    out.println("    mtc1 $t0, " + registro);
-                    out.println("    cvt.s.w " + registro + ", " + registro);
-                }
+        arreglos.put(nombre, declaracion);
+        stackOffsetMap.put(nombre, currentStackOffset);
+        currentStackOffset += 4 * Math.max(1, declaracion.filas) * Math.max(1, declaracion.columnas);
+    }
+
+    private void emitir(String instruccion) {
+        out.println("    " + instruccion);
+    }
+
+    private void etiqueta(String nombre) {
+        out.println(nombre + ":");
+    }
+
+    private void comentario(String texto) {
+        out.println("    # " + texto);
+    }
+
+    private String nuevaEtiquetaInterna(String prefijo) {
+        return prefijo + "_" + (etiquetasInternas++);
+    }
+
+    // Con optimización, el texto de la función se arma en memoria y pasa por la mirilla y
+    // por el planificador antes de escribirse
+    private void traducirFuncion(FuncionIntermedia funcion) {
+        if (nivelOptimizacion < 1) {
+            generarFuncion(funcion);
+            return;
+        }
+        PrintWriter archivo = out;
+        StringWriter texto = new StringWriter();
+        out = new PrintWriter(texto);
+        generarFuncion(funcion);
+        out.flush();
+        out = archivo;
+
+        List<String> lineas = dividirLineas(texto.toString());
+        mirilla.optimizar(lineas);
+        planificador.planificar(lineas);
+        for (String linea : lineas) {
+            out.println(linea);
+        }
+    }
+
+    private static List<String> dividirLineas(String texto) {
+        List<String> lineas = new ArrayList<>(Arrays.asList(texto.split("\\R", -1)));
+        if (!lineas.isEmpty() && lineas.get(lineas.size() - 1).isEmpty()) {
+            lineas.remove(lineas.size() - 1);
+        }
+        return lineas;
+    }
+
+    private void generarFuncion(FuncionIntermedia funcion) {
+        funcionActual = funcion.nombre;
+        asignacion = asignacionDe(funcion);
+
+        out.println();
+        comentario(funcion.principal ? "FUNCION PRINCIPAL (" + funcion.nombre + ")"
+                                     : "FUNCION " + funcion.nombre + " -> " + funcion.tipoRetorno);
+        etiqueta(funcion.nombre);
+
+        calcularMarco(funcion);
+        generarPrologo(funcion);
+
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        Map<String, Integer> usos = contarUsos(funcion);
+        Map<Instruccion, Instruccion> comparacionDe = new HashMap<>(); // IF -> comparación que se hace en el salto
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            if (instruccion.op != Instruccion.Operacion.LABEL) {
+                out.println("\n    # " + instruccion);
+            }
+            Instruccion salto = saltoDeComparacion(instrucciones, i, usos);
+            if (salto != null) {
+                comparacionDe.put(salto, instruccion);
+                continue;
+            }
+            if (comparacionDe.containsKey(instruccion)) {
+                procesarComparacionYSalto(comparacionDe.get(instruccion), instruccion);
+                continue;
+            }
+            if (instruccion.op == Instruccion.Operacion.CALL &&
+                esLlamadaCola(funcion, instrucciones, i, argumentosPendientes.size())) {
+                procesarLlamadaCola(instruccion.etiqueta);
+                i += LlamadasCola.restoDeCola(instrucciones, i);
+                continue;
+            }
+            traducirInstruccion(funcion, instruccion);
+        }
+
+        // Una función que llega al final sin RETURN vuelve igual al llamador
+        if (instrucciones.isEmpty() || !instrucciones.get(instrucciones.size() - 1).terminaFlujo()) {
+            if (funcion.principal) {
+                terminarPrograma();
             } else {
-                // No es float, cargar como entero y convertir
-                cargarRegistro(registro.replace("$f", "$t"), valor);
-                out.println("    mtc1 " + registro.replace("$f", "$t") + ", " + registro);
-                out.println("    cvt.s.w " + registro + ", " + registro);
+                generarEpilogo();
             }
-        } 
-        // Para registros enteros
-        else {
-            if (esFloatValor) {
-                // Convertir float a entero
-                String tempFloatReg = "$f" + registro.substring(2);
-                if (valor.endsWith("_f")) {
-                    String valorSinSufijo = valor.substring(0, valor.length() - 2);
-                    out.println("    li.s " + tempFloatReg + ", " + valorSinSufijo);
-                } else if (stackOffsetMap.containsKey(valor)) {
-                    int offset = stackOffsetMap.get(valor);
-                    out.println("    lwc1 " + tempFloatReg + ", " + offset + "($fp)");
+        }
+    }
+
+    private void generarPrologo(FuncionIntermedia funcion) {
+        if (tamanoMarco > 0) {
+            emitir("addiu $sp, $sp, -" + tamanoMarco);
+        }
+        if (offsetRa >= 0) {
+            emitir("sw $ra, " + offsetRa + "($sp)");
+        }
+        for (Map.Entry<String, Integer> salvado : offsetSalvados.entrySet()) {
+            emitir("sw " + salvado.getKey() + ", " + salvado.getValue() + "($sp)");
+        }
+
+        // Los argumentos llegan en $a0-$a3 y el resto en el marco del llamador
+        for (int i = 0; i < funcion.parametros.size(); i++) {
+            Operando parametro = funcion.parametros.get(i);
+            String asignado = asignacion.registroDe(parametro.nombre);
+            if (i >= 4) {
+                if (asignado != null) {
+                    emitir("lw " + asignado + ", " + (tamanoMarco + 4 * (i - 4)) + "($sp)");
                 }
-                out.println("    cvt.w.s " + tempFloatReg + ", " + tempFloatReg);
-                out.println("    mfc1 " + registro + ", " + tempFloatReg);
-            } else if (valor.equals("true")) {
-                out.println("    li " + registro + ", 1");
-            } else if (valor.equals("false")) {
-                out.println("    li " + registro + ", 0");
-            } else if (esNumero(valor)) {
-                out.println("    li " + registro + ", " + valor);
-            } else if (esStringLiteral(valor)) {
-                String str = extraerStringDeLiteral(valor);
-                String label = obtenerLabelString(str);
-                out.println("    la " + registro + ", " + label);
-            } else if (stackOffsetMap.containsKey(valor)) {
-                int offset = stackOffsetMap.get(valor);
-                out.println("    lw " + registro + ", " + offset + "($fp)");
+            } else if (parametro.esFlotante()) {
+                // Los floats llegan como patrón de bits
+                emitir("sw $a" + i + ", " + direccionDe(parametro));
             } else {
-                out.println("    # Valor no reconocido: " + valor);
+                guardarEntero(parametro, "$a" + i);
             }
         }
-    }
 
-    private boolean esVariableFloat(String nombreVariable) {
-        // Estrategias para identificar variables float:
-        
-        // 1. Por convención de nombres
-        String[] floatSuffixes = {"_f", "_float", "Float", "flt"};
-        String nombreLower = nombreVariable.toLowerCase();
-        
-        for (String suffix : floatSuffixes) {
-            if (nombreLower.endsWith(suffix)) {
-                return true;
+        // Las variables que se leen antes de asignarse y los arreglos empiezan en cero
+        VidaVariables vida = new VidaVariables(funcion);
+        for (String nombre : vida.vivasEntrada(0)) {
+            if (stackOffsetMap.containsKey(nombre) && !arreglos.containsKey(nombre) && !esParametro(funcion, nombre)) {
+                emitir("sw $zero, " + stackOffsetMap.get(nombre) + "($sp)");
             }
         }
-        
-        // 2. Por nombres comunes de variables float
-        String[] floatNames = {"pi", "e", "epsilon", "delta", "ratio", "average", "mean"};
-        for (String name : floatNames) {
-            if (nombreLower.contains(name)) {
+        for (Instruccion declaracion : arreglos.values()) {
+            inicializarArreglo(declaracion);
+        }
+    }
+
+    private boolean esParametro(FuncionIntermedia funcion, String nombre) {
+        for (Operando parametro : funcion.parametros) {
+            if (parametro.nombre.equals(nombre)) {
                 return true;
             }
         }
-                
         return false;
     }
 
-    private boolean esFloat(String token) {
-        if (token == null || token.isEmpty()) return false;
-        
-        // Números en formato decimal con punto
-        if (token.matches("-?\\d+\\.\\d+")) return true;
-        
-        // Números en formato científico
-        if (token.matches("-?\\d+\\.\\d+[eE][-+]?\\d+")) return true;
-        
-        return false;
-    }
-    
-    private boolean esStringLiteral(String token) {
-        if (token == null || token.isEmpty()) return false;
-        
-        // Comillas simples o dobles
-        if ((token.startsWith("\"") && token.endsWith("\"")) ||
-            (token.startsWith("'") && token.endsWith("'"))) {
-            return true;
+    private void inicializarArreglo(Instruccion declaracion) {
+        int base = stackOffsetMap.get(declaracion.destino.nombre);
+        int palabras = Math.max(1, declaracion.filas) * Math.max(1, declaracion.columnas);
+        if (palabras <= 8) {
+            for (int i = 0; i < palabras; i++) {
+                emitir("sw $zero, " + (base + 4 * i) + "($sp)");
+            }
+            return;
         }
-        
-        return false;
+        String ciclo = nuevaEtiquetaInterna("limpiar");
+        emitir("addiu $t0, $sp, " + base);
+        emitir("addiu $t1, $t0, " + (4 * palabras));
+        etiqueta(ciclo);
+        emitir("sw $zero, 0($t0)");
+        emitir("addiu $t0, $t0, 4");
+        emitir("bne $t0, $t1, " + ciclo);
     }
-    
-    private String extraerStringDeLiteral(String literal) {
-        if (literal.length() < 2) return "";
-        
-        // Eliminar las comillas del inicio y final
-        return literal.substring(1, literal.length() - 1);
+
+    private void generarEpilogo() {
+        desarmarMarco();
+        emitir("jr $ra");
     }
-    
-    private String obtenerLabelString(String str) {
-        if (!stringMap.containsKey(str)) {
-            // Crear nueva label para la string
-            String newLabel = "str" + (stringMap.size() + 1);
-            stringMap.put(str, newLabel);
-        }
-        return stringMap.get(str);
 
+    private void desarmarMarco() {
+        for (Map.Entry<String, Integer> salvado : offsetSalvados.entrySet()) {
+            emitir("lw " + salvado.getKey() + ", " + salvado.getValue() + "($sp)");
+        }
+        if (offsetRa >= 0) {
+            emitir("lw $ra, " + offsetRa + "($sp)");
+        }
+        if (tamanoMarco > 0) {
+            emitir("addiu $sp, $sp, " + tamanoMarco);
+        }
     }
-    
-    
-    private boolean esLabel(String token) {
-        return labelPositions.containsKey(token);
+
+    private void traducirInstruccion(FuncionIntermedia funcion, Instruccion instruccion) {
+        switch (instruccion.op) {
+            case LABEL:
+                etiqueta(instruccion.etiqueta);
+                break;
+            case GOTO:
+                emitir("j " + instruccion.etiqueta);
+                break;
+            case IF:
+                emitir("bnez " + cargarEntero(instruccion.a, "$t0") + ", " + instruccion.etiqueta);
+                break;
+            case IF_NOT:
+                emitir("beqz " + cargarEntero(instruccion.a, "$t0") + ", " + instruccion.etiqueta);
+                break;
+            case SWITCH:
+                procesarSeleccion(instruccion);
+                break;
+            case PARAM:
+                argumentosPendientes.add(instruccion.a);
+                break;
+            case CALL:
+                procesarCallInstruccion(instruccion.etiqueta);
+                break;
+            case RET:
+                procesarAsignacionRetorno(instruccion);
+                break;
+            case RETURN:
+                procesarReturn(funcion, instruccion);
+                break;
+            case LOCAL:
+            case ARRAY:
+                // El espacio ya fue reservado en calcularMarco
+                break;
+            case COPIA:
+                procesarAsignacion(instruccion);
+                break;
+            case NEGACION:
+                procesarNegacion(instruccion);
+                break;
+            case NOT: {
+                String fuente = cargarEntero(instruccion.a, "$t0");
+                String destino = registroDestino(instruccion.destino, "$t2");
+                emitir("seq " + destino + ", " + fuente + ", $zero");
+                guardarEntero(instruccion.destino, destino);
+                break;
+            }
+            case ARREGLO_LEER:
+            case ARREGLO_ESCRIBIR:
+                procesarAccesoArreglo(instruccion);
+                break;
+            case PRINT:
+                procesarPrint(instruccion.a);
+                break;
+            case PRINTFLOAT:
+                procesarPrintFloat(instruccion.a);
+                break;
+            case PRINTSTRING:
+                procesarPrintString(instruccion.a);
+                break;
+            default:
+                if (instruccion.op.esLectura()) {
+                    procesarRead(instruccion);
+                } else if (instruccion.op.esBinaria()) {
+                    procesarOperacionBinaria(instruccion);
+                }
+                break;
+        }
     }
-    
-    private void asignarEspacioPila(String variable) {
-        stackOffsetMap.put(variable, currentStackOffset);
-        currentStackOffset += 4; // 4 bytes por variable
-    }
-    
-    private List<String> extraerStringsDeLinea(String linea) {
-        List<String> strings = new ArrayList<>();
-        boolean dentroDeString = false;
-        StringBuilder strActual = new StringBuilder();
-        char comillaTipo = '\0';
-        
-        for (int i = 0; i < linea.length(); i++) {
-            char c = linea.charAt(i);
-            
-            if (!dentroDeString) {
-                if (c == '"' || c == '\'') {
-                    dentroDeString = true;
-                    comillaTipo = c;
+
+    // Deja el valor entero del operando en un registro y devuelve cuál
+    private String cargarEntero(Operando valor, String registro) {
+        switch (valor.clase) {
+            case ENTERO:
+            case BOOLEANO:
+            case CARACTER:
+            case FLOTANTE:
+                cargarConstante(registro, valor.valorEntero());
+                return registro;
+            case CADENA:
+                emitir("la " + registro + ", " + valor.nombre);
+                return registro;
+            default:
+                String asignado = asignacion.registroDe(valor.nombre);
+                if (asignado != null) {
+                    return asignado;
                 }
-            } else {
-                if (c == comillaTipo) {
-                    if (i > 0 && linea.charAt(i-1) == '\\') {
-                        strActual.deleteCharAt(strActual.length() - 1);
-                        strActual.append(c);
-                    } else {
-                        dentroDeString = false;
-                        strings.add(strActual.toString());
-                        strActual = new StringBuilder();
-                    }
+                if (valor.esFlotante()) {
+                    // Convertir float a entero
+                    emitir("lwc1 $f16, " + direccionDe(valor));
+                    emitir("cvt.w.s $f16, $f16");
+                    emitir("mfc1 " + registro + ", $f16");
                 } else {
-                    strActual.append(c);
+                    emitir("lw " + registro + ", " + direccionDe(valor));
                 }
-            }
+                return registro;
         }
-        
-        return strings;
     }
-    
-    private String escapeString(String str) {
-        return str.replace("\\", "\\\\")
-                  .replace("\"", "\\\"")
-                  .replace("\n", "\\n")
-                  .replace("\t", "\\t");
+
+    // li si la constante entra en los 16 bits de un addiu u ori; si no, lui con la mitad
+    // alta y ori con la baja (solo la primera si la baja es cero)
+    private void cargarConstante(String registro, long valor) {
+        int palabra = (int) valor;
+        if (palabra >= -32768 && palabra <= 65535) {
+            emitir("li " + registro + ", " + palabra);
+            return;
+        }
+        emitir("lui " + registro + ", " + ((palabra >>> 16) & 0xffff));
+        if ((palabra & 0xffff) != 0) {
+            emitir("ori " + registro + ", " + registro + ", " + (palabra & 0xffff));
+        }
+    }
+
+    // Constante entera que puede ir como inmediato de 16 bits con signo
+    private static boolean esInmediato(Operando operando) {
+        if (operando.clase != Operando.Clase.ENTERO && operando.clase != Operando.Clase.CARACTER &&
+            operando.clase != Operando.Clase.BOOLEANO) {
+            return false;
+        }
+        long valor = operando.valorEntero();
+        return valor >= -32768 && valor <= 32767;
+    }
+
+    private static boolean cabeEnInmediato(long valor) {
+        return valor >= -32768 && valor <= 32767;
+    }
+
+    // Deja el valor del operando en un registro de punto flotante y devuelve cuál
+    private String cargarFlotante(Operando valor, String registro) {
+        if (valor.clase == Operando.Clase.FLOTANTE) {
+            emitir("li.s " + registro + ", " + valor.nombre);
+        } else if (valor.esConstante()) {
+            emitir("li.s " + registro + ", " + valor.valorEntero() + ".0");
+        } else if (valor.esNombre() && valor.esFlotante()) {
+            emitir("lwc1 " + registro + ", " + direccionDe(valor));
+        } else {
+            // No es float, cargar como entero y convertir
+            String entero = cargarEntero(valor, "$t9");
+            emitir("mtc1 " + entero + ", " + registro);
+            emitir("cvt.s.w " + registro + ", " + registro);
+        }
+        return registro;
+    }
+
+    // Registro donde conviene calcular el resultado destinado a un operando
+    private String registroDestino(Operando destino, String registro) {
+        String asignado = asignacion.registroDe(destino.nombre);
+        return asignado != null ? asignado : registro;
     }
-    
-    private void detectarSyscalls(List<String> lineas) {
-        for (String linea : lineas) {
-            if (linea.contains("PRINT ")) {
-                syscalls.add("printStr");
-                syscalls.add("printInt");
 
+    private void guardarEntero(Operando destino, String registro) {
+        String asignado = asignacion.registroDe(destino.nombre);
+        if (asignado != null) {
+            if (!asignado.equals(registro)) {
+                emitir("move " + asignado + ", " + registro);
             }
-            if (linea.contains("PRINTFLOAT ")) {
-                syscalls.add("printStr");
-                syscalls.add("printFloat");
+        } else if (destino.esFlotante()) {
+            emitir("mtc1 " + registro + ", $f16");
+            emitir("cvt.s.w $f16, $f16");
+            emitir("swc1 $f16, " + direccionDe(destino));
+        } else {
+            emitir("sw " + registro + ", " + direccionDe(destino));
+        }
+    }
+
+    private void guardarFlotante(Operando destino, String registro) {
+        if (destino.esFlotante()) {
+            emitir("swc1 " + registro + ", " + direccionDe(destino));
+        } else {
+            // Convertir float a entero
+            emitir("cvt.w.s " + registro + ", " + registro);
+            emitir("mfc1 $t9, " + registro);
+            guardarEntero(destino, "$t9");
+        }
+    }
+
+    // Operando de memoria de una variable: su etiqueta si es global, su slot del marco si no
+    private String direccionDe(Operando variable) {
+        if (globales.contains(variable.nombre)) {
+            return etiquetaGlobal(variable.nombre);
+        }
+        return offsetDe(variable) + "($sp)";
+    }
+
+    private int offsetDe(Operando variable) {
+        if (!stackOffsetMap.containsKey(variable.nombre)) {
+            // Variable nueva, asignar espacio en la pila
+            asignarEspacioPila(variable.nombre);
+        }
+        return stackOffsetMap.get(variable.nombre);
+    }
+
+    private boolean esOperacionFlotante(Instruccion instruccion) {
+        return instruccion.a.esFlotante() || (instruccion.b != null && instruccion.b.esFlotante());
+    }
+
+    private void procesarAsignacion(Instruccion instruccion) {
+        if (instruccion.destino.esFlotante() || instruccion.a.esFlotante()) {
+            String registro = cargarFlotante(instruccion.a, "$f4");
+            guardarFlotante(instruccion.destino, registro);
+        } else {
+            String registro = cargarEntero(instruccion.a, registroDestino(instruccion.destino, "$t0"));
+            guardarEntero(instruccion.destino, registro);
+        }
+    }
+
+    // SWITCH con valores densos: una tabla de saltos en .data indexada por el valor menos
+    // el mínimo, donde sltiu descarta a la vez los menores y los mayores. Con valores
+    // dispersos, una búsqueda binaria de comparaciones. El selector no se modifica: puede
+    // seguir vivo en los casos.
+    private void procesarSeleccion(Instruccion instruccion) {
+        String selector = cargarEntero(instruccion.a, "$t0");
+        TreeMap<Long, String> casos = new TreeMap<>();
+        for (int k = 0; k < instruccion.casos.size(); k++) {
+            casos.putIfAbsent(instruccion.casos.get(k), instruccion.etiquetasCasos.get(k));
+        }
+        long minimo = casos.firstKey();
+        long rango = casos.lastKey() - minimo + 1;
 
+        if (casos.size() >= 4 && rango <= 3L * casos.size() && rango <= 1024 && Math.abs(minimo) < 32768) {
+            String tabla = nuevaEtiquetaInterna("tabla");
+            StringBuilder palabras = new StringBuilder();
+            for (long valor = minimo; valor <= casos.lastKey(); valor++) {
+                palabras.append(valor == minimo ? "" : ", ").append(casos.getOrDefault(valor, instruccion.etiqueta));
             }
-            if (linea.contains("printInt") || (linea.contains("PRINT ") && !contieneString(linea))) {
-                syscalls.add("printInt");
+            tablasSaltos.add("    " + tabla + ": .word " + palabras);
+
+            String indice = selector;
+            if (minimo != 0) {
+                emitir("addiu $t1, " + selector + ", " + (-minimo));
+                indice = "$t1";
             }
-            if (linea.contains("printFloat")) {
-                syscalls.add("printFloat");
+            emitir("sltiu $t2, " + indice + ", " + rango);
+            emitir("beqz $t2, " + instruccion.etiqueta);
+            emitir("sll $t1, " + indice + ", 2");
+            emitir("lw $t1, " + tabla + "($t1)");
+            emitir("jr $t1");
+            return;
+        }
+        buscarCaso(selector, new ArrayList<>(casos.keySet()), new ArrayList<>(casos.values()), 0, casos.size(),
+                   instruccion.etiqueta);
+    }
+
+    // Búsqueda binaria sobre los casos [desde, hasta), ordenados por valor
+    private void buscarCaso(String selector, List<Long> valores, List<String> destinos, int desde, int hasta,
+                            String otro) {
+        if (hasta - desde <= 3) {
+            for (int k = desde; k < hasta; k++) {
+                emitir("li $t1, " + valores.get(k));
+                emitir("beq " + selector + ", $t1, " + destinos.get(k));
             }
-            if (linea.contains("readInt")) {
-                syscalls.add("readInt");
+            emitir("j " + otro);
+            return;
+        }
+        int medio = (desde + hasta) / 2;
+        String mayores = nuevaEtiquetaInterna("casos");
+        emitir("li $t1, " + valores.get(medio));
+        emitir("beq " + selector + ", $t1, " + destinos.get(medio));
+        emitir("slt $t2, $t1, " + selector);
+        emitir("bnez $t2, " + mayores);
+        buscarCaso(selector, valores, destinos, desde, medio, otro);
+        etiqueta(mayores);
+        buscarCaso(selector, valores, destinos, medio + 1, hasta, otro);
+    }
+
+    private static Map<String, Integer> contarUsos(FuncionIntermedia funcion) {
+        Map<String, Integer> usos = new HashMap<>();
+        for (Instruccion instruccion : funcion.instrucciones) {
+            for (Operando uso : instruccion.usos()) {
+                if (uso.esNombre()) {
+                    usos.merge(uso.nombre, 1, Integer::sum);
+                }
             }
-            if (linea.contains(" * ")) {
-                syscalls.add("mult");
+        }
+        return usos;
+    }
+
+    // Una comparación cuyo único uso es el IF que cierra su bloque se hace en el propio
+    // salto, sin guardar el booleano, siempre que en el medio no se defina ningún nombre.
+    // La vida de los operandos termina en la comparación, así que un nombre definido antes
+    // del IF (como las copias que deja la salida de SSA antes del retroceso de un ciclo)
+    // puede recibir el registro de un operando y pisarlo antes del salto.
+    // Devuelve ese IF, o null si la comparación se traduce sola.
+    private Instruccion saltoDeComparacion(List<Instruccion> instrucciones, int indice, Map<String, Integer> usos) {
+        Instruccion comparacion = instrucciones.get(indice);
+        String nombre = comparacion.op.esComparacion() ? comparacion.destino.nombre : null;
+        if (nombre == null || globales.contains(nombre) || usos.getOrDefault(nombre, 0) != 1) {
+            return null;
+        }
+        for (int j = indice + 1; j < instrucciones.size(); j++) {
+            Instruccion siguiente = instrucciones.get(j);
+            if (siguiente.op == Instruccion.Operacion.IF || siguiente.op == Instruccion.Operacion.IF_NOT) {
+                return siguiente.a.esNombre() && siguiente.a.nombre.equals(nombre) ? siguiente : null;
             }
-            if (linea.contains(" / ")) {
-                syscalls.add("div");
+            Operando definido = siguiente.definicion();
+            if (siguiente.op == Instruccion.Operacion.LABEL || siguiente.esSalto() || siguiente.terminaFlujo() ||
+                siguiente.op == Instruccion.Operacion.CALL || definido != null) {
+                return null;
             }
-            if (linea.contains(" ** ") || linea.contains("potencia")) {
-                syscalls.add("pow");
+        }
+        return null;
+    }
+
+    private void procesarComparacionYSalto(Instruccion comparacion, Instruccion salto) {
+        boolean siVerdadera = salto.op == Instruccion.Operacion.IF;
+        String destino = salto.etiqueta;
+        if (esOperacionFlotante(comparacion)) {
+            // La bandera de la FPU se consulta directamente con bc1t/bc1f
+            String izquierda = cargarFlotante(comparacion.a, "$f4");
+            String derecha = cargarFlotante(comparacion.b, "$f6");
+            switch (comparacion.op) {
+                case IGUAL:
+                    emitir("c.eq.s " + izquierda + ", " + derecha);
+                    break;
+                case DISTINTO:
+                    emitir("c.eq.s " + izquierda + ", " + derecha);
+                    siVerdadera = !siVerdadera;
+                    break;
+                case MENOR:
+                    emitir("c.lt.s " + izquierda + ", " + derecha);
+                    break;
+                case MENOR_IGUAL:
+                    emitir("c.le.s " + izquierda + ", " + derecha);
+                    break;
+                case MAYOR:
+                    emitir("c.lt.s " + derecha + ", " + izquierda);
+                    break;
+                default:
+                    emitir("c.le.s " + derecha + ", " + izquierda);
+                    break;
             }
-            if (linea.contains(" % ")) {
-                syscalls.add("mod");
+            emitir((siVerdadera ? "bc1t " : "bc1f ") + destino);
+            return;
+        }
+
+        // Se salta si vale "a op b"; con IF NOT, la comparación contraria
+        Instruccion.Operacion op = siVerdadera ? comparacion.op : contraria(comparacion.op);
+        Operando a = comparacion.a;
+        Operando b = comparacion.b;
+        if (esCero(a) && !esCero(b)) {
+            a = comparacion.b;
+            b = comparacion.a;
+            op = espejada(op);
+        }
+        if (esCero(b)) {
+            // Contra cero MIPS compara y salta en una sola instrucción
+            String registro = cargarEntero(a, "$t0");
+            String[] saltos = {"beqz", "bnez", "bltz", "blez", "bgtz", "bgez"};
+            emitir(saltos[op.ordinal() - Instruccion.Operacion.IGUAL.ordinal()] + " " + registro + ", " + destino);
+            return;
+        }
+        if (esInmediato(a) && !b.esConstante()) {
+            Operando constante = a;
+            a = b;
+            b = constante;
+            op = espejada(op);
+        }
+        if (esInmediato(b) && !a.esConstante() && op != Instruccion.Operacion.IGUAL && op != Instruccion.Operacion.DISTINTO) {
+            // a < K con slti; a <= K es a < K+1; >= y > saltan por la negación
+            boolean incluye = op == Instruccion.Operacion.MENOR_IGUAL || op == Instruccion.Operacion.MAYOR;
+            long inmediato = b.valorEntero() + (incluye ? 1 : 0);
+            if (cabeEnInmediato(inmediato)) {
+                boolean porMenor = op == Instruccion.Operacion.MENOR || op == Instruccion.Operacion.MENOR_IGUAL;
+                emitir("slti $t2, " + cargarEntero(a, "$t0") + ", " + inmediato);
+                emitir((porMenor ? "bnez" : "beqz") + " $t2, " + destino);
+                return;
             }
         }
+        String izquierda = cargarEntero(a, "$t0");
+        String derecha = cargarEntero(b, "$t1");
+        switch (op) {
+            case IGUAL:
+                emitir("beq " + izquierda + ", " + derecha + ", " + destino);
+                break;
+            case DISTINTO:
+                emitir("bne " + izquierda + ", " + derecha + ", " + destino);
+                break;
+            case MENOR:
+                emitir("slt $t2, " + izquierda + ", " + derecha);
+                emitir("bnez $t2, " + destino);
+                break;
+            case MAYOR_IGUAL:
+                emitir("slt $t2, " + izquierda + ", " + derecha);
+                emitir("beqz $t2, " + destino);
+                break;
+            case MAYOR:
+                emitir("slt $t2, " + derecha + ", " + izquierda);
+                emitir("bnez $t2, " + destino);
+                break;
+            default:
+                emitir("slt $t2, " + derecha + ", " + izquierda);
+                emitir("beqz $t2, " + destino);
+                break;
+        }
     }
-    
-    private boolean contieneString(String linea) {
-        return extraerStringsDeLinea(linea).size() > 0;
+
+    private static boolean esCero(Operando operando) {
+        return operando.clase == Operando.Clase.ENTERO && operando.valorEntero() == 0;
     }
 
-    
+    // Comparación que vale lo contrario: not (a < b) es a >= b
+    private static Instruccion.Operacion contraria(Instruccion.Operacion op) {
+        switch (op) {
+            case IGUAL: return Instruccion.Operacion.DISTINTO;
+            case DISTINTO: return Instruccion.Operacion.IGUAL;
+            case MENOR: return Instruccion.Operacion.MAYOR_IGUAL;
+            case MENOR_IGUAL: return Instruccion.Operacion.MAYOR;
+            case MAYOR: return Instruccion.Operacion.MENOR_IGUAL;
+            default: return Instruccion.Operacion.MENOR;
+        }
+    }
 
-    private void procesarCallInstruccion(String linea) {
-        // CALL nombreFuncion
-        String nombreFuncion = linea.replace("CALL", "").trim();
+    // Comparación con los operandos intercambiados: a < b es b > a
+    private static Instruccion.Operacion espejada(Instruccion.Operacion op) {
+        switch (op) {
+            case MENOR: return Instruccion.Operacion.MAYOR;
+            case MENOR_IGUAL: return Instruccion.Operacion.MAYOR_IGUAL;
+            case MAYOR: return Instruccion.Operacion.MENOR;
+            case MAYOR_IGUAL: return Instruccion.Operacion.MENOR_IGUAL;
+            default: return op;
+        }
+    }
 
-        out.println("    # CALL " + nombreFuncion);
+    private void procesarNegacion(Instruccion instruccion) {
+        if (instruccion.a.esFlotante()) {
+            String fuente = cargarFlotante(instruccion.a, "$f4");
+            emitir("neg.s $f8, " + fuente);
+            guardarFlotante(instruccion.destino, "$f8");
+        } else {
+            String fuente = cargarEntero(instruccion.a, "$t0");
+            String destino = registroDestino(instruccion.destino, "$t2");
+            emitir("subu " + destino + ", $zero, " + fuente);
+            guardarEntero(instruccion.destino, destino);
+        }
+    }
 
-        for (int i = 0; i < argumentosPendientes.size(); i++) {
-            String arg = argumentosPendientes.get(i);
-            String reg = "$a" + i;
-            cargarRegistro(reg, arg);   // mueve literal/temp/var a $ai
+    private void procesarOperacionBinaria(Instruccion instruccion) {
+        Instruccion.Operacion op = instruccion.op;
+        if (op == Instruccion.Operacion.POTENCIA) {
+            procesarPotencia(instruccion);
+            return;
+        }
+        boolean flotante = esOperacionFlotante(instruccion) &&
+                           op != Instruccion.Operacion.MODULO && op != Instruccion.Operacion.POTENCIA &&
+                           op != Instruccion.Operacion.Y && op != Instruccion.Operacion.O;
+        if (flotante) {
+            procesarOperacionFlotante(instruccion);
+            return;
         }
 
-        argumentosPendientes.clear();
+        Operando destino = instruccion.destino;
+        String izquierda;
+        String derecha;
+        String resultado;
+        switch (op) {
+            case DIVISION:
+            case MODULO:
+                procesarDivision(instruccion);
+                return;
+            case MULTIPLICACION:
+                if (instruccion.b.clase == Operando.Clase.ENTERO || instruccion.a.clase == Operando.Clase.ENTERO) {
+                    boolean constanteDerecha = instruccion.b.clase == Operando.Clase.ENTERO;
+                    Operando factor = constanteDerecha ? instruccion.b : instruccion.a;
+                    Operando otro = constanteDerecha ? instruccion.a : instruccion.b;
+                    izquierda = cargarEntero(otro, "$t0");
+                    resultado = registroDestino(destino, "$t2");
+                    multiplicarPorConstante(resultado, izquierda, factor.valorEntero());
+                    guardarEntero(destino, resultado);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        if (procesarConInmediato(instruccion)) {
+            return;
+        }
 
-        out.println("    sw $ra, -4($fp)");
-        out.println("    jal " + nombreFuncion);
-        out.println("    lw $ra, -4($fp)");
+        izquierda = cargarEntero(instruccion.a, "$t0");
+        derecha = cargarEntero(instruccion.b, "$t1");
+        resultado = registroDestino(destino, "$t2");
+        switch (op) {
+            case SUMA:
+                emitir("addu " + resultado + ", " + izquierda + ", " + derecha);
+                break;
+            case RESTA:
+                emitir("subu " + resultado + ", " + izquierda + ", " + derecha);
+                break;
+            case MULTIPLICACION:
+                emitir("mult " + izquierda + ", " + derecha);
+                emitir("mflo " + resultado);
+                break;
+            case IGUAL:
+                emitir("seq " + resultado + ", " + izquierda + ", " + derecha);
+                break;
+            case DISTINTO:
+                emitir("sne " + resultado + ", " + izquierda + ", " + derecha);
+                break;
+            case MENOR:
+                emitir("slt " + resultado + ", " + izquierda + ", " + derecha);
+                break;
+            case MENOR_IGUAL:
+                emitir("slt " + resultado + ", " + derecha + ", " + izquierda);
+                emitir("xori " + resultado + ", " + resultado + ", 1");
+                break;
+            case MAYOR:
+                emitir("slt " + resultado + ", " + derecha + ", " + izquierda);
+                break;
+            case MAYOR_IGUAL:
+                emitir("slt " + resultado + ", " + izquierda + ", " + derecha);
+                emitir("xori " + resultado + ", " + resultado + ", 1");
+                break;
+            case Y:
+                emitir("and " + resultado + ", " + izquierda + ", " + derecha);
+                break;
+            case O:
+                emitir("or " + resultado + ", " + izquierda + ", " + derecha);
+                break;
+            default:
+                comentario("Error: operación no soportada " + op);
+                break;
+        }
+        guardarEntero(destino, resultado);
     }
 
+    // Operación entera con una constante de 16 bits: la forma inmediata (addiu, slti, andi,
+    // ori, sltiu) evita cargar la constante con li. addiu no atrapa el desborde: suma
+    // módulo 2^32, igual que el plegado de constantes. Si la constante está a la izquierda,
+    // las operaciones conmutativas la pasan a la derecha y las comparaciones se espejan.
+    // a <= K es a < K+1, y >= y > son la negación de < con xori.
+    private boolean procesarConInmediato(Instruccion instruccion) {
+        Instruccion.Operacion op = instruccion.op;
+        Operando a = instruccion.a;
+        Operando b = instruccion.b;
+        if (esInmediato(a) && !b.esConstante()) {
+            if (op.esComparacion()) {
+                op = espejada(op);
+            } else if (op != Instruccion.Operacion.SUMA && op != Instruccion.Operacion.Y && op != Instruccion.Operacion.O) {
+                return false;
+            }
+            a = instruccion.b;
+            b = instruccion.a;
+        }
+        if (!esInmediato(b) || a.esConstante()) {
+            return false;
+        }
+        long valor = b.valorEntero();
+        long inmediato;
+        switch (op) {
+            case SUMA:
+            case MENOR:
+            case MAYOR_IGUAL:
+                inmediato = valor;
+                break;
+            case RESTA:
+                inmediato = -valor;
+                break;
+            case MENOR_IGUAL:
+            case MAYOR:
+                inmediato = valor + 1;
+                break;
+            case IGUAL:
+            case DISTINTO:
+                // Solo contra cero: sltiu/sltu con $zero en una instrucción
+                if (valor != 0) {
+                    return false;
+                }
+                inmediato = 0;
+                break;
+            case Y:
+            case O:
+                if (valor < 0) {
+                    return false;
+                }
+                inmediato = valor;
+                break;
+            default:
+                return false;
+        }
+        if (!cabeEnInmediato(inmediato)) {
+            return false;
+        }
+
+        String fuente = cargarEntero(a, "$t0");
+        String resultado = registroDestino(instruccion.destino, "$t2");
+        switch (op) {
+            case SUMA:
+            case RESTA:
+                emitir("addiu " + resultado + ", " + fuente + ", " + inmediato);
+                break;
+            case MENOR:
+            case MENOR_IGUAL:
+                emitir("slti " + resultado + ", " + fuente + ", " + inmediato);
+                break;
+            case MAYOR:
+            case MAYOR_IGUAL:
+                emitir("slti " + resultado + ", " + fuente + ", " + inmediato);
+                emitir("xori " + resultado + ", " + resultado + ", 1");
+                break;
+            case IGUAL:
+                emitir("sltiu " + resultado + ", " + fuente + ", 1");
+                break;
+            case DISTINTO:
+                emitir("sltu " + resultado + ", $zero, " + fuente);
+                break;
+            case Y:
+                emitir("andi " + resultado + ", " + fuente + ", " + inmediato);
+                break;
+            default:
+                emitir("ori " + resultado + ", " + fuente + ", " + inmediato);
+                break;
+        }
+        guardarEntero(instruccion.destino, resultado);
+        return true;
+    }
 
+    // Base ^ exponente, 1 si el exponente es menor o igual a cero. Con base float el
+    // resultado es float. Todas las variantes recorren los bits del exponente de derecha a
+    // izquierda (multiplicar por el cuadrado actual si el bit está, y elevarlo al cuadrado),
+    // así que un float redondea igual en línea, en la rutina y en el plegado.
+    private void procesarPotencia(Instruccion instruccion) {
+        boolean flotante = instruccion.destino.esFlotante();
+        if (potenciaEnLinea(instruccion)) {
+            long exponente = instruccion.b.valorEntero();
+            if (flotante) {
+                potenciaFlotanteConstante(instruccion, exponente);
+            } else {
+                potenciaEnteraConstante(instruccion, exponente);
+            }
+            return;
+        }
 
-    
-    private void procesarPrintFloat(List<String> tokens) {
-        String valor = tokens.get(1);
-        
-        out.println("    # PRINTFLOAT - syscall directo");
-        
-        if (valor.startsWith("\"")) {
-            // Es una string, no un float
-            String str = valor.substring(1, valor.length() - 1);
-            String label = "str_" + stringMap.get(str);
-            out.println("    la $a0, " + label);
-            out.println("    li $v0, 4");  // Syscall para imprimir string
-            out.println("    syscall");
-        } else if (valor.matches("-?\\d+\\.\\d+")) {
-            // Es un literal float
-            out.println("    li.s $f12, " + valor);
-            out.println("    li $v0, 2");  // Syscall para imprimir float
-            out.println("    syscall");
+        // Rutinas de apoyo: exponente en $a1, base en $a0 o $f12, resultado en $v0 o $f0
+        String exponente = cargarEntero(instruccion.b, "$a1");
+        if (!exponente.equals("$a1")) emitir("move $a1, " + exponente);
+        if (flotante) {
+            String base = cargarFlotante(instruccion.a, "$f12");
+            if (!base.equals("$f12")) emitir("mov.s $f12, " + base);
+            emitir("jal potencia_flotante");
+            guardarFlotante(instruccion.destino, "$f0");
         } else {
-            // Es una variable en la pila
-            cargarRegistroPila("$f12", valor);
-            out.println("    li $v0, 2");  // Syscall para imprimir float
-            out.println("    syscall");
+            String base = cargarEntero(instruccion.a, "$a0");
+            if (!base.equals("$a0")) emitir("move $a0, " + base);
+            emitir("jal potencia");
+            guardarEntero(instruccion.destino, "$v0");
         }
-        
-        // Nueva línea después de imprimir
-        out.println("    la $a0, nl");
-        out.println("    li $v0, 4");
-        out.println("    syscall");
     }
 
-    private void procesarReturn(List<String> tokens) {
-        if (tokens.size() > 1 && tokens.get(1).equals("NAVIDAD")) {
-            return;
+    // Exponente constante con una cadena corta: floor(log2 n) cuadrados más una
+    // multiplicación por cada bit encendido después del primero
+    private static boolean potenciaEnLinea(Instruccion instruccion) {
+        if (!instruccion.b.esConstante()) {
+            return false;
         }
+        long exponente = instruccion.b.valorEntero();
+        if (exponente <= 0) {
+            return true;
+        }
+        int multiplicaciones = 63 - Long.numberOfLeadingZeros(exponente) + Long.bitCount(exponente) - 1;
+        return multiplicaciones <= MAXIMO_MULTIPLICACIONES_POTENCIA;
+    }
 
-        if (!funcionActual.equals("navidad")) { 
-            // Para funciones normales
-            if (tokens.size() > 1) {
-                String valor = tokens.get(1);
-                
-                // Determinar el tipo de retorno basado en el mapa de variables
-                String tipoRetorno = determinarTipoRetorno(valor);
-                
-                // Cargar en el registro apropiado según el tipo
-                if (tipoRetorno != null) {
-                    switch (tipoRetorno.toLowerCase()) {
-                        case "float":
-                            // Para floats, usar $f0
-                            cargarRegistro("$f0", valor);
-                            break;
-                        case "int":
-                        case "bool":
-                        case "char":
-                            // Para enteros y booleanos, usar $v0
-                            cargarRegistro("$v0", valor);
-                            break;
-                        case "string":
-                            // Para strings, usar $v0 para la dirección
-                            cargarRegistro("$v0", valor);
-                            break;
-                        default:
-                            // Por defecto, usar $v0
-                            cargarRegistro("$v0", valor);
-                            break;
-                    }
+    private void potenciaEnteraConstante(Instruccion instruccion, long exponente) {
+        String resultado = registroDestino(instruccion.destino, "$t2");
+        if (exponente <= 0) {
+            emitir("li " + resultado + ", 1");
+            guardarEntero(instruccion.destino, resultado);
+            return;
+        }
+        // El primer cuadrado lee la base; los siguientes, $t1. Si el resultado comparte
+        // registro con la base, se escribe cuando la base ya no se necesita o vale lo mismo.
+        String cuadrado = cargarEntero(instruccion.a, "$t0");
+        boolean acumulado = false;
+        while (true) {
+            if ((exponente & 1) != 0) {
+                if (!acumulado) {
+                    if (!resultado.equals(cuadrado)) emitir("move " + resultado + ", " + cuadrado);
                 } else {
-                    // Si no sabemos el tipo, usar $v0 por defecto
-                    cargarRegistro("$v0", valor);
+                    emitir("mult " + resultado + ", " + cuadrado);
+                    emitir("mflo " + resultado);
                 }
-            } else {
-                // Return sin valor
-                out.println("    # Return sin valor");
+                acumulado = true;
             }
-            
-            out.println("    jr $ra");  // Retornar al llamante
-        } else {
-            // En navidad, no hacemos jr $ra (termina el programa)
-            if (tokens.size() > 1) {
-                String valor = tokens.get(1);
-                if (!valor.equals("NAVIDAD")) {
-                    cargarRegistro("$v0", valor);
+            exponente >>= 1;
+            if (exponente == 0) {
+                break;
+            }
+            // El último cuadrado que además es el primer factor va directo al resultado
+            String siguiente = !acumulado && exponente == 1 ? resultado : "$t1";
+            emitir("mult " + cuadrado + ", " + cuadrado);
+            emitir("mflo " + siguiente);
+            cuadrado = siguiente;
+        }
+        guardarEntero(instruccion.destino, resultado);
+    }
+
+    private void potenciaFlotanteConstante(Instruccion instruccion, long exponente) {
+        if (exponente <= 0) {
+            emitir("li.s $f8, 1.0");
+            guardarFlotante(instruccion.destino, "$f8");
+            return;
+        }
+        String cuadrado = cargarFlotante(instruccion.a, "$f4");
+        boolean acumulado = false;
+        while (true) {
+            if ((exponente & 1) != 0) {
+                if (!acumulado) {
+                    if (!cuadrado.equals("$f8")) emitir("mov.s $f8, " + cuadrado);
+                } else {
+                    emitir("mul.s $f8, $f8, " + cuadrado);
                 }
+                acumulado = true;
             }
+            exponente >>= 1;
+            if (exponente == 0) {
+                break;
+            }
+            String siguiente = !acumulado && exponente == 1 ? "$f8" : "$f6";
+            emitir("mul.s " + siguiente + ", " + cuadrado + ", " + cuadrado);
+            cuadrado = siguiente;
         }
+        guardarFlotante(instruccion.destino, "$f8");
     }
 
-    private String determinarTipoRetorno(String valor) {
-        if (valor == null || valor.isEmpty()) {
-            return null;
+    // Multiplicación por una constante sin mult/mflo cuando el factor es 0, ±1, una
+    // potencia de dos o la suma o resta de dos potencias de dos (x*10 = (x<<3) + (x<<1)).
+    // Los desplazamientos no detectan desbordamiento, igual que mult.
+    private void multiplicarPorConstante(String resultado, String fuente, long factor) {
+        long magnitud = Math.abs(factor);
+        if (factor == 0) {
+            emitir("li " + resultado + ", 0");
+            return;
         }
-        
-        // 1. Verificar si es un número float
-        if (valor.matches("-?\\d+\\.\\d+")) {
-            return "float";
-        }
-        
-        // 2. Verificar si es un número entero
-        if (valor.matches("-?\\d+")) {
-            return "int";
-        }
-        
-        // 3. Verificar si es un booleano
-        if (valor.equals("true") || valor.equals("false")) {
-            return "bool";
-        }
-        
-        // 4. Verificar si es un carácter
-        if (valor.startsWith("'") && valor.endsWith("'") && valor.length() == 3) {
-            return "char";
-        }
-        
-        // 5. Verificar si es una string literal
-        if ((valor.startsWith("\"") && valor.endsWith("\"")) ||
-            (valor.startsWith("'") && valor.endsWith("'"))) {
-            return "string";
-        }
-        
-        // 6. Buscar en el mapa de variables
-        if (stackOffsetMap.containsKey(valor)) {
-            // El tipo podría estar en un mapa de tipos si lo tienes
-            // Por ahora, usar heurísticas basadas en el nombre
-            return determinarTipoPorNombreVariable(valor);
-        }
-        
-        // 7. Verificar si es un temporal (empieza con t)
-        if (valor.startsWith("t") && valor.length() > 1 && 
-            Character.isDigit(valor.charAt(1))) {
-            // Podríamos rastrear tipos de temporales si los guardamos
-            return "int"; // Por defecto asumir int
-        }
-        
-        return null; // Tipo desconocido
-    }
-
-    private String determinarTipoPorNombreVariable(String nombreVariable) {
-        // Heurísticas para determinar tipo por nombre
-        String nombreLower = nombreVariable.toLowerCase();
-        
-        // Variables float
-        if (nombreLower.contains("float") || nombreLower.contains("_f") || 
-            nombreLower.contains("flt") || nombreLower.contains("pi") ||
-            nombreLower.contains("ratio") || nombreLower.contains("average") ||
-            nombreLower.contains("mean") || nombreLower.contains("temp")) {
-            return "float";
-        }
-        
-        // Variables bool
-        if (nombreLower.startsWith("is") || nombreLower.startsWith("has") ||
-            nombreLower.startsWith("can") || nombreLower.contains("flag") ||
-            nombreLower.contains("bool") || nombreLower.contains("valid") ||
-            nombreLower.contains("found") || nombreLower.contains("done")) {
-            return "bool";
-        }
-        
-        // Variables char
-        if (nombreLower.contains("char") || nombreLower.contains("ch") ||
-            nombreLower.length() == 1 || nombreLower.equals("c")) {
-            return "char";
-        }
-        
-        // Variables string
-        if (nombreLower.contains("str") || nombreLower.contains("msg") ||
-            nombreLower.contains("text") || nombreLower.contains("name") ||
-            nombreLower.contains("label") || nombreLower.startsWith("s_")) {
-            return "string";
-        }
-        
-        // Por defecto, asumir int
-        return "int";
-    }
-    private void procesarDeclaracionLocal(String linea) {
-        out.println("    # " + linea);
-        
-        // Formato: LOCAL nombre_variable : tipo
-        // Ejemplo: LOCAL x : INT
-        //          LOCAL temp1 : FLOAT
-        
-        String[] partes = linea.split(":");
-        if (partes.length < 2) {
-            out.println("    # Error: Formato LOCAL incorrecto");
+        if (magnitud == 1) {
+            if (factor < 0) {
+                emitir("subu " + resultado + ", $zero, " + fuente);
+            } else if (!resultado.equals(fuente)) {
+                emitir("move " + resultado + ", " + fuente);
+            }
             return;
         }
-        
-        String parteVariable = partes[0].trim();  // "LOCAL x"
-        String tipo = partes[1].trim().toUpperCase();  // "INT", "FLOAT", etc.
-        
-        // Extraer el nombre de la variable
-        String nombreVariable = parteVariable.replace("LOCAL", "").trim();
-        
-        if (nombreVariable.isEmpty()) {
-            out.println("    # Error: Nombre de variable vacío");
+        if (magnitud > Integer.MAX_VALUE) {
+            cargarConstante("$t1", factor);
+            emitir("mult " + fuente + ", $t1");
+            emitir("mflo " + resultado);
             return;
         }
-        
-        // Asignar espacio en la pila para esta variable local
-        if (!stackOffsetMap.containsKey(nombreVariable)) {
-            int offset = currentStackOffset;
-            stackOffsetMap.put(nombreVariable, offset);
-            
-            // Incrementar el offset según el tipo
-            if (tipo.equals("INT") || tipo.equals("BOOLEAN") || tipo.equals("CHAR")) {
-                currentStackOffset += 4;  // 4 bytes para enteros, booleanos, caracteres
-                out.println("    # Variable local '" + nombreVariable + "' (tipo: " + tipo + 
-                        ") asignada en offset " + offset + "($fp)");
-            } else if (tipo.equals("FLOAT") || tipo.equals("DOUBLE")) {
-                currentStackOffset += 4;  // 4 bytes para floats (MIPS single precision)
-                out.println("    # Variable local '" + nombreVariable + "' (tipo: " + tipo + 
-                        ") asignada en offset " + offset + "($fp)");
-            } else if (tipo.equals("STRING")) {
-                currentStackOffset += 4;  // 4 bytes para puntero a string
-                out.println("    # Variable local string '" + nombreVariable + 
-                        "' (puntero) asignada en offset " + offset + "($fp)");
-            } else {
-                // Por defecto, 4 bytes
-                currentStackOffset += 4;
-                out.println("    # Variable local '" + nombreVariable + "' (tipo desconocido: " + 
-                        tipo + ") asignada en offset " + offset + "($fp)");
-            }
+
+        int bajo = Long.numberOfTrailingZeros(magnitud);
+        long resto = magnitud - (1L << bajo);
+        if (resto == 0) {
+            emitir("sll " + resultado + ", " + fuente + ", " + bajo);
+        } else if (Long.bitCount(resto) == 1) {
+            // 2^a + 2^b
+            emitir("sll $t1, " + fuente + ", " + Long.numberOfTrailingZeros(resto));
+            emitir("addu " + resultado + ", $t1, " + desplazado(resultado, fuente, bajo));
+        } else if (Long.bitCount(magnitud + (1L << bajo)) == 1) {
+            // 2^a - 2^b
+            emitir("sll $t1, " + fuente + ", " + Long.numberOfTrailingZeros(magnitud + (1L << bajo)));
+            emitir("subu " + resultado + ", $t1, " + desplazado(resultado, fuente, bajo));
         } else {
-            out.println("    # Variable local '" + nombreVariable + "' ya está definida");
+            cargarConstante("$t1", factor);
+            emitir("mult " + fuente + ", $t1");
+            emitir("mflo " + resultado);
+            return;
+        }
+        if (factor < 0) {
+            emitir("subu " + resultado + ", $zero, " + resultado);
         }
     }
-    
-    
-    private void traducirCodigo(List<String> lineas) {
-        for (String linea : lineas) {
-            String l = linea.trim();
-            
-            if (l.isEmpty()) continue;
-            if (l.startsWith("GLOBAL ") || l.startsWith("ARRAY ")) {
-                continue;
-            }
-            if (l.startsWith("LOCAL ")) {
-                procesarDeclaracionLocal(l);
-                continue;
-            }
 
-            out.println("\n    # " + l);
+    // Cociente o resto entero en línea. Con divisor variable, div y mflo/mfhi. Con divisor
+    // constante no hace falta el div: las potencias de dos se resuelven con corrimientos,
+    // sumando 2^k - 1 a los negativos para que el cociente se redondee hacia cero, y los
+    // demás divisores con la multiplicación por un número mágico. El resto es a - q*d.
+    private void procesarDivision(Instruccion instruccion) {
+        boolean cociente = instruccion.op == Instruccion.Operacion.DIVISION;
+        Operando destino = instruccion.destino;
+        String dividendo = cargarEntero(instruccion.a, "$t0");
+        long valor = instruccion.b.clase == Operando.Clase.ENTERO ? instruccion.b.valorEntero() : 0;
+        if (valor == 0 || valor == Integer.MIN_VALUE) {
+            String divisor = cargarEntero(instruccion.b, "$t1");
+            emitir("div " + dividendo + ", " + divisor);
+            String resultado = registroDestino(destino, "$t2");
+            emitir((cociente ? "mflo " : "mfhi ") + resultado);
+            guardarEntero(destino, resultado);
+            return;
+        }
 
-            if (l.endsWith(":")) {
-                String label = l.replace(":", "");
-                out.println(label + ":");
-                
-                funcionActual = label;
-                continue;
+        int divisor = (int) valor;
+        long magnitud = Math.abs(valor);
+        String resultado = registroDestino(destino, "$t2");
+        if (magnitud == 1) {
+            if (cociente) {
+                multiplicarPorConstante(resultado, dividendo, divisor);
+            } else {
+                emitir("li " + resultado + ", 0");
             }
-            
-            
-            if (l.startsWith("CALL ")) {
-                procesarCallInstruccion(l);
-                continue;
+        } else if (Long.bitCount(magnitud) == 1) {
+            int k = Long.numberOfTrailingZeros(magnitud);
+            // $t1 = 2^k - 1 si el dividendo es negativo, 0 si no
+            if (k == 1) {
+                emitir("srl $t1, " + dividendo + ", 31");
+            } else {
+                emitir("sra $t1, " + dividendo + ", 31");
+                emitir("srl $t1, $t1, " + (32 - k));
             }
-            if (l.startsWith("READ ")) {
-                procesarRead(l);
-                continue;
+            emitir("addu $t2, " + dividendo + ", $t1");
+            if (cociente) {
+                emitir("sra " + resultado + ", $t2, " + k);
+                if (divisor < 0) {
+                    emitir("subu " + resultado + ", $zero, " + resultado);
+                }
+            } else if (magnitud - 1 <= 65535) {
+                // ((a + sesgo) mod 2^k) - sesgo
+                emitir("andi $t2, $t2, " + (magnitud - 1));
+                emitir("subu " + resultado + ", $t2, $t1");
+            } else {
+                // a - ((a + sesgo) sin los k bits bajos)
+                emitir("sra $t2, $t2, " + k);
+                emitir("sll $t2, $t2, " + k);
+                emitir("subu " + resultado + ", " + dividendo + ", $t2");
             }
-            
-            if (l.startsWith("GOTO ")) {
-                List<String> tokens = dividirLineaConStrings(l);
-                procesarSaltoFuncion(l, tokens);
-                continue;
+        } else {
+            int[] magia = numeroMagico(divisor);
+            cargarConstante("$t1", magia[0]);
+            emitir("mult " + dividendo + ", $t1");
+            emitir("mfhi $t2");
+            if (divisor > 0 && magia[0] < 0) {
+                emitir("addu $t2, $t2, " + dividendo);
+            } else if (divisor < 0 && magia[0] > 0) {
+                emitir("subu $t2, $t2, " + dividendo);
             }
-            
-            if (l.equals("GOTO navidad")) {
-                out.println("    jal navidad");
-                continue;
+            if (magia[1] > 0) {
+                emitir("sra $t2, $t2, " + magia[1]);
             }
-            
-            // Procesar strings en la línea
-            List<String> stringsEnLinea = extraerStringsDeLinea(l);
-            for (String str : stringsEnLinea) {
-                if (!stringMap.containsKey(str)) {
-                    String label = "str" + stringCounter++;
-                    stringMap.put(str, label);
-                    todasLasStrings.add(str);
-                }
+            // Un cociente negativo quedó redondeado hacia abajo: se le suma 1
+            emitir("srl $t1, $t2, 31");
+            if (cociente) {
+                emitir("addu " + resultado + ", $t2, $t1");
+            } else {
+                emitir("addu $t2, $t2, $t1");
+                multiplicarPorConstante("$t2", "$t2", divisor);
+                emitir("subu " + resultado + ", " + dividendo + ", $t2");
             }
-            
-            // Dividir la línea
-            List<String> tokens = dividirLineaConStrings(l);
-            if (tokens.size() == 3 && tokens.get(2).equals("RET")) {
-                procesarAsignacionRetorno(l, tokens);
-                continue;
+        }
+        guardarEntero(destino, resultado);
+    }
+
+    // Número mágico y corrimiento para dividir por d con signo, 2 <= |d| < 2^31: el
+    // cociente es la parte alta de a * M corrida s bits, corregida según los signos
+    // (Hacker's Delight, 10-4)
+    private static int[] numeroMagico(int d) {
+        final long dos31 = 0x80000000L;
+        long ad = Math.abs((long) d);
+        long t = dos31 + (d < 0 ? 1 : 0);
+        long anc = t - 1 - t % ad;
+        int p = 31;
+        long q1 = dos31 / anc;
+        long r1 = dos31 - q1 * anc;
+        long q2 = dos31 / ad;
+        long r2 = dos31 - q2 * ad;
+        long delta;
+        do {
+            p++;
+            q1 = 2 * q1;
+            r1 = 2 * r1;
+            if (r1 >= anc) {
+                q1++;
+                r1 -= anc;
             }
-            
-            if (l.startsWith("PRINT ")) {
-                procesarPrint(tokens);
-            } else if (l.startsWith("PARAM ") && tokens.size() < 3) {
-                System.out.println("Procesando PARAM: " + l);
-                String arg = tokens.get(1);
-                argumentosPendientes.add(arg);
-                continue;
-            } else if (l.startsWith("PRINTFLOAT ")) {
-                procesarPrintFloat(tokens);
-            } else if (l.startsWith("PRINTSTRING ")) {
-                procesarPrintString(tokens);
-            } else if (l.startsWith("RETURN ")) {
-                // Manejar RETURN de funciones
-                procesarReturn(tokens);
-            } else if (l.startsWith("IF NOT ")) {
-                String[] partes = linea.trim().split("\\s+");
-                String var = partes[2];
-                String label = partes[4];
-
-                int offsetVar = stackOffsetMap.get(var);
-
-                out.println("    # IF NOT " + var + " GOTO " + label);
-                out.println("    lw $t0, " + offsetVar + "($fp)");
-                out.println("    beq $t0, $zero, " + label);
-            } else if (l.startsWith("IF ")) {
-                String[] partes = linea.trim().split("\\s+");
-                String var = partes[1];
-                String label = partes[3];
-
-                int offsetVar = stackOffsetMap.get(var);
-                out.println("    # IF " + var + " GOTO " + label);
-                out.println("    lw $t0, " + offsetVar + "($fp)");
-                out.println("    bnez $t0, " + label);
-            } else if (l.startsWith("if ")) {
-                String[] partes = linea.trim().split("\\s+");
-                String var = partes[1];
-                String label = partes[3];
-
-                int offsetVar = stackOffsetMap.get(var);
-                out.println("    # IF " + var + " GOTO " + label);
-                out.println("    lw $t0, " + offsetVar + "($fp)");
-                out.println("    bnez $t0, " + label);
-            } else if (l.contains(" = ")) {
-                procesarAsignacion(l, tokens);
+            q2 = 2 * q2;
+            r2 = 2 * r2;
+            if (r2 >= ad) {
+                q2++;
+                r2 -= ad;
             }
-        }
+            delta = ad - r2;
+        } while (q1 < delta || (q1 == delta && r1 == 0));
+        int magico = (int) (q2 + 1);
+        return new int[] { d < 0 ? -magico : magico, p - 32 };
     }
-    private void procesarAsignacionRetorno(String linea, List<String> tokens) {
-        String destino = tokens.get(0);
-        
-        out.println("    # Asignando valor de retorno a " + destino);
-        
-        // Asegurar que la variable destino tiene espacio en la pila
-        if (!stackOffsetMap.containsKey(destino)) {
-            asignarEspacioPila(destino);
-        }
-        
-        int offset = stackOffsetMap.get(destino);
-        
-        // Determinar el tipo de retorno basado en el contexto
-        String tipoRetorno = determinarTipoRetorno(funcionActual);
-        
-        if (tipoRetorno != null && tipoRetorno.equals("float")) {
-            // Para floats, el retorno está en $f0
-            out.println("    swc1 $f0, " + offset + "($fp)");
-        } else {
-            // Para otros tipos, el retorno está en $v0
-            out.println("    sw $v0, " + offset + "($fp)");
+
+    // Registro con fuente << bits: la misma fuente si no hay que correrla
+    private String desplazado(String resultado, String fuente, int bits) {
+        if (bits == 0) {
+            return fuente;
         }
+        emitir("sll " + resultado + ", " + fuente + ", " + bits);
+        return resultado;
     }
-    private void procesarRead(String linea) {
-        List<String> tokens = dividirLineaConStrings(linea);
-        if (tokens.size() < 2) {
-            out.println("    # Error: READ sin argumento");
+
+    private void procesarOperacionFlotante(Instruccion instruccion) {
+        String izquierda = cargarFlotante(instruccion.a, "$f4");
+        String derecha = cargarFlotante(instruccion.b, "$f6");
+
+        if (!instruccion.op.esComparacion()) {
+            String mnemonico;
+            switch (instruccion.op) {
+                case SUMA: mnemonico = "add.s"; break;
+                case RESTA: mnemonico = "sub.s"; break;
+                case MULTIPLICACION: mnemonico = "mul.s"; break;
+                default: mnemonico = "div.s"; break;
+            }
+            emitir(mnemonico + " $f8, " + izquierda + ", " + derecha);
+            guardarFlotante(instruccion.destino, "$f8");
             return;
         }
-        
-        String comando = tokens.get(0); // READ, READINT, READFLOAT, etc.
-        String variable = tokens.get(1);
-        
-        out.println("    # " + comando + " " + variable);
-        
-        // Determinar el tipo de lectura
-        if (comando.equals("READINT") || (comando.equals("READ") && esVariableInt(variable))) {
-            procesarReadInt(variable);
-        } else if (comando.equals("READFLOAT") || (comando.equals("READ") && esVariableFloat(variable))) {
-            procesarReadFloat(variable);
-        } else if (comando.equals("READSTRING") || (comando.equals("READ") && esVariableString(variable))) {
-            procesarReadString(variable);
-        } else if (comando.equals("READCHAR")) {
-            procesarReadChar(variable);
-        } else if (comando.equals("READBOOL")) {
-            procesarReadBool(variable);
-        } else {
-            // Por defecto, leer como int
-            procesarReadInt(variable);
-        }
-    }
-    private void procesarReadInt(String variable) {
-        out.println("    # Leer entero");
-        out.println("    li $v0, 5");          // Syscall para leer entero
-        out.println("    syscall");
-        
-        // Guardar en la variable (en la pila)
-        guardarEnPila(variable, "$v0", false);        
-        // Nueva línea
-        out.println("    la $a0, nl");
-        out.println("    li $v0, 4");
-        out.println("    syscall");
-    }
-
-    private void procesarReadFloat(String variable) {
-        out.println("    # Leer float");
-        out.println("    li $v0, 6");          // Syscall para leer float
-        out.println("    syscall");
-        
-        // Guardar en la variable (float se guarda en $f0)
-        guardarEnPila(variable, "$f0", true);
-        
-        
-        // Nueva línea
-        out.println("    la $a0, nl");
-        out.println("    li $v0, 4");
-        out.println("    syscall");
-    }
-
-    private void procesarReadString(String variable) {
-        out.println("    # Leer string");
-        
-        // Primero necesitamos espacio para el string
-        // Asumimos que la variable ya tiene espacio reservado
-        int offset = stackOffsetMap.getOrDefault(variable, -1);
-        
-        if (offset != -1) {
-            // Cargar dirección del buffer en $a0
-            out.println("    addiu $a0, $sp, " + offset);
-            out.println("    li $a1, 100");        // Tamaño máximo del buffer
-            out.println("    li $v0, 8");          // Syscall para leer string
-            out.println("    syscall");
-            
-            // Eliminar el newline al final si existe
-            out.println("    # Eliminar newline del final");
-            out.println("    la $t0, ($a0)");
-            out.println("remove_newline:");
-            out.println("    lb $t1, ($t0)");
-            out.println("    addiu $t0, $t0, 1");
-            out.println("    bnez $t1, remove_newline");
-            out.println("    beq $t1, 10, found_newline");
-            out.println("    j end_remove");
-            out.println("found_newline:");
-            out.println("    sb $zero, -1($t0)");
-            out.println("end_remove:");
-        } else {
-            out.println("    # Error: variable no encontrada en la pila");
+
+        // Comparaciones: el resultado es 0/1 según la bandera de la FPU
+        boolean saltaSiVerdadero = true;
+        switch (instruccion.op) {
+            case IGUAL:
+                emitir("c.eq.s " + izquierda + ", " + derecha);
+                break;
+            case DISTINTO:
+                emitir("c.eq.s " + izquierda + ", " + derecha);
+                saltaSiVerdadero = false;
+                break;
+            case MENOR:
+                emitir("c.lt.s " + izquierda + ", " + derecha);
+                break;
+            case MENOR_IGUAL:
+                emitir("c.le.s " + izquierda + ", " + derecha);
+                break;
+            case MAYOR:
+                emitir("c.lt.s " + derecha + ", " + izquierda);
+                break;
+            default:
+                emitir("c.le.s " + derecha + ", " + izquierda);
+                break;
         }
+        String resultado = registroDestino(instruccion.destino, "$t2");
+        String fin = nuevaEtiquetaInterna("fcmp");
+        emitir("li " + resultado + ", 1");
+        emitir((saltaSiVerdadero ? "bc1t " : "bc1f ") + fin);
+        emitir("li " + resultado + ", 0");
+        etiqueta(fin);
+        guardarEntero(instruccion.destino, resultado);
     }
 
-    private void procesarReadChar(String variable) {
-        out.println("    # Leer carácter");
-        out.println("    li $v0, 12");         // Syscall para leer carácter
-        out.println("    syscall");
-        
-        // Guardar en la variable
-        guardarEnPila(variable, "$v0", false);
-        
-        // Nueva línea
-        out.println("    la $a0, nl");
-        out.println("    li $v0, 4");
-        out.println("    syscall");
-    }
-
-    private void procesarReadBool(String variable) {
-        out.println("    # Leer booleano (1/0)");
-        out.println("    li $v0, 5");          // Leer como entero
-        out.println("    syscall");
-        
-        // Convertir a booleano (0 = false, cualquier otro = true)
-        out.println("    # Convertir a booleano");
-        out.println("    seq $t0, $v0, $zero"); // $t0 = 1 si $v0 == 0, else 0
-        out.println("    xori $t1, $t0, 1");    // Invertir: 0→1, 1→0
-        
-        // Guardar en la variable
-        guardarEnPila(variable, "$t1", false);
-        
-        // Nueva línea
-        out.println("    la $a0, nl");
-        out.println("    li $v0, 4");
-        out.println("    syscall");
-    }
-
-    private boolean esVariableInt(String variable) {
-        // Verificar si la variable es de tipo int
-        // Podrías tener un mapa de tipos de variables
-        return variable.matches("^[ijklmn]_?\\d*$") || 
-            variable.toLowerCase().contains("int") ||
-            variable.toLowerCase().contains("contador") ||
-            variable.toLowerCase().contains("indice");
-    }
-
-    private boolean esVariableString(String variable) {
-        // Verificar si la variable es de tipo string
-        return variable.matches("^[s]_?\\d*$") || 
-            variable.toLowerCase().contains("str") ||
-            variable.toLowerCase().contains("nombre") ||
-            variable.toLowerCase().contains("mensaje") ||
-            variable.toLowerCase().contains("texto");
-    }
-
-    private void procesarPrintString(List<String> tokens) {
-        if (tokens.size() < 2) {
-            out.println("    # Error: PRINTSTRING sin argumento");
-            return;
-        }
+    private void procesarAccesoArreglo(Instruccion instruccion) {
+        Instruccion declaracion = arreglos.get(instruccion.etiqueta);
+        int columnas = declaracion == null ? 0 : declaracion.columnas;
+        boolean flotante = declaracion != null && declaracion.tipoDato.equals("float");
+        int base = offsetDe(Operando.variable(instruccion.etiqueta, ""));
 
-        String valor = tokens.get(1);
-        cargarDireccionStringEnA0(valor);
-        
-        // Hacer syscall para imprimir string
-        out.println("    li $v0, 4");
-        out.println("    syscall");
-        
-        // Imprimir nueva línea
-        imprimirNuevaLinea();
-    }
+        // Dirección del elemento: base + (i * columnas + j) * 4
+        String direccion;
+        int desplazamiento;
+        boolean indicesConstantes = instruccion.b.esConstante() &&
+                                    (instruccion.c == null || instruccion.c.esConstante());
+        if (indicesConstantes) {
+            long indice = instruccion.b.valorEntero();
+            if (instruccion.c != null) {
+                indice = indice * Math.max(1, columnas) + instruccion.c.valorEntero();
+            }
+            direccion = "$sp";
+            desplazamiento = base + (int) indice * 4;
+        } else {
+            String fila = cargarEntero(instruccion.b, "$t0");
+            if (instruccion.c != null) {
+                emitir("li $t1, " + Math.max(1, columnas));
+                emitir("mult " + fila + ", $t1");
+                emitir("mflo $t0");
+                String columna = cargarEntero(instruccion.c, "$t1");
+                emitir("addu $t0, $t0, " + columna);
+                fila = "$t0";
+            }
+            emitir("sll $t0, " + fila + ", 2");
+            emitir("addu $t0, $t0, $sp");
+            direccion = "$t0";
+            desplazamiento = base;
+        }
 
-    private void cargarDireccionStringEnA0(String valor) {
-        if (valor.startsWith("\"") && valor.endsWith("\"")) {
-            String str = valor.substring(1, valor.length() - 1);
-            String label = obtenerLabelString(str);
-            out.println("    la $a0, " + label);
-        } else if (valor.startsWith("'") && valor.endsWith("'")) {
-            String str = valor.substring(1, valor.length() - 1);
-            if (str.length() == 1) {
-                String charStr = String.valueOf(str.charAt(0));
-                String label = obtenerLabelString(charStr);
-                out.println("    la $a0, " + label);
+        if (instruccion.op == Instruccion.Operacion.ARREGLO_LEER) {
+            if (flotante) {
+                emitir("lwc1 $f4, " + desplazamiento + "(" + direccion + ")");
+                guardarFlotante(instruccion.destino, "$f4");
             } else {
-                out.println("    # Error: char inválido - usando primer carácter");
-                String charStr = String.valueOf(str.charAt(0));
-                String label = obtenerLabelString(charStr);
-                out.println("    la $a0, " + label);
+                String destino = registroDestino(instruccion.destino, "$t2");
+                emitir("lw " + destino + ", " + desplazamiento + "(" + direccion + ")");
+                guardarEntero(instruccion.destino, destino);
             }
-        } else if (valor.startsWith("_str_") || valor.startsWith("str_")) {
-            out.println("    la $a0, " + valor);
         } else {
-            // Variable
-            cargarRegistro("$a0", valor);
+            if (flotante) {
+                String valor = cargarFlotante(instruccion.a, "$f4");
+                emitir("swc1 " + valor + ", " + desplazamiento + "(" + direccion + ")");
+            } else {
+                String valor = cargarEntero(instruccion.a, "$t2");
+                emitir("sw " + valor + ", " + desplazamiento + "(" + direccion + ")");
+            }
         }
     }
 
-    private void imprimirNuevaLinea() {
-        out.println("    la $a0, nl");
-        out.println("    li $v0, 4");
-        out.println("    syscall");
-    }
-    private void procesarSaltoFuncion(String linea, List<String> tokens) {
-        if (tokens.size() >= 2 && tokens.get(0).equals("GOTO")) {
-            String destino = tokens.get(1);
-            currentStackOffset += 4; // Reservar espacio para $ra
-            int stackOffset = currentStackOffset;
-            
-            if (destino.equals("navidad") && !llamadaNavidad) {
-                llamadaNavidad = true;
-                // Llamada a función principal
-                out.println("    # Llamada a navidad");
-                out.println("    addiu $sp, $sp, -4");
-                out.println("    sw $ra, "+String.valueOf(stackOffset)+"($fp)");
-                out.println("    jal navidad");
-                out.println("    lw $ra, "+String.valueOf(stackOffset)+"($fp)");
-                out.println("    addiu $sp, $sp, 4");
-            } else if (esFuncion(destino)) {
-                // Llamada a función normal
-                out.println("    # Llamada a función: " + destino);
-                out.println("    addiu $sp, $sp, -4");
-                out.println("    sw $ra, 0($fp)");
-                out.println("    jal " + destino);
-                out.println("    lw $ra, 0($fp)");
-                out.println("    addiu $sp, $sp, 4");
-            } else if (destino.startsWith("L")) {
-                // Es una etiqueta de salto interno (no función)
-                out.println("    j " + destino);
-            } else {
-                // Por defecto, tratar como función
-                out.println("    # Salto a: " + destino);
-                out.println("    addiu $sp, $sp, -4");
-                out.println("    sw $ra, 0($fp)");
-                out.println("    jal " + destino);
-                out.println("    lw $ra, 0($fp)");
-                out.println("    addiu $sp, $sp, 4");
+    private String escapeString(String str) {
+        return str.replace("\\", "\\\\")
+                  .replace("\"", "\\\"")
+                  .replace("\n", "\\n")
+                  .replace("\t", "\\t");
+    }
+
+    private void detectarSyscalls() {
+        for (FuncionIntermedia funcion : programa.funciones) {
+            for (Instruccion instruccion : funcion.instrucciones) {
+                switch (instruccion.op) {
+                    case PRINT:
+                        syscalls.add("printStr");
+                        syscalls.add("printInt");
+                        break;
+                    case PRINTFLOAT:
+                        syscalls.add("printStr");
+                        syscalls.add("printFloat");
+                        break;
+                    case READINT:
+                        syscalls.add("readInt");
+                        break;
+                    case MULTIPLICACION:
+                        syscalls.add("mult");
+                        break;
+                    case POTENCIA:
+                        if (!potenciaEnLinea(instruccion)) {
+                            syscalls.add(instruccion.destino.esFlotante() ? "powf" : "pow");
+                        }
+                        break;
+                    default:
+                        break;
+                }
             }
         }
     }
 
-    private boolean esFuncion(String nombre) {
-        // Verificar si es una función conocida
-        if (nombre.equals("navidad") || 
-            nombre.equals("_mi_") || 
-            nombre.equals("_miOtraFun_") ||
-            nombre.startsWith("func_")) {
-            return true;
+    private void procesarCallInstruccion(String nombreFuncion) {
+        comentario("CALL " + nombreFuncion);
+        pasarArgumentos();
+        ultimaLlamada = nombreFuncion;
+
+        // $ra ya quedó guardado en el prólogo de la función
+        emitir("jal " + nombreFuncion);
+    }
+
+    // Llamada seguida solo del retorno de su resultado, fuera de navidad. Se traduce como
+    // un salto que reutiliza el lugar del marco actual, así que los argumentos tienen que
+    // caber en $a0-$a3 y el resultado tiene que volver en el mismo registro que el nuestro.
+    private boolean esLlamadaCola(FuncionIntermedia funcion, List<Instruccion> instrucciones, int i, int argumentos) {
+        if (nivelOptimizacion < 1 || funcion.principal || argumentos > 4) {
+            return false;
         }
-        
-        // También verificar en las labels detectadas
-        return labelPositions.containsKey(nombre) && 
-            !nombre.startsWith("L") &&  // No son etiquetas de control
-            !nombre.equals("main") &&
-            !nombre.equals("inicio_codigo");
-    }
-    
-    private void procesarPrint(List<String> tokens) {
-        String valor = tokens.get(1);
-        
-        if (valor.equals("true")) {
-            out.println("    la $a0, true_str");
-            out.println("    li $v0, 4");
-            out.println("    syscall");
-        } else if (valor.equals("false")) {
-            out.println("    la $a0, false_str");
-            out.println("    li $v0, 4");
-            out.println("    syscall");
-        } else if (valor.startsWith("\"")) {
-            String str = valor.substring(1, valor.length() - 1);
-            String label = "str_" + stringMap.get(str);
-            out.println("    la $a0, " + label);
-            out.println("    li $v0, 4");
-            out.println("    syscall");
-        } else if (valor.matches("\\d+\\.\\d+")) {
-            out.println("    li.s $f12, " + valor);
-            out.println("    li $v0, 2");
-            out.println("    syscall");
-        } else if (valor.matches("-?\\d+")) {
-            out.println("    li $a0, " + valor);
-            out.println("    li $v0, 1");
-            out.println("    syscall");
-        } else {
-            // Es una variable en la pila
-            cargarRegistroPila("$a0", valor);
-            out.println("    li $v0, 1");
-            out.println("    syscall");
+        int resto = LlamadasCola.restoDeCola(instrucciones, i);
+        FuncionIntermedia llamada = programa.buscarFuncion(instrucciones.get(i).etiqueta);
+        if (resto < 0 || llamada == null || llamada.principal || llamada.parametros.size() > 4) {
+            return false;
         }
-        
-        // Nueva línea después de imprimir
-        out.println("    la $a0, nl");
-        out.println("    li $v0, 4");
-        out.println("    syscall");
-    }
-    
-    private List<String> dividirLineaConStrings(String linea) {
-        List<String> tokens = new ArrayList<>();
-        boolean dentroDeString = false;
-        StringBuilder tokenActual = new StringBuilder();
-        char comillaTipo = '\0';
-        
-        for (int i = 0; i < linea.length(); i++) {
-            char c = linea.charAt(i);
-            
-            if (!dentroDeString) {
-                if (Character.isWhitespace(c)) {
-                    if (tokenActual.length() > 0) {
-                        tokens.add(tokenActual.toString());
-                        tokenActual = new StringBuilder();
-                    }
-                } else if (c == '"' || c == '\'') {
-                    dentroDeString = true;
-                    comillaTipo = c;
-                    tokenActual.append(c);
+        return resto == 1 || funcion.tipoRetorno.equals("float") == llamada.tipoRetorno.equals("float");
+    }
+
+    // Los argumentos se cargan antes de desarmar el marco, que puede tenerlos; la función
+    // llamada vuelve directamente a nuestro llamador con el $ra restaurado
+    private void procesarLlamadaCola(String nombreFuncion) {
+        comentario("CALL " + nombreFuncion + " (de cola)");
+        pasarArgumentos();
+        desarmarMarco();
+        emitir("j " + nombreFuncion);
+    }
+
+    private void pasarArgumentos() {
+        for (int i = 0; i < argumentosPendientes.size(); i++) {
+            Operando arg = argumentosPendientes.get(i);
+            if (i >= 4) {
+                // Del quinto en adelante van al fondo del marco del llamador
+                String destino = (4 * (i - 4)) + "($sp)";
+                if (arg.esFlotante()) {
+                    emitir("swc1 " + cargarFlotante(arg, "$f4") + ", " + destino);
                 } else {
-                    tokenActual.append(c);
+                    emitir("sw " + cargarEntero(arg, "$t0") + ", " + destino);
                 }
+                continue;
+            }
+            String reg = "$a" + i;
+            if (arg.esFlotante()) {
+                // Los floats viajan como patrón de bits en los registros $a
+                emitir("mfc1 " + reg + ", " + cargarFlotante(arg, "$f4"));
             } else {
-                tokenActual.append(c);
-                if (c == comillaTipo) {
-                    if (i > 0 && linea.charAt(i-1) != '\\') {
-                        dentroDeString = false;
-                    }
-                }
+                String cargado = cargarEntero(arg, reg);   // mueve literal/temp/var a $ai
+                if (!cargado.equals(reg)) emitir("move " + reg + ", " + cargado);
             }
         }
-        
-        if (tokenActual.length() > 0) {
-            tokens.add(tokenActual.toString());
+
+        argumentosPendientes.clear();
+    }
+
+    private boolean retornaFlotante(String nombreFuncion) {
+        FuncionIntermedia funcion = programa.buscarFuncion(nombreFuncion);
+        return funcion != null && funcion.tipoRetorno.equals("float");
+    }
+
+    private void procesarAsignacionRetorno(Instruccion instruccion) {
+        comentario("Asignando valor de retorno a " + instruccion.destino);
+
+        // La llamada correspondiente es la instrucción CALL inmediatamente anterior
+        if (ultimaLlamada != null && retornaFlotante(ultimaLlamada)) {
+            // Para floats, el retorno está en $f0
+            guardarFlotante(instruccion.destino, "$f0");
+        } else {
+            // Para otros tipos, el retorno está en $v0
+            guardarEntero(instruccion.destino, "$v0");
         }
-        
-        return tokens;
     }
-    
-    private void procesarAsignacion(String linea, List<String> tokens) {
-        String destino = tokens.get(0);
-        
-        // Asegurar que la variable destino tiene espacio en la pila
-        if (!stackOffsetMap.containsKey(destino)) {
-            stackOffsetMap.put(destino, currentStackOffset);
-            currentStackOffset += 4;
+
+    private void procesarReturn(FuncionIntermedia funcion, Instruccion instruccion) {
+        if (funcion.principal) {
+            // En navidad, el return termina el programa
+            terminarPrograma();
+            return;
         }
-        
-        if (linea.contains(" <= ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    slt $t2, $t1, $t0");
-            out.println("    xori $t2, $t2, 1");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" = NOT ")) {
-            String[] partes = linea.trim().split("\\s+");
-            String destino2 = partes[0];
-            String origen = partes[3];
-
-            int offsetOrigen = stackOffsetMap.get(origen);
-            int offsetDestino = stackOffsetMap.get(destino2);
-
-            out.println("    # " + destino2 + " = NOT " + origen);
-            out.println("    lw $t0, " + offsetOrigen + "($fp)");
-            out.println("    seq $t1, $t0, $zero"); // Esta es la clave: 0->1, 1->0
-            out.println("    sw $t1, " + offsetDestino + "($fp)");
-        }else if (linea.contains(" >= ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    slt $t2, $t0, $t1");
-            out.println("    xori $t2, $t2, 1");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" == ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    seq $t2, $t0, $t1");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" % ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$a0", izquierda);
-            cargarRegistroPila("$a1", derecha);
-            out.println("    jal modulo");
-            guardarEnPila(destino, "$v0", false);
-            
-        } else if (linea.contains(" / ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$a0", izquierda);
-            cargarRegistroPila("$a1", derecha);
-            out.println("    jal division");
-            guardarEnPila(destino, "$v0", false);
-            
-        } else if (linea.contains(" - ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    sub $t2, $t0, $t1");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" * ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$a0", izquierda);
-            cargarRegistroPila("$a1", derecha);
-            out.println("    mult $a0, $a1\n" + //
-                                "    mflo $v0");
-            guardarEnPila(destino, "$v0", false);
-            
-        } else if (linea.contains(" + ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    add $t2, $t0, $t1");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" < ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    slt $t2, $t1, $t0");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" > ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    sgt $t2, $t1, $t0");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" != ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    seq $t2, $t0, $t1");
-            out.println("    xori $t2, $t2, 1");
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" == ")) {
-            String izquierda = tokens.get(2);
-            String derecha = tokens.get(4);
-            cargarRegistroPila("$t0", izquierda);
-            cargarRegistroPila("$t1", derecha);
-            out.println("    seq $t2, $t0, $t1");
-            guardarEnPila(destino, "$t2", false);
-            guardarEnPila(destino, "$t2", false);
-            
-        } else if (linea.contains(" NOT ")) {
-            String fuente = tokens.get(3);
-            cargarRegistroPila("$t0", fuente);
-            out.println("    seq $t1, $t0, $zero");
-            guardarEnPila(destino, "$t1", false);
-            
-        } else if (tokens.size() == 3) {
-            // Asignación simple
-            String fuente = tokens.get(2);
-            
-            // Verificar si es una string literal
-            if (fuente.startsWith("\"") || fuente.startsWith("'")) {
-                String str = fuente.substring(1, fuente.length() - 1);
-                String label = stringMap.get(str);
-                out.println("    la $t0, " + label);
-                guardarEnPila(destino, "$t0", false);
-            } else if (esFloat(fuente)){
-                cargarRegistroPila("$f0", fuente);
-                guardarEnPila(destino, "$f0", true);
+
+        if (instruccion.a != null) {
+            // Cargar en el registro apropiado según el tipo de retorno
+            if (funcion.tipoRetorno.equals("float")) {
+                // Para floats, usar $f0
+                cargarFlotante(instruccion.a, "$f0");
             } else {
-                cargarRegistroPila("$t0", fuente); // BUSCAR MENSAJE BIENVENIDA
-                guardarEnPila(destino, "$t0", false);
+                // Para enteros, booleanos, caracteres y direcciones de strings, usar $v0
+                String valor = cargarEntero(instruccion.a, "$v0");
+                if (!valor.equals("$v0")) emitir("move $v0, " + valor);
             }
+        } else {
+            // Return sin valor
+            comentario("Return sin valor");
+        }
+
+        generarEpilogo();  // Restaurar el marco y retornar al llamante
+    }
+
+    private void terminarPrograma() {
+        out.println("\n    # Terminar el programa");
+        emitir("li $v0, 10");
+        emitir("syscall");
+    }
+
+    private void procesarRead(Instruccion instruccion) {
+        Operando variable = instruccion.destino;
+
+        // Determinar el tipo de lectura
+        switch (instruccion.op) {
+            case READFLOAT:
+                procesarReadFloat(variable);
+                break;
+            case READSTRING:
+                procesarReadString(variable);
+                break;
+            case READCHAR:
+                procesarReadChar(variable);
+                break;
+            case READBOOL:
+                procesarReadBool(variable);
+                break;
+            case READ:
+                // Lectura genérica: depende del tipo declarado de la variable
+                if (variable.tipoDato.equals("float")) {
+                    procesarReadFloat(variable);
+                } else if (variable.tipoDato.equals("string")) {
+                    procesarReadString(variable);
+                } else {
+                    procesarReadInt(variable);
+                }
+                break;
+            default:
+                procesarReadInt(variable);
+                break;
         }
     }
-    
-    
-    
-    private void guardarEnPila(String variable, String registro, boolean esFloat) {
-        int offset = stackOffsetMap.get(variable);
-        if (esFloat) {
-            out.println("    swc1 " + registro + ", " + offset + "($fp)");
+
+    private void procesarReadInt(Operando variable) {
+        comentario("Leer entero");
+        emitir("li $v0, 5");          // Syscall para leer entero
+        emitir("syscall");
+
+        // Guardar en la variable
+        guardarEntero(variable, "$v0");
+        imprimirNuevaLinea();
+    }
+
+    private void procesarReadFloat(Operando variable) {
+        comentario("Leer float");
+        emitir("li $v0, 6");          // Syscall para leer float
+        emitir("syscall");
+
+        // Guardar en la variable (float se guarda en $f0)
+        guardarFlotante(variable, "$f0");
+        imprimirNuevaLinea();
+    }
+
+    private void procesarReadString(Operando variable) {
+        comentario("Leer string");
+
+        // Reservar un buffer en el heap para el string
+        emitir("li $a0, 100");
+        emitir("li $v0, 9");          // Syscall sbrk
+        emitir("syscall");
+        guardarEntero(variable, "$v0");
+
+        emitir("move $a0, $v0");
+        emitir("li $a1, 100");        // Tamaño máximo del buffer
+        emitir("li $v0, 8");          // Syscall para leer string
+        emitir("syscall");
+    }
+
+    private void procesarReadChar(Operando variable) {
+        comentario("Leer carácter");
+        emitir("li $v0, 12");         // Syscall para leer carácter
+        emitir("syscall");
+
+        // Guardar en la variable
+        guardarEntero(variable, "$v0");
+        imprimirNuevaLinea();
+    }
+
+    private void procesarReadBool(Operando variable) {
+        comentario("Leer booleano (1/0)");
+        emitir("li $v0, 5");          // Leer como entero
+        emitir("syscall");
+
+        // Convertir a booleano (0 = false, cualquier otro = true)
+        emitir("sne $t1, $v0, $zero");
+
+        // Guardar en la variable
+        guardarEntero(variable, "$t1");
+        imprimirNuevaLinea();
+    }
+
+    private void procesarPrintString(Operando valor) {
+        String registro = cargarEntero(valor, "$a0");
+        if (!registro.equals("$a0")) emitir("move $a0, " + registro);
+
+        // Hacer syscall para imprimir string
+        emitir("li $v0, 4");
+        emitir("syscall");
+
+        // Imprimir nueva línea
+        imprimirNuevaLinea();
+    }
+
+    private void procesarPrintFloat(Operando valor) {
+        comentario("PRINTFLOAT - syscall directo");
+        cargarFlotante(valor, "$f12");
+        emitir("li $v0, 2");  // Syscall para imprimir float
+        emitir("syscall");
+
+        // Nueva línea después de imprimir
+        imprimirNuevaLinea();
+    }
+
+    private void procesarPrint(Operando valor) {
+        if (valor.clase == Operando.Clase.BOOLEANO) {
+            emitir("la $a0, " + (valor.valorEntero() != 0 ? "true_str" : "false_str"));
+            emitir("li $v0, 4");
+        } else if (valor.clase == Operando.Clase.CADENA || valor.tipoDato.equals("string")) {
+            String registro = cargarEntero(valor, "$a0");
+            if (!registro.equals("$a0")) emitir("move $a0, " + registro);
+            emitir("li $v0, 4");
+        } else if (valor.esFlotante()) {
+            cargarFlotante(valor, "$f12");
+            emitir("li $v0, 2");
         } else {
-            out.println("    sw " + registro + ", " + offset + "($fp)");
+            String registro = cargarEntero(valor, "$a0");
+            if (!registro.equals("$a0")) emitir("move $a0, " + registro);
+            // Los char se imprimen como carácter
+            emitir(valor.tipoDato.equals("char") ? "li $v0, 11" : "li $v0, 1");
         }
+        emitir("syscall");
+
+        // Nueva línea después de imprimir
+        imprimirNuevaLinea();
+    }
+
+    private void imprimirNuevaLinea() {
+        emitir("la $a0, nl");
+        emitir("li $v0, 4");
+        emitir("syscall");
     }
-    
+
     private void generarSyscalls() {
         out.println("\n#*******************************************SYSCALL*****************************************************");
         if (syscalls.contains("printInt")) {
@@ -1324,7 +1738,7 @@ public class EscritorMips {
             out.println("    jr $ra");
             out.println(".end printInt\n");
         }
-        
+
         if (syscalls.contains("printStr")) {
             out.println("printStr:");
             out.println("    li   $v0, 4");
@@ -1332,7 +1746,7 @@ public class EscritorMips {
             out.println("    jr $ra");
             out.println(".end printStr\n");
         }
-        
+
         if (syscalls.contains("printFloat")) {
             out.println("printFloat:");
             out.println("    li   $v0, 2");
@@ -1340,23 +1754,7 @@ public class EscritorMips {
             out.println("    jr $ra");
             out.println(".end printFloat\n");
         }
-        
-        if (syscalls.contains("mod")) {
-            out.println("modulo:");
-            out.println("    div $a0, $a1");
-            out.println("    mfhi $v0");
-            out.println("    jr $ra");
-            out.println(".end modulo\n");
-        }
-        
-        if (syscalls.contains("div")) {
-            out.println("division:");
-            out.println("    div $a0, $a1");
-            out.println("    mflo $v0");
-            out.println("    jr $ra");
-            out.println(".end division\n");
-        }
-        
+
         if (syscalls.contains("readInt")) {
             out.println("readInt:");
             out.println("    li   $v0, 5");
@@ -1364,7 +1762,7 @@ public class EscritorMips {
             out.println("    jr $ra");
             out.println(".end readInt\n");
         }
-        
+
         if (syscalls.contains("mult")) {
             out.println("rutina_multiplicacion:");
             out.println("    mult $a0, $a1");
@@ -1373,35 +1771,42 @@ public class EscritorMips {
             out.println(".end rutina_multiplicacion\n");
         }
 
+        // Elevar al cuadrado y multiplicar: O(log n) vueltas. Son rutinas hoja que solo
+        // tocan sus argumentos, el resultado y $t0, así que no necesitan marco.
         if (syscalls.contains("pow")) {
             out.println("potencia:");
-            out.println("    addiu $sp, $sp, -12");
-            out.println("    sw $ra, 8($fp)");
-            out.println("    sw $s0, 4($fp)");
-            out.println("    sw $s1, 0($fp)");
-            out.println("    move $s0, $a0");
-            out.println("    move $s1, $a1");
             out.println("    li $v0, 1");
-            out.println("potencia_loop:");
-            out.println("    blez $s1, potencia_fin");
-            out.println("    mult $v0, $s0");
+            out.println("    blez $a1, potencia_fin");
+            out.println("potencia_ciclo:");
+            out.println("    andi $t0, $a1, 1");
+            out.println("    beqz $t0, potencia_par");
+            out.println("    mult $v0, $a0");
             out.println("    mflo $v0");
-            out.println("    addiu $s1, $s1, -1");
-            out.println("    j potencia_loop");
+            out.println("potencia_par:");
+            out.println("    mult $a0, $a0");
+            out.println("    mflo $a0");
+            out.println("    sra $a1, $a1, 1");
+            out.println("    bgtz $a1, potencia_ciclo");
             out.println("potencia_fin:");
-            out.println("    lw $ra, 8($fp)");
-            out.println("    lw $s0, 4($fp)");
-            out.println("    lw $s1, 0($fp)");
-            out.println("    addiu $sp, $sp, 12");
             out.println("    jr $ra");
             out.println(".end potencia\n");
         }
+
+        if (syscalls.contains("powf")) {
+            out.println("potencia_flotante:");
+            out.println("    li.s $f0, 1.0");
+            out.println("    blez $a1, potencia_flotante_fin");
+            out.println("potencia_flotante_ciclo:");
+            out.println("    andi $t0, $a1, 1");
+            out.println("    beqz $t0, potencia_flotante_par");
+            out.println("    mul.s $f0, $f0, $f12");
+            out.println("potencia_flotante_par:");
+            out.println("    mul.s $f12, $f12, $f12");
+            out.println("    sra $a1, $a1, 1");
+            out.println("    bgtz $a1, potencia_flotante_ciclo");
+            out.println("potencia_flotante_fin:");
+            out.println("    jr $ra");
+            out.println(".end potencia_flotante\n");
+        }
     }
-    
-    private boolean esKeyword(String s) {
-        return s.equals("IF") || s.equals("GOTO") || s.equals("CALL") || 
-               s.equals("PARAM") || s.equals("RETURN") || s.equals("PRINT") ||
-               s.equals("printString") || s.equals("printInt") || s.equals("printSpace") ||
-               s.equals("main") || s.equals("true") || s.equals("false");
-    }
-}
\ No newline at end of file
+}
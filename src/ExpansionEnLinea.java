@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Expansión en línea de funciones pequeñas. Cada CALL a una función no recursiva cuyo
+// cuerpo tiene a lo sumo TAMANO_MAXIMO instrucciones se reemplaza por una copia del
+// cuerpo con sus nombres y etiquetas renombrados: los PARAM pasan a ser copias a los
+// parámetros, cada RETURN copia el valor al destino del RET y salta al final de la
+// copia. Así desaparecen el paso de argumentos, el jal, el guardado de $ra y el marco.
+//
+// Las funciones se procesan en postorden del grafo de llamadas, de modo que el tamaño
+// de una función ya incluye lo que se expandió dentro de ella. Una función que se
+// alcanza a sí misma en el grafo nunca se expande. Las funciones que quedan sin
+// llamadas las quita después la eliminación de código muerto.
+public class ExpansionEnLinea {
+    // Instrucciones del cuerpo sin contar etiquetas ni declaraciones
+    private static final int TAMANO_MAXIMO = 24;
+
+    private final Set<String> globales;
+    private int expandidas = 0;
+    private int copias = 0;
+
+    private ProgramaIntermedio programa;
+    private Set<String> recursivas;
+
+    public ExpansionEnLinea(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    // Llamadas reemplazadas por el cuerpo de la función
+    public int expandidas() {
+        return expandidas;
+    }
+
+    public void optimizar(ProgramaIntermedio programa) {
+        this.programa = programa;
+        Map<String, Set<String>> llamadas = new HashMap<>();
+        for (FuncionIntermedia funcion : programa.funciones) {
+            Set<String> llamadasDesde = new LinkedHashSet<>();
+            for (Instruccion instruccion : funcion.instrucciones) {
+                if (instruccion.op == Instruccion.Operacion.CALL && programa.buscarFuncion(instruccion.etiqueta) != null) {
+                    llamadasDesde.add(instruccion.etiqueta);
+                }
+            }
+            llamadas.put(funcion.nombre, llamadasDesde);
+        }
+
+        // Expandir no cambia qué funciones se alcanzan a sí mismas: la función llamada ya
+        // era alcanzable desde quien la llama
+        recursivas = new HashSet<>();
+        for (FuncionIntermedia funcion : programa.funciones) {
+            if (alcanza(llamadas, funcion.nombre, funcion.nombre, new HashSet<>())) {
+                recursivas.add(funcion.nombre);
+            }
+        }
+
+        List<FuncionIntermedia> orden = new ArrayList<>();
+        Set<String> visitadas = new HashSet<>();
+        for (FuncionIntermedia funcion : programa.funciones) {
+            postorden(funcion.nombre, llamadas, visitadas, orden);
+        }
+        for (FuncionIntermedia funcion : orden) {
+            expandirLlamadas(funcion);
+        }
+    }
+
+    private static boolean alcanza(Map<String, Set<String>> llamadas, String desde, String buscada, Set<String> visitadas) {
+        for (String llamada : llamadas.getOrDefault(desde, new HashSet<>())) {
+            if (llamada.equals(buscada)) {
+                return true;
+            }
+            if (visitadas.add(llamada) && alcanza(llamadas, llamada, buscada, visitadas)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void postorden(String nombre, Map<String, Set<String>> llamadas, Set<String> visitadas, List<FuncionIntermedia> orden) {
+        if (!visitadas.add(nombre)) {
+            return;
+        }
+        for (String llamada : llamadas.getOrDefault(nombre, new HashSet<>())) {
+            postorden(llamada, llamadas, visitadas, orden);
+        }
+        orden.add(programa.buscarFuncion(nombre));
+    }
+
+    private void expandirLlamadas(FuncionIntermedia funcion) {
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        List<Instruccion> nuevas = new ArrayList<>();
+        // Posiciones en nuevas de los PARAM desde el último CALL: el backend los pasa
+        // todos juntos a la siguiente llamada
+        List<Integer> parametros = new ArrayList<>();
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            if (instruccion.op == Instruccion.Operacion.PARAM) {
+                parametros.add(nuevas.size());
+                nuevas.add(instruccion);
+                continue;
+            }
+            if (instruccion.op != Instruccion.Operacion.CALL) {
+                nuevas.add(instruccion);
+                continue;
+            }
+            FuncionIntermedia llamada = programa.buscarFuncion(instruccion.etiqueta);
+            Instruccion retorno = i + 1 < instrucciones.size() &&
+                                  instrucciones.get(i + 1).op == Instruccion.Operacion.RET ? instrucciones.get(i + 1) : null;
+            if (llamada == null || llamada == funcion || !esExpandible(llamada, parametros, nuevas, retorno)) {
+                nuevas.add(instruccion);
+            } else {
+                expandir(funcion, llamada, parametros, nuevas, retorno);
+                expandidas++;
+                if (retorno != null) {
+                    i++;
+                }
+            }
+            parametros.clear();
+        }
+        funcion.instrucciones = nuevas;
+    }
+
+    private boolean esExpandible(FuncionIntermedia llamada, List<Integer> parametros, List<Instruccion> nuevas, Instruccion retorno) {
+        if (llamada.principal || recursivas.contains(llamada.nombre) || parametros.size() != llamada.parametros.size()) {
+            return false;
+        }
+        // Los argumentos y el resultado se copian: las conversiones entre int y float
+        // las hace la convención de llamada, no la copia
+        for (int k = 0; k < parametros.size(); k++) {
+            if (nuevas.get(parametros.get(k)).a.esFlotante() != llamada.parametros.get(k).esFlotante()) {
+                return false;
+            }
+        }
+        boolean flotante = llamada.tipoRetorno.equals("float");
+        if (retorno != null && retorno.destino.esFlotante() != flotante) {
+            return false;
+        }
+        int tamano = 0;
+        for (Instruccion instruccion : llamada.instrucciones) {
+            switch (instruccion.op) {
+                case ARRAY:
+                case PHI:
+                    return false;
+                case LABEL:
+                case LOCAL:
+                    break;
+                case RETURN:
+                    if (instruccion.a != null && instruccion.a.esFlotante() != flotante) {
+                        return false;
+                    }
+                    tamano++;
+                    break;
+                default:
+                    tamano++;
+            }
+        }
+        return tamano <= TAMANO_MAXIMO;
+    }
+
+    private void expandir(FuncionIntermedia funcion, FuncionIntermedia llamada, List<Integer> parametros,
+                          List<Instruccion> nuevas, Instruccion retorno) {
+        String prefijo = "e" + (copias++) + "_";
+        Map<String, String> etiquetas = new HashMap<>();
+        for (Instruccion instruccion : llamada.instrucciones) {
+            if (instruccion.op == Instruccion.Operacion.LABEL) {
+                etiquetas.put(instruccion.etiqueta, funcion.nuevaEtiqueta("e"));
+            }
+        }
+        String fin = funcion.nuevaEtiqueta("e");
+
+        // Cada PARAM queda en su lugar como copia al parámetro renombrado
+        for (int k = 0; k < parametros.size(); k++) {
+            int posicion = parametros.get(k);
+            nuevas.set(posicion, Instruccion.copia(renombrar(llamada.parametros.get(k), prefijo), nuevas.get(posicion).a));
+        }
+        // Lo que el prólogo de la función pondría en cero: la copia puede quedar en un ciclo
+        for (Operando leida : llamada.leidasAntesDeAsignar(globales)) {
+            nuevas.add(Instruccion.copia(renombrar(leida, prefijo), Operando.cero(leida.tipoDato)));
+        }
+
+        for (Instruccion instruccion : llamada.instrucciones) {
+            if (instruccion.op == Instruccion.Operacion.RETURN) {
+                if (retorno != null && instruccion.a != null) {
+                    nuevas.add(Instruccion.copia(retorno.destino, renombrar(instruccion.a, prefijo)));
+                }
+                nuevas.add(Instruccion.salto(Instruccion.Operacion.GOTO, null, fin));
+                continue;
+            }
+            Instruccion copia = instruccion.duplicar();
+            copia.destino = renombrar(copia.destino, prefijo);
+            copia.a = renombrar(copia.a, prefijo);
+            copia.b = renombrar(copia.b, prefijo);
+            copia.c = renombrar(copia.c, prefijo);
+            if (copia.op == Instruccion.Operacion.LABEL) {
+                copia.etiqueta = etiquetas.get(instruccion.etiqueta);
+            }
+            for (String destino : instruccion.destinos()) {
+                copia.redirigir(destino, etiquetas.get(destino));
+            }
+            nuevas.add(copia);
+        }
+        nuevas.add(Instruccion.label(fin));
+    }
+
+    // Los nombres de la función expandida llevan el prefijo de la copia; las globales
+    // y las constantes no cambian
+    private Operando renombrar(Operando operando, String prefijo) {
+        if (operando == null || !operando.esNombre() || globales.contains(operando.nombre)) {
+            return operando;
+        }
+        return new Operando(operando.clase, prefijo + operando.nombre, operando.tipoDato);
+    }
+}
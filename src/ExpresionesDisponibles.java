@@ -0,0 +1,128 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Expresiones disponibles: análisis hacia adelante con intersección. Una expresión
+// "a op b" está disponible en un punto si todo camino hasta ahí la calcula y después
+// no redefine a ni b. Las operaciones conmutativas se normalizan ordenando sus
+// operandos. Un CALL puede cambiar cualquier global, así que invalida las
+// expresiones que las leen.
+public class ExpresionesDisponibles extends AnalisisFlujoDatos {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> textos = new ArrayList<>();
+    private final Map<String, ConjuntoBits> quienesUsan = new HashMap<>(); // Nombre -> expresiones que lo leen
+    private final int[] expresionEn;                                       // Expresión de cada instrucción, o -1
+    private final Set<String> globales;
+
+    public ExpresionesDisponibles(GrafoFlujo grafo, Set<String> globales) {
+        super(grafo, Direccion.ADELANTE, Confluencia.INTERSECCION);
+        this.globales = globales;
+        List<Instruccion> instrucciones = grafo.funcion.instrucciones;
+        expresionEn = new int[instrucciones.size()];
+        List<Instruccion> representantes = new ArrayList<>();
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            String clave = clave(instruccion);
+            if (clave == null) {
+                expresionEn[i] = -1;
+                continue;
+            }
+            Integer id = ids.get(clave);
+            if (id == null) {
+                id = textos.size();
+                ids.put(clave, id);
+                textos.add(clave);
+                representantes.add(instruccion);
+            }
+            expresionEn[i] = id;
+        }
+
+        int total = textos.size();
+        for (int id = 0; id < total; id++) {
+            for (Operando operando : representantes.get(id).usos()) {
+                if (operando.esNombre()) {
+                    quienesUsan.computeIfAbsent(operando.nombre, n -> new ConjuntoBits(total)).agregar(id);
+                }
+            }
+        }
+        resolver(total);
+    }
+
+    // Texto normalizado de la expresión que calcula la instrucción, o null si no calcula una
+    public static String clave(Instruccion instruccion) {
+        if (instruccion.op.esBinaria()) {
+            String a = instruccion.a.nombre;
+            String b = instruccion.b.nombre;
+            if (esConmutativa(instruccion.op) && a.compareTo(b) > 0) {
+                String auxiliar = a;
+                a = b;
+                b = auxiliar;
+            }
+            return a + " " + instruccion.op.name() + " " + b;
+        }
+        if (instruccion.op == Instruccion.Operacion.NEGACION || instruccion.op == Instruccion.Operacion.NOT) {
+            return instruccion.op.name() + " " + instruccion.a.nombre;
+        }
+        return null;
+    }
+
+    public static boolean esConmutativa(Instruccion.Operacion op) {
+        switch (op) {
+            case SUMA:
+            case MULTIPLICACION:
+            case IGUAL:
+            case DISTINTO:
+            case Y:
+            case O:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public int cantidad() {
+        return textos.size();
+    }
+
+    public String textoDe(int expresion) {
+        return textos.get(expresion);
+    }
+
+    // Expresión que calcula la instrucción, o -1
+    public int expresionDe(int indice) {
+        return expresionEn[indice];
+    }
+
+    // ¿La expresión de la instrucción ya está calculada en todo camino que llega a ella?
+    public boolean disponibleEn(int indice) {
+        int expresion = expresionEn[indice];
+        return expresion >= 0 && antesDe(indice).contiene(expresion);
+    }
+
+    @Override
+    protected void transferencia(int indice, ConjuntoBits gen, ConjuntoBits kill) {
+        Instruccion instruccion = grafo.funcion.instrucciones.get(indice);
+        if (instruccion.op == Instruccion.Operacion.CALL) {
+            for (String global : globales) {
+                matar(global, kill);
+            }
+        }
+        Operando definido = instruccion.definicion();
+        if (definido != null && definido.esNombre()) {
+            matar(definido.nombre, kill);
+        }
+        int expresion = expresionEn[indice];
+        if (expresion >= 0 && !kill.contiene(expresion)) {
+            gen.agregar(expresion);
+        }
+    }
+
+    private void matar(String nombre, ConjuntoBits kill) {
+        ConjuntoBits usan = quienesUsan.get(nombre);
+        if (usan != null) {
+            kill.unir(usan);
+        }
+    }
+}
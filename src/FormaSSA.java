@@ -0,0 +1,500 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Conversión de una función a forma SSA y de vuelta.
+//
+// Construcción (Cytron et al.): cada bloque pasa a empezar con una etiqueta, se
+// insertan funciones PHI en la frontera de dominancia iterada de los bloques que
+// definen cada nombre (solo donde el nombre está vivo: SSA podada) y se renombra
+// recorriendo el árbol de dominadores, de modo que cada definición escribe una
+// versión nueva "x.n". La versión 0 es el nombre original: el valor de entrada de
+// los parámetros y de las variables que se leen antes de asignarse. Las globales
+// no se convierten, porque cualquier llamada puede cambiarlas.
+//
+// Destrucción: cada PHI se reemplaza por una copia al final de cada predecesor. Las
+// aristas críticas se parten con un bloque nuevo para que la copia solo se ejecute en
+// ese camino, y las copias de un mismo predecesor se tratan como una copia paralela y
+// se secuencializan rompiendo los ciclos con un temporal. Al final, las versiones de
+// un mismo nombre que no interfieren se fusionan y vuelven a llamarse como el original,
+// con lo que desaparecen las copias que quedan redundantes.
+public class FormaSSA {
+    private final FuncionIntermedia funcion;
+    private final Set<String> globales;
+    private final Map<String, String> original = new HashMap<>(); // Versión -> nombre original
+    private final Map<String, Operando> plantillas = new HashMap<>();
+    private int phis = 0;
+    private int versionesNuevas = 0;
+
+    public FormaSSA(FuncionIntermedia funcion, Set<String> globales) {
+        this.funcion = funcion;
+        this.globales = globales;
+    }
+
+    public int phisInsertadas() {
+        return phis;
+    }
+
+    // Nombre original de una versión SSA (el mismo nombre si no es una versión)
+    public String originalDe(String nombre) {
+        return original.getOrDefault(nombre, nombre);
+    }
+
+    // ¿El nombre es una versión SSA, con una única definición que domina sus usos?
+    public boolean esVersion(String nombre) {
+        return original.containsKey(nombre);
+    }
+
+    // Versión nueva para un valor que crea una optimización a partir de un temporal
+    // nuevo. Las versiones de un mismo temporal se fusionan al destruir la forma SSA
+    // si no interfieren, como las de cualquier otro nombre.
+    public Operando nuevaVersion(Operando base) {
+        Operando version = new Operando(base.clase, base.nombre + "." + (++versionesNuevas), base.tipoDato);
+        original.put(version.nombre, originalDe(base.nombre));
+        return version;
+    }
+
+    // ---------------------------------------------------------------- Construcción
+
+    public void construir() {
+        etiquetarBloques();
+        GrafoFlujo grafo = new GrafoFlujo(funcion);
+        Dominadores dominadores = grafo.dominadores();
+        NumeracionNombres nombres = NumeracionNombres.de(funcion);
+        AnalisisVida vida = new AnalisisVida(grafo, nombres);
+
+        // Bloques que definen cada nombre convertible
+        Map<String, List<BloqueBasico>> definidoEn = new LinkedHashMap<>();
+        for (BloqueBasico bloque : grafo.bloques()) {
+            for (Instruccion instruccion : bloque.instrucciones) {
+                Operando definido = instruccion.definicion();
+                if (definido == null || !definido.esNombre() || globales.contains(definido.nombre)) {
+                    continue;
+                }
+                plantillas.putIfAbsent(definido.nombre, definido);
+                List<BloqueBasico> bloques = definidoEn.computeIfAbsent(definido.nombre, n -> new ArrayList<>());
+                if (!bloques.contains(bloque)) {
+                    bloques.add(bloque);
+                }
+            }
+        }
+
+        // PHI en la frontera de dominancia iterada, si el nombre está vivo al entrar al bloque
+        Map<BloqueBasico, List<Instruccion>> phisDe = new HashMap<>();
+        for (Map.Entry<String, List<BloqueBasico>> entrada : definidoEn.entrySet()) {
+            String nombre = entrada.getKey();
+            int id = nombres.buscar(nombre);
+            Set<BloqueBasico> conPhi = new HashSet<>();
+            Deque<BloqueBasico> pendientes = new ArrayDeque<>(entrada.getValue());
+            Set<BloqueBasico> visitados = new HashSet<>(entrada.getValue());
+            while (!pendientes.isEmpty()) {
+                for (BloqueBasico junta : dominadores.fronteraDominancia(pendientes.poll())) {
+                    if (conPhi.contains(junta) || !vida.entrada(junta).contiene(id)) {
+                        continue;
+                    }
+                    conPhi.add(junta);
+                    List<String> origenes = new ArrayList<>();
+                    for (BloqueBasico predecesor : junta.predecesores) {
+                        origenes.add(predecesor.etiqueta());
+                    }
+                    phisDe.computeIfAbsent(junta, b -> new ArrayList<>())
+                          .add(Instruccion.phi(plantillas.get(nombre), origenes));
+                    phis++;
+                    if (visitados.add(junta)) {
+                        pendientes.add(junta);
+                    }
+                }
+            }
+        }
+
+        // Las PHI van justo después de la etiqueta del bloque
+        List<Instruccion> nuevas = new ArrayList<>();
+        for (BloqueBasico bloque : grafo.bloques()) {
+            nuevas.add(bloque.instrucciones.get(0));
+            nuevas.addAll(phisDe.getOrDefault(bloque, List.of()));
+            nuevas.addAll(bloque.instrucciones.subList(1, bloque.instrucciones.size()));
+        }
+        funcion.instrucciones = nuevas;
+
+        GrafoFlujo conPhis = new GrafoFlujo(funcion);
+        Map<String, Deque<Operando>> pilas = new HashMap<>();
+        Map<String, Integer> versiones = new HashMap<>();
+        renombrar(conPhis, conPhis.entrada(), pilas, versiones);
+    }
+
+    // Garantiza que cada bloque empiece con una etiqueta (los argumentos de las PHI se
+    // identifican por la etiqueta del predecesor) y que a la entrada no se vuelva nunca
+    private void etiquetarBloques() {
+        GrafoFlujo grafo = new GrafoFlujo(funcion);
+        List<Instruccion> nuevas = new ArrayList<>();
+        if (!grafo.entrada().predecesores.isEmpty() || grafo.entrada().etiqueta() == null) {
+            nuevas.add(Instruccion.label(funcion.nuevaEtiqueta("entrada")));
+        }
+        for (BloqueBasico bloque : grafo.bloques()) {
+            if (bloque.etiqueta() == null && bloque.indice > 0) {
+                nuevas.add(Instruccion.label(funcion.nuevaEtiqueta("B")));
+            }
+            nuevas.addAll(bloque.instrucciones);
+        }
+        funcion.instrucciones = nuevas;
+    }
+
+    private void renombrar(GrafoFlujo grafo, BloqueBasico bloque, Map<String, Deque<Operando>> pilas,
+                           Map<String, Integer> versiones) {
+        List<String> apiladas = new ArrayList<>();
+        for (Instruccion instruccion : bloque.instrucciones) {
+            if (instruccion.op != Instruccion.Operacion.PHI) {
+                instruccion.a = actual(instruccion.a, pilas);
+                instruccion.b = actual(instruccion.b, pilas);
+                instruccion.c = actual(instruccion.c, pilas);
+            }
+            Operando definido = instruccion.definicion();
+            if (definido != null && plantillas.containsKey(definido.nombre)) {
+                int version = versiones.merge(definido.nombre, 1, Integer::sum);
+                Operando nueva = new Operando(definido.clase, definido.nombre + "." + version, definido.tipoDato);
+                original.put(nueva.nombre, definido.nombre);
+                instruccion.destino = nueva;
+                pilas.computeIfAbsent(definido.nombre, n -> new ArrayDeque<>()).push(nueva);
+                apiladas.add(definido.nombre);
+            }
+        }
+
+        String etiqueta = bloque.etiqueta();
+        for (BloqueBasico sucesor : bloque.sucesores) {
+            for (Instruccion instruccion : sucesor.instrucciones) {
+                if (instruccion.op != Instruccion.Operacion.PHI) {
+                    continue;
+                }
+                int k = instruccion.origenes.indexOf(etiqueta);
+                if (k >= 0) {
+                    instruccion.argumentos.set(k, actual(instruccion.argumentos.get(k), pilas));
+                }
+            }
+        }
+
+        for (BloqueBasico hijo : grafo.dominadores().hijos(bloque)) {
+            renombrar(grafo, hijo, pilas, versiones);
+        }
+        for (String nombre : apiladas) {
+            pilas.get(nombre).pop();
+        }
+    }
+
+    // Versión vigente del operando; sin definición previa es el nombre original (versión 0)
+    private Operando actual(Operando operando, Map<String, Deque<Operando>> pilas) {
+        if (operando == null || !operando.esNombre()) {
+            return operando;
+        }
+        Deque<Operando> pila = pilas.get(originalDe(operando.nombre));
+        if (pila == null || pila.isEmpty()) {
+            return operando;
+        }
+        // El uso conserva su tipo: de él depende, por ejemplo, cómo se imprime
+        return new Operando(pila.peek().clase, pila.peek().nombre, operando.tipoDato);
+    }
+
+    // Quita de cada PHI los argumentos de bloques que ya no son predecesores, por ejemplo
+    // cuando el plegado convirtió un salto condicional en incondicional o lo eliminó
+    public void podarPhis() {
+        GrafoFlujo grafo = new GrafoFlujo(funcion);
+        Dominadores dominadores = grafo.dominadores();
+        for (BloqueBasico bloque : grafo.bloques()) {
+            Set<String> vigentes = new HashSet<>();
+            for (BloqueBasico predecesor : bloque.predecesores) {
+                if (dominadores.alcanzable(predecesor)) {
+                    vigentes.add(predecesor.etiqueta());
+                }
+            }
+            for (Instruccion instruccion : bloque.instrucciones) {
+                if (instruccion.op != Instruccion.Operacion.PHI) {
+                    continue;
+                }
+                for (int k = instruccion.origenes.size() - 1; k >= 0; k--) {
+                    if (!vigentes.contains(instruccion.origenes.get(k))) {
+                        instruccion.origenes.remove(k);
+                        instruccion.argumentos.remove(k);
+                    }
+                }
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- Destrucción
+
+    public void destruir() {
+        GrafoFlujo grafo = new GrafoFlujo(funcion);
+        NumeracionNombres nombres = NumeracionNombres.de(funcion);
+        AnalisisVida vida = new AnalisisVida(grafo, nombres);
+        Map<BloqueBasico, List<Operando[]>> copiasAlFinal = new HashMap<>();
+        Map<BloqueBasico, List<Instruccion>> antesDeBloque = new HashMap<>();
+        List<Instruccion> alFinal = new ArrayList<>();
+
+        for (BloqueBasico bloque : grafo.bloques()) {
+            List<Instruccion> phisBloque = new ArrayList<>();
+            for (Instruccion instruccion : bloque.instrucciones) {
+                if (instruccion.op == Instruccion.Operacion.PHI) {
+                    phisBloque.add(instruccion);
+                }
+            }
+            if (phisBloque.isEmpty()) {
+                continue;
+            }
+            for (BloqueBasico predecesor : bloque.predecesores) {
+                List<Operando[]> copias = new ArrayList<>();
+                for (Instruccion phi : phisBloque) {
+                    int k = phi.origenes.indexOf(predecesor.etiqueta());
+                    if (k >= 0) {
+                        copias.add(new Operando[] { phi.destino, phi.argumentos.get(k) });
+                    }
+                }
+                copias.removeIf(copia -> copia[0].equals(copia[1]));
+                if (copias.isEmpty()) {
+                    continue;
+                }
+                Instruccion ultima = predecesor.ultima();
+                boolean condicional = ultima != null && ultima.esSalto() && ultima.op != Instruccion.Operacion.GOTO;
+                boolean seleccion = condicional && ultima.op == Instruccion.Operacion.SWITCH;
+                if (!condicional || !seleccion && sePuedenAdelantar(copias, predecesor, bloque, vida, nombres)) {
+                    copiasAlFinal.computeIfAbsent(predecesor, p -> new ArrayList<>()).addAll(copias);
+                    continue;
+                }
+
+                // Arista crítica: un bloque nuevo en el camino predecesor -> bloque
+                String puente = funcion.nuevaEtiqueta("arista");
+                List<Instruccion> cuerpo = new ArrayList<>();
+                cuerpo.add(Instruccion.label(puente));
+                cuerpo.addAll(secuencializar(copias));
+                if (ultima.destinos().contains(bloque.etiqueta())) {
+                    // Se llega saltando: el puente va al final y vuelve con un GOTO
+                    ultima.redirigir(bloque.etiqueta(), puente);
+                    cuerpo.add(Instruccion.salto(Instruccion.Operacion.GOTO, null, bloque.etiqueta()));
+                    alFinal.addAll(cuerpo);
+                } else {
+                    // Se llega por caída: el puente va justo antes del bloque
+                    antesDeBloque.put(bloque, cuerpo);
+                }
+            }
+        }
+
+        List<Instruccion> nuevas = new ArrayList<>();
+        for (BloqueBasico bloque : grafo.bloques()) {
+            // El único que cae en el bloque es el predecesor del puente, que queda justo antes
+            nuevas.addAll(antesDeBloque.getOrDefault(bloque, List.of()));
+            List<Operando[]> copias = copiasAlFinal.get(bloque);
+            for (Instruccion instruccion : bloque.instrucciones) {
+                if (copias != null && instruccion == bloque.ultima() && instruccion.esSalto()) {
+                    nuevas.addAll(secuencializar(copias));
+                    copias = null;
+                }
+                if (instruccion.op != Instruccion.Operacion.PHI) {
+                    nuevas.add(instruccion);
+                }
+            }
+            if (copias != null) {
+                nuevas.addAll(secuencializar(copias));
+            }
+        }
+        if (!alFinal.isEmpty()) {
+            // Lo que antes caía al final de la función sigue volviendo al llamador
+            if (nuevas.isEmpty() || !nuevas.get(nuevas.size() - 1).terminaFlujo()) {
+                nuevas.add(Instruccion.conOperando(Instruccion.Operacion.RETURN, null));
+            }
+            nuevas.addAll(alFinal);
+        }
+        funcion.instrucciones = nuevas;
+        recuperarNombres();
+    }
+
+    // Las copias de una arista crítica pueden ir antes del salto condicional, sin partir la
+    // arista, si ningún destino está vivo al entrar al otro sucesor y la condición no lee
+    // ninguno. Es el caso del retroceso de un ciclo rotado, cuya salida solo usa las
+    // versiones calculadas en la última vuelta; así no se agrega un salto por iteración.
+    private static boolean sePuedenAdelantar(List<Operando[]> copias, BloqueBasico predecesor, BloqueBasico bloque,
+                                             AnalisisVida vida, NumeracionNombres nombres) {
+        Operando condicion = predecesor.ultima().a;
+        for (BloqueBasico otro : predecesor.sucesores) {
+            if (otro == bloque) {
+                continue;
+            }
+            for (Operando[] copia : copias) {
+                int id = nombres.buscar(copia[0].nombre);
+                if (copia[0].equals(condicion) || id >= 0 && vida.entrada(otro).contiene(id)) {
+                    return false;
+                }
+            }
+        }
+        return predecesor.sucesores.size() == 2;
+    }
+
+    // Secuencializa una copia paralela: primero las copias cuyo destino nadie más lee;
+    // si solo quedan ciclos, se guarda el valor de un destino en un temporal
+    private List<Instruccion> secuencializar(List<Operando[]> paralela) {
+        List<Operando[]> pendientes = new ArrayList<>();
+        for (Operando[] copia : paralela) {
+            if (!copia[0].equals(copia[1])) {
+                pendientes.add(new Operando[] { copia[0], copia[1] });
+            }
+        }
+        List<Instruccion> secuencia = new ArrayList<>();
+        while (!pendientes.isEmpty()) {
+            Operando[] lista = null;
+            for (Operando[] copia : pendientes) {
+                boolean leido = false;
+                for (Operando[] otra : pendientes) {
+                    if (otra != copia && otra[1].equals(copia[0])) {
+                        leido = true;
+                        break;
+                    }
+                }
+                if (!leido) {
+                    lista = copia;
+                    break;
+                }
+            }
+            if (lista != null) {
+                secuencia.add(Instruccion.copia(lista[0], lista[1]));
+                pendientes.remove(lista);
+                continue;
+            }
+            // Ciclo: salvar el destino de la primera copia y leerlo desde el temporal
+            Operando destino = pendientes.get(0)[0];
+            Operando temporal = funcion.nuevoTemporal(destino.tipoDato);
+            secuencia.add(Instruccion.copia(temporal, destino));
+            for (Operando[] copia : pendientes) {
+                if (copia[1].equals(destino)) {
+                    copia[1] = temporal;
+                }
+            }
+        }
+        return secuencia;
+    }
+
+    // Fusiona las versiones de un mismo nombre unidas por copias cuando no interfieren
+    // y devuelve a cada grupo un nombre: el original si está libre
+    private void recuperarNombres() {
+        VidaVariables vida = new VidaVariables(funcion);
+        Map<String, Set<String>> interferencias = new HashMap<>();
+        for (int posicion = 0; posicion < vida.posiciones(); posicion++) {
+            Instruccion instruccion = vida.instruccionEn(posicion);
+            String fuenteCopia = instruccion != null && instruccion.op == Instruccion.Operacion.COPIA &&
+                                 instruccion.a.esNombre() ? instruccion.a.nombre : null;
+            for (String definido : vida.definicionesEn(posicion)) {
+                for (String viva : vida.vivasSalida(posicion)) {
+                    if (!viva.equals(definido) && !viva.equals(fuenteCopia)) {
+                        interferencias.computeIfAbsent(definido, n -> new HashSet<>()).add(viva);
+                        interferencias.computeIfAbsent(viva, n -> new HashSet<>()).add(definido);
+                    }
+                }
+            }
+        }
+
+        // Clases de nombres fusionados, con las interferencias de todos sus miembros
+        Map<String, String> representante = new HashMap<>();
+        Map<String, Set<String>> miembros = new HashMap<>();
+        Map<String, Set<String>> vecinos = new HashMap<>();
+        for (Instruccion instruccion : funcion.instrucciones) {
+            if (instruccion.op != Instruccion.Operacion.COPIA || !instruccion.a.esNombre()) {
+                continue;
+            }
+            String a = clase(instruccion.destino.nombre, representante, miembros, vecinos, interferencias);
+            String b = clase(instruccion.a.nombre, representante, miembros, vecinos, interferencias);
+            if (a.equals(b) || !originalDe(a).equals(originalDe(b)) || vecinos.get(a).contains(b)) {
+                continue;
+            }
+            boolean choca = false;
+            for (String miembro : miembros.get(b)) {
+                if (vecinos.get(a).contains(miembro)) {
+                    choca = true;
+                    break;
+                }
+            }
+            if (choca) {
+                continue;
+            }
+            for (String miembro : miembros.get(b)) {
+                representante.put(miembro, a);
+            }
+            miembros.get(a).addAll(miembros.remove(b));
+            vecinos.get(a).addAll(vecinos.remove(b));
+        }
+
+        // El grupo que contiene al nombre original lo conserva; si ninguno lo contiene, lo
+        // toma el primer grupo de sus versiones que aparezca
+        Map<String, String> nombreFinal = new HashMap<>();
+        Set<String> tomados = new HashSet<>();
+        for (Map.Entry<String, Set<String>> grupo : miembros.entrySet()) {
+            String base = originalDe(grupo.getKey());
+            if (grupo.getValue().contains(base)) {
+                tomados.add(base);
+                for (String miembro : grupo.getValue()) {
+                    nombreFinal.put(miembro, base);
+                }
+            }
+        }
+        Set<String> aparecen = new HashSet<>();
+        for (Instruccion instruccion : funcion.instrucciones) {
+            if (instruccion.destino != null) aparecen.add(instruccion.destino.nombre);
+            for (Operando uso : instruccion.usos()) aparecen.add(uso.nombre);
+        }
+        for (Instruccion instruccion : funcion.instrucciones) {
+            Operando definido = instruccion.definicion();
+            if (definido == null || !original.containsKey(definido.nombre) || nombreFinal.containsKey(definido.nombre)) {
+                continue;
+            }
+            String base = originalDe(definido.nombre);
+            String grupo = representante.getOrDefault(definido.nombre, definido.nombre);
+            Set<String> integrantes = miembros.getOrDefault(grupo, Set.of(definido.nombre));
+            String nombre = !tomados.contains(base) && !aparecen.contains(base) ? base : null;
+            if (nombre != null) {
+                tomados.add(base);
+            }
+            for (String miembro : integrantes) {
+                nombreFinal.put(miembro, nombre != null ? nombre : grupo);
+            }
+        }
+
+        List<Instruccion> nuevas = new ArrayList<>();
+        for (Instruccion instruccion : funcion.instrucciones) {
+            instruccion.destino = renombrado(instruccion.destino, nombreFinal);
+            instruccion.a = renombrado(instruccion.a, nombreFinal);
+            instruccion.b = renombrado(instruccion.b, nombreFinal);
+            instruccion.c = renombrado(instruccion.c, nombreFinal);
+            if (instruccion.op == Instruccion.Operacion.COPIA && instruccion.destino.equals(instruccion.a)) {
+                continue;
+            }
+            nuevas.add(instruccion);
+        }
+        funcion.instrucciones = nuevas;
+        original.clear();
+        plantillas.clear();
+    }
+
+    private String clase(String nombre, Map<String, String> representante, Map<String, Set<String>> miembros,
+                         Map<String, Set<String>> vecinos, Map<String, Set<String>> interferencias) {
+        String grupo = representante.get(nombre);
+        if (grupo == null) {
+            grupo = nombre;
+            representante.put(nombre, nombre);
+            Set<String> solo = new HashSet<>();
+            solo.add(nombre);
+            miembros.put(nombre, solo);
+            vecinos.put(nombre, new HashSet<>(interferencias.getOrDefault(nombre, Set.of())));
+        }
+        return grupo;
+    }
+
+    private static Operando renombrado(Operando operando, Map<String, String> nombreFinal) {
+        if (operando == null || !operando.esNombre()) {
+            return operando;
+        }
+        String nombre = nombreFinal.get(operando.nombre);
+        return nombre == null || nombre.equals(operando.nombre) ? operando
+                                                                : new Operando(operando.clase, nombre, operando.tipoDato);
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class FuncionIntermedia {
+    public final String nombre;
+    public final String tipoRetorno;
+    public final boolean principal;
+    public final List<Operando> parametros;
+    public List<Instruccion> instrucciones;
+    private int etiquetasNuevas = 0;
+    private int temporalesNuevos = 0;
+
+    public FuncionIntermedia(String nombre, String tipoRetorno, boolean principal) {
+        this.nombre = nombre;
+        this.tipoRetorno = tipoRetorno;
+        this.principal = principal;
+        this.parametros = new ArrayList<>();
+        this.instrucciones = new ArrayList<>();
+    }
+
+    public void agregar(Instruccion instruccion) {
+        instrucciones.add(instruccion);
+    }
+
+    // Etiqueta nueva para los bloques que crean las optimizaciones; el nombre de la
+    // función la hace única en todo el programa
+    public String nuevaEtiqueta(String prefijo) {
+        return nombre + "_" + prefijo + (etiquetasNuevas++);
+    }
+
+    // Temporal nuevo para las optimizaciones. Los temporales son locales a cada función
+    // y los del generador se llaman t<n>, así que el prefijo "tc" no choca con ninguno.
+    public Operando nuevoTemporal(String tipoDato) {
+        String nombreTemporal = "tc" + (temporalesNuevos++) + (tipoDato.equals("float") ? "_f" : "");
+        return new Operando(Operando.Clase.TEMPORAL, nombreTemporal, tipoDato);
+    }
+
+    // Quita los LOCAL cuyo nombre ya no aparece en ninguna instrucción: solo ocuparían un slot
+    public void quitarDeclaracionesSinUso() {
+        Set<String> referidos = new HashSet<>();
+        for (Instruccion instruccion : instrucciones) {
+            if (instruccion.op == Instruccion.Operacion.LOCAL) {
+                continue;
+            }
+            if (instruccion.destino != null) {
+                referidos.add(instruccion.destino.nombre);
+            }
+            for (Operando uso : instruccion.usos()) {
+                referidos.add(uso.nombre);
+            }
+        }
+        instrucciones.removeIf(instruccion ->
+            instruccion.op == Instruccion.Operacion.LOCAL && !referidos.contains(instruccion.destino.nombre));
+    }
+
+    // Nombres locales que se leen antes de asignarse, en orden de aparición. El prólogo los
+    // deja en cero; quien repite el cuerpo sin pasar por el prólogo tiene que hacer lo mismo.
+    public List<Operando> leidasAntesDeAsignar(Set<String> globales) {
+        List<Operando> leidas = new ArrayList<>();
+        if (instrucciones.isEmpty()) {
+            return leidas;
+        }
+        Set<String> vivas = new VidaVariables(this).vivasEntrada(0);
+        Set<String> vistas = new HashSet<>();
+        for (Operando parametro : parametros) {
+            vistas.add(parametro.nombre);
+        }
+        for (Instruccion instruccion : instrucciones) {
+            for (Operando uso : instruccion.usos()) {
+                if (uso.esNombre() && vivas.contains(uso.nombre) && !globales.contains(uso.nombre) && vistas.add(uso.nombre)) {
+                    leidas.add(uso);
+                }
+            }
+        }
+        return leidas;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (principal) {
+            sb.append("\n# FUNCION PRINCIPAL (").append(nombre).append(")\n");
+        } else {
+            sb.append("\n# FUNCION ").append(nombre).append(" -> ").append(tipoRetorno).append("\n");
+        }
+        sb.append(nombre).append(":\n");
+        for (Operando parametro : parametros) {
+            sb.append("   PARAM ").append(parametro).append(": ").append(parametro.tipoDato).append("\n");
+        }
+        for (Instruccion instruccion : instrucciones) {
+            sb.append("   ").append(instruccion).append("\n");
+        }
+        return sb.toString();
+    }
+}
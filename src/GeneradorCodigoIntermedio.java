@@ -4,46 +4,72 @@ import java.util.List;
 import java.util.Stack;
 
 public class GeneradorCodigoIntermedio {
-    private StringBuilder codigoIntermedio;
-    private StringBuilder codigoData;
+    private static final int MINIMO_CASOS_SWITCH = 3; // Con menos brazos, las comparaciones en orden alcanzan
+
+    private ProgramaIntermedio programa;
+    private FuncionIntermedia funcionActual;
     private int tempCounter;
     private int labelCounter;
     private int stringCounter;
     private Stack<String> breakLabels;
     private HashMap<String, String> variables;
     private HashMap<String, String> stringConstants;
+    private HashMap<String, Integer> columnasArreglos;
     private boolean navidadEncontrado = false;
-    private int tempCount = 0;
 
+    // Único contador de temporales: los nombres no se repiten dentro del programa
     private String nuevoTemporal() {
-        return "t" + (tempCount++);
+        return "t" + (tempCounter++);
     }
     
     public GeneradorCodigoIntermedio() {
-        this.codigoIntermedio = new StringBuilder();
-        this.codigoData = new StringBuilder();
-        this.tempCounter = 1;
+        this.programa = new ProgramaIntermedio();
+        this.tempCounter = 0;
         this.labelCounter = 1;
         this.stringCounter = 1;
         this.breakLabels = new Stack<>();
         this.variables = new HashMap<>();
         this.stringConstants = new HashMap<>();
+        this.columnasArreglos = new HashMap<>();
     }
 
-    public String generar(NodoArbol raiz) {
+    public ProgramaIntermedio generar(NodoArbol raiz) {
         // Procesar el árbol
         visitar(raiz);
-        
-        // Agregar constantes de string al principio si existen
-        if (codigoData.length() > 0) {
-            return codigoData.toString() + "\n" + codigoIntermedio.toString();
-        }
-        
-        return codigoIntermedio.toString();
+        return programa;
+    }
+
+    // Convierte el resultado textual de una expresión en un operando tipado
+    private Operando op(String texto) {
+        return Operando.de(texto, variables, stringConstants);
     }
 
-    private String nuevoTemp() {
-        return "t" + tempCounter++;
+    private void emitir(Instruccion instruccion) {
+        funcionActual.agregar(instruccion);
+    }
+
+    private void emitirCopia(String destino, String fuente) {
+        emitir(Instruccion.copia(op(destino), op(fuente)));
+    }
+
+    private void emitirBinaria(String destino, String izquierda, String operador, String derecha) {
+        emitir(Instruccion.binaria(Instruccion.Operacion.desdeOperador(operador),
+                                   op(destino), op(izquierda), op(derecha)));
+    }
+
+    private void emitirLabel(String etiqueta) {
+        emitir(Instruccion.label(etiqueta));
+    }
+
+    private void emitirGoto(String etiqueta) {
+        emitir(Instruccion.salto(Instruccion.Operacion.GOTO, null, etiqueta));
+    }
+
+    // Temporal para el valor de retorno de una llamada; float si la función devuelve float
+    private String temporalRetorno(String nombreFuncion) {
+        FuncionIntermedia funcion = programa.buscarFuncion(nombreFuncion);
+        String temp = nuevoTemporal();
+        return funcion != null && funcion.tipoRetorno.equals("float") ? temp + "_f" : temp;
     }
 
     private String nuevaEtiqueta() {
@@ -68,7 +94,7 @@ public class GeneradorCodigoIntermedio {
         }
         String label = "str_" + stringCounter;  // Prefijo 'str_' seguido del número
         stringConstants.put(label, str);        // Guardar con el label correcto
-        codigoData.append("").append(label).append(" = \"").append(str).append("\"\n");
+        programa.cadenas.put(label, str);
         
         // Incrementar el contador después de usarlo
         stringCounter++;
@@ -94,27 +120,21 @@ public class GeneradorCodigoIntermedio {
             }
 
             if (hijos.size() == 6 || hijos.size() == 7) {
-                variables.put(hijos.get(hijos.size() - 4).getLexema(), hijos.get(hijos.size() - 2).getLexema());
+                variables.put(hijos.get(hijos.size() - 4).getLexema(), hijos.get(hijos.size() - 5).getLexema());
                 String valorInicial = hijos.get(hijos.size() - 2).getLexema();
                 String tipo = hijos.get(hijos.size() - 5).getLexema();
                 String identificador = hijos.get(hijos.size() - 4).getLexema();
 
-                codigoIntermedio.append("GLOBAL ")
-                                .append(identificador)
-                                .append(" : ")
-                                .append(tipo)
-                                .append(" = ")
-                                .append(valorInicial)
-                                .append("\n");
+                Instruccion declaracion = Instruccion.declaracion(Instruccion.Operacion.GLOBAL,
+                                                                 Operando.variable(identificador, tipo), tipo);
+                declaracion.a = valorInicial.isEmpty() ? null : op(valorInicial);
+                programa.globales.add(declaracion);
             } else {
                 variables.put(hijos.get(hijos.size() - 2).getLexema(), hijos.get(hijos.size() - 3).getLexema());
                 String tipo = hijos.get(hijos.size() - 3).getLexema();
                 String identificador = hijos.get(hijos.size() - 2).getLexema();
-                codigoIntermedio.append("GLOBAL ")
-                                .append(identificador)
-                                .append(" : ")
-                                .append(tipo)
-                                .append("\n");
+                programa.globales.add(Instruccion.declaracion(Instruccion.Operacion.GLOBAL,
+                                                              Operando.variable(identificador, tipo), tipo));
             }
         }
     }
@@ -179,24 +199,16 @@ public class GeneradorCodigoIntermedio {
         
         if (!nombreFuncion.isEmpty()) {
             // Generar código para pasar parámetros
-            if (!argumentos.isEmpty()) {
-                codigoIntermedio.append("   ");
-                for (int i = 0; i < argumentos.size(); i++) {
-                    String arg = argumentos.get(i);
-                    codigoIntermedio.append("PARAM ").append(arg);
-                    if (i < argumentos.size() - 1) {
-                        codigoIntermedio.append(", ");
-                    }
-                }
-                codigoIntermedio.append("\n");
+            for (String arg : argumentos) {
+                emitir(Instruccion.conOperando(Instruccion.Operacion.PARAM, op(arg)));
             }
             
             // Generar llamada a la función
-            codigoIntermedio.append("   CALL ").append(nombreFuncion).append("\n");
+            emitir(Instruccion.llamada(nombreFuncion));
             
             // Si la función retorna un valor, guardarlo en un temporal
-            String tempRetorno = nuevoTemporal();
-            codigoIntermedio.append("   ").append(tempRetorno).append(" = RET\n");
+            String tempRetorno = temporalRetorno(nombreFuncion);
+            emitir(Instruccion.retorno(op(tempRetorno)));
             
             return tempRetorno;
         }
@@ -222,10 +234,8 @@ public class GeneradorCodigoIntermedio {
                 return procesarLlamadaFuncion(nodo);
             
             case "funciones":
-                if (!navidadEncontrado) {
-                    codigoIntermedio.append("GOTO navidad\n");
-                    navidadEncontrado = true;
-                }
+                // El salto inicial a navidad lo produce el volcado del programa
+                navidadEncontrado = true;
                 for (NodoArbol hijo : nodo.getHijos()) {
                     visitar(hijo);
                 }
@@ -290,6 +300,7 @@ public class GeneradorCodigoIntermedio {
             case "declaracionVariable_local_asign":
                 return procesarDeclaracionLocal(nodo, true);
                 
+            case "declaracionArray_local":
             case "declaracionArray_local_init":
                 return procesarDeclaracionArray(nodo);
                 
@@ -330,7 +341,10 @@ public class GeneradorCodigoIntermedio {
                 return generarOperacionBinaria(nodo, "%");
                 
             case "^":
-                return generarOperacionBinaria(nodo, "**");
+                if (nodo.getHijos().size() >= 2) {
+                    return generarPotencia(visitar(nodo.getHijos().get(0)), visitar(nodo.getHijos().get(1)));
+                }
+                return "";
                 
             // OPERADORES RELACIONALES
             case "==":
@@ -353,10 +367,8 @@ public class GeneradorCodigoIntermedio {
                 
             // OPERADORES LOGICOS
             case "@":
-                return generarOperacionBinaria(nodo, "&&");
-                
             case "~":
-                return generarOperacionBinaria(nodo, "||");
+                return generarLogico(nodo);
                 
             case "Σ": // NOT
                 return generarOperacionNot(nodo);
@@ -502,28 +514,28 @@ public class GeneradorCodigoIntermedio {
             if (tipoVariable != null) {
                 switch (tipoVariable.toLowerCase()) {
                     case "int":
-                        codigoIntermedio.append("   ").append("READINT ").append(variable).append("\n");
+                        emitir(Instruccion.lectura(Instruccion.Operacion.READINT, op(variable)));
                         break;
                     case "float":
-                        codigoIntermedio.append("   ").append("READFLOAT ").append(variable).append("\n");
+                        emitir(Instruccion.lectura(Instruccion.Operacion.READFLOAT, op(variable)));
                         break;
                     case "char":
-                        codigoIntermedio.append("   ").append("READCHAR ").append(variable).append("\n");
+                        emitir(Instruccion.lectura(Instruccion.Operacion.READCHAR, op(variable)));
                         break;
                     case "string":
-                        codigoIntermedio.append("   ").append("READSTRING ").append(variable).append("\n");
+                        emitir(Instruccion.lectura(Instruccion.Operacion.READSTRING, op(variable)));
                         break;
                     case "bool":
-                        codigoIntermedio.append("   ").append("READBOOL ").append(variable).append("\n");
+                        emitir(Instruccion.lectura(Instruccion.Operacion.READBOOL, op(variable)));
                         break;
                     default:
                         // Por defecto asumimos int
-                        codigoIntermedio.append("   ").append("READ ").append(variable).append("\n");
+                        emitir(Instruccion.lectura(Instruccion.Operacion.READ, op(variable)));
                         break;
                 }
             } else {
                 // Si no conocemos el tipo, usar READ genérico
-                codigoIntermedio.append("   ").append("READ ").append(variable).append("\n");
+                emitir(Instruccion.lectura(Instruccion.Operacion.READ, op(variable)));
             }
         }
         
@@ -532,8 +544,8 @@ public class GeneradorCodigoIntermedio {
     
     private void procesarNavidad(NodoArbol nodo) {
         
-        codigoIntermedio.append("   ").append("\n# FUNCION PRINCIPAL (navidad)\n");
-        codigoIntermedio.append("navidad:\n");
+        funcionActual = new FuncionIntermedia("navidad", "", true);
+        programa.funciones.add(funcionActual);
         
         // Procesar las instrucciones dentro de navidad
         for (NodoArbol hijo : nodo.getHijos()) {
@@ -546,7 +558,7 @@ public class GeneradorCodigoIntermedio {
         }
         
         // Si no hay return explícito, agregar uno
-        codigoIntermedio.append("   ").append("RETURN NAVIDAD\n");
+        emitir(Instruccion.conOperando(Instruccion.Operacion.RETURN, null));
         
     }
     private String generarOperacionBinariaDesdeArbol(NodoArbol nodo) {
@@ -568,13 +580,25 @@ public class GeneradorCodigoIntermedio {
         
         if (!izquierda.isEmpty() && !derecha.isEmpty()) {
             String temp = nuevoTemporal();
-            codigoIntermedio.append("   ").append(temp).append(" = ").append(izquierda)
-                          .append(" ").append(operador).append(" ").append(derecha).append("\n");
+            emitirBinaria(temp, izquierda, operador, derecha);
             return temp;
         }
         
         return "";
     }
+    // Con base float y exponente entero la potencia es float; si no, entera
+    private String generarPotencia(String base, String exponente) {
+        if (base.isEmpty() || exponente.isEmpty()) {
+            return "";
+        }
+        String temp = nuevoTemporal();
+        if (op(base).esFlotante() && !op(exponente).esFlotante()) {
+            temp += "_f";
+        }
+        emitirBinaria(temp, base, "**", exponente);
+        return temp;
+    }
+
     private String generarOperacionNotDesdeArbol(NodoArbol nodo) {
         // Buscar el operando
         for (NodoArbol hijo : nodo.getHijos()) {
@@ -588,7 +612,7 @@ public class GeneradorCodigoIntermedio {
                 String operando = evaluarExpr(hijo);
                 if (!operando.isEmpty()) {
                     String temp = nuevoTemporal();
-                    codigoIntermedio.append("   ").append(temp).append(" = NOT ").append(operando).append("\n");
+                    emitir(Instruccion.unaria(Instruccion.Operacion.NOT, op(temp), op(operando)));
                     return temp;
                 }
             }
@@ -637,8 +661,8 @@ public class GeneradorCodigoIntermedio {
         
         if (nombreFunc.isEmpty()) return "";
         
-        codigoIntermedio.append("\n# FUNCION ").append(nombreFunc).append(" -> ").append(tipoRetorno).append("\n");
-        codigoIntermedio.append(nombreFunc).append(":\n");
+        funcionActual = new FuncionIntermedia(nombreFunc, tipoRetorno, false);
+        programa.funciones.add(funcionActual);
         
         // Procesar parámetros si existen
         for (NodoArbol hijo : nodo.getHijos()) {
@@ -667,11 +691,11 @@ public class GeneradorCodigoIntermedio {
         
         if (!tieneReturn) {
             if (tipoRetorno.equals("float") || tipoRetorno.equals("int")) {
-                codigoIntermedio.append("   RETURN 0\n");
+                emitir(Instruccion.conOperando(Instruccion.Operacion.RETURN, op("0")));
             } else if (tipoRetorno.equals("bool")) {
-                codigoIntermedio.append("   RETURN false\n");
+                emitir(Instruccion.conOperando(Instruccion.Operacion.RETURN, op("false")));
             } else {
-                codigoIntermedio.append("   RETURN\n");
+                emitir(Instruccion.conOperando(Instruccion.Operacion.RETURN, null));
             }
         }
         return nombreFunc;
@@ -717,8 +741,7 @@ public class GeneradorCodigoIntermedio {
                 case "IDENTIFIER":
                     if (!tipoActual.isEmpty()) {
                         variables.put(hijo.getLexema(), tipoActual);
-                        codigoIntermedio.append("   PARAM ").append(hijo.getLexema())
-                                      .append(": ").append(tipoActual).append("\n");
+                        funcionActual.parametros.add(Operando.variable(hijo.getLexema(), tipoActual));
                         tipoActual = "";
                     }
                     break;
@@ -777,20 +800,16 @@ public class GeneradorCodigoIntermedio {
                          // Si no parece float pero la variable lo es (ej: asignando 0 a float)
                          // Forzar conversión se puede manejar, pero aquí mantenemos simple.
                     }
-                    // Quitar sufijo _f si ya lo tiene para evitar duplicados en la asignacion final
-                    String valClean = removerSufijoFloat(valor);
-                    
                     String temp = nuevoTemporal() + "_f";
-                    codigoIntermedio.append("   ").append(temp).append(" = ").append(valClean).append("\n");
-                    codigoIntermedio.append("   ").append(nombre).append(" = ").append(temp).append("\n");
+                    emitirCopia(temp, valor);
+                    emitirCopia(nombre, temp);
                 } else {
                     String temp = nuevoTemporal();
-                    codigoIntermedio.append("   ").append(temp).append(" = ").append(valor).append("\n");
-                    codigoIntermedio.append("   ").append(nombre).append(" = ").append(temp).append("\n");
+                    emitirCopia(temp, valor);
+                    emitirCopia(nombre, temp);
                 }
             } else {
-                codigoIntermedio.append("   ").append("LOCAL ").append(nombre)
-                            .append(" : ").append(tipo).append("\n");
+                emitir(Instruccion.declaracion(Instruccion.Operacion.LOCAL, op(nombre), tipo));
             }
         }
         
@@ -821,17 +840,13 @@ public class GeneradorCodigoIntermedio {
         if (dimensiones.size() > 0) tamaño1 = dimensiones.get(0);
         if (dimensiones.size() > 1) tamaño2 = dimensiones.get(1);
 
-        codigoIntermedio.append("   ").append("ARRAY ")
-                    .append(nombreArray)
-                    .append(" : ")
-                    .append(tipo)
-                    .append("[")
-                    .append(tamaño1)
-                    .append("]")
-                    .append("[")
-                    .append(tamaño2)
-                    .append("]")
-                    .append("\n");
+        Instruccion declaracion = Instruccion.declaracion(Instruccion.Operacion.ARRAY,
+                                                          Operando.variable(nombreArray, tipo), tipo);
+        declaracion.filas = Integer.parseInt(tamaño1);
+        declaracion.columnas = Integer.parseInt(tamaño2);
+        emitir(declaracion);
+        variables.put(nombreArray, tipo);
+        columnasArreglos.put(nombreArray, declaracion.columnas);
 
         // Verificar si tiene inicialización (más de 4 hijos y tiene ASSIGN)
         if (hijos.size() > 5 && hijos.get(4).getTipo().equals("ASSIGN")) {
@@ -863,15 +878,10 @@ public class GeneradorCodigoIntermedio {
                  int j = indice % t2;
                  
                  if (dimensiones.size() > 1) {
-                    codigoIntermedio.append("   ").append(nombreArray)
-                            .append("[").append(i).append("][").append(j).append("] = ")
-                            .append(val)
-                            .append("\n");
+                    emitir(Instruccion.escribirArreglo(nombreArray, op(String.valueOf(i)),
+                                                       op(String.valueOf(j)), op(val)));
                  } else {
-                    codigoIntermedio.append("   ").append(nombreArray)
-                            .append("[").append(indice).append("] = ")
-                            .append(val)
-                            .append("\n");
+                    emitir(Instruccion.escribirArreglo(nombreArray, op(String.valueOf(indice)), null, op(val)));
                  }
                 indice++;
             }
@@ -934,11 +944,11 @@ public class GeneradorCodigoIntermedio {
         if (!expresion.isEmpty()) {
             if (tipoExpresion.equals("string") || expresion.startsWith("str_")) {
                 // Si ya es un label de string (empieza con str_)
-                codigoIntermedio.append("   ").append("PRINTSTRING ").append(expresion).append("\n");
+                emitir(Instruccion.conOperando(Instruccion.Operacion.PRINTSTRING, op(expresion)));
             } else if (tipoExpresion.equals("float")) {
-                codigoIntermedio.append("   ").append("PRINTFLOAT ").append(expresion).append("\n");
+                emitir(Instruccion.conOperando(Instruccion.Operacion.PRINTFLOAT, op(expresion)));
             } else {
-                codigoIntermedio.append("   ").append("PRINT ").append(expresion).append("\n");
+                emitir(Instruccion.conOperando(Instruccion.Operacion.PRINT, op(expresion)));
             }
         }
         
@@ -988,24 +998,18 @@ public class GeneradorCodigoIntermedio {
     private String procesarReturn(NodoArbol nodo) {
         String valor = "";
         
-        // Buscar valor de retorno si existe
+        // Buscar valor de retorno si existe (cualquier expresión: llamadas, operaciones, etc.)
         for (NodoArbol hijo : nodo.getHijos()) {
-            if (hijo.getTipo().equals("int_literal") ||
-                hijo.getTipo().equals("float_literal") ||
-                hijo.getTipo().equals("bool_literal") ||
-                hijo.getTipo().equals("char_literal") ||
-                hijo.getTipo().equals("IDENTIFIER") ||
-                hijo.getTipo().equals("()")) {
-                
-                valor = visitar(hijo);
+            if (!hijo.getTipo().equals("RETURN") && !hijo.getTipo().equals("ENDL")) {
+                valor = evaluarExpr(hijo);
                 break;
             }
         }
         
         if (!valor.isEmpty()) {
-            codigoIntermedio.append("   ").append("RETURN ").append(valor).append("\n");
+            emitir(Instruccion.conOperando(Instruccion.Operacion.RETURN, op(valor)));
         } else {
-            codigoIntermedio.append("   ").append("RETURN\n");
+            emitir(Instruccion.conOperando(Instruccion.Operacion.RETURN, null));
         }
         
         return valor;
@@ -1014,7 +1018,7 @@ public class GeneradorCodigoIntermedio {
     private String procesarBreak() {
         if (!breakLabels.isEmpty()) {
             String label = breakLabels.peek();
-            codigoIntermedio.append("   ").append("GOTO ").append(label).append("\n");
+            emitirGoto(label);
         }
         return "";
     }
@@ -1031,7 +1035,7 @@ public class GeneradorCodigoIntermedio {
         }
         
         if (!variable.isEmpty()) {
-            codigoIntermedio.append("   ").append("READ ").append(variable).append("\n");
+            emitir(Instruccion.lectura(Instruccion.Operacion.READ, op(variable)));
         }
         
         return variable;
@@ -1050,12 +1054,12 @@ public class GeneradorCodigoIntermedio {
         }
         if (nodo.getHijos().get(1).getTipo().equals("string_literal")) {
             valor = registrarString(nodo.getHijos().get(1).getLexema());
-            codigoIntermedio.append("   ").append(destino).append(" = ").append(valor).append("\n");
+            emitirCopia(destino, valor);
             return destino;
         }
         if (nodo.getHijos().get(1).getTipo().equals("bool_literal")) {
             valor = nodo.getHijos().get(1).getLexema();
-            codigoIntermedio.append("   ").append(destino).append(" = ").append(valor).append("\n");
+            emitirCopia(destino, valor);
             return destino;
         }
         
@@ -1065,7 +1069,7 @@ public class GeneradorCodigoIntermedio {
         valor = evaluarExpr(nodo.getHijos().get(1));
         
         if (!destino.isEmpty() && !valor.isEmpty()) {
-            codigoIntermedio.append("   ").append(destino).append(" = ").append(valor).append("\n");
+            emitirCopia(destino, valor);
         }
         
         return destino;
@@ -1110,11 +1114,7 @@ public class GeneradorCodigoIntermedio {
                 if (!nodo.getHijos().isEmpty()) {
                     String valor = evaluarExpr(nodo.getHijos().get(0));
                     String temp = nuevoTemporal();
-                    codigoIntermedio.append("   ")
-                                    .append(temp)
-                                    .append(" = -")
-                                    .append(valor)
-                                    .append("\n");
+                    emitir(Instruccion.unaria(Instruccion.Operacion.NEGACION, op(temp), op(valor)));
                     return temp;
                 }
                 return "";
@@ -1124,9 +1124,9 @@ public class GeneradorCodigoIntermedio {
                 String var = evaluarExpr(nodo.getHijos().get(0));
                 String t1 = nuevoTemporal();
                 String t2 = nuevoTemporal();
-                codigoIntermedio.append("   ").append(t1).append(" = ").append(var).append(" + 1\n");
-                codigoIntermedio.append("   ").append(var).append(" = ").append(t1).append("\n");
-                codigoIntermedio.append("   ").append(t2).append(" = ").append(var).append("\n");
+                emitirBinaria(t1, var, "+", "1");
+                emitirCopia(var, t1);
+                emitirCopia(t2, var);
                 return t2;
             }
 
@@ -1134,9 +1134,9 @@ public class GeneradorCodigoIntermedio {
                 String var = evaluarExpr(nodo.getHijos().get(0));
                 String t1 = nuevoTemporal();
                 String t2 = nuevoTemporal();
-                codigoIntermedio.append("   ").append(t1).append(" = ").append(var).append(" - 1\n");
-                codigoIntermedio.append("   ").append(var).append(" = ").append(t1).append("\n");
-                codigoIntermedio.append("   ").append(t2).append(" = ").append(var).append("\n");
+                emitirBinaria(t1, var, "-", "1");
+                emitirCopia(var, t1);
+                emitirCopia(t2, var);
                 return t2;
             }
 
@@ -1152,39 +1152,54 @@ public class GeneradorCodigoIntermedio {
                     }
                 }
 
+                // Primero se evalúan todos los argumentos: una llamada anidada emite sus propios
+                // PARAM, y el backend pasa a cada CALL todos los PARAM pendientes
+                List<String> valores = new ArrayList<>();
                 for (NodoArbol arg : argumentos) {
-                    String valor = evaluarExpr(arg);
-                    codigoIntermedio.append("   PARAM ").append(valor).append("\n");
+                    valores.add(evaluarExpr(arg));
+                }
+                for (String valor : valores) {
+                    emitir(Instruccion.conOperando(Instruccion.Operacion.PARAM, op(valor)));
                 }
 
-                codigoIntermedio.append("   CALL ")
-                    .append(nombreFuncion)
-                    .append("\n");
+                emitir(Instruccion.llamada(nombreFuncion));
 
 
-                String temp = nuevoTemporal();
-                codigoIntermedio.append("   ").append(temp).append(" = RET\n");
+                String temp = temporalRetorno(nombreFuncion);
+                emitir(Instruccion.retorno(op(temp)));
                 return temp;
             }
 
 
+            case "array_access":
+                return procesarAccesoArray(nodo);
+
             // Operadores binarios
             case "+":
             case "-":
             case "*":
             case "/":
                 return generarOperacionBinariaConTipo(nodo, tipo);
+            case "^": {
+                List<String> operandos = new ArrayList<>();
+                for (NodoArbol hijo : nodo.getHijos()) {
+                    if (!hijo.getTipo().equals("ENDL") && !hijo.getTipo().equals("ASSIGN")) {
+                        operandos.add(evaluarExpr(hijo));
+                    }
+                }
+                return operandos.size() >= 2 ? generarPotencia(operandos.get(0), operandos.get(1)) : "";
+            }
             case "%":
-            case "^":
             case "==":
             case "!=":
             case "<":
             case "<=":
             case ">":
             case ">=":
+                return generarOperacionBinariaDesdeArbol(nodo);
             case "@":
             case "~":
-                return generarOperacionBinariaDesdeArbol(nodo);
+                return generarLogico(nodo);
 
             case "Σ":
                 return generarOperacionNotDesdeArbol(nodo);
@@ -1209,13 +1224,6 @@ public class GeneradorCodigoIntermedio {
         }
     }
 
-    private String removerSufijoFloat(String valor) {
-        if (valor.endsWith("_f")) {
-            return valor.substring(0, valor.length() - 2);
-        }
-        return valor;
-    }
-
     private boolean esVariableFloat(String nombre) {
         // Heurísticas para identificar variables float
         if (variables.containsKey(nombre)) {
@@ -1232,25 +1240,19 @@ public class GeneradorCodigoIntermedio {
             String derecha = evaluarExpr(nodo.getHijos().get(1));
             
             // Determinar tipos de los operandos
-            boolean izqEsFloat = izquierda.endsWith("_f") || esVariableFloat(izquierda);
-            boolean derEsFloat = derecha.endsWith("_f") || esVariableFloat(derecha);
+            boolean izqEsFloat = op(izquierda).esFlotante();
+            boolean derEsFloat = op(derecha).esFlotante();
             
             String temp = nuevoTemporal();
             
             if (izqEsFloat || derEsFloat) {
                 // Operación de punto flotante
                 String opFloat = convertirOperadorFloat(operador);
-                codigoIntermedio.append("   ").append(temp).append("_f = ")
-                            .append(removerSufijoFloat(izquierda)).append(" ")
-                            .append(opFloat).append(" ")
-                            .append(derecha).append("\n");
+                emitirBinaria(temp + "_f", izquierda, opFloat, derecha);
                 return temp + "_f";
             } else {
                 // Operación entera
-                codigoIntermedio.append("   ").append(temp).append(" = ")
-                            .append(izquierda).append(" ")
-                            .append(operador).append(" ")
-                            .append(derecha).append("\n");
+                emitirBinaria(temp, izquierda, operador, derecha);
                 return temp;
             }
         }
@@ -1258,7 +1260,6 @@ public class GeneradorCodigoIntermedio {
     }
 
     private String procesarAsignacionArray(NodoArbol nodo) {
-        String arrayAccess = "";
         String valor = "";
         
         // Estructura esperada: array_access -> IDENTIFIER [ expr ] [ expr ]
@@ -1275,45 +1276,11 @@ public class GeneradorCodigoIntermedio {
         }
         
         if (accesoNodo != null && !valor.isEmpty()) {
-            // Desglosar el acceso para generar asignación: array[i][j] = val
-            // No podemos usar visitar(accesoNodo) porque genera un READ a temporal
-            
-            String nombreArray = "";
-            String indice1 = "";
-            String indice2 = "";
-            
-            for (NodoArbol hijo : accesoNodo.getHijos()) {
-                switch (hijo.getTipo()) {
-                    case "IDENTIFIER":
-                        nombreArray = hijo.getLexema();
-                        break;
-                    default:
-                        if (!hijo.getTipo().equals("DECLBRACKETL") && !hijo.getTipo().equals("DECLBRACKETR")) {
-                             // Es una expresión de índice
-                             String idx = evaluarExpr(hijo);
-                             if (indice1.isEmpty()) {
-                                 indice1 = idx;
-                             } else {
-                                 indice2 = idx;
-                             }
-                        }
-                        break;
-                }
-            }
-            
-            if (!nombreArray.isEmpty() && !indice1.isEmpty()) {
-                 if (indice2.isEmpty()) {
-                     // 1D
-                     codigoIntermedio.append("   ").append(nombreArray)
-                             .append("[").append(indice1).append("] = ")
-                             .append(valor).append("\n");
-                 } else {
-                     // 2D
-                     codigoIntermedio.append("   ").append(nombreArray)
-                             .append("[").append(indice1).append("][").append(indice2).append("] = ")
-                             .append(valor).append("\n");
-                 }
-                 return nombreArray;
+            // No podemos usar visitar(accesoNodo) porque genera una lectura a temporal
+            String[] acceso = desglosarAcceso(accesoNodo);
+            if (acceso != null) {
+                emitir(Instruccion.escribirArreglo(acceso[0], op(acceso[1]), null, op(valor)));
+                return acceso[0];
             }
         }
         
@@ -1321,57 +1288,175 @@ public class GeneradorCodigoIntermedio {
     }
     
     private String procesarAccesoArray(NodoArbol nodo) {
+        String[] acceso = desglosarAcceso(nodo);
+        if (acceso == null) {
+            return "";
+        }
+        String temp = nuevoTemporal();
+        if ("float".equals(variables.get(acceso[0]))) {
+            temp += "_f";
+        }
+        emitir(Instruccion.leerArreglo(op(temp), acceso[0], op(acceso[1]), null));
+        return temp;
+    }
+
+    // Evalúa los índices de un acceso IDENTIFIER [ expr ] [ expr ] y devuelve el nombre del
+    // arreglo y la posición del elemento en el arreglo aplanado (fila * columnas + columna).
+    // El cálculo queda en el código intermedio para que las optimizaciones puedan reutilizarlo.
+    private String[] desglosarAcceso(NodoArbol nodo) {
         String nombreArray = "";
-        String indice1 = "";
-        String indice2 = "";
-        
+        List<String> indices = new ArrayList<>();
+
         for (NodoArbol hijo : nodo.getHijos()) {
-            switch (hijo.getTipo()) {
-                case "int_literal":
-                    if (indice1.isEmpty()) {
-                        indice1 = hijo.getLexema();
-                    } else {
-                        indice2 = hijo.getLexema();
-                    }
-                    break;
-                case "IDENTIFIER":
-                    // Si es un identificador como índice
-                    if (indice1.isEmpty()) {
-                        indice1 = hijo.getLexema();
-                    } else {
-                        indice2 = hijo.getLexema();
-                    }
-                    break;
+            String tipo = hijo.getTipo();
+            if (tipo.equals("DECLBRACKETL") || tipo.equals("DECLBRACKETR")) {
+                continue;
             }
-        }
-        
-        if (!nombreArray.isEmpty() && !indice1.isEmpty()) {
-            String temp = nuevoTemp();
-            if (indice2.isEmpty()) {
-                // Array 1D
-                codigoIntermedio.append("   ").append(temp).append(" = ").append(nombreArray)
-                              .append("[").append(indice1).append("]\n");
+            if (nombreArray.isEmpty() && tipo.equals("IDENTIFIER")) {
+                nombreArray = hijo.getLexema();
             } else {
-                // Array 2D
-                codigoIntermedio.append("   ").append(temp).append(" = ").append(nombreArray)
-                              .append("[").append(indice1).append("][").append(indice2).append("]\n");
+                indices.add(evaluarExpr(hijo));
             }
-            return temp;
         }
-        
-        return "";
+
+        if (nombreArray.isEmpty() || indices.isEmpty()) {
+            return null;
+        }
+        String indice = indices.get(0);
+        if (indices.size() > 1) {
+            int columnas = Math.max(1, columnasArreglos.getOrDefault(nombreArray, 1));
+            String desplazamientoFila = nuevoTemporal();
+            emitirBinaria(desplazamientoFila, indice, "*", String.valueOf(columnas));
+            indice = nuevoTemporal();
+            emitirBinaria(indice, desplazamientoFila, "+", indices.get(1));
+        }
+        return new String[] { nombreArray, indice };
     }
     
     private String procesarDecide(NodoArbol nodo) {
+        if (procesarSeleccion(nodo)) {
+            return "";
+        }
         String endLabel = nuevaEtiqueta();
         
         // Procesar todas las condiciones recursivamente
         procesarCondicionesDecide(nodo, endLabel);
         
-        codigoIntermedio.append("   ").append(endLabel).append(":\n");
+        emitirLabel(endLabel);
         return "";
     }
 
+    // Un decide cuyos brazos comparan todos la misma variable int o char con constantes
+    // (al menos MINIMO_CASOS_SWITCH distintas) se traduce a un SWITCH: el código MIPS
+    // elige el brazo con una tabla de saltos o una búsqueda binaria en lugar de probar
+    // las condiciones una por una. Devuelve false si el decide no tiene esa forma.
+    private boolean procesarSeleccion(NodoArbol nodo) {
+        List<NodoArbol> brazos = new ArrayList<>();
+        NodoArbol elseBloque = null;
+        for (int i = 0; i < nodo.getHijos().size(); i++) {
+            NodoArbol hijo = nodo.getHijos().get(i);
+            if (hijo.getTipo().equals("condicionesDecide")) {
+                recolectarBrazos(hijo, brazos);
+            } else if (hijo.getTipo().equals("ELSE") && i + 2 < nodo.getHijos().size()) {
+                elseBloque = nodo.getHijos().get(i + 2); // ELSE -> ARROW -> BLOQUE
+            }
+        }
+
+        String selector = null;
+        List<Long> casos = new ArrayList<>();
+        List<NodoArbol> bloques = new ArrayList<>();
+        for (NodoArbol brazo : brazos) {
+            NodoArbol condicion = null;
+            NodoArbol bloque = null;
+            for (NodoArbol hijo : brazo.getHijos()) {
+                if (hijo.getTipo().equals("bloque")) {
+                    bloque = hijo;
+                } else if (!hijo.getTipo().equals("ARROW")) {
+                    condicion = hijo;
+                }
+            }
+            while (condicion != null && condicion.getTipo().equals("()")) {
+                NodoArbol interna = null;
+                for (NodoArbol expr : condicion.getHijos()) {
+                    if (!expr.getTipo().equals("LPAREN") && !expr.getTipo().equals("RPAREN")) {
+                        interna = expr;
+                    }
+                }
+                condicion = interna;
+            }
+            if (condicion == null || !condicion.getTipo().equals("==") || condicion.getHijos().size() != 2) {
+                return false;
+            }
+            NodoArbol izquierda = condicion.getHijos().get(0);
+            NodoArbol variable = izquierda.getTipo().equals("IDENTIFIER") ? izquierda : condicion.getHijos().get(1);
+            Long valor = valorConstante(variable == izquierda ? condicion.getHijos().get(1) : izquierda);
+            if (!variable.getTipo().equals("IDENTIFIER") || valor == null ||
+                selector != null && !selector.equals(variable.getLexema())) {
+                return false;
+            }
+            selector = variable.getLexema();
+            if (!casos.contains(valor)) { // Un brazo con un valor repetido nunca se elige
+                casos.add(valor);
+                bloques.add(bloque);
+            }
+        }
+        if (selector == null || casos.size() < MINIMO_CASOS_SWITCH) {
+            return false;
+        }
+        String tipo = op(selector).tipoDato;
+        if (!tipo.equals("int") && !tipo.equals("char")) {
+            return false;
+        }
+
+        String endLabel = nuevaEtiqueta();
+        String elseLabel = elseBloque != null ? nuevaEtiqueta() : endLabel;
+        List<String> etiquetas = new ArrayList<>();
+        for (int k = 0; k < casos.size(); k++) {
+            etiquetas.add(nuevaEtiqueta());
+        }
+        emitir(Instruccion.seleccion(op(selector), casos, etiquetas, elseLabel));
+        for (int k = 0; k < casos.size(); k++) {
+            emitirLabel(etiquetas.get(k));
+            if (bloques.get(k) != null) {
+                visitar(bloques.get(k));
+            }
+            emitirGoto(endLabel);
+        }
+        if (elseBloque != null) {
+            emitirLabel(elseLabel);
+            visitar(elseBloque);
+        }
+        emitirLabel(endLabel);
+        return true;
+    }
+
+    // Valor de un literal int o char, con signo menos opcional; null si no es uno
+    private Long valorConstante(NodoArbol nodo) {
+        switch (nodo.getTipo()) {
+            case "int_literal":
+            case "char_literal":
+                return op(evaluarExpr(nodo)).valorEntero();
+            case "MINUS":
+                if (nodo.getHijos().size() == 1 && nodo.getHijos().get(0).getTipo().equals("int_literal")) {
+                    return -op(evaluarExpr(nodo.getHijos().get(0))).valorEntero();
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    // Brazos de un decide (nodos condicionDecide) en el orden del programa
+    private void recolectarBrazos(NodoArbol nodo, List<NodoArbol> brazos) {
+        for (NodoArbol hijo : nodo.getHijos()) {
+            if (hijo.getTipo().equals("condicionesDecide")) {
+                recolectarBrazos(hijo, brazos);
+            } else if (hijo.getTipo().equals("condicionDecide")) {
+                brazos.add(hijo);
+            }
+        }
+    }
+
     private void procesarCondicionesDecide(NodoArbol nodo, String endLabel) {
         // Buscar el nodo condicionesDecide
         for (NodoArbol hijo : nodo.getHijos()) {
@@ -1395,7 +1480,7 @@ public class GeneradorCodigoIntermedio {
     }
 
     private void procesarUnaCondicionDecide(NodoArbol nodo, String endLabel) {
-        String condicion = "";
+        NodoArbol condicion = null;
         NodoArbol bloque = null;
         String elseLabel = nuevaEtiqueta();
         
@@ -1405,24 +1490,13 @@ public class GeneradorCodigoIntermedio {
                 bloque = hijo;
             } else if (!hijo.getTipo().equals("ARROW") && !hijo.getTipo().equals("condicionesDecide")) {
                 // Es la expresión de condición (puede estar entre paréntesis o no)
-                if (hijo.getTipo().equals("()")) {
-                    for (NodoArbol expr : hijo.getHijos()) {
-                         if (!expr.getTipo().equals("LPAREN") && !expr.getTipo().equals("RPAREN")) {
-                             condicion = evaluarExpr(expr);
-                             break;
-                         }
-                    }
-                } else {
-                    condicion = evaluarExpr(hijo);
-                }
+                condicion = hijo;
             }
         }
         
-        if (!condicion.isEmpty()) {
-            // Generar IF NOT condición GOTO elseLabel
-            String tempCond = nuevoTemporal();
-            codigoIntermedio.append("   ").append(tempCond).append(" = ").append(condicion).append("\n");
-            codigoIntermedio.append("   IF NOT ").append(tempCond).append(" GOTO ").append(elseLabel).append("\n");
+        if (condicion != null) {
+            // Si la condición no se cumple, a la siguiente
+            generarSaltoCondicion(condicion, elseLabel, false);
             
             // Procesar el bloque si la condición es verdadera
             if (bloque != null) {
@@ -1430,15 +1504,18 @@ public class GeneradorCodigoIntermedio {
             }
             
             // Saltar al final del decide después del bloque
-            codigoIntermedio.append("   GOTO ").append(endLabel).append("\n");
+            emitirGoto(endLabel);
             
             // Etiqueta para else (siguiente condición o fin)
-            codigoIntermedio.append("   ").append(elseLabel).append(":\n");
+            emitirLabel(elseLabel);
         }
     }
 
 
     private String procesarDecideConElse(NodoArbol nodo) {
+        if (procesarSeleccion(nodo)) {
+            return "";
+        }
         String elseLabel = nuevaEtiqueta();
         String endLabel = nuevaEtiqueta();
         
@@ -1462,7 +1539,7 @@ public class GeneradorCodigoIntermedio {
         }
         
         // Etiqueta else
-        codigoIntermedio.append("   ").append(elseLabel).append(":\n");
+        emitirLabel(elseLabel);
         
         // Procesar bloque else si existe
         if (tieneElse && elseBloque != null) {
@@ -1471,10 +1548,10 @@ public class GeneradorCodigoIntermedio {
         
         // Si no hubo else, el elseLabel es solo un punto de paso al final
         
-        codigoIntermedio.append("   GOTO ").append(endLabel).append("\n"); // Redundante pero seguro
+        emitirGoto(endLabel); // Redundante pero seguro
         
         // Etiqueta de fin
-        codigoIntermedio.append("   ").append(endLabel).append(":\n");
+        emitirLabel(endLabel);
         return "";
     }
 
@@ -1490,7 +1567,7 @@ public class GeneradorCodigoIntermedio {
     }
 
     private void procesarUnaCondicionConElse(NodoArbol nodo, String elseLabel, String endLabel) {
-        String condicion = "";
+        NodoArbol condicion = null;
         NodoArbol bloque = null;
         
         for (NodoArbol hijo : nodo.getHijos()) {
@@ -1498,22 +1575,11 @@ public class GeneradorCodigoIntermedio {
                 bloque = hijo;
             } else if (!hijo.getTipo().equals("ARROW") && !hijo.getTipo().equals("condicionesDecide")) {
                 // Es la expresión de condición
-                 if (hijo.getTipo().equals("()")) {
-                    for (NodoArbol expr : hijo.getHijos()) {
-                         if (!expr.getTipo().equals("LPAREN") && !expr.getTipo().equals("RPAREN")) {
-                             condicion = evaluarExpr(expr);
-                             break;
-                         }
-                    }
-                } else {
-                    condicion = evaluarExpr(hijo);
-                }
+                condicion = hijo;
             }
         }
         
-        if (!condicion.isEmpty()) {
-            String tempCond = nuevoTemporal();
-            codigoIntermedio.append("   ").append(tempCond).append(" = ").append(condicion).append("\n");
+        if (condicion != null) {
             
             // Aquí la lógica cambia ligeramente: 
             // Si es verdadero, ejecuta bloque y salta a END.
@@ -1522,14 +1588,14 @@ public class GeneradorCodigoIntermedio {
             // Para mantenerlo simple según el diseño existente:
             String nextLabel = nuevaEtiqueta();
             
-            codigoIntermedio.append("   IF NOT ").append(tempCond).append(" GOTO ").append(nextLabel).append("\n");
+            generarSaltoCondicion(condicion, nextLabel, false);
             
             if (bloque != null) {
                 visitar(bloque);
             }
             
-            codigoIntermedio.append("   GOTO ").append(endLabel).append("\n");
-            codigoIntermedio.append("   ").append(nextLabel).append(":\n");
+            emitirGoto(endLabel);
+            emitirLabel(nextLabel);
             
             // NOTA: Con el esquema actual, todos los "falsos" caen en cascada. 
             // El último caerá naturalmente hacia el 'elseLabel' generado en el método padre.
@@ -1560,23 +1626,22 @@ public class GeneradorCodigoIntermedio {
         return "";
     }
     
+    // loop ... exit when c end loop se ejecuta al menos una vez, así que se genera como
+    // un do-while: el único salto por vuelta es el condicional que vuelve al inicio.
     private String procesarLoop(NodoArbol nodo) {
         String startLabel = nuevaEtiqueta();
         String endLabel = nuevaEtiqueta();
         
-        // Etiqueta especial para EXIT WHEN
-        String exitWhenLabel = "L_exit_when_" + labelCounter++;
-        
         // Guardar la etiqueta de fin para BREAK
         breakLabels.push(endLabel);
 
         // Inicio del loop
-        codigoIntermedio.append("   ").append(startLabel).append(":\n");
+        emitirLabel(startLabel);
         
         // Buscar y procesar el cuerpo del loop
         NodoArbol cuerpoLoop = null;
         boolean tieneExitWhen = false;
-        String condicionExit = "";
+        NodoArbol condicionExit = null;
         
         // Primero buscar el cuerpo del loop
         for (NodoArbol hijo : nodo.getHijos()) {
@@ -1600,31 +1665,19 @@ public class GeneradorCodigoIntermedio {
         }
         for (NodoArbol hijo : nodo.getHijos()) {
             if (hijo.getTipo().equals("()")) {
-                // Extraer la condición de EXIT WHEN
-                for (NodoArbol expr : hijo.getHijos()) {
-                    if (!expr.getTipo().equals("LPAREN") && !expr.getTipo().equals("RPAREN")) {
-                        condicionExit = evaluarExpr(expr);
-                        break;
-                    }
-                }
+                // La condición de EXIT WHEN
+                condicionExit = hijo;
             }
         }
+        // Al final del cuerpo del loop, volver al inicio mientras no se cumpla EXIT WHEN
         if (tieneExitWhen) {
-            String tempCond = nuevoTemporal();
-            codigoIntermedio.append("   ").append(tempCond).append(" = ").append(condicionExit).append("\n");
-            codigoIntermedio.append("   IF ").append(tempCond).append(" GOTO ").append(exitWhenLabel).append("\n");
-        }
-        
-        // Al final del cuerpo del loop, volver al inicio
-        codigoIntermedio.append("   GOTO ").append(startLabel).append("\n");
-        
-        // Etiqueta para salir con EXIT WHEN
-        if (tieneExitWhen) {
-            codigoIntermedio.append("   ").append(exitWhenLabel).append(":\n");
+            generarSaltoCondicion(condicionExit, startLabel, false);
+        } else {
+            emitirGoto(startLabel);
         }
         
         // Etiqueta para BREAK
-        codigoIntermedio.append("   ").append(endLabel).append(":\n");
+        emitirLabel(endLabel);
         
         // Quitar la etiqueta de break de la pila
         breakLabels.pop();
@@ -1632,6 +1685,9 @@ public class GeneradorCodigoIntermedio {
         return "";
     }
     
+    // El for se genera rotado: la condición se evalúa una vez antes de entrar (y salta al
+    // final si no se cumple) y otra al final del cuerpo, donde un único salto condicional
+    // vuelve al inicio. Así cada vuelta ejecuta un solo salto.
     private String procesarFor(NodoArbol nodo) {
         String startLabel = nuevaEtiqueta();
         String endLabel = nuevaEtiqueta();
@@ -1644,17 +1700,14 @@ public class GeneradorCodigoIntermedio {
         NodoArbol incNode = null;
         NodoArbol bloqueNode = null;
         
-        for (NodoArbol hijo : nodo.getHijos()) {
-            if (hijo.getTipo().equals("declaracionVariable_local_asign")) {
-                initNode = hijo;
-            } else if (hijo.getTipo().equals(">=") || hijo.getTipo().equals(">") || 
-                    hijo.getTipo().equals("<=") || hijo.getTipo().equals("<")) {
-                condNode = hijo;
-            } else if (hijo.getTipo().equals("--_pre") || hijo.getTipo().equals("++_pre")) {
-                incNode = hijo;
-            } else if (hijo.getTipo().equals("bloque")) {
-                bloqueNode = hijo;
-            }
+        // Estructura: FOR ( init cond ENDL inc ) bloque. La condición puede ser cualquier
+        // expresión y el incremento cualquier instrucción, así que se toman por posición.
+        List<NodoArbol> hijos = nodo.getHijos();
+        if (hijos.size() >= 8) {
+            initNode = hijos.get(2);
+            condNode = hijos.get(3);
+            incNode = hijos.get(5);
+            bloqueNode = hijos.get(7);
         }
         
         // Inicialización
@@ -1662,45 +1715,108 @@ public class GeneradorCodigoIntermedio {
             visitar(initNode);
         }
         
-        // Saltar a la condición primero
-        String condLabel = nuevaEtiqueta();
-        codigoIntermedio.append("   GOTO ").append(condLabel).append("\n");
+        // Guarda de entrada: si la condición no se cumple, no se ejecuta ninguna vuelta
+        if (condNode != null) {
+            generarSaltoCondicion(condNode, endLabel, false);
+        }
         
         // Cuerpo del for
-        codigoIntermedio.append("   ").append(startLabel).append(":\n");
+        emitirLabel(startLabel);
         if (bloqueNode != null) {
             visitar(bloqueNode.getHijos().get(1));
         }
         
         // Incremento
         if (incNode != null) {
-            evaluarExpr(incNode);
+            visitar(incNode);
         }
         
-        // Condición (etiqueta para evaluar condición)
-        codigoIntermedio.append("   ").append(condLabel).append(":\n");
+        // Condición al final del cuerpo: vuelve al inicio si se sigue cumpliendo
         if (condNode != null) {
-            String condicion = evaluarExpr(condNode);
-            String tempCond = nuevoTemporal();
-            codigoIntermedio.append("   ").append(tempCond).append(" = ").append(condicion).append("\n");
-            codigoIntermedio.append("   IF ").append(tempCond).append(" GOTO ").append(startLabel).append("\n");
+            generarSaltoCondicion(condNode, startLabel, true);
         }
         
-        codigoIntermedio.append("   ").append(endLabel).append(":\n");
+        emitirLabel(endLabel);
         
         breakLabels.pop();
         return "";
     }
     
+    // Salta a la etiqueta si la condición vale siVerdadera y sigue de largo si no. @ y ~
+    // se evalúan en cortocircuito: el operando derecho solo se calcula (con sus llamadas)
+    // cuando el izquierdo no alcanza para decidir.
+    private void generarSaltoCondicion(NodoArbol nodo, String etiqueta, boolean siVerdadera) {
+        nodo = sinParentesis(nodo);
+        switch (nodo.getTipo()) {
+            case "@":
+            case "~": {
+                // a @ b salta por falso si cualquiera es falso; a ~ b salta por verdadero si cualquiera lo es
+                boolean esY = nodo.getTipo().equals("@");
+                NodoArbol izquierda = nodo.getHijos().get(0);
+                NodoArbol derecha = nodo.getHijos().get(1);
+                if (siVerdadera != esY) {
+                    generarSaltoCondicion(izquierda, etiqueta, siVerdadera);
+                    generarSaltoCondicion(derecha, etiqueta, siVerdadera);
+                } else {
+                    // El izquierdo ya decide en contra: se saltea el derecho
+                    String decidido = nuevaEtiqueta();
+                    generarSaltoCondicion(izquierda, decidido, !siVerdadera);
+                    generarSaltoCondicion(derecha, etiqueta, siVerdadera);
+                    emitirLabel(decidido);
+                }
+                return;
+            }
+            case "Σ":
+                generarSaltoCondicion(nodo.getHijos().get(0), etiqueta, !siVerdadera);
+                return;
+            default: {
+                String condicion = evaluarExpr(nodo);
+                if (!condicion.isEmpty()) {
+                    emitir(Instruccion.salto(siVerdadera ? Instruccion.Operacion.IF : Instruccion.Operacion.IF_NOT,
+                                             op(condicion), etiqueta));
+                }
+            }
+        }
+    }
+
+    // Valor booleano de @ o ~, calculado con saltos en cortocircuito
+    private String generarLogico(NodoArbol nodo) {
+        if (nodo.getHijos().size() < 2) {
+            return "";
+        }
+        String temp = nuevoTemporal();
+        String fin = nuevaEtiqueta();
+        emitirCopia(temp, "false");
+        generarSaltoCondicion(nodo, fin, false);
+        emitirCopia(temp, "true");
+        emitirLabel(fin);
+        return temp;
+    }
+
+    private static NodoArbol sinParentesis(NodoArbol nodo) {
+        while (nodo.getTipo().equals("()")) {
+            NodoArbol interno = null;
+            for (NodoArbol hijo : nodo.getHijos()) {
+                if (!hijo.getTipo().equals("LPAREN") && !hijo.getTipo().equals("RPAREN")) {
+                    interno = hijo;
+                }
+            }
+            if (interno == null) {
+                break;
+            }
+            nodo = interno;
+        }
+        return nodo;
+    }
+
     private String generarOperacionBinaria(NodoArbol nodo, String operador) {
         if (nodo.getHijos().size() >= 2) {
             String izquierda = visitar(nodo.getHijos().get(0));
             String derecha = visitar(nodo.getHijos().get(1));
             
             if (!izquierda.isEmpty() && !derecha.isEmpty()) {
-                String temp = nuevoTemp();
-                codigoIntermedio.append("   ").append(temp).append(" = ").append(izquierda)
-                              .append(" ").append(operador).append(" ").append(derecha).append("\n");
+                String temp = nuevoTemporal();
+                emitirBinaria(temp, izquierda, operador, derecha);
                 return temp;
             }
         }
@@ -1711,8 +1827,8 @@ public class GeneradorCodigoIntermedio {
         if (nodo.getHijos().size() > 0) {
             String operando = visitar(nodo.getHijos().get(0));
             if (!operando.isEmpty()) {
-                String temp = nuevoTemp();
-                codigoIntermedio.append("   ").append(temp).append(" = !").append(operando).append("\n");
+                String temp = nuevoTemporal();
+                emitir(Instruccion.unaria(Instruccion.Operacion.NOT, op(temp), op(operando)));
                 return temp;
             }
         }
@@ -1723,8 +1839,8 @@ public class GeneradorCodigoIntermedio {
         if (nodo.getHijos().size() > 0) {
             String operando = visitar(nodo.getHijos().get(0));
             if (!operando.isEmpty()) {
-                String temp = nuevoTemp();
-                codigoIntermedio.append("   ").append(temp).append(" = ").append(operador).append(operando).append("\n");
+                String temp = nuevoTemporal();
+                emitir(Instruccion.unaria(Instruccion.Operacion.NEGACION, op(temp), op(operando)));
                 return temp;
             }
         }
@@ -1735,11 +1851,11 @@ public class GeneradorCodigoIntermedio {
         if (nodo.getHijos().size() > 0) {
             String variable = visitar(nodo.getHijos().get(0));
             if (!variable.isEmpty()) {
-                String temp1 = nuevoTemp();
-                String temp2 = nuevoTemp();
-                codigoIntermedio.append("   ").append(temp1).append(" = ").append(variable).append(" + 1\n");
-                codigoIntermedio.append("   ").append(variable).append(" = ").append(temp1).append("\n");
-                codigoIntermedio.append("   ").append(temp2).append(" = ").append(variable).append("\n");
+                String temp1 = nuevoTemporal();
+                String temp2 = nuevoTemporal();
+                emitirBinaria(temp1, variable, "+", "1");
+                emitirCopia(variable, temp1);
+                emitirCopia(temp2, variable);
                 return temp2;
             }
         }
@@ -1750,11 +1866,11 @@ public class GeneradorCodigoIntermedio {
         if (nodo.getHijos().size() > 0) {
             String variable = visitar(nodo.getHijos().get(0));
             if (!variable.isEmpty()) {
-                String temp1 = nuevoTemp();
-                String temp2 = nuevoTemp();
-                codigoIntermedio.append("   ").append(temp1).append(" = ").append(variable).append(" - 1\n");
-                codigoIntermedio.append("   ").append(variable).append(" = ").append(temp1).append("\n");
-                codigoIntermedio.append("   ").append(temp2).append(" = ").append(variable).append("\n");
+                String temp1 = nuevoTemporal();
+                String temp2 = nuevoTemporal();
+                emitirBinaria(temp1, variable, "-", "1");
+                emitirCopia(variable, temp1);
+                emitirCopia(temp2, variable);
                 return temp2;
             }
         }
@@ -0,0 +1,156 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Grafo de flujo de control de una función del código intermedio, dividido en
+// bloques básicos. Los líderes son la primera instrucción, cada etiqueta y la
+// instrucción que sigue a un salto o a un RETURN. El bloque 0 es la entrada.
+//
+// Las pasadas que modifican la lista de instrucciones deben construir un grafo
+// nuevo: los bloques guardan las posiciones de la lista en el momento de crearse.
+public class GrafoFlujo {
+    public final FuncionIntermedia funcion;
+    private final List<BloqueBasico> bloques = new ArrayList<>();
+    private final Map<String, BloqueBasico> porEtiqueta = new HashMap<>();
+    private Dominadores dominadores;
+    private List<CicloNatural> ciclos;
+
+    public GrafoFlujo(FuncionIntermedia funcion) {
+        this.funcion = funcion;
+        dividir();
+        conectar();
+    }
+
+    private void dividir() {
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        int inicio = 0;
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            if (instruccion.op == Instruccion.Operacion.LABEL && i > inicio) {
+                agregarBloque(inicio, i);
+                inicio = i;
+            }
+            if (instruccion.esSalto() || instruccion.terminaFlujo()) {
+                agregarBloque(inicio, i + 1);
+                inicio = i + 1;
+            }
+        }
+        if (inicio < instrucciones.size() || bloques.isEmpty()) {
+            agregarBloque(inicio, instrucciones.size());
+        }
+    }
+
+    private void agregarBloque(int inicio, int fin) {
+        List<Instruccion> contenido = new ArrayList<>(funcion.instrucciones.subList(inicio, fin));
+        BloqueBasico bloque = new BloqueBasico(bloques.size(), inicio, fin, contenido);
+        bloques.add(bloque);
+        if (bloque.etiqueta() != null) {
+            porEtiqueta.put(bloque.etiqueta(), bloque);
+        }
+    }
+
+    private void conectar() {
+        for (BloqueBasico bloque : bloques) {
+            Instruccion ultima = bloque.ultima();
+            if (ultima != null) {
+                for (String etiqueta : ultima.destinos()) {
+                    BloqueBasico destino = porEtiqueta.get(etiqueta);
+                    if (destino != null) {
+                        enlazar(bloque, destino);
+                    }
+                }
+            }
+            boolean cae = ultima == null || !ultima.terminaFlujo();
+            if (cae && bloque.indice + 1 < bloques.size()) {
+                enlazar(bloque, bloques.get(bloque.indice + 1));
+            }
+        }
+    }
+
+    private static void enlazar(BloqueBasico origen, BloqueBasico destino) {
+        if (!origen.sucesores.contains(destino)) {
+            origen.sucesores.add(destino);
+            destino.predecesores.add(origen);
+        }
+    }
+
+    public List<BloqueBasico> bloques() {
+        return Collections.unmodifiableList(bloques);
+    }
+
+    public BloqueBasico entrada() {
+        return bloques.get(0);
+    }
+
+    public BloqueBasico bloqueDeEtiqueta(String etiqueta) {
+        return porEtiqueta.get(etiqueta);
+    }
+
+    // Bloque que contiene la instrucción en la posición dada de la lista de la función
+    public BloqueBasico bloqueDeInstruccion(int posicion) {
+        int bajo = 0;
+        int alto = bloques.size() - 1;
+        while (bajo < alto) {
+            int medio = (bajo + alto + 1) / 2;
+            if (bloques.get(medio).inicio <= posicion) {
+                bajo = medio;
+            } else {
+                alto = medio - 1;
+            }
+        }
+        return bloques.get(bajo);
+    }
+
+    public Dominadores dominadores() {
+        if (dominadores == null) {
+            dominadores = new Dominadores(this);
+        }
+        return dominadores;
+    }
+
+    // Ciclos naturales, los externos antes que los que anidan
+    public List<CicloNatural> ciclos() {
+        if (ciclos == null) {
+            ciclos = CicloNatural.detectar(this);
+        }
+        return ciclos;
+    }
+
+    // Cantidad de ciclos que contienen al bloque
+    public int profundidadCiclo(BloqueBasico bloque) {
+        CicloNatural interno = cicloInterno(bloque);
+        return interno == null ? 0 : interno.profundidad;
+    }
+
+    // Ciclo más interno que contiene al bloque, o null si no está en ninguno
+    public CicloNatural cicloInterno(BloqueBasico bloque) {
+        CicloNatural interno = null;
+        for (CicloNatural ciclo : ciclos()) {
+            if (ciclo.contiene(bloque) && (interno == null || ciclo.profundidad > interno.profundidad)) {
+                interno = ciclo;
+            }
+        }
+        return interno;
+    }
+
+    // Volcado del grafo para depuración
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BloqueBasico bloque : bloques) {
+            sb.append(bloque).append(" [").append(bloque.inicio).append(", ").append(bloque.fin).append(")");
+            sb.append(" -> ").append(bloque.sucesores);
+            BloqueBasico inmediato = dominadores().inmediato(bloque);
+            if (inmediato != null) {
+                sb.append(" idom ").append(inmediato);
+            }
+            sb.append("\n");
+        }
+        for (CicloNatural ciclo : ciclos()) {
+            sb.append(ciclo).append("\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,339 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class Instruccion {
+    public enum Operacion {
+        COPIA(""),
+        SUMA("+"),
+        RESTA("-"),
+        MULTIPLICACION("*"),
+        DIVISION("/"),
+        MODULO("%"),
+        POTENCIA("**"),
+        IGUAL("=="),
+        DISTINTO("!="),
+        MENOR("<"),
+        MENOR_IGUAL("<="),
+        MAYOR(">"),
+        MAYOR_IGUAL(">="),
+        Y("&&"),
+        O("||"),
+        NEGACION("-"),
+        NOT("NOT"),
+        ARREGLO_LEER(""),
+        ARREGLO_ESCRIBIR(""),
+        PHI("PHI"),
+        LABEL(""),
+        GOTO("GOTO"),
+        IF("IF"),
+        IF_NOT("IF NOT"),
+        SWITCH("SWITCH"),
+        PARAM("PARAM"),
+        CALL("CALL"),
+        RET("RET"),
+        RETURN("RETURN"),
+        LOCAL("LOCAL"),
+        ARRAY("ARRAY"),
+        GLOBAL("GLOBAL"),
+        READ("READ"),
+        READINT("READINT"),
+        READFLOAT("READFLOAT"),
+        READCHAR("READCHAR"),
+        READSTRING("READSTRING"),
+        READBOOL("READBOOL"),
+        PRINT("PRINT"),
+        PRINTFLOAT("PRINTFLOAT"),
+        PRINTSTRING("PRINTSTRING");
+
+        public final String texto;
+
+        Operacion(String texto) {
+            this.texto = texto;
+        }
+
+        public boolean esBinaria() {
+            return ordinal() >= SUMA.ordinal() && ordinal() <= O.ordinal();
+        }
+
+        public boolean esComparacion() {
+            return ordinal() >= IGUAL.ordinal() && ordinal() <= MAYOR_IGUAL.ordinal();
+        }
+
+        public boolean esLectura() {
+            return ordinal() >= READ.ordinal() && ordinal() <= READBOOL.ordinal();
+        }
+
+        public boolean esImpresion() {
+            return ordinal() >= PRINT.ordinal() && ordinal() <= PRINTSTRING.ordinal();
+        }
+
+        public static Operacion desdeOperador(String operador) {
+            for (Operacion op : values()) {
+                if (op.esBinaria() && op.texto.equals(operador)) {
+                    return op;
+                }
+            }
+            throw new IllegalArgumentException("Operador desconocido: " + operador);
+        }
+    }
+
+    public Operacion op;
+    public Operando destino;
+    public Operando a;
+    public Operando b;
+    public Operando c;        // Segundo índice de los accesos a arreglos
+    public String etiqueta;   // Etiqueta de LABEL/GOTO/IF, función de CALL o nombre del arreglo
+    public String tipoDato;   // Tipo declarado en LOCAL, ARRAY y GLOBAL
+    public int filas;
+    public int columnas;
+    public List<Operando> argumentos; // Valores de un PHI, uno por bloque predecesor
+    public List<String> origenes;     // Etiqueta del predecesor de cada argumento del PHI
+    public List<Long> casos;          // Valores de un SWITCH; los demás van a etiqueta
+    public List<String> etiquetasCasos; // Etiqueta de cada valor del SWITCH
+
+    public Instruccion(Operacion op) {
+        this.op = op;
+    }
+
+    public static Instruccion copia(Operando destino, Operando fuente) {
+        Instruccion i = new Instruccion(Operacion.COPIA);
+        i.destino = destino;
+        i.a = fuente;
+        return i;
+    }
+
+    public static Instruccion binaria(Operacion op, Operando destino, Operando izquierda, Operando derecha) {
+        Instruccion i = new Instruccion(op);
+        i.destino = destino;
+        i.a = izquierda;
+        i.b = derecha;
+        return i;
+    }
+
+    public static Instruccion unaria(Operacion op, Operando destino, Operando fuente) {
+        Instruccion i = new Instruccion(op);
+        i.destino = destino;
+        i.a = fuente;
+        return i;
+    }
+
+    public static Instruccion label(String etiqueta) {
+        Instruccion i = new Instruccion(Operacion.LABEL);
+        i.etiqueta = etiqueta;
+        return i;
+    }
+
+    public static Instruccion salto(Operacion op, Operando condicion, String etiqueta) {
+        Instruccion i = new Instruccion(op);
+        i.a = condicion;
+        i.etiqueta = etiqueta;
+        return i;
+    }
+
+    // Salto según el valor entero de a: a cada etiqueta del caso igual, o a otro
+    public static Instruccion seleccion(Operando selector, List<Long> casos, List<String> etiquetas, String otro) {
+        Instruccion i = new Instruccion(Operacion.SWITCH);
+        i.a = selector;
+        i.casos = new ArrayList<>(casos);
+        i.etiquetasCasos = new ArrayList<>(etiquetas);
+        i.etiqueta = otro;
+        return i;
+    }
+
+    public static Instruccion conOperando(Operacion op, Operando operando) {
+        Instruccion i = new Instruccion(op);
+        i.a = operando;
+        return i;
+    }
+
+    public static Instruccion llamada(String funcion) {
+        Instruccion i = new Instruccion(Operacion.CALL);
+        i.etiqueta = funcion;
+        return i;
+    }
+
+    public static Instruccion retorno(Operando destino) {
+        Instruccion i = new Instruccion(Operacion.RET);
+        i.destino = destino;
+        return i;
+    }
+
+    public static Instruccion lectura(Operacion op, Operando variable) {
+        Instruccion i = new Instruccion(op);
+        i.destino = variable;
+        return i;
+    }
+
+    public static Instruccion declaracion(Operacion op, Operando variable, String tipoDato) {
+        Instruccion i = new Instruccion(op);
+        i.destino = variable;
+        i.tipoDato = tipoDato;
+        return i;
+    }
+
+    public static Instruccion leerArreglo(Operando destino, String arreglo, Operando indice1, Operando indice2) {
+        Instruccion i = new Instruccion(Operacion.ARREGLO_LEER);
+        i.destino = destino;
+        i.etiqueta = arreglo;
+        i.b = indice1;
+        i.c = indice2;
+        return i;
+    }
+
+    public static Instruccion escribirArreglo(String arreglo, Operando indice1, Operando indice2, Operando valor) {
+        Instruccion i = new Instruccion(Operacion.ARREGLO_ESCRIBIR);
+        i.etiqueta = arreglo;
+        i.b = indice1;
+        i.c = indice2;
+        i.a = valor;
+        return i;
+    }
+
+    // Función phi de la forma SSA: un argumento por predecesor, todos con el valor inicial
+    public static Instruccion phi(Operando destino, List<String> predecesores) {
+        Instruccion i = new Instruccion(Operacion.PHI);
+        i.destino = destino;
+        i.origenes = new ArrayList<>(predecesores);
+        i.argumentos = new ArrayList<>();
+        for (int k = 0; k < predecesores.size(); k++) {
+            i.argumentos.add(destino);
+        }
+        return i;
+    }
+
+    // Copia independiente de la instrucción; los operandos no cambian y se comparten
+    public Instruccion duplicar() {
+        Instruccion i = new Instruccion(op);
+        i.destino = destino;
+        i.a = a;
+        i.b = b;
+        i.c = c;
+        i.etiqueta = etiqueta;
+        i.tipoDato = tipoDato;
+        i.filas = filas;
+        i.columnas = columnas;
+        i.argumentos = argumentos == null ? null : new ArrayList<>(argumentos);
+        i.origenes = origenes == null ? null : new ArrayList<>(origenes);
+        i.casos = casos == null ? null : new ArrayList<>(casos);
+        i.etiquetasCasos = etiquetasCasos == null ? null : new ArrayList<>(etiquetasCasos);
+        return i;
+    }
+
+    // Operando que la instrucción escribe (null si no define ninguno)
+    public Operando definicion() {
+        switch (op) {
+            case LOCAL:
+            case ARRAY:
+            case GLOBAL:
+                return null;
+            default:
+                return destino;
+        }
+    }
+
+    // Operandos que la instrucción lee, incluidas las constantes
+    public List<Operando> usos() {
+        List<Operando> usos = new ArrayList<>(3);
+        if (op == Operacion.GLOBAL) {
+            return usos;
+        }
+        if (a != null) usos.add(a);
+        if (b != null) usos.add(b);
+        if (c != null) usos.add(c);
+        if (argumentos != null) usos.addAll(argumentos);
+        return usos;
+    }
+
+    public boolean esSalto() {
+        return op == Operacion.GOTO || op == Operacion.IF || op == Operacion.IF_NOT || op == Operacion.SWITCH;
+    }
+
+    // Instrucciones tras las cuales la ejecución nunca sigue con la siguiente
+    public boolean terminaFlujo() {
+        return op == Operacion.GOTO || op == Operacion.RETURN || op == Operacion.SWITCH;
+    }
+
+    // Etiquetas a las que puede saltar la instrucción, sin repetir (vacía si no es un salto)
+    public List<String> destinos() {
+        List<String> destinos = new ArrayList<>(1);
+        if (op == Operacion.SWITCH) {
+            for (String destino : etiquetasCasos) {
+                if (!destinos.contains(destino)) {
+                    destinos.add(destino);
+                }
+            }
+        }
+        if (esSalto() && !destinos.contains(etiqueta)) {
+            destinos.add(etiqueta);
+        }
+        return destinos;
+    }
+
+    // Cambia el destino "de" por "a" en todos los lugares del salto donde aparece
+    public void redirigir(String de, String a) {
+        if (de.equals(etiqueta)) {
+            etiqueta = a;
+        }
+        if (etiquetasCasos != null) {
+            etiquetasCasos.replaceAll(destino -> destino.equals(de) ? a : destino);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String indices = b == null ? "" : "[" + b + "]" + (c == null ? "" : "[" + c + "]");
+        switch (op) {
+            case COPIA:
+                return destino + " = " + a;
+            case NEGACION:
+                return destino + " = -" + a;
+            case NOT:
+                return destino + " = NOT " + a;
+            case ARREGLO_LEER:
+                return destino + " = " + etiqueta + indices;
+            case ARREGLO_ESCRIBIR:
+                return etiqueta + indices + " = " + a;
+            case PHI: {
+                StringBuilder sb = new StringBuilder(destino + " = PHI(");
+                for (int k = 0; k < argumentos.size(); k++) {
+                    sb.append(k == 0 ? "" : ", ").append(argumentos.get(k)).append(" [").append(origenes.get(k)).append("]");
+                }
+                return sb.append(")").toString();
+            }
+            case LABEL:
+                return etiqueta + ":";
+            case GOTO:
+                return "GOTO " + etiqueta;
+            case IF:
+            case IF_NOT:
+                return op.texto + " " + a + " GOTO " + etiqueta;
+            case SWITCH: {
+                StringBuilder sb = new StringBuilder("SWITCH " + a + " [");
+                for (int k = 0; k < casos.size(); k++) {
+                    sb.append(k == 0 ? "" : ", ").append(casos.get(k)).append(": ").append(etiquetasCasos.get(k));
+                }
+                return sb.append("] ELSE ").append(etiqueta).toString();
+            }
+            case CALL:
+                return "CALL " + etiqueta;
+            case RET:
+                return destino + " = RET";
+            case RETURN:
+                return a == null ? "RETURN" : "RETURN " + a;
+            case LOCAL:
+                return "LOCAL " + destino + " : " + tipoDato;
+            case ARRAY:
+                return "ARRAY " + destino + " : " + tipoDato + "[" + filas + "][" + columnas + "]";
+            case GLOBAL:
+                return "GLOBAL " + destino + " : " + tipoDato + (a == null ? "" : " = " + a);
+            default:
+                if (op.esBinaria()) {
+                    return destino + " = " + a + " " + op.texto + " " + b;
+                }
+                if (op.esLectura()) {
+                    return op.texto + " " + destino;
+                }
+                return op.texto + " " + a;
+        }
+    }
+}
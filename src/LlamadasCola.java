@@ -0,0 +1,126 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+// Llamadas de cola. Una llamada está en posición de cola cuando lo único que hace la
+// función después es devolver su resultado: "CALL f", "t = RET", "RETURN t", o "CALL f",
+// "RETURN" si no hay valor.
+//
+// Cuando la función se llama a sí misma, la llamada se convierte en un ciclo: los
+// argumentos se guardan en temporales en el lugar de cada PARAM (un argumento puede
+// leer un parámetro que otro reemplaza), se copian a los parámetros en el lugar del
+// CALL y se salta al comienzo del cuerpo, que no vuelve a pasar por el prólogo. La
+// pila no crece y el ciclo queda a la vista de las pasadas siguientes.
+//
+// Las llamadas de cola a otras funciones las resuelve EscritorMips, que carga los
+// argumentos, desarma el marco y salta con j en lugar de jal.
+public class LlamadasCola {
+    private final Set<String> globales;
+    private int recursivas = 0;
+
+    public LlamadasCola(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    // Llamadas recursivas de cola convertidas en saltos
+    public int recursivas() {
+        return recursivas;
+    }
+
+    // Instrucciones después del CALL de la posición i que solo devuelven su resultado,
+    // o -1 si la llamada no está en posición de cola
+    public static int restoDeCola(List<Instruccion> instrucciones, int i) {
+        if (i + 1 >= instrucciones.size()) {
+            return -1;
+        }
+        Instruccion siguiente = instrucciones.get(i + 1);
+        if (siguiente.op == Instruccion.Operacion.RETURN) {
+            return siguiente.a == null ? 1 : -1;
+        }
+        if (siguiente.op != Instruccion.Operacion.RET || i + 2 >= instrucciones.size()) {
+            return -1;
+        }
+        Instruccion retorno = instrucciones.get(i + 2);
+        if (retorno.op == Instruccion.Operacion.RETURN && retorno.a != null && retorno.a.equals(siguiente.destino)) {
+            return 2;
+        }
+        return -1;
+    }
+
+    // Devuelve true si convirtió alguna llamada
+    public boolean optimizar(FuncionIntermedia funcion) {
+        if (funcion.principal) {
+            return false;
+        }
+        for (Instruccion instruccion : funcion.instrucciones) {
+            // Los arreglos locales los inicializa el prólogo
+            if (instruccion.op == Instruccion.Operacion.ARRAY) {
+                return false;
+            }
+        }
+
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        List<Operando> leidas = funcion.leidasAntesDeAsignar(globales);
+        String inicio = null;
+        List<Instruccion> nuevas = new ArrayList<>();
+        List<Integer> parametros = new ArrayList<>(); // Posiciones en nuevas de los PARAM pendientes
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            if (instruccion.op == Instruccion.Operacion.PARAM) {
+                parametros.add(nuevas.size());
+                nuevas.add(instruccion);
+                continue;
+            }
+            if (instruccion.op != Instruccion.Operacion.CALL) {
+                nuevas.add(instruccion);
+                continue;
+            }
+            int resto = restoDeCola(instrucciones, i);
+            if (!instruccion.etiqueta.equals(funcion.nombre) || resto < 0 || !argumentosCompatibles(funcion, parametros, nuevas)) {
+                nuevas.add(instruccion);
+                parametros.clear();
+                continue;
+            }
+
+            if (inicio == null) {
+                inicio = funcion.nuevaEtiqueta("cola");
+            }
+            List<Operando> valores = new ArrayList<>();
+            for (int k = 0; k < parametros.size(); k++) {
+                Operando parametro = funcion.parametros.get(k);
+                Operando valor = funcion.nuevoTemporal(parametro.tipoDato);
+                int posicion = parametros.get(k);
+                nuevas.set(posicion, Instruccion.copia(valor, nuevas.get(posicion).a));
+                valores.add(valor);
+            }
+            for (int k = 0; k < valores.size(); k++) {
+                nuevas.add(Instruccion.copia(funcion.parametros.get(k), valores.get(k)));
+            }
+            for (Operando leida : leidas) {
+                nuevas.add(Instruccion.copia(leida, Operando.cero(leida.tipoDato)));
+            }
+            nuevas.add(Instruccion.salto(Instruccion.Operacion.GOTO, null, inicio));
+            parametros.clear();
+            recursivas++;
+            i += resto;
+        }
+        if (inicio == null) {
+            return false;
+        }
+        nuevas.add(0, Instruccion.label(inicio));
+        funcion.instrucciones = nuevas;
+        return true;
+    }
+
+    private static boolean argumentosCompatibles(FuncionIntermedia funcion, List<Integer> parametros, List<Instruccion> nuevas) {
+        if (parametros.size() != funcion.parametros.size()) {
+            return false;
+        }
+        for (int k = 0; k < parametros.size(); k++) {
+            if (nuevas.get(parametros.get(k)).a.esFlotante() != funcion.parametros.get(k).esFlotante()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,12 +3,33 @@ import java_cup.runtime.Symbol;
 
 public class Main {
     public static void main(String[] args) {
-        if (args.length == 0) {
-            System.err.println("Uso incorrecto. Ejecutar: java Main <archivo_fuente>");
+        boolean volcarIntermedio = false;
+        boolean ranurasRetardo = false;
+        boolean simular = false;
+        boolean estadisticas = false;
+        int nivelOptimizacion = 1;
+        String fileName = null;
+        for (String arg : args) {
+            if (arg.equals("-int")) {
+                volcarIntermedio = true;
+            } else if (arg.equals("-simular")) {
+                simular = true;
+            } else if (arg.equals("-estadisticas")) {
+                estadisticas = true;
+            } else if (arg.equals("-retardo")) {
+                ranurasRetardo = true;
+            } else if (arg.matches("-O[0-2]")) {
+                nivelOptimizacion = arg.charAt(2) - '0';
+            } else {
+                fileName = arg;
+            }
+        }
+
+        if (fileName == null) {
+            System.err.println("Uso incorrecto. Ejecutar: java Main [-int] [-retardo] [-simular] [-estadisticas] [-O0|-O1|-O2] <archivo_fuente>");
             System.exit(1);
         }
 
-        String fileName = args[0];
         System.out.println("Iniciando análisis del archivo: " + fileName);
 
         parser p = null;
@@ -54,11 +75,21 @@ public class Main {
                 if (!p.hayErrores()) {
                     // Generar Intermedio
                     GeneradorCodigoIntermedio generador = new GeneradorCodigoIntermedio();
-                    String resultado = generador.generar(raiz);
-                    guardarEnArchivo(fileName + ".int", resultado);
-                    System.out.println("Código Intermedio guardado en: " + fileName + ".int");
-                    EscritorMips escritor = new EscritorMips();
-                    escritor.procesar(fileName + ".int", fileName + ".asm");
+                    ProgramaIntermedio programa = generador.generar(raiz);
+                    new OptimizadorIntermedio(nivelOptimizacion, estadisticas).optimizar(programa);
+                    if (volcarIntermedio) {
+                        guardarEnArchivo(fileName + ".int", programa.toString());
+                        System.out.println("Código Intermedio guardado en: " + fileName + ".int");
+                    }
+                    EscritorMips escritor = new EscritorMips(nivelOptimizacion, ranurasRetardo, estadisticas);
+                    escritor.procesar(programa, fileName + ".asm");
+                    System.out.println("Código MIPS guardado en: " + fileName + ".asm");
+                    if (simular) {
+                        // El programa lee de la entrada estándar; el reporte sale después de su salida
+                        System.out.println("\nEjecutando " + fileName + ".asm en el simulador:\n");
+                        BufferedReader entrada = new BufferedReader(new InputStreamReader(System.in, "UTF-8"));
+                        SimuladorMips.simular(fileName + ".asm", entrada, -1, System.out);
+                    }
                 } else {
                     System.out.println("\nNo se generó código intermedio debido a errores semánticos.");
                 }
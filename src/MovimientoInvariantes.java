@@ -0,0 +1,199 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Movimiento de código invariante fuera de los ciclos (LICM).
+//
+// Antes de pasar a SSA, cada ciclo natural recibe un preencabezado: un bloque por el
+// que se entra siempre a la cabecera desde afuera y que solo lleva a ella. Si la
+// cabecera ya tiene un único predecesor externo con un único sucesor, ese bloque sirve.
+// Si no, se crea uno justo antes de la cabecera cuando el bloque anterior está fuera
+// del ciclo; si está adentro y cae en la cabecera, el preencabezado va al final de la
+// función para no agregar un salto por iteración.
+//
+// En SSA, una instrucción pura del ciclo es invariante si todos sus operandos son
+// constantes, nombres definidos fuera del ciclo u otras invariantes; como su destino
+// tiene una sola definición, se puede mover al final del preencabezado aunque el
+// cuerpo no se ejecute en todas las vueltas. Los ciclos se procesan de los internos
+// a los externos, así que una invariante de dos ciclos anidados sale de ambos.
+public class MovimientoInvariantes {
+    private final Set<String> globales;
+    private int preencabezados = 0;
+    private int movidas = 0;
+
+    public MovimientoInvariantes(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    public int preencabezados() {
+        return preencabezados;
+    }
+
+    public int movidas() {
+        return movidas;
+    }
+
+    // ---------------------------------------------------------------- Preencabezados
+
+    public void insertarPreencabezados(FuncionIntermedia funcion) {
+        boolean otraVuelta = true;
+        while (otraVuelta) {
+            otraVuelta = false;
+            GrafoFlujo grafo = new GrafoFlujo(funcion);
+            for (CicloNatural ciclo : grafo.ciclos()) {
+                if (ciclo.preencabezado(grafo) == null) {
+                    crearPreencabezado(funcion, grafo, ciclo);
+                    preencabezados++;
+                    otraVuelta = true; // El grafo ya no corresponde a las instrucciones
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void crearPreencabezado(FuncionIntermedia funcion, GrafoFlujo grafo, CicloNatural ciclo) {
+        BloqueBasico cabecera = ciclo.cabecera;
+        String etiqueta = cabecera.etiqueta();
+        String nueva = funcion.nuevaEtiqueta("pre");
+        BloqueBasico anterior = cabecera.indice > 0 ? grafo.bloques().get(cabecera.indice - 1) : null;
+        boolean alFinal = anterior != null && ciclo.contiene(anterior) && cabecera.predecesores.contains(anterior);
+
+        // Los saltos de afuera a la cabecera pasan a ir al preencabezado
+        for (BloqueBasico predecesor : cabecera.predecesores) {
+            Instruccion ultima = predecesor.ultima();
+            if (!ciclo.contiene(predecesor) && ultima != null && ultima.destinos().contains(etiqueta)) {
+                ultima.redirigir(etiqueta, nueva);
+            }
+        }
+
+        List<Instruccion> nuevas = new ArrayList<>();
+        for (BloqueBasico bloque : grafo.bloques()) {
+            if (bloque == cabecera && !alFinal) {
+                nuevas.add(Instruccion.label(nueva));
+            }
+            nuevas.addAll(bloque.instrucciones);
+        }
+        if (alFinal) {
+            if (!nuevas.get(nuevas.size() - 1).terminaFlujo()) {
+                nuevas.add(Instruccion.conOperando(Instruccion.Operacion.RETURN, null));
+            }
+            nuevas.add(Instruccion.label(nueva));
+            nuevas.add(Instruccion.salto(Instruccion.Operacion.GOTO, null, etiqueta));
+        }
+        funcion.instrucciones = nuevas;
+    }
+
+    // ---------------------------------------------------------------- Movimiento
+
+    // Devuelve true si movió alguna instrucción. La función debe estar en SSA y tener
+    // preencabezados.
+    public boolean optimizar(FuncionIntermedia funcion, FormaSSA ssa) {
+        List<String> cabeceras = new ArrayList<>();
+        List<CicloNatural> ciclos = new GrafoFlujo(funcion).ciclos();
+        for (int i = ciclos.size() - 1; i >= 0; i--) {
+            cabeceras.add(ciclos.get(i).cabecera.etiqueta());
+        }
+
+        int antes = movidas;
+        for (String etiqueta : cabeceras) {
+            GrafoFlujo grafo = new GrafoFlujo(funcion);
+            for (CicloNatural ciclo : grafo.ciclos()) {
+                if (etiqueta != null && etiqueta.equals(ciclo.cabecera.etiqueta())) {
+                    moverInvariantes(funcion, grafo, ciclo, ssa);
+                    break;
+                }
+            }
+        }
+        return movidas != antes;
+    }
+
+    private void moverInvariantes(FuncionIntermedia funcion, GrafoFlujo grafo, CicloNatural ciclo, FormaSSA ssa) {
+        BloqueBasico destino = ciclo.preencabezado(grafo);
+        if (destino == null) {
+            return;
+        }
+        Set<String> definidosAdentro = new HashSet<>();
+        for (int indice : ciclo.bloques) {
+            for (Instruccion instruccion : grafo.bloques().get(indice).instrucciones) {
+                Operando definido = instruccion.definicion();
+                if (definido != null && definido.esNombre()) {
+                    definidosAdentro.add(definido.nombre);
+                }
+            }
+        }
+
+        // En preorden del árbol de dominadores una definición aparece antes que sus usos
+        List<Instruccion> invariantes = new ArrayList<>();
+        Set<String> invariantesDefinidas = new HashSet<>();
+        for (BloqueBasico bloque : grafo.dominadores().preorden()) {
+            if (!ciclo.contiene(bloque)) {
+                continue;
+            }
+            for (Instruccion instruccion : bloque.instrucciones) {
+                if (!esMovible(instruccion, ssa)) {
+                    continue;
+                }
+                boolean invariante = true;
+                for (Operando uso : instruccion.usos()) {
+                    if (uso.esConstante()) {
+                        continue;
+                    }
+                    if (!uso.esNombre() || globales.contains(uso.nombre) ||
+                        definidosAdentro.contains(uso.nombre) && !invariantesDefinidas.contains(uso.nombre)) {
+                        invariante = false;
+                        break;
+                    }
+                }
+                if (invariante) {
+                    invariantes.add(instruccion);
+                    invariantesDefinidas.add(instruccion.destino.nombre);
+                }
+            }
+        }
+        if (invariantes.isEmpty()) {
+            return;
+        }
+
+        // Al final del preencabezado, antes de su salto si termina con uno
+        Set<Instruccion> mover = new HashSet<>(invariantes);
+        List<Instruccion> nuevas = new ArrayList<>();
+        for (BloqueBasico bloque : grafo.bloques()) {
+            for (Instruccion instruccion : bloque.instrucciones) {
+                if (bloque == destino && instruccion == bloque.ultima() && instruccion.esSalto()) {
+                    nuevas.addAll(invariantes);
+                }
+                if (!mover.contains(instruccion)) {
+                    nuevas.add(instruccion);
+                }
+            }
+            if (bloque == destino && (bloque.ultima() == null || !bloque.ultima().esSalto())) {
+                nuevas.addAll(invariantes);
+            }
+        }
+        funcion.instrucciones = nuevas;
+        movidas += invariantes.size();
+    }
+
+    // Operaciones sin efectos que no pueden fallar al ejecutarse de más: la división
+    // entera solo si el divisor es una constante distinta de cero
+    private static boolean esMovible(Instruccion instruccion, FormaSSA ssa) {
+        if (instruccion.destino == null || !ssa.esVersion(instruccion.destino.nombre)) {
+            return false;
+        }
+        switch (instruccion.op) {
+            case NEGACION:
+            case NOT:
+                return true;
+            case DIVISION:
+                if (instruccion.a.esFlotante() || instruccion.b.esFlotante()) {
+                    return true;
+                }
+                return instruccion.b.esConstante() && instruccion.b.valorEntero() != 0;
+            case MODULO:
+                return instruccion.b.esConstante() && instruccion.b.valorEntero() != 0;
+            default:
+                return instruccion.op.esBinaria();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Numeración densa de los nombres (variables y temporales) de una función, para
+// indexar los ConjuntoBits de los análisis.
+public class NumeracionNombres {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> nombres = new ArrayList<>();
+
+    // Número del nombre, asignándole uno nuevo si todavía no tenía
+    public int id(String nombre) {
+        Integer id = ids.get(nombre);
+        if (id == null) {
+            id = nombres.size();
+            ids.put(nombre, id);
+            nombres.add(nombre);
+        }
+        return id;
+    }
+
+    // Número del nombre, o -1 si no fue numerado
+    public int buscar(String nombre) {
+        Integer id = ids.get(nombre);
+        return id == null ? -1 : id;
+    }
+
+    public String nombre(int id) {
+        return nombres.get(id);
+    }
+
+    public int cantidad() {
+        return nombres.size();
+    }
+
+    // Todos los nombres de la función: parámetros, destinos y operandos con nombre
+    public static NumeracionNombres de(FuncionIntermedia funcion) {
+        NumeracionNombres numeracion = new NumeracionNombres();
+        for (Operando parametro : funcion.parametros) {
+            numeracion.id(parametro.nombre);
+        }
+        for (Instruccion instruccion : funcion.instrucciones) {
+            Operando definido = instruccion.definicion();
+            if (definido != null && definido.esNombre()) {
+                numeracion.id(definido.nombre);
+            }
+            for (Operando uso : instruccion.usos()) {
+                if (uso.esNombre()) {
+                    numeracion.id(uso.nombre);
+                }
+            }
+        }
+        return numeracion;
+    }
+}
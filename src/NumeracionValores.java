@@ -0,0 +1,190 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Numeración de valores sobre una función en forma SSA. Se recorre el árbol de
+// dominadores con una tabla de expresiones por ámbito: una expresión calculada en un
+// bloque sigue disponible en todos los bloques que este domina, y se descarta al
+// volver del recorrido (Briggs, Cooper y Simpson). Dentro de un bloque es la numeración
+// local de siempre; entre bloques, la global basada en dominadores. Una expresión
+// repetida se reemplaza por una copia del nombre que ya la tiene, que después quita la
+// propagación de copias.
+//
+// El número de valor de cada nombre es el nombre que lo representa, de modo que
+// "t = a + b" y "u = c + b" son la misma expresión si c es copia de a. Las lecturas de
+// un arreglo solo se reutilizan dentro del bloque y hasta la siguiente escritura al
+// mismo arreglo, porque otro camino entre el bloque dominador y este podría haberlo
+// modificado. Las expresiones que leen globales no se numeran: una llamada puede
+// cambiarlas.
+public class NumeracionValores {
+    private final Set<String> globales;
+    private int locales = 0;
+    private int globalesReusadas = 0;
+
+    private FuncionIntermedia funcion;
+    private FormaSSA ssa;
+    private GrafoFlujo grafo;
+    private Set<String> definidos;
+    private final Map<String, String> valores = new HashMap<>();     // Nombre -> nombre que representa su valor
+    private final Map<String, Operando> tabla = new HashMap<>();     // Expresión -> nombre que la tiene
+    private final Map<String, BloqueBasico> calculadaEn = new HashMap<>();
+
+    public NumeracionValores(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    // Expresiones repetidas dentro de un mismo bloque
+    public int locales() {
+        return locales;
+    }
+
+    // Expresiones ya calculadas en un bloque dominador
+    public int globales() {
+        return globalesReusadas;
+    }
+
+    // Devuelve true si cambió alguna instrucción
+    public boolean optimizar(FuncionIntermedia funcion, FormaSSA ssa) {
+        this.funcion = funcion;
+        this.ssa = ssa;
+        this.grafo = new GrafoFlujo(funcion);
+        this.definidos = new HashSet<>();
+        for (Instruccion instruccion : funcion.instrucciones) {
+            Operando definido = instruccion.definicion();
+            if (definido != null && definido.esNombre()) {
+                definidos.add(definido.nombre);
+            }
+        }
+        valores.clear();
+        tabla.clear();
+        calculadaEn.clear();
+        int antes = locales + globalesReusadas;
+        numerar(grafo.entrada());
+        return locales + globalesReusadas != antes;
+    }
+
+    private void numerar(BloqueBasico bloque) {
+        List<String> agregadas = new ArrayList<>();
+        Map<String, Operando> lecturas = new HashMap<>(); // Lecturas de arreglos, solo en este bloque
+
+        for (Instruccion instruccion : bloque.instrucciones) {
+            if (instruccion.op == Instruccion.Operacion.ARREGLO_ESCRIBIR) {
+                // Las claves llevan delante el tipo del destino: "int:_a_[i][j]"
+                lecturas.keySet().removeIf(clave -> clave.contains(":" + instruccion.etiqueta + "["));
+                continue;
+            }
+            Operando destino = instruccion.definicion();
+            if (destino == null || !ssa.esVersion(destino.nombre)) {
+                continue;
+            }
+            if (instruccion.op == Instruccion.Operacion.COPIA) {
+                if (esEstable(instruccion.a) && instruccion.a.tipoDato.equals(destino.tipoDato)) {
+                    valores.put(destino.nombre, valorDe(instruccion.a));
+                }
+                continue;
+            }
+
+            String clave = clave(instruccion, bloque);
+            if (clave == null) {
+                continue;
+            }
+            clave = destino.tipoDato + ":" + clave;
+            Map<String, Operando> ambito = instruccion.op == Instruccion.Operacion.ARREGLO_LEER ? lecturas : tabla;
+            Operando previo = ambito.get(clave);
+            if (previo == null) {
+                ambito.put(clave, destino);
+                if (ambito == tabla) {
+                    agregadas.add(clave);
+                    calculadaEn.put(clave, bloque);
+                }
+                continue;
+            }
+
+            // Ya calculada: la instrucción pasa a ser una copia del nombre que la tiene
+            if (ambito == lecturas || calculadaEn.get(clave) == bloque) {
+                locales++;
+            } else {
+                globalesReusadas++;
+            }
+            reemplazarPorCopia(instruccion, previo);
+            valores.put(destino.nombre, valorDe(previo));
+        }
+
+        for (BloqueBasico hijo : grafo.dominadores().hijos(bloque)) {
+            numerar(hijo);
+        }
+        for (String clave : agregadas) {
+            tabla.remove(clave);
+            calculadaEn.remove(clave);
+        }
+    }
+
+    private static void reemplazarPorCopia(Instruccion instruccion, Operando fuente) {
+        instruccion.op = Instruccion.Operacion.COPIA;
+        instruccion.a = new Operando(fuente.clase, fuente.nombre, instruccion.destino.tipoDato);
+        instruccion.b = null;
+        instruccion.c = null;
+        instruccion.etiqueta = null;
+        instruccion.argumentos = null;
+        instruccion.origenes = null;
+    }
+
+    // Texto de la expresión en términos de números de valor, o null si no se puede numerar
+    private String clave(Instruccion instruccion, BloqueBasico bloque) {
+        for (Operando uso : instruccion.usos()) {
+            if (!esEstable(uso)) {
+                return null;
+            }
+        }
+        if (instruccion.op.esBinaria()) {
+            String a = valorDe(instruccion.a);
+            String b = valorDe(instruccion.b);
+            if (ExpresionesDisponibles.esConmutativa(instruccion.op) && a.compareTo(b) > 0) {
+                String auxiliar = a;
+                a = b;
+                b = auxiliar;
+            }
+            return a + " " + instruccion.op.name() + " " + b;
+        }
+        switch (instruccion.op) {
+            case NEGACION:
+            case NOT:
+                return instruccion.op.name() + " " + valorDe(instruccion.a);
+            case ARREGLO_LEER:
+                return instruccion.etiqueta + "[" + valorDe(instruccion.b) + "]" +
+                       (instruccion.c == null ? "" : "[" + valorDe(instruccion.c) + "]");
+            case PHI: {
+                // Dos PHI del mismo bloque con los mismos argumentos valen lo mismo
+                StringBuilder sb = new StringBuilder("PHI " + bloque.etiqueta() + "(");
+                for (Operando argumento : instruccion.argumentos) {
+                    sb.append(valorDe(argumento)).append(",");
+                }
+                return sb.append(")").toString();
+            }
+            default:
+                return null;
+        }
+    }
+
+    // Un operando tiene siempre el mismo valor si es una constante, una versión SSA o un
+    // nombre local que la función no redefine (un parámetro o una variable sin asignar)
+    private boolean esEstable(Operando operando) {
+        if (operando.esConstante()) {
+            return true;
+        }
+        if (!operando.esNombre() || globales.contains(operando.nombre)) {
+            return false;
+        }
+        return ssa.esVersion(operando.nombre) || !definidos.contains(operando.nombre);
+    }
+
+    private String valorDe(Operando operando) {
+        if (!operando.esNombre()) {
+            return operando.clase + " " + operando.nombre;
+        }
+        return valores.getOrDefault(operando.nombre, operando.nombre);
+    }
+}
@@ -0,0 +1,138 @@
+import java.util.Map;
+
+public class Operando {
+    public enum Clase {
+        TEMPORAL,
+        VARIABLE,
+        ENTERO,
+        FLOTANTE,
+        BOOLEANO,
+        CARACTER,
+        CADENA
+    }
+
+    public final Clase clase;
+    public final String nombre;   // Texto tal como aparece en el código intermedio
+    public final String tipoDato; // int, float, bool, char, string (vacío si no se conoce)
+
+    public Operando(Clase clase, String nombre, String tipoDato) {
+        this.clase = clase;
+        this.nombre = nombre;
+        this.tipoDato = tipoDato == null ? "" : tipoDato;
+    }
+
+    public static Operando temporal(String nombre) {
+        return new Operando(Clase.TEMPORAL, nombre, nombre.endsWith("_f") ? "float" : "int");
+    }
+
+    public static Operando variable(String nombre, String tipoDato) {
+        return new Operando(Clase.VARIABLE, nombre, tipoDato);
+    }
+
+    public static Operando entero(long valor) {
+        return new Operando(Clase.ENTERO, String.valueOf(valor), "int");
+    }
+
+    public static Operando flotante(float valor) {
+        return new Operando(Clase.FLOTANTE, String.valueOf(valor), "float");
+    }
+
+    public static Operando booleano(boolean valor) {
+        return new Operando(Clase.BOOLEANO, valor ? "true" : "false", "bool");
+    }
+
+    // Valor inicial de una variable del tipo dado, el mismo patrón de bits que deja el prólogo
+    public static Operando cero(String tipoDato) {
+        switch (tipoDato) {
+            case "float":
+                return flotante(0f);
+            case "bool":
+                return booleano(false);
+            default:
+                return entero(0);
+        }
+    }
+
+    // Clasifica el texto que devuelven las rutinas del generador (literal, temporal, variable o etiqueta de string)
+    public static Operando de(String texto, Map<String, String> tiposVariables, Map<String, String> cadenas) {
+        if (texto.equals("true") || texto.equals("false")) {
+            return new Operando(Clase.BOOLEANO, texto, "bool");
+        }
+        if (texto.matches("-?\\d+")) {
+            return new Operando(Clase.ENTERO, texto, "int");
+        }
+        if (texto.matches("-?\\d+\\.\\d+([eE][-+]?\\d+)?")) {
+            return new Operando(Clase.FLOTANTE, texto, "float");
+        }
+        if (texto.startsWith("'")) {
+            return new Operando(Clase.CARACTER, texto, "char");
+        }
+        if (cadenas.containsKey(texto)) {
+            return new Operando(Clase.CADENA, texto, "string");
+        }
+        if (tiposVariables.containsKey(texto)) {
+            return new Operando(Clase.VARIABLE, texto, tiposVariables.get(texto));
+        }
+        if (texto.matches("t\\d+(_f)?")) {
+            return temporal(texto);
+        }
+        return new Operando(Clase.VARIABLE, texto, "");
+    }
+
+    public boolean esConstante() {
+        return clase == Clase.ENTERO || clase == Clase.FLOTANTE ||
+               clase == Clase.BOOLEANO || clase == Clase.CARACTER;
+    }
+
+    // Temporales y variables: los únicos operandos que ocupan una ubicación
+    public boolean esNombre() {
+        return clase == Clase.TEMPORAL || clase == Clase.VARIABLE;
+    }
+
+    public boolean esFlotante() {
+        return tipoDato.equals("float");
+    }
+
+    // Valor entero de una constante entera, booleana o de carácter
+    public long valorEntero() {
+        switch (clase) {
+            case ENTERO:
+                return Long.parseLong(nombre);
+            case BOOLEANO:
+                return nombre.equals("true") ? 1 : 0;
+            case CARACTER:
+                return nombre.length() >= 3 ? nombre.charAt(1) : 0;
+            case FLOTANTE:
+                // Igual que cvt.w.s con el redondeo por defecto de la FPU
+                return (long) Math.rint(Float.parseFloat(nombre));
+            default:
+                throw new IllegalStateException("El operando " + nombre + " no es una constante");
+        }
+    }
+
+    // Valor en precisión simple, como lo deja li.s o cvt.s.w en un registro de la FPU
+    public float valorFlotante() {
+        if (clase == Clase.FLOTANTE) {
+            return Float.parseFloat(nombre);
+        }
+        return (float) valorEntero();
+    }
+
+    @Override
+    public boolean equals(Object otro) {
+        if (this == otro) return true;
+        if (!(otro instanceof Operando)) return false;
+        Operando o = (Operando) otro;
+        return clase == o.clase && nombre.equals(o.nombre);
+    }
+
+    @Override
+    public int hashCode() {
+        return nombre.hashCode() * 31 + clase.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return nombre;
+    }
+}
@@ -0,0 +1,84 @@
+import java.util.Set;
+
+// Pasadas de optimización sobre el código intermedio, antes de la traducción a MIPS.
+// Con -O0 el programa queda tal como lo genera el front end.
+public class OptimizadorIntermedio {
+    private final int nivelOptimizacion;
+    private final boolean estadisticas; // Con -estadisticas: cuánto cambió cada pasada
+
+    public OptimizadorIntermedio(int nivelOptimizacion) {
+        this(nivelOptimizacion, false);
+    }
+
+    public OptimizadorIntermedio(int nivelOptimizacion, boolean estadisticas) {
+        this.nivelOptimizacion = nivelOptimizacion;
+        this.estadisticas = estadisticas;
+    }
+
+    public void optimizar(ProgramaIntermedio programa) {
+        if (nivelOptimizacion < 1) {
+            return;
+        }
+        Set<String> globales = programa.nombresGlobales();
+        PlegadoConstantes plegado = new PlegadoConstantes(globales);
+        EliminacionCodigoMuerto codigoMuerto = new EliminacionCodigoMuerto(globales);
+        PropagacionCopias copias = new PropagacionCopias(globales);
+        NumeracionValores numeracion = new NumeracionValores(globales);
+        DesenrolladoCiclos desenrollado = new DesenrolladoCiclos(globales);
+        MovimientoInvariantes invariantes = new MovimientoInvariantes(globales);
+        VariablesInduccion induccion = new VariablesInduccion(globales);
+        ExpansionEnLinea expansion = new ExpansionEnLinea(globales);
+        expansion.optimizar(programa);
+        LlamadasCola cola = new LlamadasCola(globales);
+        int phis = 0;
+        for (FuncionIntermedia funcion : programa.funciones) {
+            cola.optimizar(funcion);
+            plegado.optimizar(funcion);
+            codigoMuerto.optimizar(funcion);
+            desenrollado.optimizar(funcion);
+
+            // Las pasadas que necesitan una sola definición por nombre trabajan en SSA
+            invariantes.insertarPreencabezados(funcion);
+            FormaSSA ssa = new FormaSSA(funcion, globales);
+            ssa.construir();
+            phis += ssa.phisInsertadas();
+            if (plegado.optimizar(funcion)) {
+                ssa.podarPhis();
+            }
+            copias.optimizar(funcion, ssa);
+            if (numeracion.optimizar(funcion, ssa)) {
+                copias.optimizar(funcion, ssa);
+            }
+            invariantes.optimizar(funcion, ssa);
+            if (induccion.optimizar(funcion, ssa)) {
+                copias.optimizar(funcion, ssa);
+            }
+            ssa.destruir();
+
+            plegado.optimizar(funcion);
+            codigoMuerto.optimizar(funcion);
+        }
+        // Después del plegado: las llamadas en ramas que nunca se toman ya no cuentan
+        codigoMuerto.quitarFuncionesInalcanzables(programa);
+
+        if (!estadisticas) {
+            return;
+        }
+        System.out.println("Expansión en línea: " + expansion.expandidas() + " llamadas expandidas");
+        System.out.println("Llamadas de cola: " + cola.recursivas() + " llamadas recursivas convertidas en ciclos");
+        System.out.println("Plegado de constantes: " + plegado.plegadas() + " operaciones plegadas, " +
+                           plegado.propagadas() + " nombres propagados");
+        System.out.println("SSA: " + phis + " funciones PHI, " + copias.propagadas() + " copias propagadas");
+        System.out.println("Numeración de valores: " + numeracion.locales() + " expresiones repetidas en el bloque, " +
+                           numeracion.globales() + " en un bloque dominador");
+        System.out.println("Desenrollado de ciclos: " + desenrollado.completos() + " completos, " +
+                           desenrollado.parciales() + " parciales");
+        System.out.println("Invariantes de ciclo: " + invariantes.movidas() + " instrucciones movidas, " +
+                           invariantes.preencabezados() + " preencabezados creados");
+        System.out.println("Variables de inducción: " + induccion.reducidas() + " expresiones reducidas, " +
+                           induccion.eliminadas() + " variables eliminadas");
+        System.out.println("Código muerto: " + codigoMuerto.funcionesEliminadas() + " funciones, " +
+                           codigoMuerto.inalcanzables() + " instrucciones inalcanzables, " +
+                           codigoMuerto.asignacionesMuertas() + " asignaciones muertas");
+    }
+}
@@ -0,0 +1,419 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Optimización de mirilla sobre el MIPS de una función, antes de escribirlo al .asm.
+// Trabaja con las líneas de texto tal como las deja EscritorMips: etiquetas, comentarios
+// e instrucciones. Cada regla de la tabla mira una instrucción y las que la siguen; las
+// reglas se aplican hasta que ninguna cambia nada, y cada una cuenta cuántas veces actuó.
+//
+// Las ventanas no cruzan etiquetas ni saltos, y una carga solo se reemplaza si entre ella
+// y el acceso anterior a la misma dirección no hay otro store (podría escribir la misma
+// palabra por otro camino) ni se modifica el registro base.
+public class OptimizadorMirilla {
+    // Registros de trabajo del backend: nunca llevan un valor de una instrucción del
+    // código intermedio a la siguiente si no es por la vía de la instrucción siguiente
+    private static final Set<String> REGISTROS_TRABAJO = new HashSet<>(Arrays.asList("$t0", "$t1", "$t2", "$t9"));
+
+    private interface Aplicacion {
+        boolean aplicar(int posicion, String[] partes);
+    }
+
+    private static final class Regla {
+        final String nombre;
+        final Aplicacion aplicacion;
+        int disparos = 0;
+
+        Regla(String nombre, Aplicacion aplicacion) {
+            this.nombre = nombre;
+            this.aplicacion = aplicacion;
+        }
+    }
+
+    private final List<Regla> reglas = Arrays.asList(
+        new Regla("cargas reenviadas desde un store", this::reenviarCarga),
+        new Regla("cargas repetidas", this::quitarCargaRepetida),
+        new Regla("operandos inmediatos", this::usarInmediato),
+        new Regla("movimientos redundantes", this::quitarMovimientoRedundante),
+        new Regla("saltos a la instrucción siguiente", this::quitarSaltoASiguiente),
+        new Regla("saltos a saltos", this::acortarSaltoASalto),
+        new Regla("instrucciones inalcanzables", this::quitarInalcanzable)
+    );
+
+    private List<String> lineas;
+
+    public void optimizar(List<String> lineas) {
+        this.lineas = lineas;
+        boolean cambio = true;
+        while (cambio) {
+            cambio = false;
+            for (int i = 0; i < lineas.size(); i++) {
+                String[] partes = partes(lineas.get(i));
+                if (partes == null) {
+                    continue;
+                }
+                for (Regla regla : reglas) {
+                    if (regla.aplicacion.aplicar(i, partes)) {
+                        regla.disparos++;
+                        cambio = true;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Resumen de la tabla: cuántas veces actuó cada regla
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        for (Regla regla : reglas) {
+            sb.append(sb.length() == 0 ? "" : ", ").append(regla.disparos).append(" ").append(regla.nombre);
+        }
+        return sb.toString();
+    }
+
+    // ---------------------------------------------------------------- Reglas
+
+    // sw $r, X ... lw $q, X  =>  move $q, $r (y las variantes entre enteros y floats)
+    private boolean reenviarCarga(int i, String[] store) {
+        boolean flotante = store[0].equals("swc1");
+        if (!store[0].equals("sw") && !flotante) {
+            return false;
+        }
+        String valor = store[1];
+        String direccion = store[2];
+        for (int j = siguienteInstruccion(i); j >= 0; j = siguienteInstruccion(j)) {
+            String[] partes = partes(lineas.get(j));
+            if (esLoad(partes) && partes[2].equals(direccion) && !partes[1].equals(base(direccion))) {
+                boolean cargaFlotante = partes[0].equals("lwc1");
+                String copia = flotante == cargaFlotante ? (flotante ? "mov.s" : "move") : (flotante ? "mfc1" : "mtc1");
+                if (partes[1].equals(valor)) {
+                    lineas.remove(j);
+                } else if (copia.equals("mtc1")) {
+                    lineas.set(j, instruccion(copia, valor, partes[1]));
+                } else {
+                    lineas.set(j, instruccion(copia, partes[1], valor));
+                }
+                return true;
+            }
+            if (!esRecta(partes) || esStore(partes) || valor.equals(escrito(partes)) || base(direccion).equals(escrito(partes))) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // lw $q, X ... lw $p, X  =>  move $p, $q
+    private boolean quitarCargaRepetida(int i, String[] carga) {
+        if (!esLoad(carga) || carga[1].equals(base(carga[2]))) {
+            return false;
+        }
+        String registro = carga[1];
+        String direccion = carga[2];
+        for (int j = siguienteInstruccion(i); j >= 0; j = siguienteInstruccion(j)) {
+            String[] partes = partes(lineas.get(j));
+            if (esLoad(partes) && partes[2].equals(direccion) && partes[0].equals(carga[0])) {
+                if (partes[1].equals(registro)) {
+                    lineas.remove(j);
+                } else {
+                    lineas.set(j, instruccion(carga[0].equals("lw") ? "move" : "mov.s", partes[1], registro));
+                }
+                return true;
+            }
+            if (!esRecta(partes) || esStore(partes) || registro.equals(escrito(partes)) || base(direccion).equals(escrito(partes))) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // li $t, K ; add $d, $s, $t  =>  addi $d, $s, K cuando el li no se usa en otro lado
+    private boolean usarInmediato(int i, String[] li) {
+        if (!li[0].equals("li") || !REGISTROS_TRABAJO.contains(li[1]) || !esEntero(li[2])) {
+            return false;
+        }
+        int j = siguienteInstruccion(i);
+        if (j < 0) {
+            return false;
+        }
+        String[] partes = partes(lineas.get(j));
+        if (partes.length != 4) {
+            return false;
+        }
+        String registro = li[1];
+        long valor = Long.parseLong(li[2]);
+        String otro;
+        if (partes[3].equals(registro) && !partes[2].equals(registro)) {
+            otro = partes[2];
+        } else if (partes[2].equals(registro) && !partes[3].equals(registro) && esConmutativa(partes[0])) {
+            otro = partes[3];
+        } else {
+            return false;
+        }
+
+        String inmediata;
+        switch (partes[0]) {
+            case "add": inmediata = "addi"; break;
+            case "addu": inmediata = "addiu"; break;
+            case "sub": inmediata = "addi"; valor = -valor; break;
+            case "subu": inmediata = "addiu"; valor = -valor; break;
+            case "slt": inmediata = "slti"; break;
+            case "and": inmediata = "andi"; break;
+            case "or": inmediata = "ori"; break;
+            case "xor": inmediata = "xori"; break;
+            default: return false;
+        }
+        boolean logica = inmediata.equals("andi") || inmediata.equals("ori") || inmediata.equals("xori");
+        if (logica ? valor < 0 || valor > 65535 : valor < -32768 || valor > 32767) {
+            return false;
+        }
+        if (!partes[1].equals(registro) && leidoAntesDeEscribir(registro, j + 1, new HashSet<>())) {
+            return false;
+        }
+        lineas.set(j, instruccion(inmediata, partes[1], otro, String.valueOf(valor)));
+        lineas.remove(i);
+        return true;
+    }
+
+    // move $r, $r
+    private boolean quitarMovimientoRedundante(int i, String[] partes) {
+        if ((partes[0].equals("move") || partes[0].equals("mov.s")) && partes[1].equals(partes[2])) {
+            lineas.remove(i);
+            return true;
+        }
+        return false;
+    }
+
+    // j L ; L:  (o un branch a la etiqueta que sigue)
+    private boolean quitarSaltoASiguiente(int i, String[] partes) {
+        String destino = destinoSalto(partes);
+        if (destino == null) {
+            return false;
+        }
+        for (int j = i + 1; j < lineas.size(); j++) {
+            String linea = lineas.get(j);
+            if (esEtiqueta(linea)) {
+                if (nombreEtiqueta(linea).equals(destino)) {
+                    lineas.remove(i);
+                    return true;
+                }
+            } else if (partes(linea) != null) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Un salto a una etiqueta seguida de j M pasa a saltar directamente a M
+    private boolean acortarSaltoASalto(int i, String[] partes) {
+        String destino = destinoSalto(partes);
+        if (destino == null) {
+            return false;
+        }
+        int etiqueta = buscarEtiqueta(destino);
+        if (etiqueta < 0) {
+            return false;
+        }
+        int j = siguienteInstruccion(etiqueta);
+        if (j < 0) {
+            return false;
+        }
+        String[] siguiente = partes(lineas.get(j));
+        if (!siguiente[0].equals("j") || siguiente[1].equals(destino) || j == i) {
+            return false;
+        }
+        String[] nuevas = partes.clone();
+        nuevas[nuevas.length - 1] = siguiente[1];
+        lineas.set(i, instruccion(nuevas));
+        return true;
+    }
+
+    // Lo que sigue a un j o un jr hasta la próxima etiqueta no se ejecuta nunca
+    private boolean quitarInalcanzable(int i, String[] partes) {
+        if (!partes[0].equals("j") && !partes[0].equals("jr")) {
+            return false;
+        }
+        for (int j = i + 1; j < lineas.size() && !esEtiqueta(lineas.get(j)); j++) {
+            if (partes(lineas.get(j)) != null) {
+                lineas.remove(j);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---------------------------------------------------------------- Análisis
+
+    // ¿Se lee el registro en algún camino desde la línea antes de volver a escribirse?
+    // Los registros de trabajo no sobreviven a una llamada ni al retorno.
+    private boolean leidoAntesDeEscribir(String registro, int desde, Set<Integer> visitadas) {
+        for (int i = desde; i < lineas.size(); i++) {
+            if (!visitadas.add(i)) {
+                return false;
+            }
+            String[] partes = partes(lineas.get(i));
+            if (partes == null) {
+                continue;
+            }
+            if (leidos(partes).contains(registro)) {
+                return true;
+            }
+            String mnemonico = partes[0];
+            if (mnemonico.equals("jal") || mnemonico.equals("jr") || mnemonico.equals("jalr") || mnemonico.equals("syscall")) {
+                return false;
+            }
+            String destino = destinoSalto(partes);
+            if (destino != null) {
+                int etiqueta = buscarEtiqueta(destino);
+                if (etiqueta < 0 || leidoAntesDeEscribir(registro, etiqueta + 1, visitadas)) {
+                    return true;
+                }
+                if (mnemonico.equals("j")) {
+                    return false;
+                }
+                continue;
+            }
+            if (registro.equals(escrito(partes))) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // Registro que escribe la instrucción, o null
+    private static String escrito(String[] partes) {
+        String mnemonico = partes[0];
+        if (esStore(partes) || esControl(mnemonico) || mnemonico.startsWith("c.") || mnemonico.equals("syscall") ||
+            mnemonico.equals("mult") || mnemonico.equals("multu") || mnemonico.equals("div") || mnemonico.equals("divu") ||
+            partes.length < 2) {
+            return null;
+        }
+        if (mnemonico.equals("mtc1")) {
+            return partes[2];
+        }
+        return partes[1];
+    }
+
+    private static Set<String> leidos(String[] partes) {
+        Set<String> leidos = new HashSet<>();
+        String escrito = escrito(partes);
+        boolean mtc1 = partes[0].equals("mtc1");
+        for (int k = 1; k < partes.length; k++) {
+            String operando = partes[k];
+            if (k == 1 && escrito != null && !mtc1) {
+                continue;
+            }
+            if (mtc1 && k == 2) {
+                continue;
+            }
+            if (operando.startsWith("$")) {
+                leidos.add(operando);
+            } else if (!base(operando).isEmpty()) {
+                leidos.add(base(operando));
+            }
+        }
+        return leidos;
+    }
+
+    // ---------------------------------------------------------------- Texto
+
+    // Mnemónico y operandos de una línea de instrucción; null para etiquetas, comentarios y directivas
+    static String[] partes(String linea) {
+        String texto = linea.trim();
+        if (texto.isEmpty() || texto.startsWith("#") || texto.startsWith(".") || esEtiqueta(linea)) {
+            return null;
+        }
+        int espacio = texto.indexOf(' ');
+        if (espacio < 0) {
+            return new String[] { texto };
+        }
+        List<String> partes = new ArrayList<>();
+        partes.add(texto.substring(0, espacio));
+        for (String operando : texto.substring(espacio + 1).split(",")) {
+            partes.add(operando.trim());
+        }
+        return partes.toArray(new String[0]);
+    }
+
+    private static String instruccion(String... partes) {
+        StringBuilder sb = new StringBuilder("    ").append(partes[0]);
+        for (int k = 1; k < partes.length; k++) {
+            sb.append(k == 1 ? " " : ", ").append(partes[k]);
+        }
+        return sb.toString();
+    }
+
+    static boolean esEtiqueta(String linea) {
+        return !linea.startsWith(" ") && linea.endsWith(":");
+    }
+
+    private static String nombreEtiqueta(String linea) {
+        return linea.substring(0, linea.length() - 1);
+    }
+
+    private int buscarEtiqueta(String nombre) {
+        for (int i = 0; i < lineas.size(); i++) {
+            if (esEtiqueta(lineas.get(i)) && nombreEtiqueta(lineas.get(i)).equals(nombre)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Próxima línea de instrucción sin pasar por una etiqueta, o -1
+    private int siguienteInstruccion(int i) {
+        for (int j = i + 1; j < lineas.size(); j++) {
+            if (esEtiqueta(lineas.get(j))) {
+                return -1;
+            }
+            if (partes(lineas.get(j)) != null) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    static boolean esControl(String mnemonico) {
+        return mnemonico.startsWith("b") || mnemonico.startsWith("j");
+    }
+
+    // Instrucción después de la cual siempre se ejecuta la siguiente línea
+    private static boolean esRecta(String[] partes) {
+        return !esControl(partes[0]) && !partes[0].equals("syscall");
+    }
+
+    // Etiqueta de un j o de un branch condicional; null para jal, jr y el resto
+    private static String destinoSalto(String[] partes) {
+        String mnemonico = partes[0];
+        if (mnemonico.equals("j") || (mnemonico.startsWith("b") && partes.length >= 2)) {
+            return partes[partes.length - 1];
+        }
+        return null;
+    }
+
+    private static boolean esLoad(String[] partes) {
+        return partes.length == 3 && (partes[0].equals("lw") || partes[0].equals("lwc1"));
+    }
+
+    static boolean esStore(String[] partes) {
+        return partes[0].equals("sw") || partes[0].equals("swc1") || partes[0].equals("sb") || partes[0].equals("sh");
+    }
+
+    private static boolean esConmutativa(String mnemonico) {
+        return mnemonico.equals("add") || mnemonico.equals("addu") || mnemonico.equals("and") ||
+               mnemonico.equals("or") || mnemonico.equals("xor");
+    }
+
+    private static boolean esEntero(String texto) {
+        return texto.matches("-?\\d{1,10}");
+    }
+
+    // Registro base de una dirección "desplazamiento($r)" o "etiqueta($r)"; vacío si no tiene
+    static String base(String direccion) {
+        int abre = direccion.indexOf('(');
+        int cierra = direccion.indexOf(')');
+        return abre >= 0 && cierra > abre ? direccion.substring(abre + 1, cierra) : "";
+    }
+}
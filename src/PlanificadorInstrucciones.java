@@ -0,0 +1,445 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Planificación de instrucciones sobre el MIPS de una función, después de la mirilla.
+// Dentro de cada tramo recto (entre etiquetas, saltos, llamadas y syscalls) se arma el
+// grafo de dependencias (registros, HI/LO, la bandera de la FPU y memoria) y se reordena
+// con planificación por listas: en cada ciclo se elige, entre las instrucciones listas,
+// la de camino crítico más largo. Así un lw se separa de la instrucción que lo usa y un
+// mult o div se adelanta respecto del mflo/mfhi que lee su resultado.
+//
+// Con ranuras de retardo (.set noreorder) cada salto ejecuta además la instrucción que lo
+// sigue. llenarRanuras pone ahí una instrucción anterior del mismo bloque que no
+// dependa del salto ni de lo que queda entre ella y él, o un nop si no hay ninguna.
+public class PlanificadorInstrucciones {
+    // Ciclos hasta que el resultado se puede usar sin parada
+    private static final int LATENCIA_CARGA = 2;
+    private static final int LATENCIA_HI_LO = 3;
+
+    private static final Set<String> PSEUDOINSTRUCCIONES = new HashSet<>(Arrays.asList(
+        "la", "li.s", "l.s", "s.s", "seq", "sne", "sge", "sgt", "sle", "sgeu", "sgtu", "sleu", "rem", "remu", "mul", "abs",
+        "neg", "not"));
+
+    // Instrucción de un tramo con los comentarios que la preceden
+    private static final class Nodo {
+        final List<String> previas;
+        final String linea;
+        final String[] partes;
+        final Set<String> escritos;
+        final Set<String> leidos;
+        final int orden;
+        final List<Nodo> sucesores = new ArrayList<>();
+        final List<Integer> latencias = new ArrayList<>();
+        int pendientes = 0;
+        int altura = 0;
+        int listo = 0;
+
+        Nodo(List<String> previas, String linea, String[] partes, int orden) {
+            this.previas = previas;
+            this.linea = linea;
+            this.partes = partes;
+            this.escritos = escritos(partes);
+            this.leidos = leidos(partes);
+            this.orden = orden;
+        }
+    }
+
+    private int reordenadas = 0;
+    private int ranuras = 0;
+    private int ranurasLlenas = 0;
+
+    public String resumen() {
+        String texto = reordenadas + " instrucciones reordenadas";
+        if (ranuras > 0) {
+            texto += ", " + ranurasLlenas + " de " + ranuras + " ranuras de retardo llenas";
+        }
+        return texto;
+    }
+
+    // ---------------------------------------------------------------- Planificación
+
+    public void planificar(List<String> lineas) {
+        List<String> resultado = new ArrayList<>();
+        List<Nodo> tramo = new ArrayList<>();
+        List<String> previas = new ArrayList<>();
+        for (String linea : lineas) {
+            String[] partes = OptimizadorMirilla.partes(linea);
+            if (partes == null) {
+                if (esLimite(linea)) {
+                    resultado.addAll(ordenar(tramo, null));
+                    resultado.addAll(previas);
+                    resultado.add(linea);
+                    tramo.clear();
+                    previas = new ArrayList<>();
+                } else {
+                    previas.add(linea);
+                }
+                continue;
+            }
+            Nodo nodo = new Nodo(previas, linea, partes, tramo.size());
+            previas = new ArrayList<>();
+            if (esBarrera(partes)) {
+                resultado.addAll(ordenar(tramo, nodo));
+                tramo.clear();
+            } else {
+                tramo.add(nodo);
+            }
+        }
+        resultado.addAll(ordenar(tramo, null));
+        resultado.addAll(previas);
+        lineas.clear();
+        lineas.addAll(resultado);
+    }
+
+    // Líneas del tramo en el orden planificado; el salto o la llamada que lo cierra, si
+    // lo hay, queda al final
+    private List<String> ordenar(List<Nodo> tramo, Nodo cierre) {
+        List<Nodo> nodos = new ArrayList<>(tramo);
+        if (cierre != null) {
+            nodos.add(cierre);
+        }
+        for (int j = 0; j < nodos.size(); j++) {
+            Nodo posterior = nodos.get(j);
+            for (int i = 0; i < j; i++) {
+                Nodo anterior = nodos.get(i);
+                int latencia = latencia(anterior, posterior);
+                if (latencia < 0 && posterior == cierre) {
+                    latencia = 0;
+                }
+                if (latencia >= 0) {
+                    anterior.sucesores.add(posterior);
+                    anterior.latencias.add(latencia);
+                    posterior.pendientes++;
+                }
+            }
+        }
+        for (int i = nodos.size() - 1; i >= 0; i--) {
+            Nodo nodo = nodos.get(i);
+            for (int k = 0; k < nodo.sucesores.size(); k++) {
+                nodo.altura = Math.max(nodo.altura, nodo.latencias.get(k) + nodo.sucesores.get(k).altura);
+            }
+        }
+
+        List<Nodo> orden = new ArrayList<>();
+        List<Nodo> candidatos = new ArrayList<>();
+        for (Nodo nodo : nodos) {
+            if (nodo.pendientes == 0) {
+                candidatos.add(nodo);
+            }
+        }
+        int ciclo = 0;
+        while (!candidatos.isEmpty()) {
+            Nodo elegido = null;
+            for (Nodo nodo : candidatos) {
+                if (nodo.listo <= ciclo && (elegido == null || nodo.altura > elegido.altura)) {
+                    elegido = nodo;
+                }
+            }
+            if (elegido == null) {
+                // Ninguna está lista: se espera a la que lo esté antes
+                for (Nodo nodo : candidatos) {
+                    if (elegido == null || nodo.listo < elegido.listo ||
+                        (nodo.listo == elegido.listo && nodo.altura > elegido.altura)) {
+                        elegido = nodo;
+                    }
+                }
+                ciclo = elegido.listo;
+            }
+            candidatos.remove(elegido);
+            orden.add(elegido);
+            for (int k = 0; k < elegido.sucesores.size(); k++) {
+                Nodo sucesor = elegido.sucesores.get(k);
+                sucesor.listo = Math.max(sucesor.listo, ciclo + elegido.latencias.get(k));
+                if (--sucesor.pendientes == 0) {
+                    insertarEnOrden(candidatos, sucesor);
+                }
+            }
+            ciclo++;
+        }
+
+        List<String> lineas = new ArrayList<>();
+        for (int i = 0; i < orden.size(); i++) {
+            Nodo nodo = orden.get(i);
+            if (nodo != cierre && nodo.orden != i) {
+                reordenadas++;
+            }
+            lineas.addAll(nodo.previas);
+            lineas.add(nodo.linea);
+        }
+        return lineas;
+    }
+
+    // Los candidatos quedan en el orden original: a igual altura gana el primero
+    private static void insertarEnOrden(List<Nodo> candidatos, Nodo nodo) {
+        int i = 0;
+        while (i < candidatos.size() && candidatos.get(i).orden < nodo.orden) {
+            i++;
+        }
+        candidatos.add(i, nodo);
+    }
+
+    // Ciclos que el posterior tiene que esperar al anterior, o -1 si son independientes
+    private static int latencia(Nodo anterior, Nodo posterior) {
+        int latencia = -1;
+        for (String registro : anterior.escritos) {
+            if (posterior.leidos.contains(registro)) {
+                if (esCarga(anterior.partes)) {
+                    return LATENCIA_CARGA;
+                }
+                if (registro.equals("$hi") || registro.equals("$lo")) {
+                    return LATENCIA_HI_LO;
+                }
+                latencia = 1;
+            }
+            if (posterior.escritos.contains(registro)) {
+                latencia = Math.max(latencia, 1);
+            }
+        }
+        for (String registro : anterior.leidos) {
+            if (posterior.escritos.contains(registro)) {
+                latencia = Math.max(latencia, 0);
+            }
+        }
+        if (conflictoMemoria(anterior.partes, posterior.partes)) {
+            latencia = Math.max(latencia, 1);
+        }
+        return latencia;
+    }
+
+    private static boolean dependen(Nodo anterior, Nodo posterior) {
+        return latencia(anterior, posterior) >= 0;
+    }
+
+    // ---------------------------------------------------------------- Ranuras de retardo
+
+    public void llenarRanuras(List<String> lineas) {
+        int desde = 0; // Lo que ya está en una ranura no puede pasar a la del salto siguiente
+        for (int i = 0; i < lineas.size(); i++) {
+            String[] partes = OptimizadorMirilla.partes(lineas.get(i));
+            if (partes == null || !esSalto(partes)) {
+                continue;
+            }
+            ranuras++;
+            int candidata = buscarRanura(lineas, i, desde, new Nodo(new ArrayList<>(), lineas.get(i), partes, 0));
+            if (candidata < 0) {
+                lineas.add(i + 1, "    nop");
+            } else {
+                String linea = lineas.remove(candidata);
+                lineas.add(i, linea);
+                ranurasLlenas++;
+            }
+            i++;
+            desde = i + 1;
+        }
+    }
+
+    // Instrucción anterior del mismo bloque que puede pasar a ejecutarse después del salto
+    private static int buscarRanura(List<String> lineas, int salto, int desde, Nodo nodoSalto) {
+        List<Nodo> intermedias = new ArrayList<>();
+        for (int j = salto - 1; j >= desde; j--) {
+            String linea = lineas.get(j);
+            String[] partes = OptimizadorMirilla.partes(linea);
+            if (partes == null) {
+                if (esLimite(linea)) {
+                    return -1;
+                }
+                continue;
+            }
+            if (esBarrera(partes)) {
+                return -1;
+            }
+            Nodo nodo = new Nodo(new ArrayList<>(), linea, partes, 0);
+            boolean movible = cabeEnRanura(partes) && !dependen(nodo, nodoSalto) && !dependen(nodoSalto, nodo);
+            for (int k = 0; movible && k < intermedias.size(); k++) {
+                movible = !dependen(nodo, intermedias.get(k));
+            }
+            if (movible) {
+                return j;
+            }
+            intermedias.add(nodo);
+        }
+        return -1;
+    }
+
+    // Una sola instrucción de máquina: con .set noreorder el ensamblador expande las
+    // pseudoinstrucciones y los inmediatos de más de 16 bits en varias palabras (armando
+    // el valor en $at con lui/ori) y solo la primera caería en la ranura
+    private static boolean cabeEnRanura(String[] partes) {
+        String mnemonico = partes[0];
+        if (PSEUDOINSTRUCCIONES.contains(mnemonico)) {
+            return false;
+        }
+        switch (mnemonico) {
+            case "li":
+                return entre(partes[2], -32768, 65535);
+            case "addi":
+            case "addiu":
+            case "slti":
+            case "sltiu":
+                return entre(partes[3], -32768, 32767);
+            case "andi":
+            case "ori":
+            case "xori":
+                return entre(partes[3], 0, 65535);
+            default:
+                break;
+        }
+        if (esCarga(partes) || OptimizadorMirilla.esStore(partes)) {
+            Long desplazamiento = desplazamiento(partes[partes.length - 1]);
+            return desplazamiento != null && desplazamiento >= -32768 && desplazamiento <= 32767;
+        }
+        return true;
+    }
+
+    private static boolean entre(String texto, long minimo, long maximo) {
+        if (!texto.matches("-?\\d{1,10}")) {
+            return false;
+        }
+        long valor = Long.parseLong(texto);
+        return valor >= minimo && valor <= maximo;
+    }
+
+    // ---------------------------------------------------------------- Registros y memoria
+
+    private static boolean esLimite(String linea) {
+        String texto = linea.trim();
+        return OptimizadorMirilla.esEtiqueta(linea) || texto.startsWith(".");
+    }
+
+    // Instrucciones que cierran un tramo: saltos, llamadas y syscalls
+    private static boolean esBarrera(String[] partes) {
+        return OptimizadorMirilla.esControl(partes[0]) || partes[0].equals("syscall");
+    }
+
+    private static boolean esSalto(String[] partes) {
+        return OptimizadorMirilla.esControl(partes[0]);
+    }
+
+    private static boolean esCarga(String[] partes) {
+        String mnemonico = partes[0];
+        return mnemonico.equals("lw") || mnemonico.equals("lwc1") || mnemonico.equals("l.s") ||
+               mnemonico.equals("lb") || mnemonico.equals("lbu") || mnemonico.equals("lh");
+    }
+
+    private static Set<String> escritos(String[] partes) {
+        Set<String> escritos = new HashSet<>();
+        String mnemonico = partes[0];
+        switch (mnemonico) {
+            case "mult":
+            case "multu":
+            case "div":
+            case "divu":
+                escritos.add("$hi");
+                escritos.add("$lo");
+                return escritos;
+            case "mtc1":
+                escritos.add(partes[2]);
+                return escritos;
+            case "jal":
+            case "jalr":
+                escritos.add("$ra");
+                return escritos;
+            case "syscall":
+                escritos.add("$v0");
+                return escritos;
+            default:
+                break;
+        }
+        if (mnemonico.startsWith("c.")) {
+            escritos.add("$fcc");
+        } else if (!OptimizadorMirilla.esStore(partes) && !OptimizadorMirilla.esControl(mnemonico) &&
+                   partes.length >= 2) {
+            escritos.add(partes[1]);
+        }
+        return escritos;
+    }
+
+    private static Set<String> leidos(String[] partes) {
+        Set<String> leidos = new HashSet<>();
+        String mnemonico = partes[0];
+        switch (mnemonico) {
+            case "mflo":
+                leidos.add("$lo");
+                return leidos;
+            case "mfhi":
+                leidos.add("$hi");
+                return leidos;
+            case "bc1t":
+            case "bc1f":
+                leidos.add("$fcc");
+                return leidos;
+            case "mtc1":
+                leidos.add(partes[1]);
+                return leidos;
+            case "syscall":
+                leidos.addAll(Arrays.asList("$v0", "$a0", "$a1", "$f12"));
+                return leidos;
+            default:
+                break;
+        }
+        boolean escribePrimero = partes.length >= 2 && escritos(partes).contains(partes[1]);
+        for (int k = 1; k < partes.length; k++) {
+            String operando = partes[k];
+            if (k == 1 && escribePrimero) {
+                continue;
+            }
+            if (operando.startsWith("$")) {
+                leidos.add(operando);
+            } else if (!OptimizadorMirilla.base(operando).isEmpty()) {
+                leidos.add(OptimizadorMirilla.base(operando));
+            }
+        }
+        return leidos;
+    }
+
+    // Dos accesos a memoria, al menos uno de escritura, que pueden tocar la misma palabra.
+    // Se distinguen las globales entre sí y de la pila, y los desplazamientos distintos
+    // desde el mismo $sp o $fp; cualquier otro par se considera en conflicto
+    private static boolean conflictoMemoria(String[] anterior, String[] posterior) {
+        boolean cargaA = esCarga(anterior);
+        boolean cargaB = esCarga(posterior);
+        boolean storeA = OptimizadorMirilla.esStore(anterior);
+        boolean storeB = OptimizadorMirilla.esStore(posterior);
+        if (!(cargaA || storeA) || !(cargaB || storeB) || (cargaA && cargaB)) {
+            return false;
+        }
+        String direccionA = anterior[anterior.length - 1];
+        String direccionB = posterior[posterior.length - 1];
+        String baseA = OptimizadorMirilla.base(direccionA);
+        String baseB = OptimizadorMirilla.base(direccionB);
+        boolean globalA = baseA.isEmpty();
+        boolean globalB = baseB.isEmpty();
+        if (globalA && globalB) {
+            return direccionA.equals(direccionB);
+        }
+        if (globalA || globalB) {
+            return !esPila(globalA ? baseB : baseA);
+        }
+        Long desplazamientoA = desplazamiento(direccionA);
+        Long desplazamientoB = desplazamiento(direccionB);
+        if (baseA.equals(baseB) && esPila(baseA) && desplazamientoA != null && desplazamientoB != null) {
+            return Math.abs(desplazamientoA - desplazamientoB) < 4;
+        }
+        return true;
+    }
+
+    private static boolean esPila(String registro) {
+        return registro.equals("$sp") || registro.equals("$fp");
+    }
+
+    // Desplazamiento numérico de "n($r)", o null si la dirección es otra cosa
+    private static Long desplazamiento(String direccion) {
+        int abre = direccion.indexOf('(');
+        if (abre < 0) {
+            return null;
+        }
+        String texto = direccion.substring(0, abre).trim();
+        if (texto.isEmpty()) {
+            return 0L;
+        }
+        return texto.matches("-?\\d+") ? Long.parseLong(texto) : null;
+    }
+}
@@ -0,0 +1,387 @@
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Plegado y propagación de constantes sobre una función del código intermedio.
+// Las operaciones con operandos constantes se reemplazan por una copia de su
+// resultado, calculado con la misma semántica que el código MIPS (enteros de 32
+// bits, floats de precisión simple, @ y ~ bit a bit). Un nombre local que se
+// define una sola vez con una constante, y que no puede leerse antes de esa
+// definición, se sustituye por la constante en todos sus usos; su definición y su
+// declaración desaparecen, con lo que también se libera su slot del marco.
+public class PlegadoConstantes {
+    private final Set<String> globales;
+    private int plegadas = 0;
+    private int propagadas = 0;
+
+    public PlegadoConstantes(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    // Devuelve true si cambió alguna instrucción
+    public boolean optimizar(FuncionIntermedia funcion) {
+        boolean cambio = false;
+        boolean otraVuelta = true;
+        while (otraVuelta) {
+            otraVuelta = plegar(funcion);
+            otraVuelta |= propagar(funcion);
+            cambio |= otraVuelta;
+        }
+        if (cambio) {
+            funcion.quitarDeclaracionesSinUso();
+        }
+        return cambio;
+    }
+
+    public int plegadas() {
+        return plegadas;
+    }
+
+    public int propagadas() {
+        return propagadas;
+    }
+
+    private boolean plegar(FuncionIntermedia funcion) {
+        boolean cambio = false;
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            Operando resultado = null;
+            if (instruccion.op.esBinaria()) {
+                resultado = evaluarBinaria(instruccion.op, instruccion.a, instruccion.b);
+            } else if (instruccion.op == Instruccion.Operacion.NEGACION || instruccion.op == Instruccion.Operacion.NOT) {
+                resultado = evaluarUnaria(instruccion.op, instruccion.a);
+            } else if ((instruccion.op == Instruccion.Operacion.IF || instruccion.op == Instruccion.Operacion.IF_NOT) &&
+                       instruccion.a.esConstante()) {
+                // Salto condicional con condición conocida: siempre salta o nunca
+                boolean verdadero = instruccion.a.valorEntero() != 0;
+                if (verdadero == (instruccion.op == Instruccion.Operacion.IF)) {
+                    instrucciones.set(i, Instruccion.salto(Instruccion.Operacion.GOTO, null, instruccion.etiqueta));
+                } else {
+                    instrucciones.remove(i--);
+                }
+                plegadas++;
+                cambio = true;
+                continue;
+            } else if (instruccion.op == Instruccion.Operacion.SWITCH && instruccion.a.esConstante()) {
+                // Selección con valor conocido: salta directo a su caso
+                int caso = instruccion.casos.indexOf(instruccion.a.valorEntero());
+                String destino = caso >= 0 ? instruccion.etiquetasCasos.get(caso) : instruccion.etiqueta;
+                instrucciones.set(i, Instruccion.salto(Instruccion.Operacion.GOTO, null, destino));
+                plegadas++;
+                cambio = true;
+                continue;
+            }
+            if (resultado == null && instruccion.op.esBinaria()) {
+                resultado = identidad(instruccion);
+            }
+            if (resultado != null) {
+                instrucciones.set(i, Instruccion.copia(instruccion.destino, resultado));
+                plegadas++;
+                cambio = true;
+            } else if (reasociar(instrucciones, i)) {
+                plegadas++;
+                cambio = true;
+            }
+        }
+        return cambio;
+    }
+
+    // Reasociación de cadenas enteras con constantes, como las que deja una expresión
+    // "x + 2 - 3 + 4": si t = x op1 c1 se calculó antes en el mismo bloque y x no cambió
+    // desde entonces, "t op2 c2" se reescribe como "x op c". La definición de t se
+    // elimina cuando este era su único uso.
+    private boolean reasociar(List<Instruccion> instrucciones, int indice) {
+        Instruccion externa = instrucciones.get(indice);
+        if (!esCadenaEntera(externa) || externa.a.clase != Operando.Clase.TEMPORAL) {
+            return false;
+        }
+        String intermedio = externa.a.nombre;
+        int posicion = -1;
+        for (int j = indice - 1; j >= 0; j--) {
+            Instruccion anterior = instrucciones.get(j);
+            if (anterior.op == Instruccion.Operacion.LABEL || anterior.esSalto() ||
+                anterior.op == Instruccion.Operacion.CALL || anterior.op == Instruccion.Operacion.RET) {
+                return false;
+            }
+            Operando definido = anterior.definicion();
+            if (definido != null && definido.nombre.equals(intermedio)) {
+                posicion = j;
+                break;
+            }
+        }
+        if (posicion < 0) {
+            return false;
+        }
+        Instruccion interna = instrucciones.get(posicion);
+        if (!esCadenaEntera(interna) || interna.a.esFlotante()) {
+            return false;
+        }
+        boolean multiplicativa = externa.op == Instruccion.Operacion.MULTIPLICACION;
+        if (multiplicativa != (interna.op == Instruccion.Operacion.MULTIPLICACION)) {
+            return false;
+        }
+        // La fuente de la cadena no puede redefinirse entre ambas instrucciones
+        for (int j = posicion; j < indice; j++) {
+            Operando definido = instrucciones.get(j).definicion();
+            if (definido != null && definido.nombre.equals(interna.a.nombre)) {
+                return false;
+            }
+        }
+
+        int c1 = (int) interna.b.valorEntero();
+        int c2 = (int) externa.b.valorEntero();
+        Instruccion nueva;
+        if (multiplicativa) {
+            nueva = Instruccion.binaria(Instruccion.Operacion.MULTIPLICACION, externa.destino, interna.a,
+                                        Operando.entero(c1 * c2));
+        } else {
+            int suma = (interna.op == Instruccion.Operacion.SUMA ? c1 : -c1) +
+                       (externa.op == Instruccion.Operacion.SUMA ? c2 : -c2);
+            nueva = suma == 0 ? Instruccion.copia(externa.destino, interna.a)
+                              : Instruccion.binaria(Instruccion.Operacion.SUMA, externa.destino, interna.a,
+                                                    Operando.entero(suma));
+        }
+        instrucciones.set(indice, nueva);
+        if (contarUsos(instrucciones, intermedio) == 0) {
+            instrucciones.remove(posicion);
+        }
+        return true;
+    }
+
+    private static boolean esCadenaEntera(Instruccion instruccion) {
+        boolean operacion = instruccion.op == Instruccion.Operacion.SUMA ||
+                            instruccion.op == Instruccion.Operacion.RESTA ||
+                            instruccion.op == Instruccion.Operacion.MULTIPLICACION;
+        return operacion && !instruccion.destino.esFlotante() && instruccion.a.esNombre() &&
+               instruccion.b.esConstante() && !instruccion.b.esFlotante();
+    }
+
+    private static int contarUsos(List<Instruccion> instrucciones, String nombre) {
+        int usos = 0;
+        for (Instruccion instruccion : instrucciones) {
+            for (Operando uso : instruccion.usos()) {
+                if (uso.nombre.equals(nombre)) {
+                    usos++;
+                }
+            }
+        }
+        return usos;
+    }
+
+    private static Operando evaluarBinaria(Instruccion.Operacion op, Operando a, Operando b) {
+        if (!a.esConstante() || !b.esConstante()) {
+            return null;
+        }
+        // Mismo criterio que el generador y el backend: la potencia es float solo con base
+        // float y exponente entero
+        if (op == Instruccion.Operacion.POTENCIA && a.esFlotante() && !b.esFlotante()) {
+            return constanteFlotante(potencia(a.valorFlotante(), (int) b.valorEntero()));
+        }
+        // Mismo criterio que el backend: módulo, potencia, @ y ~ siempre son enteros
+        boolean flotante = (a.esFlotante() || b.esFlotante()) &&
+                           op != Instruccion.Operacion.MODULO && op != Instruccion.Operacion.POTENCIA &&
+                           op != Instruccion.Operacion.Y && op != Instruccion.Operacion.O;
+        if (flotante) {
+            float x = a.valorFlotante();
+            float y = b.valorFlotante();
+            switch (op) {
+                case SUMA: return constanteFlotante(x + y);
+                case RESTA: return constanteFlotante(x - y);
+                case MULTIPLICACION: return constanteFlotante(x * y);
+                case DIVISION: return constanteFlotante(x / y);
+                case IGUAL: return booleanoEntero(x == y);
+                case DISTINTO: return booleanoEntero(x != y);
+                case MENOR: return booleanoEntero(x < y);
+                case MENOR_IGUAL: return booleanoEntero(x <= y);
+                case MAYOR: return booleanoEntero(x > y);
+                case MAYOR_IGUAL: return booleanoEntero(x >= y);
+                default: return null;
+            }
+        }
+
+        int x = (int) a.valorEntero();
+        int y = (int) b.valorEntero();
+        switch (op) {
+            case SUMA: return Operando.entero(x + y);
+            case RESTA: return Operando.entero(x - y);
+            case MULTIPLICACION: return Operando.entero(x * y);
+            case DIVISION:
+                // La división por cero y el desborde de MIN/-1 se dejan para tiempo de ejecución
+                if (y == 0 || (x == Integer.MIN_VALUE && y == -1)) return null;
+                return Operando.entero(x / y);
+            case MODULO:
+                if (y == 0 || (x == Integer.MIN_VALUE && y == -1)) return null;
+                return Operando.entero(x % y);
+            case POTENCIA: return Operando.entero(potencia(x, y));
+            case IGUAL: return booleanoEntero(x == y);
+            case DISTINTO: return booleanoEntero(x != y);
+            case MENOR: return booleanoEntero(x < y);
+            case MENOR_IGUAL: return booleanoEntero(x <= y);
+            case MAYOR: return booleanoEntero(x > y);
+            case MAYOR_IGUAL: return booleanoEntero(x >= y);
+            case Y: return Operando.entero(x & y);
+            case O: return Operando.entero(x | y);
+            default: return null;
+        }
+    }
+
+    // Identidades algebraicas con un solo operando constante: x + 0, x - 0, x * 1, x / 1,
+    // x @ true y x ~ false valen x, y x * 0 y x @ false valen 0. La copia resultante la
+    // quita después la propagación de copias. Solo con enteros: en floats -0.0 + 0 no es
+    // -0.0 y x * 0 no es 0 si x es infinito. Los operandos de @ y ~ son siempre 0 o 1.
+    private static Operando identidad(Instruccion instruccion) {
+        Operando a = instruccion.a;
+        Operando b = instruccion.b;
+        if (instruccion.destino.esFlotante() || a.esFlotante() || b.esFlotante() ||
+            a.esConstante() == b.esConstante()) {
+            return null;
+        }
+        Operando nombre = a.esConstante() ? b : a;
+        if (!nombre.esNombre() || nombre.tipoDato.equals("string")) {
+            return null;
+        }
+        long constante = a.esConstante() ? a.valorEntero() : b.valorEntero();
+        boolean derecha = b.esConstante();
+        switch (instruccion.op) {
+            case SUMA:
+            case O:
+                return constante == 0 ? nombre : null;
+            case RESTA:
+                return derecha && constante == 0 ? nombre : null;
+            case MULTIPLICACION:
+                if (constante == 0) return Operando.entero(0);
+                return constante == 1 ? nombre : null;
+            case DIVISION:
+                return derecha && constante == 1 ? nombre : null;
+            case Y:
+                if (constante == 0) return Operando.entero(0);
+                return constante == 1 ? nombre : null;
+            default:
+                return null;
+        }
+    }
+
+    private static Operando evaluarUnaria(Instruccion.Operacion op, Operando a) {
+        if (!a.esConstante()) {
+            return null;
+        }
+        if (op == Instruccion.Operacion.NOT) {
+            return booleanoEntero(a.valorEntero() == 0);
+        }
+        if (a.esFlotante()) {
+            return constanteFlotante(-a.valorFlotante());
+        }
+        return Operando.entero(-(int) a.valorEntero());
+    }
+
+    // Resultado de la rutina potencia: base elevada a exp (1 si exp <= 0), por cuadrados
+    // como la rutina; el producto módulo 2^32 no depende del orden.
+    private static int potencia(int base, int exponente) {
+        int resultado = 1;
+        while (exponente > 0) {
+            if ((exponente & 1) != 0) {
+                resultado *= base;
+            }
+            base *= base;
+            exponente >>= 1;
+        }
+        return resultado;
+    }
+
+    // Mismos productos, en el mismo orden, que potencia_flotante y la expansión en línea
+    private static float potencia(float base, int exponente) {
+        float resultado = 1.0f;
+        while (exponente > 0) {
+            if ((exponente & 1) != 0) {
+                resultado *= base;
+            }
+            base *= base;
+            exponente >>= 1;
+        }
+        return resultado;
+    }
+
+    // Las comparaciones y el NOT dejan 0/1 en un entero, no un literal booleano
+    private static Operando booleanoEntero(boolean valor) {
+        return Operando.entero(valor ? 1 : 0);
+    }
+
+    private static Operando constanteFlotante(float valor) {
+        return Float.isFinite(valor) ? Operando.flotante(valor) : null;
+    }
+
+    private boolean propagar(FuncionIntermedia funcion) {
+        Map<String, Integer> definiciones = new HashMap<>();
+        Map<String, Instruccion> definicion = new HashMap<>();
+        for (Instruccion instruccion : funcion.instrucciones) {
+            Operando definido = instruccion.definicion();
+            if (definido != null && definido.esNombre()) {
+                definiciones.merge(definido.nombre, 1, Integer::sum);
+                definicion.put(definido.nombre, instruccion);
+            }
+        }
+
+        Set<String> excluidos = new HashSet<>(globales);
+        for (Operando parametro : funcion.parametros) {
+            excluidos.add(parametro.nombre);
+        }
+        excluidos.addAll(new VidaVariables(funcion).vivasEntrada(0));
+
+        Map<String, Operando> constantes = new HashMap<>();
+        Set<Instruccion> eliminadas = new HashSet<>();
+        for (Map.Entry<String, Integer> entrada : definiciones.entrySet()) {
+            String nombre = entrada.getKey();
+            Instruccion instruccion = definicion.get(nombre);
+            if (entrada.getValue() != 1 || excluidos.contains(nombre) ||
+                instruccion.op != Instruccion.Operacion.COPIA) {
+                continue;
+            }
+            Operando valor = convertir(instruccion.a, instruccion.destino.tipoDato);
+            if (valor != null) {
+                constantes.put(nombre, valor);
+                eliminadas.add(instruccion);
+            }
+        }
+        if (constantes.isEmpty()) {
+            return false;
+        }
+
+        funcion.instrucciones.removeIf(eliminadas::contains);
+        for (Instruccion instruccion : funcion.instrucciones) {
+            instruccion.a = sustituir(instruccion.a, constantes);
+            instruccion.b = sustituir(instruccion.b, constantes);
+            instruccion.c = sustituir(instruccion.c, constantes);
+            if (instruccion.argumentos != null) {
+                instruccion.argumentos.replaceAll(argumento -> sustituir(argumento, constantes));
+            }
+        }
+        propagadas += constantes.size();
+        return true;
+    }
+
+    // La constante tal como queda guardada en un nombre del tipo dado, para que los
+    // usos sustituidos se impriman y conviertan igual que antes
+    private static Operando convertir(Operando constante, String tipo) {
+        if (constante.clase == Operando.Clase.CADENA) {
+            return tipo.equals("string") ? constante : null;
+        }
+        if (!constante.esConstante() || tipo.equals("string")) {
+            return null;
+        }
+        if (tipo.equals("float")) {
+            return constante.clase == Operando.Clase.FLOTANTE ? constante : Operando.flotante(constante.valorFlotante());
+        }
+        return new Operando(Operando.Clase.ENTERO, String.valueOf((int) constante.valorEntero()), tipo);
+    }
+
+    private static Operando sustituir(Operando operando, Map<String, Operando> constantes) {
+        if (operando == null || !operando.esNombre()) {
+            return operando;
+        }
+        Operando constante = constantes.get(operando.nombre);
+        return constante != null ? constante : operando;
+    }
+}
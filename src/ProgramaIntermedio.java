@@ -0,0 +1,67 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ProgramaIntermedio {
+    public final Map<String, String> cadenas;      // Etiqueta str_N -> contenido
+    public final List<Instruccion> globales;
+    public final List<FuncionIntermedia> funciones;  // En orden de aparición; navidad al final
+
+    public ProgramaIntermedio() {
+        this.cadenas = new LinkedHashMap<>();
+        this.globales = new ArrayList<>();
+        this.funciones = new ArrayList<>();
+    }
+
+    public FuncionIntermedia buscarFuncion(String nombre) {
+        for (FuncionIntermedia funcion : funciones) {
+            if (funcion.nombre.equals(nombre)) {
+                return funcion;
+            }
+        }
+        return null;
+    }
+
+    // Las globales se comparten entre funciones, así que siempre viven en memoria
+    public Set<String> nombresGlobales() {
+        Set<String> nombres = new HashSet<>();
+        for (Instruccion global : globales) {
+            nombres.add(global.destino.nombre);
+        }
+        return nombres;
+    }
+
+    public FuncionIntermedia principal() {
+        for (FuncionIntermedia funcion : funciones) {
+            if (funcion.principal) {
+                return funcion;
+            }
+        }
+        return null;
+    }
+
+    // Volcado textual del código intermedio (archivo .int)
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> cadena : cadenas.entrySet()) {
+            sb.append(cadena.getKey()).append(" = \"").append(cadena.getValue()).append("\"\n");
+        }
+        if (!cadenas.isEmpty()) {
+            sb.append("\n");
+        }
+        for (Instruccion global : globales) {
+            sb.append(global).append("\n");
+        }
+        if (funciones.size() > 1) {
+            sb.append("GOTO ").append(principal() != null ? principal().nombre : "navidad").append("\n");
+        }
+        for (FuncionIntermedia funcion : funciones) {
+            sb.append(funcion);
+        }
+        return sb.toString();
+    }
+}
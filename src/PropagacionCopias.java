@@ -0,0 +1,108 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Propagación de copias sobre una función en forma SSA. Como cada versión tiene una
+// sola definición que domina todos sus usos, una copia "d = s" entre nombres permite
+// leer s en lugar de d en toda la función y quitar la copia, sin análisis de flujo.
+// Lo mismo vale para una PHI cuyos argumentos son todos s (o la propia PHI). Solo se
+// propaga entre nombres del mismo tipo, porque el tipo del operando decide cómo se
+// imprime y convierte en el código MIPS.
+public class PropagacionCopias {
+    private final Set<String> globales;
+    private int propagadas = 0;
+
+    public PropagacionCopias(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    public int propagadas() {
+        return propagadas;
+    }
+
+    // Devuelve true si cambió alguna instrucción
+    public boolean optimizar(FuncionIntermedia funcion, FormaSSA ssa) {
+        // Una fuente que no es una versión solo sirve si nada la redefine
+        Set<String> definidos = new HashSet<>();
+        for (Instruccion instruccion : funcion.instrucciones) {
+            Operando definido = instruccion.definicion();
+            if (definido != null && definido.esNombre()) {
+                definidos.add(definido.nombre);
+            }
+        }
+
+        boolean cambio = false;
+        boolean otraVuelta = true;
+        while (otraVuelta) {
+            Map<String, Operando> reemplazos = new HashMap<>();
+            List<Instruccion> quitar = new ArrayList<>();
+            for (Instruccion instruccion : funcion.instrucciones) {
+                Operando fuente = fuenteDe(instruccion);
+                Operando destino = instruccion.destino;
+                if (fuente == null || !ssa.esVersion(destino.nombre) || globales.contains(fuente.nombre) ||
+                    !fuente.tipoDato.equals(destino.tipoDato) ||
+                    !ssa.esVersion(fuente.nombre) && definidos.contains(fuente.nombre)) {
+                    continue;
+                }
+                reemplazos.put(destino.nombre, fuente);
+                quitar.add(instruccion);
+            }
+            otraVuelta = !quitar.isEmpty();
+            if (!otraVuelta) {
+                break;
+            }
+
+            funcion.instrucciones.removeAll(quitar);
+            for (Instruccion instruccion : funcion.instrucciones) {
+                instruccion.a = reemplazar(instruccion.a, reemplazos);
+                instruccion.b = reemplazar(instruccion.b, reemplazos);
+                instruccion.c = reemplazar(instruccion.c, reemplazos);
+                if (instruccion.argumentos != null) {
+                    instruccion.argumentos.replaceAll(argumento -> reemplazar(argumento, reemplazos));
+                }
+            }
+            propagadas += quitar.size();
+            cambio = true;
+        }
+        if (cambio) {
+            funcion.quitarDeclaracionesSinUso();
+        }
+        return cambio;
+    }
+
+    // Nombre que la instrucción copia sin cambios en su destino, o null
+    private static Operando fuenteDe(Instruccion instruccion) {
+        if (instruccion.op == Instruccion.Operacion.COPIA) {
+            return instruccion.a.esNombre() ? instruccion.a : null;
+        }
+        if (instruccion.op != Instruccion.Operacion.PHI) {
+            return null;
+        }
+        Operando unica = null;
+        for (Operando argumento : instruccion.argumentos) {
+            if (argumento.equals(instruccion.destino)) {
+                continue;
+            }
+            if (!argumento.esNombre() || unica != null && !unica.equals(argumento)) {
+                return null;
+            }
+            unica = argumento;
+        }
+        return unica;
+    }
+
+    // Sigue la cadena de copias hasta el nombre original, conservando el tipo del uso
+    private static Operando reemplazar(Operando operando, Map<String, Operando> reemplazos) {
+        if (operando == null || !reemplazos.containsKey(operando.nombre)) {
+            return operando;
+        }
+        Operando fuente = reemplazos.get(operando.nombre);
+        for (int pasos = 0; pasos < reemplazos.size() && reemplazos.containsKey(fuente.nombre); pasos++) {
+            fuente = reemplazos.get(fuente.nombre);
+        }
+        return new Operando(fuente.clase, fuente.nombre, operando.tipoDato);
+    }
+}
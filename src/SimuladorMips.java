@@ -0,0 +1,826 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Simulador del subconjunto de MIPS32 que produce EscritorMips: operaciones enteras y de
+// la FPU, cargas y stores, saltos, jal/jr y las syscalls de impresión, lectura, sbrk y
+// salida. Ejecuta sin interfaz gráfica y reporta instrucciones ejecutadas, ciclos
+// estimados, histograma por opcode y ejecuciones por etiqueta.
+//
+// Los ciclos siguen un pipeline de cinco etapas sencillo: uno por instrucción, uno más
+// si una instrucción lee el registro que cargó la anterior, la espera de mflo/mfhi hasta
+// dos ciclos después del mult o div, y uno por salto tomado salvo con .set noreorder,
+// donde la instrucción de la ranura de retardo se ejecuta siempre.
+//
+// Las pseudoinstrucciones (li de 32 bits, la, li.s, seq, accesos a una etiqueta o con
+// desplazamiento de más de 16 bits, ...) cuentan como las palabras en que las expande el
+// ensamblador. Con .set noreorder solo la primera palabra cae en la ranura de retardo,
+// así que una pseudoinstrucción de varias palabras ahí es un error de ejecución.
+//
+// Uso: java SimuladorMips [-entrada archivo] [-max N] [-silencioso] programa.asm
+// (o java Main -simular ... para compilar y ejecutar de una vez)
+public class SimuladorMips {
+    private static final int INICIO_DATOS = 0x10010000;
+    private static final int INICIO_PILA = 0x7fffeffc;
+    private static final int INICIO_TEXTO = 0x00400000;
+
+    // Instrucción ya decodificada: opcode y operandos en texto
+    private static class InstruccionSim {
+        final String op;
+        final String[] args;
+        final int linea;
+        final int palabras; // Instrucciones de máquina en que se expande
+        int destinoCarga = -1; // Registro escrito por una carga (32 + n para $fn)
+
+        InstruccionSim(String op, String[] args, int linea) {
+            this.op = op;
+            this.args = args;
+            this.linea = linea;
+            this.palabras = palabras(op, args);
+        }
+    }
+
+    private final List<InstruccionSim> texto = new ArrayList<>();
+    private final Map<String, Integer> etiquetasTexto = new HashMap<>();
+    private final Map<Integer, String> etiquetaEnIndice = new HashMap<>();
+    private final Map<String, Integer> etiquetasDatos = new HashMap<>();
+    private final Map<Integer, int[]> memoria = new HashMap<>();
+    private int finDatos = INICIO_DATOS;
+    private boolean ranurasDeRetardo = false;
+
+    private final int[] reg = new int[32];
+    private final int[] freg = new int[32];
+    private int hi;
+    private int lo;
+    private boolean banderaFpu;
+    private int pc;
+
+    private final BufferedReader entrada;
+    private final PrintStream salida;
+
+    // Estadísticas
+    private long instrucciones;
+    private long ciclos;
+    private long paradasCarga;
+    private long paradasHiLo;
+    private long saltosTomados;
+    private long pseudoinstrucciones;
+    private final Map<String, Long> histograma = new TreeMap<>();
+    private final Map<String, Long> conteoEtiquetas = new LinkedHashMap<>();
+    private long limiteInstrucciones = 100_000_000L;
+    private int codigoSalida = 0;
+
+    public SimuladorMips(BufferedReader entrada, PrintStream salida) {
+        this.entrada = entrada;
+        this.salida = salida;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String archivo = null;
+        String archivoEntrada = null;
+        boolean reporte = true;
+        long limite = -1;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-entrada":
+                    archivoEntrada = args[++i];
+                    break;
+                case "-max":
+                    limite = Long.parseLong(args[++i]);
+                    break;
+                case "-silencioso":
+                    reporte = false;
+                    break;
+                default:
+                    archivo = args[i];
+                    break;
+            }
+        }
+        if (archivo == null) {
+            System.err.println("Uso: java SimuladorMips [-entrada archivo] [-max N] [-silencioso] <programa.asm>");
+            System.exit(1);
+        }
+
+        BufferedReader lector = archivoEntrada == null
+            ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+            : Files.newBufferedReader(Paths.get(archivoEntrada), StandardCharsets.UTF_8);
+        System.exit(simular(archivo, lector, limite, reporte ? System.err : null));
+    }
+
+    // Carga y ejecuta el programa; la salida del programa va a la estándar y el reporte, si
+    // se pide, a la secuencia indicada. Devuelve el código de salida, 2 si la ejecución falló
+    public static int simular(String archivo, BufferedReader entrada, long limite, PrintStream reporte) throws IOException {
+        PrintStream salida = new PrintStream(new FileOutputStream(FileDescriptor.out), true, "UTF-8");
+        SimuladorMips simulador = new SimuladorMips(entrada, salida);
+        if (limite > 0) {
+            simulador.limiteInstrucciones = limite;
+        }
+        int codigo;
+        try {
+            simulador.cargar(Files.readAllLines(Paths.get(archivo), StandardCharsets.UTF_8));
+            codigo = simulador.ejecutar();
+        } catch (IllegalStateException | ArithmeticException e) {
+            salida.flush();
+            System.err.println("\nError de ejecución: " + e.getMessage());
+            codigo = 2;
+        }
+        salida.flush();
+        if (reporte != null) {
+            reporte.print(simulador.reporte());
+        }
+        return codigo;
+    }
+
+    // ---------------------------------------------------------------- carga
+
+    public void cargar(List<String> lineas) {
+        boolean enTexto = true;
+        List<String[]> pendientesDatos = new ArrayList<>();
+        for (int n = 0; n < lineas.size(); n++) {
+            String l = quitarComentario(lineas.get(n)).trim();
+            if (l.isEmpty()) continue;
+
+            // Etiquetas al inicio de la línea (pueden ir seguidas de una directiva o instrucción)
+            int dosPuntos;
+            while ((dosPuntos = posicionEtiqueta(l)) > 0) {
+                String etiqueta = l.substring(0, dosPuntos).trim();
+                if (enTexto) {
+                    etiquetasTexto.put(etiqueta, texto.size());
+                    etiquetaEnIndice.put(texto.size(), etiqueta);
+                } else {
+                    etiquetasDatos.put(etiqueta, finDatos);
+                }
+                l = l.substring(dosPuntos + 1).trim();
+            }
+            if (l.isEmpty()) continue;
+
+            if (l.startsWith(".")) {
+                String directiva = l.split("\\s+")[0];
+                String resto = l.substring(directiva.length()).trim();
+                switch (directiva) {
+                    case ".data":
+                        enTexto = false;
+                        break;
+                    case ".text":
+                        enTexto = true;
+                        break;
+                    case ".set":
+                        if (resto.equals("noreorder")) ranurasDeRetardo = true;
+                        if (resto.equals("reorder")) ranurasDeRetardo = false;
+                        break;
+                    case ".asciiz":
+                    case ".ascii":
+                        for (char c : decodificarCadena(resto).toCharArray()) {
+                            escribirByte(finDatos++, c);
+                        }
+                        if (directiva.equals(".asciiz")) escribirByte(finDatos++, 0);
+                        break;
+                    case ".word":
+                        alinear(4);
+                        for (String valor : resto.split(",")) {
+                            String v = valor.trim();
+                            if (esNumero(v)) {
+                                escribirPalabra(finDatos, (int) parsearNumero(v));
+                            } else {
+                                pendientesDatos.add(new String[] { String.valueOf(finDatos), v });
+                            }
+                            finDatos += 4;
+                        }
+                        break;
+                    case ".float":
+                        alinear(4);
+                        for (String valor : resto.split(",")) {
+                            escribirPalabra(finDatos, Float.floatToIntBits(Float.parseFloat(valor.trim())));
+                            finDatos += 4;
+                        }
+                        break;
+                    case ".space":
+                        finDatos += (int) parsearNumero(resto);
+                        break;
+                    case ".align":
+                        alinear(1 << (int) parsearNumero(resto));
+                        break;
+                    default:
+                        // .globl, .end y demás directivas no afectan la simulación
+                        break;
+                }
+                continue;
+            }
+
+            if (enTexto) {
+                texto.add(decodificar(l, n + 1));
+            }
+        }
+        // Palabras en .data que contienen direcciones de etiquetas (tablas de saltos)
+        for (String[] pendiente : pendientesDatos) {
+            escribirPalabra(Integer.parseInt(pendiente[0]), direccionDeEtiqueta(pendiente[1]));
+        }
+        for (InstruccionSim ins : texto) {
+            if (ins.op.equals("lw") || ins.op.equals("lb") || ins.op.equals("lbu")) {
+                ins.destinoCarga = numeroRegistro(ins.args[0]);
+            } else if (ins.op.equals("lwc1") || ins.op.equals("l.s")) {
+                ins.destinoCarga = 32 + numeroRegistroFlotante(ins.args[0]);
+            }
+        }
+        finDatos = (finDatos + 7) & ~7;
+    }
+
+    private int posicionEtiqueta(String l) {
+        int i = 0;
+        while (i < l.length() && (Character.isLetterOrDigit(l.charAt(i)) || l.charAt(i) == '_' || l.charAt(i) == '.')) {
+            i++;
+        }
+        return (i > 0 && i < l.length() && l.charAt(i) == ':') ? i : -1;
+    }
+
+    private void alinear(int bytes) {
+        finDatos = (finDatos + bytes - 1) / bytes * bytes;
+    }
+
+    private static String quitarComentario(String linea) {
+        boolean enCadena = false;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = linea.charAt(i);
+            if (c == '"' && (i == 0 || linea.charAt(i - 1) != '\\')) enCadena = !enCadena;
+            if (c == '#' && !enCadena) return linea.substring(0, i);
+        }
+        return linea;
+    }
+
+    private static String decodificarCadena(String literal) {
+        String s = literal.substring(literal.indexOf('"') + 1, literal.lastIndexOf('"'));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\' && i + 1 < s.length()) {
+                char e = s.charAt(++i);
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 't': sb.append('\t'); break;
+                    case '0': sb.append('\0'); break;
+                    default: sb.append(e); break;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private InstruccionSim decodificar(String l, int linea) {
+        int espacio = l.indexOf(' ');
+        String op = espacio < 0 ? l : l.substring(0, espacio);
+        String resto = espacio < 0 ? "" : l.substring(espacio + 1).trim();
+        String[] args = resto.isEmpty() ? new String[0] : resto.split("\\s*,\\s*");
+        return new InstruccionSim(op, args, linea);
+    }
+
+    // ------------------------------------------------------------- memoria
+
+    private int leerPalabra(int direccion) {
+        if ((direccion & 3) != 0) {
+            throw new IllegalStateException("Acceso a palabra no alineado: 0x" + Integer.toHexString(direccion));
+        }
+        int[] pagina = memoria.get(direccion >>> 12);
+        return pagina == null ? 0 : pagina[(direccion & 0xfff) >>> 2];
+    }
+
+    private void escribirPalabra(int direccion, int valor) {
+        if ((direccion & 3) != 0) {
+            throw new IllegalStateException("Acceso a palabra no alineado: 0x" + Integer.toHexString(direccion));
+        }
+        memoria.computeIfAbsent(direccion >>> 12, k -> new int[1024])[(direccion & 0xfff) >>> 2] = valor;
+    }
+
+    private int leerByte(int direccion) {
+        int palabra = leerPalabra(direccion & ~3);
+        return (byte) (palabra >>> ((direccion & 3) * 8));
+    }
+
+    private void escribirByte(int direccion, int valor) {
+        int alineada = direccion & ~3;
+        int desplazamiento = (direccion & 3) * 8;
+        int palabra = leerPalabra(alineada);
+        palabra = (palabra & ~(0xff << desplazamiento)) | ((valor & 0xff) << desplazamiento);
+        escribirPalabra(alineada, palabra);
+    }
+
+    private String leerCadena(int direccion) {
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = leerByte(direccion++)) != 0) {
+            sb.append((char) (c & 0xff));
+        }
+        return sb.toString();
+    }
+
+    // ------------------------------------------------------------ ejecución
+
+    public int ejecutar() {
+        reg[29] = INICIO_PILA;
+        reg[30] = INICIO_PILA;
+        reg[28] = 0x10008000;
+        Integer inicio = etiquetasTexto.get("main");
+        pc = inicio == null ? 0 : inicio;
+        int ultimoDestinoCarga = -1;
+        long cicloMultDiv = -100;
+        int pendienteRetardo = -1;
+        boolean enRanura = false;
+
+        while (pc >= 0 && pc < texto.size()) {
+            if (instrucciones >= limiteInstrucciones) {
+                throw new IllegalStateException("Se superó el límite de " + limiteInstrucciones + " instrucciones");
+            }
+            String etiqueta = etiquetaEnIndice.get(pc);
+            if (etiqueta != null) {
+                conteoEtiquetas.merge(etiqueta, 1L, Long::sum);
+            }
+            InstruccionSim ins = texto.get(pc);
+            if (enRanura && ins.palabras > 1) {
+                throw new IllegalStateException("Pseudoinstrucción de " + ins.palabras + " palabras en la ranura de retardo en línea " +
+                                                ins.linea + ": " + ins.op);
+            }
+            enRanura = ranurasDeRetardo && esSalto(ins.op);
+            instrucciones += ins.palabras;
+            ciclos += ins.palabras;
+            if (ins.palabras > 1) {
+                pseudoinstrucciones++;
+            }
+            histograma.merge(ins.op, 1L, Long::sum);
+
+            // Riesgo de carga-uso: la instrucción anterior cargó un registro que esta lee
+            if (ultimoDestinoCarga > 0 && leeRegistro(ins, ultimoDestinoCarga)) {
+                paradasCarga++;
+                ciclos++;
+            }
+            ultimoDestinoCarga = ins.destinoCarga;
+
+            // Riesgo HI/LO: mflo/mfhi demasiado cerca de mult/div
+            if (ins.op.equals("mflo") || ins.op.equals("mfhi")) {
+                long latencia = 2 - (ciclos - cicloMultDiv - 1);
+                if (latencia > 0) {
+                    paradasHiLo += latencia;
+                    ciclos += latencia;
+                }
+            }
+            if (ins.op.startsWith("mult") || (ins.op.startsWith("div") && ins.args.length == 2)) {
+                cicloMultDiv = ciclos;
+            }
+
+            int siguiente = pc + 1;
+            int destino = paso(ins);
+            if (destino == -2) {
+                return codigoSalida;
+            }
+            if (pendienteRetardo >= 0) {
+                // Esta instrucción ocupaba la ranura de retardo de un salto anterior
+                siguiente = pendienteRetardo;
+                pendienteRetardo = -1;
+            }
+            if (destino >= 0) {
+                saltosTomados++;
+                if (ranurasDeRetardo) {
+                    pendienteRetardo = destino;
+                } else {
+                    ciclos++; // Se descarta la instrucción ya buscada
+                    siguiente = destino;
+                }
+            }
+            pc = siguiente;
+            reg[0] = 0;
+        }
+        return 0;
+    }
+
+    private static boolean esSalto(String op) {
+        return op.startsWith("b") || op.startsWith("j");
+    }
+
+    // Palabras en que el ensamblador expande la instrucción: 1 para las de máquina, más
+    // para las pseudoinstrucciones y los inmediatos o desplazamientos que no entran en 16
+    // bits (se arman en $at con lui/ori)
+    private static int palabras(String op, String[] a) {
+        switch (op) {
+            case "la":
+            case "sne":
+            case "rem": case "remu":
+                return 2;
+            case "seq": case "sge": case "sle": case "sgeu": case "sleu": case "abs":
+                return 3;
+            case "li":
+                return entre(a[1], -32768, 65535) ? 1 : 2;
+            case "li.s": {
+                int bits = Float.floatToIntBits(Float.parseFloat(a[1]));
+                return (bits & 0xffff) == 0 ? 2 : 3;
+            }
+            case "addi": case "addiu": case "slti": case "sltiu":
+                return entre(a[2], -32768, 32767) ? 1 : 3;
+            case "andi": case "ori": case "xori":
+                return entre(a[2], 0, 65535) ? 1 : 3;
+            case "div": case "divu":
+                return a.length == 3 ? 2 : 1;
+            case "add": case "addu": case "sub": case "subu": case "and": case "or": case "xor":
+            case "nor": case "slt": case "sltu": case "sgt": case "sgtu": case "mul":
+                if (a.length == 3 && !a[2].startsWith("$")) {
+                    return entre(a[2], -32768, 32767) ? 2 : 3;
+                }
+                return 1;
+            case "beq": case "bne":
+                return a[1].startsWith("$") ? 1 : 2;
+            case "blt": case "bgt": case "ble": case "bge": case "bltu": case "bgeu":
+                return a[1].startsWith("$") ? 2 : 3;
+            case "lw": case "lb": case "lbu": case "sw": case "sb":
+            case "lwc1": case "l.s": case "swc1": case "s.s":
+                return palabrasDireccion(a[1]);
+            default:
+                return 1;
+        }
+    }
+
+    // n($r) con n de 16 bits es una palabra; una etiqueta suma el lui de su parte alta, y
+    // etiqueta($r) o un n grande además el addu con el registro
+    private static int palabrasDireccion(String direccion) {
+        int abre = direccion.indexOf('(');
+        if (abre < 0) {
+            return 2;
+        }
+        String desplazamiento = direccion.substring(0, abre).trim();
+        if (desplazamiento.isEmpty() || entre(desplazamiento, -32768, 32767)) {
+            return 1;
+        }
+        return 3;
+    }
+
+    private static boolean entre(String texto, long minimo, long maximo) {
+        if (!esNumero(texto.trim())) {
+            return false;
+        }
+        long valor = parsearNumero(texto);
+        return valor >= minimo && valor <= maximo;
+    }
+
+    // Registro: 0-31 para los enteros, 32 + n para $fn
+    private boolean leeRegistro(InstruccionSim ins, int registro) {
+        for (int i = 0; i < ins.args.length; i++) {
+            String a = ins.args[i];
+            boolean esDestino = i == 0 ? escribePrimerOperando(ins.op) : i == 1 && ins.op.equals("mtc1");
+            if (esDestino) continue;
+            int abre = a.indexOf('(');
+            String r = abre >= 0 ? a.substring(abre + 1, a.length() - 1) : a;
+            if (!r.startsWith("$")) continue;
+            int numero = r.startsWith("$f") && !r.equals("$fp") ? 32 + numeroRegistroFlotante(r) : numeroRegistro(r);
+            if (numero == registro) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean escribePrimerOperando(String op) {
+        switch (op) {
+            case "sw": case "sb": case "swc1": case "s.s":
+            case "beq": case "bne": case "beqz": case "bnez": case "blez": case "bgtz": case "bltz": case "bgez":
+            case "blt": case "bgt": case "ble": case "bge": case "bltu": case "bgeu":
+            case "jr": case "mult": case "multu": case "mtc1": case "jalr":
+            case "c.eq.s": case "c.lt.s": case "c.le.s":
+                return false;
+            case "div": case "divu":
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static int sinDesborde(InstruccionSim ins, long resultado) {
+        if (resultado != (int) resultado) {
+            throw new ArithmeticException("Desborde aritmético en línea " + ins.linea);
+        }
+        return (int) resultado;
+    }
+
+    // Ejecuta una instrucción. Devuelve el índice destino si hay salto tomado, -1 si no, -2 para terminar.
+    private int paso(InstruccionSim ins) {
+        String[] a = ins.args;
+        switch (ins.op) {
+            case "nop": return -1;
+            case "li": escribir(a[0], (int) parsearNumero(a[1])); return -1;
+            case "lui": escribir(a[0], (int) parsearNumero(a[1]) << 16); return -1;
+            case "la": escribir(a[0], direccion(a[1])); return -1;
+            case "move": escribir(a[0], leer(a[1])); return -1;
+            // add, addi y sub atrapan el desborde con signo, como en MARS; las formas u dan la vuelta
+            case "add": escribir(a[0], sinDesborde(ins, (long) leer(a[1]) + valor(a[2]))); return -1;
+            case "addu": escribir(a[0], leer(a[1]) + valor(a[2])); return -1;
+            case "addi": escribir(a[0], sinDesborde(ins, (long) leer(a[1]) + (int) parsearNumero(a[2]))); return -1;
+            case "addiu": escribir(a[0], leer(a[1]) + (int) parsearNumero(a[2])); return -1;
+            case "sub": escribir(a[0], sinDesborde(ins, (long) leer(a[1]) - valor(a[2]))); return -1;
+            case "subu": escribir(a[0], leer(a[1]) - valor(a[2])); return -1;
+            case "mul": escribir(a[0], leer(a[1]) * valor(a[2])); return -1;
+            case "mult": { long p = (long) leer(a[0]) * leer(a[1]); lo = (int) p; hi = (int) (p >> 32); return -1; }
+            case "multu": { long p = (leer(a[0]) & 0xffffffffL) * (leer(a[1]) & 0xffffffffL); lo = (int) p; hi = (int) (p >>> 32); return -1; }
+            case "div":
+                if (a.length == 2) {
+                    int d = leer(a[1]);
+                    if (d != 0) { lo = leer(a[0]) / d; hi = leer(a[0]) % d; }
+                } else {
+                    int d = valor(a[2]);
+                    if (d == 0) throw new ArithmeticException("División entre cero en línea " + ins.linea);
+                    escribir(a[0], leer(a[1]) / d);
+                }
+                return -1;
+            case "divu": {
+                int d = leer(a[1]);
+                if (d != 0) {
+                    lo = Integer.divideUnsigned(leer(a[0]), d);
+                    hi = Integer.remainderUnsigned(leer(a[0]), d);
+                }
+                return -1;
+            }
+            case "rem": {
+                int d = valor(a[2]);
+                if (d == 0) throw new ArithmeticException("División entre cero en línea " + ins.linea);
+                escribir(a[0], leer(a[1]) % d);
+                return -1;
+            }
+            case "mflo": escribir(a[0], lo); return -1;
+            case "mfhi": escribir(a[0], hi); return -1;
+            case "mtlo": lo = leer(a[0]); return -1;
+            case "mthi": hi = leer(a[0]); return -1;
+            case "and": escribir(a[0], leer(a[1]) & valor(a[2])); return -1;
+            case "andi": escribir(a[0], leer(a[1]) & ((int) parsearNumero(a[2]) & 0xffff)); return -1;
+            case "or": escribir(a[0], leer(a[1]) | valor(a[2])); return -1;
+            case "ori": escribir(a[0], leer(a[1]) | ((int) parsearNumero(a[2]) & 0xffff)); return -1;
+            case "xor": escribir(a[0], leer(a[1]) ^ valor(a[2])); return -1;
+            case "xori": escribir(a[0], leer(a[1]) ^ ((int) parsearNumero(a[2]) & 0xffff)); return -1;
+            case "nor": escribir(a[0], ~(leer(a[1]) | valor(a[2]))); return -1;
+            case "not": escribir(a[0], ~leer(a[1])); return -1;
+            case "neg": case "negu": escribir(a[0], -leer(a[1])); return -1;
+            case "abs": escribir(a[0], Math.abs(leer(a[1]))); return -1;
+            case "sll": escribir(a[0], leer(a[1]) << (int) parsearNumero(a[2])); return -1;
+            case "srl": escribir(a[0], leer(a[1]) >>> (int) parsearNumero(a[2])); return -1;
+            case "sra": escribir(a[0], leer(a[1]) >> (int) parsearNumero(a[2])); return -1;
+            case "sllv": escribir(a[0], leer(a[1]) << (leer(a[2]) & 31)); return -1;
+            case "srlv": escribir(a[0], leer(a[1]) >>> (leer(a[2]) & 31)); return -1;
+            case "srav": escribir(a[0], leer(a[1]) >> (leer(a[2]) & 31)); return -1;
+            case "slt": escribir(a[0], leer(a[1]) < valor(a[2]) ? 1 : 0); return -1;
+            case "slti": escribir(a[0], leer(a[1]) < (int) parsearNumero(a[2]) ? 1 : 0); return -1;
+            case "sltu": escribir(a[0], Integer.compareUnsigned(leer(a[1]), valor(a[2])) < 0 ? 1 : 0); return -1;
+            case "sltiu": escribir(a[0], Integer.compareUnsigned(leer(a[1]), (int) parsearNumero(a[2])) < 0 ? 1 : 0); return -1;
+            case "seq": escribir(a[0], leer(a[1]) == valor(a[2]) ? 1 : 0); return -1;
+            case "sne": escribir(a[0], leer(a[1]) != valor(a[2]) ? 1 : 0); return -1;
+            case "sgt": escribir(a[0], leer(a[1]) > valor(a[2]) ? 1 : 0); return -1;
+            case "sge": escribir(a[0], leer(a[1]) >= valor(a[2]) ? 1 : 0); return -1;
+            case "slte": case "sle": escribir(a[0], leer(a[1]) <= valor(a[2]) ? 1 : 0); return -1;
+            case "lw": escribir(a[0], leerPalabra(direccion(a[1]))); return -1;
+            case "lb": escribir(a[0], leerByte(direccion(a[1]))); return -1;
+            case "lbu": escribir(a[0], leerByte(direccion(a[1])) & 0xff); return -1;
+            case "sw": escribirPalabra(direccion(a[1]), leer(a[0])); return -1;
+            case "sb": escribirByte(direccion(a[1]), leer(a[0])); return -1;
+            case "lwc1": case "l.s": freg[numeroRegistroFlotante(a[0])] = leerPalabra(direccion(a[1])); return -1;
+            case "swc1": case "s.s": escribirPalabra(direccion(a[1]), freg[numeroRegistroFlotante(a[0])]); return -1;
+            case "li.s": escribirFlotante(a[0], Float.parseFloat(a[1])); return -1;
+            case "mtc1": freg[numeroRegistroFlotante(a[1])] = leer(a[0]); return -1;
+            case "mfc1": escribir(a[0], freg[numeroRegistroFlotante(a[1])]); return -1;
+            case "mov.s": freg[numeroRegistroFlotante(a[0])] = freg[numeroRegistroFlotante(a[1])]; return -1;
+            case "add.s": escribirFlotante(a[0], leerFlotante(a[1]) + leerFlotante(a[2])); return -1;
+            case "sub.s": escribirFlotante(a[0], leerFlotante(a[1]) - leerFlotante(a[2])); return -1;
+            case "mul.s": escribirFlotante(a[0], leerFlotante(a[1]) * leerFlotante(a[2])); return -1;
+            case "div.s": escribirFlotante(a[0], leerFlotante(a[1]) / leerFlotante(a[2])); return -1;
+            case "neg.s": escribirFlotante(a[0], -leerFlotante(a[1])); return -1;
+            case "abs.s": escribirFlotante(a[0], Math.abs(leerFlotante(a[1]))); return -1;
+            case "cvt.s.w": escribirFlotante(a[0], (float) freg[numeroRegistroFlotante(a[1])]); return -1;
+            case "cvt.w.s": // Modo de redondeo por defecto de la FPU: al par más cercano
+                freg[numeroRegistroFlotante(a[0])] = (int) Math.rint(leerFlotante(a[1]));
+                return -1;
+            case "trunc.w.s":
+                freg[numeroRegistroFlotante(a[0])] = (int) leerFlotante(a[1]);
+                return -1;
+            case "c.eq.s": banderaFpu = leerFlotante(a[0]) == leerFlotante(a[1]); return -1;
+            case "c.lt.s": banderaFpu = leerFlotante(a[0]) < leerFlotante(a[1]); return -1;
+            case "c.le.s": banderaFpu = leerFlotante(a[0]) <= leerFlotante(a[1]); return -1;
+            case "bc1t": return banderaFpu ? destinoSalto(a[0]) : -1;
+            case "bc1f": return !banderaFpu ? destinoSalto(a[0]) : -1;
+            case "j": case "b": return destinoSalto(a[0]);
+            case "jal":
+                reg[31] = direccionDeInstruccion(pc + (ranurasDeRetardo ? 2 : 1));
+                return destinoSalto(a[0]);
+            case "jr": return indiceDeDireccion(leer(a[0]));
+            case "jalr": {
+                int destino = indiceDeDireccion(leer(a[0]));
+                reg[31] = direccionDeInstruccion(pc + (ranurasDeRetardo ? 2 : 1));
+                return destino;
+            }
+            case "beq": return leer(a[0]) == valor(a[1]) ? destinoSalto(a[2]) : -1;
+            case "bne": return leer(a[0]) != valor(a[1]) ? destinoSalto(a[2]) : -1;
+            case "blt": return leer(a[0]) < valor(a[1]) ? destinoSalto(a[2]) : -1;
+            case "bgt": return leer(a[0]) > valor(a[1]) ? destinoSalto(a[2]) : -1;
+            case "ble": return leer(a[0]) <= valor(a[1]) ? destinoSalto(a[2]) : -1;
+            case "bge": return leer(a[0]) >= valor(a[1]) ? destinoSalto(a[2]) : -1;
+            case "bltu": return Integer.compareUnsigned(leer(a[0]), valor(a[1])) < 0 ? destinoSalto(a[2]) : -1;
+            case "bgeu": return Integer.compareUnsigned(leer(a[0]), valor(a[1])) >= 0 ? destinoSalto(a[2]) : -1;
+            case "beqz": return leer(a[0]) == 0 ? destinoSalto(a[1]) : -1;
+            case "bnez": return leer(a[0]) != 0 ? destinoSalto(a[1]) : -1;
+            case "blez": return leer(a[0]) <= 0 ? destinoSalto(a[1]) : -1;
+            case "bgtz": return leer(a[0]) > 0 ? destinoSalto(a[1]) : -1;
+            case "bltz": return leer(a[0]) < 0 ? destinoSalto(a[1]) : -1;
+            case "bgez": return leer(a[0]) >= 0 ? destinoSalto(a[1]) : -1;
+            case "syscall": return syscall();
+            default:
+                throw new IllegalStateException("Instrucción no soportada en línea " + ins.linea + ": " + ins.op);
+        }
+    }
+
+    private int syscall() {
+        switch (reg[2]) {
+            case 1: salida.print(reg[4]); return -1;
+            case 2: salida.print(formatearFlotante(Float.intBitsToFloat(freg[12]))); return -1;
+            case 4: salida.print(leerCadena(reg[4])); return -1;
+            case 11: salida.print((char) (reg[4] & 0xff)); return -1;
+            case 5: reg[2] = (int) Long.parseLong(leerLinea().trim()); return -1;
+            case 6: freg[0] = Float.floatToIntBits(Float.parseFloat(leerLinea().trim())); return -1;
+            case 12: {
+                String l = leerLinea();
+                reg[2] = l.isEmpty() ? '\n' : l.charAt(0);
+                return -1;
+            }
+            case 8: {
+                String l = leerLinea();
+                int maximo = reg[5];
+                int direccion = reg[4];
+                int i = 0;
+                for (; i < l.length() && i < maximo - 2; i++) {
+                    escribirByte(direccion + i, l.charAt(i));
+                }
+                escribirByte(direccion + i, '\n');
+                escribirByte(direccion + i + 1, 0);
+                return -1;
+            }
+            case 9: {
+                int bytes = (reg[4] + 7) & ~7;
+                reg[2] = finDatos;
+                finDatos += bytes;
+                return -1;
+            }
+            case 10: return -2;
+            case 17:
+                codigoSalida = reg[4];
+                return -2;
+            default:
+                throw new IllegalStateException("Syscall no soportada: " + reg[2]);
+        }
+    }
+
+    private static String formatearFlotante(float valor) {
+        return String.valueOf(valor);
+    }
+
+    private String leerLinea() {
+        try {
+            String l = entrada.readLine();
+            return l == null ? "" : l;
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    // ------------------------------------------------------ operandos
+
+    private int destinoSalto(String etiqueta) {
+        Integer destino = etiquetasTexto.get(etiqueta);
+        if (destino == null) {
+            throw new IllegalStateException("Etiqueta no definida: " + etiqueta);
+        }
+        return destino;
+    }
+
+    private static int direccionDeInstruccion(int indice) {
+        return INICIO_TEXTO + indice * 4;
+    }
+
+    private static int indiceDeDireccion(int direccion) {
+        return (direccion - INICIO_TEXTO) / 4;
+    }
+
+    private int direccionDeEtiqueta(String etiqueta) {
+        Integer datos = etiquetasDatos.get(etiqueta);
+        if (datos != null) return datos;
+        Integer instruccion = etiquetasTexto.get(etiqueta);
+        if (instruccion != null) return direccionDeInstruccion(instruccion);
+        throw new IllegalStateException("Etiqueta no definida: " + etiqueta);
+    }
+
+    // Direcciones: desplazamiento($reg), ($reg), etiqueta o etiqueta+desplazamiento
+    private int direccion(String operando) {
+        int abre = operando.indexOf('(');
+        if (abre >= 0) {
+            String desplazamiento = operando.substring(0, abre).trim();
+            int base = leer(operando.substring(abre + 1, operando.length() - 1).trim());
+            if (desplazamiento.isEmpty()) return base;
+            if (esNumero(desplazamiento)) return base + (int) parsearNumero(desplazamiento);
+            return base + direccionDeEtiqueta(desplazamiento);
+        }
+        int mas = operando.indexOf('+');
+        if (mas > 0) {
+            return direccionDeEtiqueta(operando.substring(0, mas)) + (int) parsearNumero(operando.substring(mas + 1));
+        }
+        return direccionDeEtiqueta(operando);
+    }
+
+    private int valor(String operando) {
+        return operando.startsWith("$") ? leer(operando) : (int) parsearNumero(operando);
+    }
+
+    private int leer(String registro) {
+        return reg[numeroRegistro(registro)];
+    }
+
+    private void escribir(String registro, int valor) {
+        reg[numeroRegistro(registro)] = valor;
+    }
+
+    private float leerFlotante(String registro) {
+        return Float.intBitsToFloat(freg[numeroRegistroFlotante(registro)]);
+    }
+
+    private void escribirFlotante(String registro, float valor) {
+        freg[numeroRegistroFlotante(registro)] = Float.floatToIntBits(valor);
+    }
+
+    private static final String[] NOMBRES = {
+        "zero", "at", "v0", "v1", "a0", "a1", "a2", "a3",
+        "t0", "t1", "t2", "t3", "t4", "t5", "t6", "t7",
+        "s0", "s1", "s2", "s3", "s4", "s5", "s6", "s7",
+        "t8", "t9", "k0", "k1", "gp", "sp", "fp", "ra"
+    };
+    private static final Map<String, Integer> NUMERO_REGISTRO = new HashMap<>();
+    static {
+        for (int i = 0; i < NOMBRES.length; i++) {
+            NUMERO_REGISTRO.put("$" + NOMBRES[i], i);
+            NUMERO_REGISTRO.put("$" + i, i);
+        }
+        NUMERO_REGISTRO.put("$s8", 30);
+    }
+
+    private static int numeroRegistro(String registro) {
+        Integer numero = NUMERO_REGISTRO.get(registro.trim());
+        if (numero == null) {
+            throw new IllegalStateException("Registro desconocido: " + registro);
+        }
+        return numero;
+    }
+
+    private static int numeroRegistroFlotante(String registro) {
+        String r = registro.trim();
+        if (!r.startsWith("$f")) {
+            throw new IllegalStateException("Registro de punto flotante desconocido: " + registro);
+        }
+        return Integer.parseInt(r.substring(2));
+    }
+
+    private static boolean esNumero(String texto) {
+        return texto.matches("-?(0[xX][0-9a-fA-F]+|\\d+)") || texto.matches("'.'");
+    }
+
+    private static long parsearNumero(String texto) {
+        String t = texto.trim();
+        if (t.length() == 3 && t.startsWith("'") && t.endsWith("'")) {
+            return t.charAt(1);
+        }
+        boolean negativo = t.startsWith("-");
+        if (negativo) t = t.substring(1);
+        long valor = t.startsWith("0x") || t.startsWith("0X") ? Long.parseLong(t.substring(2), 16) : Long.parseLong(t);
+        return negativo ? -valor : valor;
+    }
+
+    // -------------------------------------------------------------- reporte
+
+    public String reporte() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\n=== ESTADISTICAS DE SIMULACION ===\n");
+        sb.append(String.format("%-28s %d%n", "Instrucciones ejecutadas:", instrucciones));
+        sb.append(String.format("%-28s %d%n", "Ciclos estimados:", ciclos));
+        sb.append(String.format("%-28s %d%n", "Paradas carga-uso:", paradasCarga));
+        sb.append(String.format("%-28s %d%n", "Paradas HI/LO:", paradasHiLo));
+        sb.append(String.format("%-28s %d%n", "Saltos tomados:", saltosTomados));
+        sb.append(String.format("%-28s %d%n", "Pseudoinstrucciones:", pseudoinstrucciones));
+        sb.append("\nHistograma por opcode:\n");
+        List<Map.Entry<String, Long>> ops = new ArrayList<>(histograma.entrySet());
+        ops.sort((x, y) -> Long.compare(y.getValue(), x.getValue()));
+        for (Map.Entry<String, Long> op : ops) {
+            sb.append(String.format("  %-12s %d%n", op.getKey(), op.getValue()));
+        }
+        sb.append("\nEjecuciones por etiqueta:\n");
+        for (Map.Entry<String, Long> etiqueta : conteoEtiquetas.entrySet()) {
+            sb.append(String.format("  %-24s %d%n", etiqueta.getKey(), etiqueta.getValue()));
+        }
+        return sb.toString();
+    }
+
+    public long getInstrucciones() {
+        return instrucciones;
+    }
+
+    public long getCiclos() {
+        return ciclos;
+    }
+}
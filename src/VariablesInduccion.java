@@ -0,0 +1,369 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Reducción de fuerza sobre las variables de inducción de cada ciclo, en forma SSA.
+//
+// Una variable de inducción básica es una PHI de la cabecera con un valor inicial que
+// llega del preencabezado y otro que llega del único retroceso, calculado en el ciclo
+// como "i' = i + c" con c constante. Una expresión "i * k" o "i + k" con k constante o
+// invariante es una variable derivada: en lugar de calcularla en cada vuelta se le da
+// su propia PHI, con valor inicial "inicio * k" en el preencabezado y un incremento
+// "s' = s + c*k" junto al de i. Así la multiplicación de la dirección de una fila
+// (_m_[i][j] usa i * columnas) pasa a ser una suma por vuelta.
+//
+// Si además i solo se usa para esas expresiones y para una comparación con un límite
+// invariante dentro del ciclo, la comparación se reescribe sobre una derivada (la
+// suma conserva el orden, y la multiplicación también si k es una constante positiva)
+// e i desaparece junto con su incremento.
+public class VariablesInduccion {
+    private final Set<String> globales;
+    private int reducidas = 0;
+    private int eliminadas = 0;
+
+    // Variable de inducción básica: i = PHI(inicio, siguiente), siguiente = i + paso
+    private static class Basica {
+        Instruccion phi;
+        Instruccion incremento;
+        Operando inicio;
+        long paso;
+    }
+
+    // Variable derivada con su PHI y su incremento
+    private static class Derivada {
+        Instruccion.Operacion op;
+        Operando factor;
+        Operando actual;    // Valor en la vuelta (PHI de la cabecera)
+        Operando siguiente; // Valor después del incremento
+    }
+
+    public VariablesInduccion(Set<String> globales) {
+        this.globales = globales;
+    }
+
+    public int reducidas() {
+        return reducidas;
+    }
+
+    public int eliminadas() {
+        return eliminadas;
+    }
+
+    // Devuelve true si cambió alguna instrucción. La función debe estar en SSA y tener
+    // preencabezados.
+    public boolean optimizar(FuncionIntermedia funcion, FormaSSA ssa) {
+        List<String> cabeceras = new ArrayList<>();
+        List<CicloNatural> ciclos = new GrafoFlujo(funcion).ciclos();
+        for (int i = ciclos.size() - 1; i >= 0; i--) {
+            cabeceras.add(ciclos.get(i).cabecera.etiqueta());
+        }
+
+        int antes = reducidas + eliminadas;
+        for (String etiqueta : cabeceras) {
+            GrafoFlujo grafo = new GrafoFlujo(funcion);
+            for (CicloNatural ciclo : grafo.ciclos()) {
+                if (etiqueta != null && etiqueta.equals(ciclo.cabecera.etiqueta())) {
+                    reducirCiclo(funcion, grafo, ciclo, ssa);
+                    break;
+                }
+            }
+        }
+        return reducidas + eliminadas != antes;
+    }
+
+    private void reducirCiclo(FuncionIntermedia funcion, GrafoFlujo grafo, CicloNatural ciclo, FormaSSA ssa) {
+        BloqueBasico preencabezado = ciclo.preencabezado(grafo);
+        if (preencabezado == null || ciclo.retrocesos.size() != 1) {
+            return;
+        }
+        BloqueBasico retroceso = ciclo.retrocesos.get(0);
+
+        Map<String, Instruccion> definiciones = new HashMap<>();
+        List<Instruccion> cuerpo = new ArrayList<>();
+        for (int indice : ciclo.bloques) {
+            for (Instruccion instruccion : grafo.bloques().get(indice).instrucciones) {
+                cuerpo.add(instruccion);
+                Operando definido = instruccion.definicion();
+                if (definido != null && definido.esNombre()) {
+                    definiciones.put(definido.nombre, instruccion);
+                }
+            }
+        }
+
+        for (Basica basica : basicas(ciclo.cabecera, preencabezado, retroceso, definiciones)) {
+            String actual = basica.phi.destino.nombre;
+            String siguiente = basica.incremento.destino.nombre;
+
+            // Clasificación de los usos de i fuera de su propio ciclo PHI/incremento
+            List<Instruccion> derivables = new ArrayList<>();
+            List<Instruccion> comparaciones = new ArrayList<>();
+            boolean otrosUsos = false;
+            for (Instruccion instruccion : funcion.instrucciones) {
+                if (instruccion == basica.phi || instruccion == basica.incremento || !usa(instruccion, actual, siguiente)) {
+                    continue;
+                }
+                boolean adentro = cuerpo.contains(instruccion);
+                if (adentro && factorDe(instruccion, actual, siguiente, definiciones, ssa) != null) {
+                    derivables.add(instruccion);
+                } else if (adentro && instruccion.op.esComparacion() &&
+                           limiteDe(instruccion, actual, siguiente, definiciones) != null) {
+                    comparaciones.add(instruccion);
+                } else {
+                    otrosUsos = true;
+                }
+            }
+            boolean eliminable = !otrosUsos && comparaciones.size() <= 1;
+
+            // Una derivada por cada combinación de operación y factor
+            Map<String, Derivada> derivadas = new LinkedHashMap<>();
+            for (Instruccion instruccion : derivables) {
+                if (instruccion.op != Instruccion.Operacion.MULTIPLICACION && !eliminable) {
+                    continue; // Una suma por otra suma solo conviene si i desaparece
+                }
+                Operando factor = factorDe(instruccion, actual, siguiente, definiciones, ssa);
+                String clave = instruccion.op + " " + factor.clase + " " + factor.nombre;
+                Derivada derivada = derivadas.get(clave);
+                if (derivada == null) {
+                    derivada = crearDerivada(funcion, ssa, basica, instruccion.op, factor, preencabezado, retroceso,
+                                             ciclo.cabecera);
+                    derivadas.put(clave, derivada);
+                }
+                boolean usaSiguiente = instruccion.a.nombre.equals(siguiente) ||
+                                       instruccion.b.nombre.equals(siguiente);
+                Operando valor = usaSiguiente ? derivada.siguiente : derivada.actual;
+                instruccion.op = Instruccion.Operacion.COPIA;
+                instruccion.a = valor;
+                instruccion.b = null;
+                reducidas++;
+            }
+
+            if (!eliminable || derivadas.isEmpty() && !derivables.isEmpty()) {
+                continue;
+            }
+            if (comparaciones.size() == 1 && !reemplazarComparacion(funcion, ssa, comparaciones.get(0), actual,
+                                                                    siguiente, derivadas, preencabezado,
+                                                                    definiciones)) {
+                continue;
+            }
+            if (!comparaciones.isEmpty() || !derivables.isEmpty()) {
+                // i ya no se usa fuera de su propio ciclo
+                funcion.instrucciones.remove(basica.phi);
+                funcion.instrucciones.remove(basica.incremento);
+                eliminadas++;
+            }
+        }
+    }
+
+    private List<Basica> basicas(BloqueBasico cabecera, BloqueBasico preencabezado, BloqueBasico retroceso,
+                                 Map<String, Instruccion> definiciones) {
+        List<Basica> basicas = new ArrayList<>();
+        for (Instruccion phi : cabecera.instrucciones) {
+            if (phi.op != Instruccion.Operacion.PHI || phi.argumentos.size() != 2 || !esEntera(phi.destino)) {
+                continue;
+            }
+            int desdeAfuera = phi.origenes.indexOf(preencabezado.etiqueta());
+            int desdeAdentro = phi.origenes.indexOf(retroceso.etiqueta());
+            if (desdeAfuera < 0 || desdeAdentro < 0) {
+                continue;
+            }
+            Operando siguiente = phi.argumentos.get(desdeAdentro);
+            Instruccion incremento = siguiente.esNombre() ? definiciones.get(siguiente.nombre) : null;
+            if (incremento == null) {
+                continue;
+            }
+            Long paso = pasoDe(incremento, phi.destino.nombre);
+            if (paso == null) {
+                continue;
+            }
+            Basica basica = new Basica();
+            basica.phi = phi;
+            basica.incremento = incremento;
+            basica.inicio = phi.argumentos.get(desdeAfuera);
+            basica.paso = paso;
+            basicas.add(basica);
+        }
+        return basicas;
+    }
+
+    // Paso de "i' = i + c", "i' = c + i" o "i' = i - c"; null si no tiene esa forma
+    private static Long pasoDe(Instruccion incremento, String actual) {
+        boolean suma = incremento.op == Instruccion.Operacion.SUMA;
+        if (!suma && incremento.op != Instruccion.Operacion.RESTA || !esEntera(incremento.destino)) {
+            return null;
+        }
+        if (incremento.a.nombre.equals(actual) && esConstanteEntera(incremento.b)) {
+            return suma ? incremento.b.valorEntero() : -incremento.b.valorEntero();
+        }
+        if (suma && incremento.b.nombre.equals(actual) && esConstanteEntera(incremento.a)) {
+            return incremento.a.valorEntero();
+        }
+        return null;
+    }
+
+    // Factor de "i * k", "k * i", "i + k", "k + i" o "i - k" con k invariante; null si no
+    private Operando factorDe(Instruccion instruccion, String actual, String siguiente,
+                              Map<String, Instruccion> definiciones, FormaSSA ssa) {
+        Instruccion.Operacion op = instruccion.op;
+        if (op != Instruccion.Operacion.MULTIPLICACION && op != Instruccion.Operacion.SUMA &&
+            op != Instruccion.Operacion.RESTA || !esEntera(instruccion.destino) ||
+            !ssa.esVersion(instruccion.destino.nombre)) {
+            return null;
+        }
+        boolean izquierda = esInduccion(instruccion.a, actual, siguiente);
+        boolean derecha = esInduccion(instruccion.b, actual, siguiente);
+        if (izquierda == derecha) {
+            return null;
+        }
+        if (derecha && op == Instruccion.Operacion.RESTA) {
+            return null; // k - i decrece con i: no se reduce
+        }
+        Operando factor = izquierda ? instruccion.b : instruccion.a;
+        return esInvariante(factor, definiciones) ? factor : null;
+    }
+
+    // Límite invariante de "i op N" o "N op i"; null si la comparación no tiene esa forma
+    private Operando limiteDe(Instruccion comparacion, String actual, String siguiente,
+                              Map<String, Instruccion> definiciones) {
+        boolean izquierda = esInduccion(comparacion.a, actual, siguiente);
+        boolean derecha = esInduccion(comparacion.b, actual, siguiente);
+        if (izquierda == derecha) {
+            return null;
+        }
+        Operando limite = izquierda ? comparacion.b : comparacion.a;
+        return esInvariante(limite, definiciones) ? limite : null;
+    }
+
+    private Derivada crearDerivada(FuncionIntermedia funcion, FormaSSA ssa, Basica basica, Instruccion.Operacion op,
+                                   Operando factor, BloqueBasico preencabezado, BloqueBasico retroceso,
+                                   BloqueBasico cabecera) {
+        Operando base = funcion.nuevoTemporal("int");
+        Derivada derivada = new Derivada();
+        derivada.op = op;
+        derivada.factor = factor;
+        Operando inicial = ssa.nuevaVersion(base);
+        derivada.actual = ssa.nuevaVersion(base);
+        derivada.siguiente = ssa.nuevaVersion(base);
+
+        // Preencabezado: valor inicial y, si el factor no es constante, el paso
+        List<Instruccion> alPreencabezado = new ArrayList<>();
+        alPreencabezado.add(Instruccion.binaria(op, inicial, basica.inicio, factor));
+        Operando paso;
+        if (op != Instruccion.Operacion.MULTIPLICACION) {
+            paso = Operando.entero(basica.paso);
+        } else if (esConstanteEntera(factor)) {
+            paso = Operando.entero((int) (basica.paso * factor.valorEntero()));
+        } else {
+            paso = ssa.nuevaVersion(funcion.nuevoTemporal("int"));
+            alPreencabezado.add(Instruccion.binaria(Instruccion.Operacion.MULTIPLICACION, paso, factor,
+                                                    Operando.entero(basica.paso)));
+        }
+        insertarAlFinal(funcion, preencabezado, alPreencabezado);
+
+        // Cabecera: la PHI; junto al incremento de i, el de la derivada
+        Instruccion phi = Instruccion.phi(derivada.actual, List.of(preencabezado.etiqueta(), retroceso.etiqueta()));
+        phi.argumentos.set(0, inicial);
+        phi.argumentos.set(1, derivada.siguiente);
+        funcion.instrucciones.add(posicionDe(funcion, cabecera.instrucciones.get(0)) + 1, phi);
+        funcion.instrucciones.add(posicionDe(funcion, basica.incremento) + 1,
+                                  Instruccion.binaria(Instruccion.Operacion.SUMA, derivada.siguiente, derivada.actual,
+                                                      paso));
+        return derivada;
+    }
+
+    // "i op N" pasa a ser "s op N'", con N' el límite transformado igual que s
+    private boolean reemplazarComparacion(FuncionIntermedia funcion, FormaSSA ssa, Instruccion comparacion,
+                                          String actual, String siguiente, Map<String, Derivada> derivadas,
+                                          BloqueBasico preencabezado, Map<String, Instruccion> definiciones) {
+        Derivada elegida = null;
+        for (Derivada derivada : derivadas.values()) {
+            boolean conservaOrden = derivada.op != Instruccion.Operacion.MULTIPLICACION ||
+                                    esConstanteEntera(derivada.factor) && derivada.factor.valorEntero() > 0;
+            if (conservaOrden && (elegida == null || elegida.op == Instruccion.Operacion.MULTIPLICACION)) {
+                elegida = derivada;
+            }
+        }
+        if (elegida == null) {
+            return false;
+        }
+        Operando limite = limiteDe(comparacion, actual, siguiente, definiciones);
+        Operando nuevoLimite;
+        if (esConstanteEntera(limite) && esConstanteEntera(elegida.factor)) {
+            long n = limite.valorEntero();
+            long k = elegida.factor.valorEntero();
+            long valor = elegida.op == Instruccion.Operacion.MULTIPLICACION ? n * k
+                       : elegida.op == Instruccion.Operacion.SUMA ? n + k : n - k;
+            if (valor != (int) valor) {
+                return false;
+            }
+            nuevoLimite = Operando.entero(valor);
+        } else {
+            nuevoLimite = ssa.nuevaVersion(funcion.nuevoTemporal("int"));
+            insertarAlFinal(funcion, preencabezado,
+                            List.of(Instruccion.binaria(elegida.op, nuevoLimite, limite, elegida.factor)));
+        }
+
+        boolean izquierda = esInduccion(comparacion.a, actual, siguiente);
+        Operando induccion = izquierda ? comparacion.a : comparacion.b;
+        Operando reemplazo = induccion.nombre.equals(siguiente) ? elegida.siguiente : elegida.actual;
+        if (izquierda) {
+            comparacion.a = reemplazo;
+            comparacion.b = nuevoLimite;
+        } else {
+            comparacion.a = nuevoLimite;
+            comparacion.b = reemplazo;
+        }
+        return true;
+    }
+
+    // Agrega instrucciones al final del bloque, antes de su salto si termina con uno
+    private static void insertarAlFinal(FuncionIntermedia funcion, BloqueBasico bloque, List<Instruccion> nuevas) {
+        Instruccion ultima = funcion.instrucciones.get(posicionDe(funcion, bloque.instrucciones.get(0)) +
+                                                        bloque.instrucciones.size() - 1);
+        int posicion = posicionDe(funcion, ultima);
+        funcion.instrucciones.addAll(ultima.esSalto() ? posicion : posicion + 1, nuevas);
+    }
+
+    // Posición de la instrucción en la función (por identidad: los bloques guardan las mismas)
+    private static int posicionDe(FuncionIntermedia funcion, Instruccion instruccion) {
+        for (int i = 0; i < funcion.instrucciones.size(); i++) {
+            if (funcion.instrucciones.get(i) == instruccion) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("La instrucción " + instruccion + " no está en " + funcion.nombre);
+    }
+
+    private boolean esInvariante(Operando operando, Map<String, Instruccion> definiciones) {
+        if (esConstanteEntera(operando)) {
+            return true;
+        }
+        return operando.esNombre() && esEntera(operando) && !globales.contains(operando.nombre) &&
+               !definiciones.containsKey(operando.nombre);
+    }
+
+    private static boolean usa(Instruccion instruccion, String actual, String siguiente) {
+        for (Operando uso : instruccion.usos()) {
+            if (esInduccion(uso, actual, siguiente)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean esInduccion(Operando operando, String actual, String siguiente) {
+        return operando != null && operando.esNombre() &&
+               (operando.nombre.equals(actual) || operando.nombre.equals(siguiente));
+    }
+
+    private static boolean esConstanteEntera(Operando operando) {
+        return operando.clase == Operando.Clase.ENTERO;
+    }
+
+    private static boolean esEntera(Operando operando) {
+        return operando.tipoDato.equals("int");
+    }
+}
@@ -0,0 +1,169 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Análisis de variables vivas a nivel de instrucción sobre una función del código intermedio.
+// La posición 0 representa la entrada de la función (donde se definen los parámetros);
+// la instrucción i de la lista ocupa la posición i + 1.
+//
+// El punto fijo se resuelve por bloques con AnalisisVida; aquí solo se recorre cada
+// bloque hacia atrás para obtener el conjunto de cada instrucción. Las vistas como
+// Set<String> se arman a pedido para los asignadores de registros.
+public class VidaVariables {
+    private final FuncionIntermedia funcion;
+    private final NumeracionNombres nombres;
+    private final AnalisisVida analisis;
+    private final List<List<Integer>> sucesores = new ArrayList<>();
+    private final ConjuntoBits[] bitsEntrada;
+    private final ConjuntoBits[] bitsSalida;
+    private final List<Set<String>> usos = new ArrayList<>();
+    private final List<Set<String>> definiciones = new ArrayList<>();
+    private final Map<Integer, Set<String>> vistasEntrada = new HashMap<>();
+    private final Map<Integer, Set<String>> vistasSalida = new HashMap<>();
+
+    public VidaVariables(FuncionIntermedia funcion) {
+        this.funcion = funcion;
+        this.nombres = NumeracionNombres.de(funcion);
+        this.analisis = new AnalisisVida(new GrafoFlujo(funcion), nombres);
+        int total = funcion.instrucciones.size() + 1;
+        bitsEntrada = new ConjuntoBits[total];
+        bitsSalida = new ConjuntoBits[total];
+        construir();
+        resolver();
+    }
+
+    private void construir() {
+        List<Instruccion> instrucciones = funcion.instrucciones;
+        Map<String, Integer> etiquetas = new HashMap<>();
+        for (int i = 0; i < instrucciones.size(); i++) {
+            if (instrucciones.get(i).op == Instruccion.Operacion.LABEL) {
+                etiquetas.put(instrucciones.get(i).etiqueta, i + 1);
+            }
+        }
+
+        // Entrada de la función: define los parámetros
+        Set<String> parametros = new HashSet<>();
+        for (Operando parametro : funcion.parametros) {
+            parametros.add(parametro.nombre);
+        }
+        usos.add(new HashSet<>());
+        definiciones.add(parametros);
+        sucesores.add(listaDe(1));
+
+        for (int i = 0; i < instrucciones.size(); i++) {
+            Instruccion instruccion = instrucciones.get(i);
+            usos.add(aNombres(analisis.usos(i)));
+            definiciones.add(aNombres(analisis.definiciones(i)));
+
+            int posicion = i + 1;
+            List<Integer> siguientes = new ArrayList<>(2);
+            for (String etiqueta : instruccion.destinos()) {
+                Integer destino = etiquetas.get(etiqueta);
+                if (destino != null) {
+                    siguientes.add(destino);
+                }
+            }
+            if (!instruccion.terminaFlujo() && posicion + 1 <= instrucciones.size()) {
+                siguientes.add(posicion + 1);
+            }
+            sucesores.add(siguientes);
+        }
+    }
+
+    private Set<String> aNombres(int[] ids) {
+        Set<String> conjunto = new HashSet<>();
+        for (int id : ids) {
+            conjunto.add(nombres.nombre(id));
+        }
+        return conjunto;
+    }
+
+    private static List<Integer> listaDe(int valor) {
+        List<Integer> lista = new ArrayList<>(1);
+        lista.add(valor);
+        return lista;
+    }
+
+    // Dentro de cada bloque, hacia atrás desde su salida: in = uso ∪ (out - def)
+    private void resolver() {
+        for (BloqueBasico bloque : analisis.grafo.bloques()) {
+            ConjuntoBits vivas = new ConjuntoBits(analisis.salida(bloque));
+            for (int i = bloque.fin - 1; i >= bloque.inicio; i--) {
+                bitsSalida[i + 1] = new ConjuntoBits(vivas);
+                for (int id : analisis.definiciones(i)) {
+                    vivas.quitar(id);
+                }
+                for (int id : analisis.usos(i)) {
+                    vivas.agregar(id);
+                }
+                bitsEntrada[i + 1] = vivas;
+                vivas = new ConjuntoBits(vivas);
+            }
+        }
+
+        ConjuntoBits entrada = bitsEntrada.length > 1 ? new ConjuntoBits(bitsEntrada[1])
+                                                      : new ConjuntoBits(nombres.cantidad());
+        bitsSalida[0] = new ConjuntoBits(entrada);
+        for (Operando parametro : funcion.parametros) {
+            entrada.quitar(nombres.id(parametro.nombre));
+        }
+        bitsEntrada[0] = entrada;
+    }
+
+    public int posiciones() {
+        return usos.size();
+    }
+
+    public NumeracionNombres nombres() {
+        return nombres;
+    }
+
+    public Instruccion instruccionEn(int posicion) {
+        return posicion == 0 ? null : funcion.instrucciones.get(posicion - 1);
+    }
+
+    public Set<String> usosEn(int posicion) {
+        return usos.get(posicion);
+    }
+
+    public Set<String> definicionesEn(int posicion) {
+        return definiciones.get(posicion);
+    }
+
+    public List<Integer> sucesoresDe(int posicion) {
+        return sucesores.get(posicion);
+    }
+
+    public ConjuntoBits vivasEntradaBits(int posicion) {
+        return bitsEntrada[posicion];
+    }
+
+    public ConjuntoBits vivasSalidaBits(int posicion) {
+        return bitsSalida[posicion];
+    }
+
+    // ¿Está vivo el nombre a la salida de la posición? Sin armar el Set<String>
+    public boolean vivaAlSalir(int posicion, String nombre) {
+        int id = nombres.buscar(nombre);
+        return id >= 0 && bitsSalida[posicion].contiene(id);
+    }
+
+    public Set<String> vivasEntrada(int posicion) {
+        return vistasEntrada.computeIfAbsent(posicion, p -> aNombres(bitsEntrada[p]));
+    }
+
+    public Set<String> vivasSalida(int posicion) {
+        return vistasSalida.computeIfAbsent(posicion, p -> aNombres(bitsSalida[p]));
+    }
+
+    private Set<String> aNombres(ConjuntoBits bits) {
+        Set<String> conjunto = new HashSet<>();
+        for (int id = bits.siguiente(0); id >= 0; id = bits.siguiente(id + 1)) {
+            conjunto.add(nombres.nombre(id));
+        }
+        return conjunto;
+    }
+}